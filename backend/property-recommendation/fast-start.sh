@@ -0,0 +1,25 @@
+#!/bin/sh
+# Starts the application in fast-start mode: Spring AOT initializers instead of reflection-based bean definitions,
+# and an AppCDS archive with the classes a training run loaded. StartupBenchmark measures the difference.
+#
+# The first call builds the jar with the fast-start profile, extracts it (CDS only maps classes from unpacked jars)
+# and does the training run, which refreshes the context once, so the database must be reachable. Later calls reuse
+# the archive; delete target/fast-start after changing the code or the dependencies.
+#
+# AOT fixes the bean definitions at build time, so the active profiles and the conditions they drive must be the
+# same when building and when running. Extra arguments are passed to the application.
+set -e
+cd "$(dirname "$0")"
+
+APP_DIR=target/fast-start
+ARCHIVE="$APP_DIR/application.jsa"
+
+if [ ! -f "$ARCHIVE" ]; then
+  ./mvnw -B -Pfast-start -DskipTests package
+  rm -rf "$APP_DIR"
+  java -Djarmode=tools -jar target/property-recommendation-*.jar extract --destination "$APP_DIR"
+  java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$APP_DIR"/property-recommendation-*.jar "$@"
+fi
+
+exec java -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true -jar "$APP_DIR"/property-recommendation-*.jar "$@"
@@ -37,5 +37,13 @@ public class AuthController {
         return new AuthResponse(authService.login(authRequest));
     }
 
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(
+            @RequestHeader("X-Auth-Token") String token
+    ) {
+        authService.logout(token);
+    }
+
 
 }
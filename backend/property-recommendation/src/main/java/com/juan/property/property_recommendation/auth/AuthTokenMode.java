@@ -0,0 +1,11 @@
+package com.juan.property.property_recommendation.auth;
+
+/**
+ * How sessions are kept, set with {@code auth.token.mode}.
+ */
+public enum AuthTokenMode {
+    // A random token per login, stored in the session table
+    DATABASE,
+    // A self-contained token signed with auth.token.secret, checked without the database
+    SIGNED
+}
@@ -0,0 +1,178 @@
+package com.juan.property.property_recommendation.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hashes passwords with PBKDF2-HMAC-SHA256 and a random salt, stored as {@code pbkdf2_sha256$iterations$salt$hash}.
+ * Every hash runs on a small pool of its own, so a burst of logins uses at most that many cores and leaves the rest to
+ * the other requests; when the pool and its queue are full a hash is refused at once with
+ * {@link PasswordHashingBusyException} instead of waiting behind the burst. Passwords stored before, which are only
+ * Base64-encoded, still match, and {@link #needsUpgrade} tells the caller to hash them again.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2_sha256$";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+
+    private final int iterations;
+    private final ThreadPoolExecutor executor;
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+    private final Base64.Decoder decoder = Base64.getDecoder();
+    private final String dummyHash;
+
+    private final Counter rejected;
+    private final Timer duration;
+
+    @Autowired
+    public PasswordHasher(@Value("${auth.password.iterations:600000}") int iterations,
+                          @Value("${auth.password.threads:0}") int threads,
+                          @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.iterations = iterations;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = Counter.builder("auth.password.hash.rejected").register(meterRegistry);
+        this.duration = Timer.builder("auth.password.hash.duration").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queued", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        byte[] salt = new byte[SALT_BYTES];
+        byte[] hash = new byte[KEY_BITS / 8];
+        random.nextBytes(salt);
+        random.nextBytes(hash);
+        this.dummyHash = PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = run(() -> derive(password, salt, iterations));
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    public boolean matches(String password, String stored) {
+        if (stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(legacy(password).getBytes(StandardCharsets.US_ASCII),
+                    stored.getBytes(StandardCharsets.US_ASCII));
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        int storedIterations;
+        byte[] salt;
+        byte[] expected;
+        try {
+            storedIterations = Integer.parseInt(parts[0]);
+            salt = decoder.decode(parts[1]);
+            expected = decoder.decode(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, run(() -> derive(password, salt, storedIterations)));
+    }
+
+    /**
+     * A hash with the configured iterations that no password is expected to match. Checking a password against it
+     * when there is no account makes the refusal take as long as for a wrong password.
+     */
+    public String dummyHash() {
+        return dummyHash;
+    }
+
+    /**
+     * Whether a stored password is Base64 or hashed with fewer iterations than configured, and should be replaced by
+     * {@link #hash} of the password once it matched.
+     */
+    public boolean needsUpgrade(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // The caller waits without spinning a core, and a full queue fails the request instead of growing the wait
+    private byte[] run(Supplier<byte[]> task) {
+        Future<byte[]> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private byte[] derive(String password, byte[] salt, int iterations) {
+        long start = System.nanoTime();
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // How passwords were stored before they were hashed
+    private static String legacy(String password) {
+        return Base64.getEncoder().encodeToString(password.getBytes());
+    }
+}
@@ -0,0 +1,11 @@
+package com.juan.property.property_recommendation.auth;
+
+/**
+ * Thrown when the password hashing pool and its queue are full, so the login or registration can be retried shortly.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Too many logins at the moment, try again shortly");
+    }
+}
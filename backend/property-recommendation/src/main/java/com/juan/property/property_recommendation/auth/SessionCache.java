@@ -0,0 +1,181 @@
+package com.juan.property.property_recommendation.auth;
+
+import com.juan.property.property_recommendation.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of session tokens and a snapshot of the user each one belongs to, so an authenticated call does not
+ * query the session table. Entries expire after a TTL, or sooner when the session itself does, and the oldest are
+ * evicted first when the cache is full. A hit is a map read and a clock read: the result it returns is built when the entry is.
+ * Logging out drops the token, and a user that is updated or deleted drops every token of that user.
+ */
+@Component
+public class SessionCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Entries in the order they were added, which is the order they expire in but for the ones bounded by notAfter
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Bumped on every invalidation so a lookup that started before a logout does not cache the session again
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    @Autowired
+    public SessionCache(@Value("${auth.session.cache.max-entries:10000}") int maxEntries,
+                        @Value("${auth.session.cache.ttl:30m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this(maxEntries, ttl, meterRegistry, Clock.systemUTC());
+    }
+
+    public SessionCache(int maxEntries, Duration ttl, MeterRegistry meterRegistry, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.hits = Counter.builder("auth.session.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("auth.session.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("auth.session.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("auth.session.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        this.invalidations = Counter.builder("auth.session.cache.evictions").tag("cause", "invalidated").register(meterRegistry);
+        Gauge.builder("auth.session.cache.size", this, SessionCache::size).register(meterRegistry);
+        Gauge.builder("auth.session.cache.hit.ratio", this, SessionCache::hitRatio).register(meterRegistry);
+    }
+
+    /**
+     * The user of a cached session, or empty when the token is not cached, in which case it has to be looked up.
+     */
+    public Optional<User> get(String token) {
+        Entry entry = entries.get(token);
+        if (entry != null && entry.expiresAt() <= clock.millis()) {
+            if (entries.remove(token, entry)) {
+                expiredEvictions.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return entry.user();
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a session unless a session or user was invalidated since {@code generation} was read.
+     */
+    public void put(String token, User user, long generation) {
+        put(token, user, generation, Long.MAX_VALUE);
+    }
+
+    /**
+     * Caches a session for the TTL, or until the epoch millisecond {@code notAfter} when that is sooner.
+     */
+    public void put(String token, User user, long generation, long notAfter) {
+        if (maxEntries <= 0 || generation != this.generation.get()) {
+            return;
+        }
+        long now = clock.millis();
+        long expiresAt = Math.min(now + ttlMillis, notAfter);
+        if (expiresAt <= now) {
+            return;
+        }
+        Entry entry = new Entry(token, user.getId(), Optional.of(snapshot(user)), expiresAt);
+        entries.put(token, entry);
+        order.add(entry);
+        queued.incrementAndGet();
+        evict(now);
+    }
+
+    public void invalidate(String token) {
+        generation.incrementAndGet();
+        if (entries.remove(token) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateUser(Integer userId) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> {
+            if (!Objects.equals(entry.userId(), userId)) {
+                return false;
+            }
+            invalidations.increment();
+            return true;
+        });
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public double hitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    // Drops entries from the head of the queue while they are expired or the cache is over its size. Entries that were
+    // invalidated or replaced are no longer in the map and are only dropped from the queue, which is also trimmed when
+    // it holds many more of them than the map.
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null
+                && (head.expiresAt() <= now || entries.size() > maxEntries || queued.get() > 2 * maxEntries)) {
+            if (!order.remove(head)) {
+                continue;
+            }
+            queued.decrementAndGet();
+            if (!entries.remove(head.token(), head)) {
+                continue;
+            }
+            if (head.expiresAt() <= now) {
+                expiredEvictions.increment();
+            } else {
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    // The user without the password or the collections, so it can be shared between requests
+    private static User snapshot(User user) {
+        return User.builder()
+                .id(user.getId())
+                .documentType(user.getDocumentType())
+                .documentNumber(user.getDocumentNumber())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .phoneNumber(user.getPhoneNumber())
+                .build();
+    }
+
+    private record Entry(String token, Integer userId, Optional<User> user, long expiresAt) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.juan.property.property_recommendation.auth;
+
+import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached sessions of a user once a change to that user is committed, whichever code made it, so no request
+ * is authenticated with the user as it was before.
+ */
+@Component
+public class SessionCacheUserListener implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final SessionCache sessionCache;
+
+    public SessionCacheUserListener(SessionCache sessionCache, EntityManagerFactory entityManagerFactory) {
+        this.sessionCache = sessionCache;
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof User user) {
+            sessionCache.invalidateUser(user.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof User user) {
+            sessionCache.invalidateUser(user.getId());
+        }
+    }
+
+    // A rolled back change leaves the user as it was, and so can the cache
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == User.class;
+    }
+}
@@ -0,0 +1,81 @@
+package com.juan.property.property_recommendation.auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Expiry rules of the sessions stored in the table. A session ends an absolute TTL after it was created, or an idle
+ * TTL after it was last used, whichever comes first. The last use is only written when it is a touch interval old,
+ * so a busy session costs one update per interval instead of one per request, and the idle TTL is honoured to within
+ * that interval.
+ */
+@Component
+public class SessionExpiry {
+
+    private final Duration absoluteTtl;
+    private final Duration idleTtl;
+    private final Duration touchInterval;
+    private final Clock clock;
+
+    @Autowired
+    public SessionExpiry(@Value("${auth.session.absolute-ttl:7d}") Duration absoluteTtl,
+                         @Value("${auth.session.idle-ttl:2h}") Duration idleTtl,
+                         @Value("${auth.session.touch-interval:5m}") Duration touchInterval) {
+        this(absoluteTtl, idleTtl, touchInterval, Clock.systemDefaultZone());
+    }
+
+    public SessionExpiry(Duration absoluteTtl, Duration idleTtl, Duration touchInterval, Clock clock) {
+        if (touchInterval.isZero() || touchInterval.isNegative() || touchInterval.compareTo(idleTtl) >= 0) {
+            throw new IllegalArgumentException("auth.session.touch-interval must be positive and shorter than auth.session.idle-ttl");
+        }
+        this.absoluteTtl = absoluteTtl;
+        this.idleTtl = idleTtl;
+        this.touchInterval = touchInterval;
+        this.clock = clock;
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    public boolean expired(SessionToken session, LocalDateTime now) {
+        if (session.getCreatedAt() == null) {
+            return true;
+        }
+        return !session.getCreatedAt().plus(absoluteTtl).isAfter(now)
+                || !lastUsed(session).plus(idleTtl).isAfter(now);
+    }
+
+    public boolean touchDue(SessionToken session, LocalDateTime now) {
+        return !lastUsed(session).plus(touchInterval).isAfter(now);
+    }
+
+    /**
+     * Epoch millisecond until which a live session may be served from the {@link SessionCache}: its absolute expiry,
+     * or the next touch, which has to reach the table for the idle TTL to see the session in use.
+     */
+    public long cacheUntil(SessionToken session) {
+        LocalDateTime absolute = session.getCreatedAt().plus(absoluteTtl);
+        LocalDateTime nextTouch = lastUsed(session).plus(touchInterval);
+        LocalDateTime until = absolute.isBefore(nextTouch) ? absolute : nextTouch;
+        return until.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    public LocalDateTime absoluteCutoff(LocalDateTime now) {
+        return now.minus(absoluteTtl);
+    }
+
+    public LocalDateTime idleCutoff(LocalDateTime now) {
+        return now.minus(idleTtl);
+    }
+
+    // Sessions stored before the column existed count as used when they were created
+    private LocalDateTime lastUsed(SessionToken session) {
+        return session.getLastUsedAt() != null ? session.getLastUsedAt() : session.getCreatedAt();
+    }
+}
@@ -0,0 +1,107 @@
+package com.juan.property.property_recommendation.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes the expired rows of the session table. Each batch is read from the createdAt index and deleted by token in
+ * its own short transaction, so the job never locks more than one batch of rows at a time, and the next batch starts
+ * where the previous one ended instead of scanning the live sessions before it again. The {@link SessionCache} is
+ * left alone: it never holds a session past its absolute expiry or its next touch, so it cannot serve one that expired.
+ */
+@Slf4j
+@Component
+public class SessionPurgeJob {
+
+    // Sessions are created with the current time, so none is older than this
+    private static final LocalDateTime OLDEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final int batchSize;
+    private final SessionTokenRepository sessionTokenRepository;
+    private final SessionExpiry sessionExpiry;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Counter deleted;
+    private final Timer duration;
+    private final AtomicLong live = new AtomicLong();
+    private volatile double deletedPerSecond;
+
+    public SessionPurgeJob(@Value("${auth.session.purge.batch-size:1000}") int batchSize,
+                           SessionTokenRepository sessionTokenRepository,
+                           SessionExpiry sessionExpiry,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.batchSize = batchSize;
+        this.sessionTokenRepository = sessionTokenRepository;
+        this.sessionExpiry = sessionExpiry;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.deleted = Counter.builder("auth.session.purge.deleted").register(meterRegistry);
+        this.duration = Timer.builder("auth.session.purge.duration").register(meterRegistry);
+        Gauge.builder("auth.session.purge.rate", this, SessionPurgeJob::deletedPerSecond).register(meterRegistry);
+        Gauge.builder("auth.session.live", live, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Deletes every session expired at the start of the run and refreshes the count of live sessions.
+     *
+     * @return the number of sessions deleted
+     */
+    @Scheduled(fixedDelayString = "${auth.session.purge.interval:10m}",
+            initialDelayString = "${auth.session.purge.interval:10m}")
+    public long purge() {
+        long start = System.nanoTime();
+        LocalDateTime now = sessionExpiry.now();
+        LocalDateTime absoluteCutoff = sessionExpiry.absoluteCutoff(now);
+        LocalDateTime idleCutoff = sessionExpiry.idleCutoff(now);
+        LocalDateTime createdBefore = absoluteCutoff.isAfter(idleCutoff) ? absoluteCutoff : idleCutoff;
+
+        long total = 0;
+        LocalDateTime createdFrom = OLDEST;
+        while (true) {
+            LocalDateTime from = createdFrom;
+            List<SessionTokenRepository.ExpiredSession> batch = transaction.execute(status -> {
+                List<SessionTokenRepository.ExpiredSession> expired = sessionTokenRepository.findExpired(
+                        from, createdBefore, absoluteCutoff, idleCutoff, Limit.of(batchSize));
+                sessionTokenRepository.deleteAllByIdInBatch(
+                        expired.stream().map(SessionTokenRepository.ExpiredSession::getToken).toList());
+                return expired;
+            });
+            total += batch.size();
+            deleted.increment(batch.size());
+            if (batch.size() < batchSize) {
+                break;
+            }
+            createdFrom = batch.get(batch.size() - 1).getCreatedAt();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        duration.record(elapsed, TimeUnit.NANOSECONDS);
+        deletedPerSecond = total * 1e9 / Math.max(elapsed, 1);
+        live.set(readOnlyTransaction.execute(status -> sessionTokenRepository.countLive(absoluteCutoff, idleCutoff)));
+        if (total > 0) {
+            log.info("Purged {} expired sessions in {} ms, {} remain", total, elapsed / 1_000_000, live.get());
+        }
+        return total;
+    }
+
+    public double deletedPerSecond() {
+        return deletedPerSecond;
+    }
+}
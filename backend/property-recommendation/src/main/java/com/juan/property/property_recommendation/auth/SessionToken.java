@@ -4,9 +4,15 @@ package com.juan.property.property_recommendation.auth;
 import com.juan.property.property_recommendation.user.User;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
@@ -16,13 +22,37 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class SessionToken {
+@Table(indexes = @Index(name = "idx_session_token_created_at", columnList = "createdAt"))
+public class SessionToken implements Persistable<String> {
     @Id
     private String token;
 
     private LocalDateTime createdAt;
 
+    // Only written every auth.session.touch-interval, so it lags the last request by up to that long
+    private LocalDateTime lastUsedAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
+
+    // The token is assigned, not generated, so without this save() would merge and select the row first
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public String getId() {
+        return token;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -1,11 +1,42 @@
 package com.juan.property.property_recommendation.auth;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface SessionTokenRepository extends JpaRepository<SessionToken, String> {
 
+    @EntityGraph(attributePaths = "user")
     Optional<SessionToken> findByToken(String token);
-}
 
+    @Transactional
+    @Modifying
+    @Query("update SessionToken s set s.lastUsedAt = :lastUsedAt where s.token = :token")
+    int touch(String token, LocalDateTime lastUsedAt);
+
+    // A session used after it was created is idle since a later time, so every expired session was created before
+    // createdBefore and the scan stays on the createdAt index between the two bounds
+    @Query("""
+            select s.token as token, s.createdAt as createdAt from SessionToken s
+            where s.createdAt >= :createdFrom and s.createdAt <= :createdBefore
+            and (s.createdAt <= :absoluteCutoff or coalesce(s.lastUsedAt, s.createdAt) <= :idleCutoff)
+            order by s.createdAt""")
+    List<ExpiredSession> findExpired(LocalDateTime createdFrom, LocalDateTime createdBefore,
+                                     LocalDateTime absoluteCutoff, LocalDateTime idleCutoff, Limit limit);
+
+    @Query("select count(s) from SessionToken s where s.createdAt > :absoluteCutoff and coalesce(s.lastUsedAt, s.createdAt) > :idleCutoff")
+    long countLive(LocalDateTime absoluteCutoff, LocalDateTime idleCutoff);
+
+    interface ExpiredSession {
+        String getToken();
+
+        LocalDateTime getCreatedAt();
+    }
+}
@@ -0,0 +1,191 @@
+package com.juan.property.property_recommendation.auth;
+
+import com.juan.property.property_recommendation.user.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and checks the tokens of the {@link AuthTokenMode#SIGNED} mode. A token is the claims, encoded in binary,
+ * and their HMAC-SHA256, both in URL-safe Base64 and separated by a dot. The claims are the user id, the issue and
+ * expiry times, a random token id, and the owner contact fields the listing responses show, so a token is checked
+ * with one HMAC and no lookup. Logging out adds the token id to a revocation list held until the token would have
+ * expired anyway; the list is per node, and a change to the user is only seen by tokens issued after it.
+ */
+@Slf4j
+@Component
+public class SignedSessionTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    // Version, user id, issued at, expires at, token id and phone number, followed by the email
+    private static final int FIXED_CLAIMS = 1 + 4 + 8 + 8 + 8 + 8;
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final long NO_PHONE_NUMBER = -1;
+
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final Clock clock;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    // Token id to the second its token expires
+    private final Map<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SignedSessionTokens(@Value("${auth.token.mode:database}") AuthTokenMode mode,
+                               @Value("${auth.token.secret:}") String secret,
+                               @Value("${auth.token.ttl:12h}") Duration ttl) {
+        this(mode, secret, ttl, Clock.systemUTC());
+    }
+
+    public SignedSessionTokens(AuthTokenMode mode, String secret, Duration ttl, Clock clock) {
+        this.enabled = mode == AuthTokenMode.SIGNED;
+        this.ttlSeconds = ttl.toSeconds();
+        this.clock = clock;
+        this.key = new SecretKeySpec(secret(secret), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        if (enabled && ttlSeconds < 1) {
+            throw new IllegalArgumentException("The token ttl must be at least one second");
+        }
+    }
+
+    private byte[] secret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            if (enabled) {
+                log.warn("auth.token.secret is not set: signed tokens will not survive a restart nor work across nodes");
+            }
+            byte[] generated = new byte[MIN_SECRET_BYTES];
+            random.nextBytes(generated);
+            return generated;
+        }
+        byte[] decoded = Base64.getDecoder().decode(secret.trim());
+        if (decoded.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes in Base64");
+        }
+        return decoded;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public String issue(User user) {
+        long issuedAt = clock.instant().getEpochSecond();
+        byte[] email = user.getEmail() == null ? new byte[0] : user.getEmail().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer claims = ByteBuffer.allocate(FIXED_CLAIMS + email.length)
+                .put(VERSION)
+                .putInt(user.getId())
+                .putLong(issuedAt)
+                .putLong(issuedAt + ttlSeconds)
+                .putLong(random.nextLong())
+                .putLong(user.getPhoneNumber() == null ? NO_PHONE_NUMBER : user.getPhoneNumber())
+                .put(email);
+        String payload = encoder.encodeToString(claims.array());
+        return payload + "." + encoder.encodeToString(sign(payload));
+    }
+
+    /**
+     * The user a token was issued to, or empty when it is malformed, forged, expired or revoked.
+     */
+    public Optional<User> verify(String token) {
+        ByteBuffer claims = claims(token);
+        if (claims == null) {
+            return Optional.empty();
+        }
+        int userId = claims.getInt();
+        claims.getLong();
+        long expiresAt = claims.getLong();
+        long tokenId = claims.getLong();
+        long phoneNumber = claims.getLong();
+        if (expiresAt <= clock.instant().getEpochSecond() || revoked.containsKey(tokenId)) {
+            return Optional.empty();
+        }
+        String email = new String(claims.array(), claims.position(), claims.remaining(), StandardCharsets.UTF_8);
+        return Optional.of(User.builder()
+                .id(userId)
+                .email(email.isEmpty() ? null : email)
+                .phoneNumber(phoneNumber == NO_PHONE_NUMBER ? null : phoneNumber)
+                .build());
+    }
+
+    /**
+     * Rejects a token until it expires. Tokens that do not verify are ignored.
+     */
+    public void revoke(String token) {
+        ByteBuffer claims = claims(token);
+        if (claims == null) {
+            return;
+        }
+        claims.getInt();
+        claims.getLong();
+        long expiresAt = claims.getLong();
+        long tokenId = claims.getLong();
+        long now = clock.instant().getEpochSecond();
+        // Expired tokens are rejected anyway, so the list only holds the ones still running
+        revoked.values().removeIf(expiry -> expiry <= now);
+        if (expiresAt > now) {
+            revoked.put(tokenId, expiresAt);
+        }
+    }
+
+    public int revokedCount() {
+        return revoked.size();
+    }
+
+    // The claims after the version, positioned at the user id, if the signature matches
+    private ByteBuffer claims(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        byte[] signature;
+        byte[] claims;
+        try {
+            signature = decoder.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return null;
+            }
+            claims = decoder.decode(payload);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.length < FIXED_CLAIMS || claims[0] != VERSION) {
+            return null;
+        }
+        return ByteBuffer.wrap(claims).position(1);
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -1,8 +1,12 @@
 package com.juan.property.property_recommendation.auth.service;
 
 import com.juan.property.property_recommendation.auth.AuthMapper;
+import com.juan.property.property_recommendation.auth.PasswordHasher;
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionExpiry;
 import com.juan.property.property_recommendation.auth.SessionToken;
 import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
 import com.juan.property.property_recommendation.auth.dto.RegisterRequest;
 import com.juan.property.property_recommendation.auth.dto.RegisterResponse;
 import com.juan.property.property_recommendation.user.User;
@@ -14,7 +18,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Base64;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,6 +28,10 @@ public class AuthService implements  IAuthService {
     private final UserRepository userRepository;
     private final SessionTokenRepository sessionTokenRepository;
     private final AuthMapper authMapper;
+    private final SessionCache sessionCache;
+    private final SignedSessionTokens signedSessionTokens;
+    private final SessionExpiry sessionExpiry;
+    private final PasswordHasher passwordHasher;
 
     @Override
     public RegisterResponse register(RegisterRequest registerRequest) {
@@ -75,7 +82,7 @@ public class AuthService implements  IAuthService {
         user.setFirstName(registerRequest.getFirstName());
         user.setLastName(registerRequest.getLastName());
         user.setPhoneNumber(registerRequest.getPhoneNumber());
-        user.setPassword(encrypt(registerRequest.getPassword()));
+        user.setPassword(passwordHasher.hash(registerRequest.getPassword()));
 
         userRepository.save(user);
 
@@ -99,21 +106,40 @@ public class AuthService implements  IAuthService {
         }
 
 
-        User user = userRepository.findByEmail(authRequest.getEmail())
-                .orElseThrow(() -> new EntityNotFoundException("Invalid credentials"));
-        if(!user.getPassword().equals(encrypt(authRequest.getPassword()))) {
+        Optional<User> found = userRepository.findByEmail(authRequest.getEmail());
+        if (found.isEmpty()) {
+            // Hashed anyway, so the response time does not tell which emails have an account
+            passwordHasher.matches(authRequest.getPassword(), passwordHasher.dummyHash());
             throw new EntityNotFoundException("Invalid credentials");
         }
+        User user = found.get();
+        if(!passwordHasher.matches(authRequest.getPassword(), user.getPassword())) {
+            throw new EntityNotFoundException("Invalid credentials");
+        }
+        // Passwords stored as Base64, or with fewer iterations, are hashed again now that the password is known
+        if (passwordHasher.needsUpgrade(user.getPassword())) {
+            String upgraded = passwordHasher.hash(authRequest.getPassword());
+            userRepository.updatePassword(user.getId(), user.getPassword(), upgraded);
+            user.setPassword(upgraded);
+        }
 
 
 
 
+        if (signedSessionTokens.enabled()) {
+            return signedSessionTokens.issue(user);
+        }
+
         String token = UUID.randomUUID().toString();
         SessionToken session = new SessionToken();
         session.setToken(token);
         session.setUser(user);
-        session.setCreatedAt(LocalDateTime.now());
+        LocalDateTime now = sessionExpiry.now();
+        session.setCreatedAt(now);
+        session.setLastUsedAt(now);
+        long generation = sessionCache.generation();
         sessionTokenRepository.save(session);
+        sessionCache.put(token, user, generation, sessionExpiry.cacheUntil(session));
         return token;
     }
 
@@ -123,11 +149,46 @@ public class AuthService implements  IAuthService {
             throw new IllegalArgumentException("Token must not be null or blank.");
         }
 
-        return sessionTokenRepository.findByToken(token).map(SessionToken::getUser);
+        if (signedSessionTokens.enabled()) {
+            return signedSessionTokens.verify(token);
+        }
+
+        Optional<User> cached = sessionCache.get(token);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        // Sessions created before a restart, or evicted, are looked up and cached again
+        long generation = sessionCache.generation();
+        Optional<SessionToken> session = sessionTokenRepository.findByToken(token);
+        if (session.isEmpty()) {
+            return Optional.empty();
+        }
+        // Expired rows are left to SessionPurgeJob
+        LocalDateTime now = sessionExpiry.now();
+        if (sessionExpiry.expired(session.get(), now)) {
+            return Optional.empty();
+        }
+        if (sessionExpiry.touchDue(session.get(), now)) {
+            sessionTokenRepository.touch(token, now);
+            session.get().setLastUsedAt(now);
+        }
+        User user = session.get().getUser();
+        sessionCache.put(token, user, generation, sessionExpiry.cacheUntil(session.get()));
+        return Optional.of(user);
     }
 
+    @Override
+    public void logout(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            throw new IllegalArgumentException("Token must not be null or blank.");
+        }
+
+        if (signedSessionTokens.enabled()) {
+            signedSessionTokens.revoke(token);
+            return;
+        }
 
-    private String encrypt(String input) {
-        return Base64.getEncoder().encodeToString(input.getBytes());
+        sessionTokenRepository.deleteById(token);
+        sessionCache.invalidate(token);
     }
 }
@@ -12,5 +12,6 @@ public interface IAuthService {
     RegisterResponse register(RegisterRequest registerRequest);
     String login(AuthRequest authRequest);
     Optional<User> authenticate(String token);
+    void logout(String token);
 
 }
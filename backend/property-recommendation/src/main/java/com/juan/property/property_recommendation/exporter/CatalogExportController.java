@@ -0,0 +1,43 @@
+package com.juan.property.property_recommendation.exporter;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportResponse;
+import com.juan.property.property_recommendation.exporter.service.CatalogExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@RequestMapping(value = "/properties/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class CatalogExportController {
+
+    private final AuthService authService;
+    private final CatalogExportService catalogExportService;
+
+    private void requiredAuth(String token) {
+        authService.authenticate(token)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+    }
+
+    // The export runs on its own threads, so the request only waits for it to be scheduled
+    @PostMapping(produces = "application/json")
+    public ResponseEntity<CatalogExportResponse> start(@RequestHeader("X-Auth-Token") String token) {
+        requiredAuth(token);
+        CatalogExportResponse export = catalogExportService.start();
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(export.getId()).toUri())
+                .body(export);
+    }
+
+    @GetMapping(value = "/{id}", produces = "application/json")
+    @ResponseStatus(HttpStatus.OK)
+    public CatalogExportResponse status(@RequestHeader("X-Auth-Token") String token, @PathVariable String id) {
+        requiredAuth(token);
+        return catalogExportService.status(id);
+    }
+}
@@ -0,0 +1,7 @@
+package com.juan.property.property_recommendation.exporter;
+
+public enum CatalogExportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,301 @@
+package com.juan.property.property_recommendation.exporter;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportFile;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportPartition;
+import com.juan.property.property_recommendation.importer.PropertyImportReader;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.location.dto.DepartmentResponse;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the export of each department to a gzip CSV and a gzip NDJSON file. Every worker buffers its rows per file
+ * and compresses each full block into a gzip member of its own, which is appended to the file's channel under a lock
+ * held only for the write. A gzip file may hold any number of members, so the workers never wait on each other's
+ * compression, and memory is bounded by the blocks being filled, whatever the size of the catalog.
+ */
+public class CatalogExportWriter implements Closeable {
+
+    public static final String CSV_HEADER = "registryNumber,operationType,propertyType,address,price,area,"
+            + "numberOfBathrooms,numberOfBedrooms,latitude,longitude,images,cityId,cityName,departmentId,"
+            + "departmentName,ownerEmail,ownerPhoneNumber\n";
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Map<Integer, Partition> partitions = new ConcurrentHashMap<>();
+
+    public CatalogExportWriter(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Buffers of one worker thread. Not thread safe: each worker takes its own and flushes it when done.
+     */
+    public Worker worker() {
+        return new Worker();
+    }
+
+    /**
+     * Closes the files and reads each one back for its checksum. Every worker must have been flushed.
+     */
+    public List<CatalogExportPartition> finish() throws IOException {
+        close();
+        List<CatalogExportPartition> result = new ArrayList<>();
+        List<Partition> sorted = new ArrayList<>(partitions.values());
+        sorted.sort(Comparator.comparing(partition -> partition.department.getId()));
+        for (Partition partition : sorted) {
+            result.add(CatalogExportPartition.builder()
+                    .departmentId(partition.department.getId())
+                    .departmentName(partition.department.getName())
+                    .rows(partition.csv.rows)
+                    .files(List.of(partition.csv.describe(), partition.ndjson.describe()))
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Partition partition : partitions.values()) {
+            partition.csv.close();
+            partition.ndjson.close();
+        }
+    }
+
+    private Partition partition(Department department) {
+        return partitions.computeIfAbsent(department.getId(), id -> {
+            try {
+                return new Partition(department);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public final class Worker {
+
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final CRC32 crc = new CRC32();
+        private final Map<ExportFile, Block> blocks = new HashMap<>();
+        private final StringBuilder line = new StringBuilder(512);
+
+        public void write(PropertyResponse property, Department department) throws IOException {
+            Partition partition = partition(department);
+            append(partition.csv, csv(property, department));
+            append(partition.ndjson, ndjson(property, department));
+        }
+
+        public void flush() throws IOException {
+            try {
+                for (Map.Entry<ExportFile, Block> entry : blocks.entrySet()) {
+                    compress(entry.getKey(), entry.getValue());
+                }
+                blocks.clear();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void append(ExportFile file, byte[] row) throws IOException {
+            Block block = blocks.computeIfAbsent(file, key -> new Block());
+            block.bytes.write(row);
+            block.rows++;
+            if (block.bytes.size() >= BLOCK_SIZE) {
+                compress(file, block);
+            }
+        }
+
+        private void compress(ExportFile file, Block block) throws IOException {
+            if (block.rows == 0) {
+                return;
+            }
+            file.append(gzip(block.bytes.toByteArray(), deflater, crc), block.rows);
+            block.bytes.reset();
+            block.rows = 0;
+        }
+
+        private byte[] csv(PropertyResponse property, Department department) {
+            line.setLength(0);
+            line.append(property.getRegistryNumber()).append(',')
+                    .append(property.getOperationType()).append(',')
+                    .append(property.getPropertyType()).append(',');
+            quoted(property.getAddress()).append(',');
+            value(property.getPrice()).append(',');
+            value(property.getArea()).append(',');
+            value(property.getNumberOfBathrooms()).append(',');
+            value(property.getNumberOfBedrooms()).append(',');
+            value(property.getLatitude()).append(',');
+            value(property.getLongitude()).append(',');
+            quoted(property.getImages() == null ? null : String.join(PropertyImportReader.IMAGE_SEPARATOR, property.getImages())).append(',');
+            line.append(property.getCity().getId()).append(',');
+            quoted(property.getCity().getName()).append(',');
+            line.append(department.getId()).append(',');
+            quoted(department.getName()).append(',');
+            quoted(property.getOwnerEmail()).append(',');
+            value(property.getOwnerPhoneNumber()).append('\n');
+            return line.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private StringBuilder value(Object value) {
+            return value == null ? line : line.append(value instanceof BigDecimal decimal ? decimal.toPlainString() : value);
+        }
+
+        private StringBuilder quoted(String value) {
+            if (value == null) {
+                return line;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return line.append(value);
+            }
+            return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        private byte[] ndjson(PropertyResponse property, Department department) throws IOException {
+            byte[] json = objectMapper.writeValueAsBytes(
+                    new ExportedProperty(property, new DepartmentResponse(department.getId(), department.getName())));
+            byte[] row = new byte[json.length + 1];
+            System.arraycopy(json, 0, row, 0, json.length);
+            row[json.length] = '\n';
+            return row;
+        }
+    }
+
+    // A complete gzip member: header, raw deflate stream, then the CRC-32 and length of the data
+    static byte[] gzip(byte[] data, Deflater deflater, CRC32 crc) {
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        crc.reset();
+        crc.update(data);
+        ByteArrayOutputStream member = new ByteArrayOutputStream(data.length / 4 + 64);
+        member.writeBytes(GZIP_HEADER);
+        byte[] buffer = new byte[16 * 1024];
+        while (!deflater.finished()) {
+            member.write(buffer, 0, deflater.deflate(buffer));
+        }
+        writeIntLittleEndian(member, (int) crc.getValue());
+        writeIntLittleEndian(member, data.length);
+        return member.toByteArray();
+    }
+
+    private static void writeIntLittleEndian(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static final class Block {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BLOCK_SIZE + 4096);
+        private long rows;
+    }
+
+    private final class Partition {
+        private final Department department;
+        private final ExportFile csv;
+        private final ExportFile ndjson;
+
+        private Partition(Department department) throws IOException {
+            this.department = department;
+            String name = "department-" + department.getId();
+            this.csv = new ExportFile(directory.resolve(name + ".csv.gz"), "csv");
+            this.ndjson = new ExportFile(directory.resolve(name + ".ndjson.gz"), "ndjson");
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                csv.append(gzip(CSV_HEADER.getBytes(StandardCharsets.UTF_8), deflater, new CRC32()), 0);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    private static final class ExportFile {
+        private final Path path;
+        private final String format;
+        private final FileChannel channel;
+        private long rows;
+
+        private ExportFile(Path path, String format) throws IOException {
+            this.path = path;
+            this.format = format;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        private synchronized void append(byte[] member, long memberRows) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(member);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            rows += memberRows;
+        }
+
+        private synchronized void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.force(true);
+                channel.close();
+            }
+        }
+
+        private synchronized CatalogExportFile describe() throws IOException {
+            MessageDigest digest = sha256();
+            long bytes = 0;
+            try (FileChannel input = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+                while (input.read(buffer) >= 0) {
+                    buffer.flip();
+                    bytes += buffer.remaining();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return CatalogExportFile.builder()
+                    .name(path.getFileName().toString())
+                    .format(format)
+                    .rows(rows)
+                    .bytes(bytes)
+                    .sha256(HexFormat.of().formatHex(digest.digest()))
+                    .build();
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * An NDJSON line: the fields of {@link PropertyResponse} and the department its city belongs to.
+     */
+    record ExportedProperty(@JsonUnwrapped PropertyResponse property, DepartmentResponse department) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.juan.property.property_recommendation.exporter.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class CatalogExportFile {
+    private String name;
+    private String format;
+    private long rows;
+    private long bytes;
+    private String sha256;
+}
@@ -0,0 +1,23 @@
+package com.juan.property.property_recommendation.exporter.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class CatalogExportManifest {
+    private String id;
+    private Instant startedAt;
+    private Instant finishedAt;
+    // Properties registered after the export started have greater ids and are left out
+    private long maxPropertyId;
+    private long rows;
+    private List<CatalogExportPartition> departments;
+}
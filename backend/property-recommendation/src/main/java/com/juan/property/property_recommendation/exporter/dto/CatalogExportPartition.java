@@ -0,0 +1,19 @@
+package com.juan.property.property_recommendation.exporter.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class CatalogExportPartition {
+    private Integer departmentId;
+    private String departmentName;
+    private long rows;
+    private List<CatalogExportFile> files;
+}
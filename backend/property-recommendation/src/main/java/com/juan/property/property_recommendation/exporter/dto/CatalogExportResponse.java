@@ -0,0 +1,23 @@
+package com.juan.property.property_recommendation.exporter.dto;
+
+import com.juan.property.property_recommendation.exporter.CatalogExportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class CatalogExportResponse {
+    private String id;
+    private CatalogExportStatus status;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String directory;
+    private String error;
+    private CatalogExportManifest manifest;
+}
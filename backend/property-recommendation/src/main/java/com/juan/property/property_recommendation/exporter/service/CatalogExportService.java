@@ -0,0 +1,286 @@
+package com.juan.property.property_recommendation.exporter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.juan.property.property_recommendation.exporter.CatalogExportStatus;
+import com.juan.property.property_recommendation.exporter.CatalogExportWriter;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportManifest;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportPartition;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportResponse;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Exports the whole catalog to gzip CSV and NDJSON files per department under {@code property.export.directory}.
+ * The ids up to the current maximum are split into ranges that a pool of workers scans concurrently, each range in
+ * its own read-only transaction with a streaming cursor, so no more than one fetch per worker is held in memory. The
+ * job runs on its own threads: starting it returns at once and the result is polled by id. A job writes into a
+ * ".partial" directory that is renamed once the manifest is written, so a directory named after a job is complete.
+ */
+@Slf4j
+@Service
+public class CatalogExportService implements ICatalogExportService {
+
+    public static final String MANIFEST = "manifest.json";
+
+    private static final int KEPT_JOBS = 20;
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final PropertyRepository propertyRepository;
+    private final PropertyMapper propertyMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int threads;
+    private final long rangeSize;
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private Job running;
+
+    public CatalogExportService(PropertyRepository propertyRepository,
+                                PropertyMapper propertyMapper,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${property.export.directory:${java.io.tmpdir}/property-exports}") Path directory,
+                                @Value("${property.export.threads:4}") int threads,
+                                @Value("${property.export.range-size:10000}") long rangeSize) {
+        if (threads < 1 || rangeSize < 1) {
+            throw new IllegalArgumentException("The export threads and range size must be greater than zero");
+        }
+        this.propertyRepository = propertyRepository;
+        this.propertyMapper = propertyMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.threads = threads;
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * Starts an export, or returns the one already running.
+     */
+    @Override
+    public synchronized CatalogExportResponse start() {
+        if (running != null) {
+            return running.toResponse();
+        }
+        Instant now = Instant.now();
+        Job job = new Job(ID_FORMAT.format(now) + "-" + UUID.randomUUID().toString().substring(0, 8), now);
+        jobs.put(job.id, job);
+        if (jobs.size() > KEPT_JOBS) {
+            jobs.remove(jobs.keySet().iterator().next());
+        }
+        running = job;
+        Thread coordinator = new Thread(() -> run(job), "catalog-export");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return job.toResponse();
+    }
+
+    @Override
+    public synchronized CatalogExportResponse status(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("The export does not exist");
+        }
+        return job.toResponse();
+    }
+
+    private void run(Job job) {
+        try {
+            CatalogExportManifest manifest = export(job.id, job.startedAt);
+            synchronized (this) {
+                job.complete(manifest);
+            }
+            log.info("Catalog export {} wrote {} properties in {} departments", job.id, manifest.getRows(),
+                    manifest.getDepartments().size());
+        } catch (Exception e) {
+            log.error("Catalog export {} failed", job.id, e);
+            synchronized (this) {
+                job.fail(e);
+            }
+        } finally {
+            synchronized (this) {
+                running = null;
+            }
+        }
+    }
+
+    /**
+     * Runs an export on the calling thread and returns its manifest. The files end up in a directory named after
+     * the id, which must not exist yet.
+     */
+    public CatalogExportManifest export(String id, Instant startedAt) throws IOException {
+        Path target = directory.resolve(id);
+        Path staging = directory.resolve(id + ".partial");
+        if (Files.exists(target)) {
+            throw new IllegalArgumentException("The export " + id + " already exists");
+        }
+        Files.createDirectories(staging);
+        try {
+            long maxId = readOnlyTransaction.execute(status -> propertyRepository.findMaxId());
+            List<CatalogExportPartition> departments;
+            try (CatalogExportWriter writer = new CatalogExportWriter(staging, objectMapper)) {
+                scan(writer, maxId);
+                departments = writer.finish();
+            }
+            CatalogExportManifest manifest = CatalogExportManifest.builder()
+                    .id(id)
+                    .startedAt(startedAt.truncatedTo(ChronoUnit.MILLIS))
+                    .finishedAt(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                    .maxPropertyId(maxId)
+                    .rows(departments.stream().mapToLong(CatalogExportPartition::getRows).sum())
+                    .departments(departments)
+                    .build();
+            objectMapper.writer(SerializationFeature.INDENT_OUTPUT)
+                    .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .writeValue(staging.resolve(MANIFEST).toFile(), manifest);
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            return manifest;
+        } catch (IOException | RuntimeException e) {
+            delete(staging);
+            throw e;
+        }
+    }
+
+    // Workers take the next unscanned range until none is left, so a range holding more rows does not hold back the rest
+    private void scan(CatalogExportWriter writer, long maxId) throws IOException {
+        long ranges = (maxId + rangeSize - 1) / rangeSize;
+        AtomicLong nextRange = new AtomicLong();
+        AtomicInteger workerNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-export-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < Math.min(threads, Math.max(1, ranges)); i++) {
+                futures.add(workers.submit(() -> {
+                    CatalogExportWriter.Worker worker = writer.worker();
+                    for (long range; (range = nextRange.getAndIncrement()) < ranges; ) {
+                        long afterId = range * rangeSize;
+                        scanRange(worker, afterId, Math.min(afterId + rangeSize, maxId));
+                    }
+                    worker.flush();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The export was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void scanRange(CatalogExportWriter.Worker worker, long afterId, long upToId) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Property> properties = propertyRepository.streamWithDetailsBetween(afterId, upToId)) {
+                for (Property property : (Iterable<Property>) properties::iterator) {
+                    worker.write(propertyMapper.propertyToDto(property), property.getCity().getDepartment());
+                    entityManager.detach(property);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void delete(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private final class Job {
+        private final String id;
+        private final Instant startedAt;
+        private CatalogExportStatus status = CatalogExportStatus.RUNNING;
+        private Instant finishedAt;
+        private String error;
+        private CatalogExportManifest manifest;
+
+        private Job(String id, Instant startedAt) {
+            this.id = id;
+            this.startedAt = startedAt;
+        }
+
+        private void complete(CatalogExportManifest manifest) {
+            this.manifest = manifest;
+            this.finishedAt = manifest.getFinishedAt();
+            this.status = CatalogExportStatus.COMPLETED;
+        }
+
+        private void fail(Exception e) {
+            this.error = e.getMessage();
+            this.finishedAt = Instant.now();
+            this.status = CatalogExportStatus.FAILED;
+        }
+
+        private CatalogExportResponse toResponse() {
+            return CatalogExportResponse.builder()
+                    .id(id)
+                    .status(status)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .directory(status == CatalogExportStatus.COMPLETED ? directory.resolve(id).toString() : null)
+                    .error(error)
+                    .manifest(manifest)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.juan.property.property_recommendation.exporter.service;
+
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportResponse;
+
+public interface ICatalogExportService {
+
+    CatalogExportResponse start();
+
+    CatalogExportResponse status(String id);
+}
@@ -1,7 +1,10 @@
 package com.juan.property.property_recommendation.handler;
 
+import com.juan.property.property_recommendation.auth.PasswordHashingBusyException;
+import com.juan.property.property_recommendation.stats.MarketStatsLoadingException;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -38,5 +41,23 @@ public class GlobalExeptionHandler{
 
         return ResponseEntity.status(HttpStatus.CONFLICT).body("Entity not found");
     }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<String> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(ex.getMessage());
+    }
+
+    @ExceptionHandler(MarketStatsLoadingException.class)
+    public ResponseEntity<String> handleMarketStatsLoadingException(MarketStatsLoadingException ex) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
 }
 
@@ -0,0 +1,42 @@
+package com.juan.property.property_recommendation.importer;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportResponse;
+import com.juan.property.property_recommendation.importer.service.PropertyImportService;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping(value = "/properties/import")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PropertyImportController {
+
+    private final AuthService authService;
+    private final PropertyImportService propertyImportService;
+
+    // The body is read as it arrives, so the file is never held in memory
+    @PostMapping(consumes = {"text/csv", PropertyController.APPLICATION_NDJSON_VALUE}, produces = "application/json")
+    @ResponseStatus(HttpStatus.OK)
+    public PropertyImportResponse importProperties(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) {
+        User user = authService.authenticate(token)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        return propertyImportService.importProperties(body, charset, PropertyImportFormat.of(mediaType), user);
+    }
+}
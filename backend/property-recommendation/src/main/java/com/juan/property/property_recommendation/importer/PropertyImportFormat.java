@@ -0,0 +1,28 @@
+package com.juan.property.property_recommendation.importer;
+
+import com.juan.property.property_recommendation.property.PropertyController;
+import org.springframework.http.MediaType;
+
+public enum PropertyImportFormat {
+    CSV("text/csv"),
+    NDJSON(PropertyController.APPLICATION_NDJSON_VALUE);
+
+    private final MediaType mediaType;
+
+    PropertyImportFormat(String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public static PropertyImportFormat of(MediaType contentType) {
+        for (PropertyImportFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("The import must be text/csv or " + PropertyController.APPLICATION_NDJSON_VALUE);
+    }
+}
@@ -0,0 +1,323 @@
+package com.juan.property.property_recommendation.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Reads an import one row at a time, so only the chunk being imported is held in memory. Reading is sequential, but
+ * {@link #parse} keeps no state, so the rows of a chunk can be turned into requests in parallel. Values that cannot
+ * be converted are reported with the message {@code register} gives for the same field.
+ */
+public abstract class PropertyImportReader implements Closeable {
+
+    // Separates the images of a listing within the CSV column
+    public static final String IMAGE_SEPARATOR = "|";
+    // Bounds what a row can buffer, so a stray quote or a missing line break costs one rejected row, not the heap
+    public static final int MAX_ROW_LENGTH = 64 * 1024;
+
+    private static final Map<String, String> INVALID = Map.ofEntries(
+            Map.entry("registryNumber", "The registry number is not valid"),
+            Map.entry("operationType", "The operation type is not valid"),
+            Map.entry("address", "The address is not valid"),
+            Map.entry("price", "The price is not valid"),
+            Map.entry("area", "The area is not valid"),
+            Map.entry("images", "The image list is not valid"),
+            Map.entry("numberOfBathrooms", "The number of bathrooms is not valid"),
+            Map.entry("numberOfBedrooms", "The number of bedrooms is not valid"),
+            Map.entry("propertyType", "The property type is not valid"),
+            Map.entry("cityId", "The city id is not valid"),
+            Map.entry("latitude", "The latitude must be between -90 and 90"),
+            Map.entry("longitude", "The longitude must be between -180 and 180")
+    );
+    private static final Pattern IMAGES = Pattern.compile(Pattern.quote(IMAGE_SEPARATOR));
+    private static final Set<String> OPTIONAL_COLUMNS = Set.of("latitude", "longitude");
+    private static final String TOO_LONG = "The row is longer than " + MAX_ROW_LENGTH + " characters";
+
+    /**
+     * A row as read, with the line of the file it starts on. CSV rows carry their values and NDJSON rows their text,
+     * or the error when the row could not be read.
+     */
+    public record Row(long line, List<String> values, String text, String error) {
+
+        static Row rejected(long line, String error) {
+            return new Row(line, null, null, error);
+        }
+    }
+
+    public static PropertyImportReader open(InputStream input, Charset charset, PropertyImportFormat format,
+                                            ObjectMapper objectMapper) throws IOException {
+        Reader reader = new InputStreamReader(input, charset);
+        return switch (format) {
+            case CSV -> new Csv(reader);
+            case NDJSON -> new Ndjson(new BufferedReader(reader), objectMapper);
+        };
+    }
+
+    /**
+     * The next row, or null at the end of the input. Blank lines are skipped.
+     */
+    public abstract Row next() throws IOException;
+
+    /**
+     * Converts a row, throwing {@link IllegalArgumentException} with the reason when it cannot.
+     */
+    public abstract PropertyRequest parse(Row row);
+
+    /**
+     * Comma separated values with a header naming the {@link PropertyRequest} fields, in any order. Values may be
+     * quoted, with doubled quotes inside and line breaks, and the images are separated by {@value #IMAGE_SEPARATOR}.
+     */
+    static final class Csv extends PropertyImportReader {
+
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final Map<String, Integer> columns = new HashMap<>();
+        private int position;
+        private int limit;
+        private long line = 1;
+
+        Csv(Reader reader) throws IOException {
+            this.reader = reader;
+            Row header = next();
+            if (header == null) {
+                return;
+            }
+            if (header.error() != null) {
+                throw new IllegalArgumentException("The CSV header is not valid");
+            }
+            for (int i = 0; i < header.values().size(); i++) {
+                String column = header.values().get(i).trim();
+                if (i == 0 && column.startsWith("\uFEFF")) {
+                    column = column.substring(1);
+                }
+                if (!INVALID.containsKey(column)) {
+                    throw new IllegalArgumentException("Unknown CSV column " + column);
+                }
+                if (columns.put(column, i) != null) {
+                    throw new IllegalArgumentException("The CSV column " + column + " is repeated");
+                }
+            }
+            for (String column : INVALID.keySet()) {
+                if (!columns.containsKey(column) && !OPTIONAL_COLUMNS.contains(column)) {
+                    throw new IllegalArgumentException("The CSV column " + column + " is missing");
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            while (true) {
+                long start = line;
+                int c = read();
+                if (c == -1) {
+                    return null;
+                }
+                if (c == '\r' || c == '\n') {
+                    continue;
+                }
+                return readRow(start, c);
+            }
+        }
+
+        private Row readRow(long start, int c) throws IOException {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            int length = 0;
+            for (; c != -1; c = read()) {
+                if (++length > MAX_ROW_LENGTH) {
+                    // Reading resumes on the next line, which is where a row with a stray quote was meant to end
+                    while (c != -1 && c != '\n') {
+                        c = read();
+                    }
+                    return Row.rejected(start, TOO_LONG);
+                }
+                if (quoted) {
+                    if (c != '"') {
+                        value.append((char) c);
+                    } else if (peek() == '"') {
+                        read();
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+            }
+            if (quoted) {
+                return Row.rejected(start, "A quoted value is not closed");
+            }
+            values.add(value.toString());
+            return new Row(start, values, null, null);
+        }
+
+        private int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            char c = buffer[position++];
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+
+        private int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        private boolean fill() throws IOException {
+            int read = reader.read(buffer);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+
+        @Override
+        public PropertyRequest parse(Row row) {
+            if (row.error() != null) {
+                throw new IllegalArgumentException(row.error());
+            }
+            if (row.values().size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " values but found " + row.values().size());
+            }
+            return PropertyRequest.builder()
+                    .registryNumber(value(row, "registryNumber", Long::valueOf))
+                    .operationType(value(row, "operationType", text -> OperationType.valueOf(text.toUpperCase(Locale.ROOT))))
+                    .address(value(row, "address", Function.identity()))
+                    .price(value(row, "price", BigDecimal::new))
+                    .area(value(row, "area", Double::valueOf))
+                    .images(value(row, "images", Csv::images))
+                    .numberOfBathrooms(value(row, "numberOfBathrooms", Integer::valueOf))
+                    .numberOfBedrooms(value(row, "numberOfBedrooms", Integer::valueOf))
+                    .propertyType(value(row, "propertyType", text -> PropertyType.valueOf(text.toUpperCase(Locale.ROOT))))
+                    .cityId(value(row, "cityId", Integer::valueOf))
+                    .latitude(value(row, "latitude", Double::valueOf))
+                    .longitude(value(row, "longitude", Double::valueOf))
+                    .build();
+        }
+
+        // A blank value is a missing one
+        private <T> T value(Row row, String column, Function<String, T> converter) {
+            Integer index = columns.get(column);
+            String text = index == null ? "" : row.values().get(index).trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return converter.apply(text);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(INVALID.get(column));
+            }
+        }
+
+        private static List<String> images(String text) {
+            return Arrays.stream(IMAGES.split(text))
+                    .map(String::trim)
+                    .filter(image -> !image.isEmpty())
+                    .toList();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * One JSON object per line, in the shape of the body of {@code POST /properties}.
+     */
+    static final class Ndjson extends PropertyImportReader {
+
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            StringBuilder text = new StringBuilder();
+            int c;
+            while ((c = reader.read()) != -1) {
+                line++;
+                boolean tooLong = false;
+                for (; c != -1 && c != '\n'; c = reader.read()) {
+                    if (text.length() == MAX_ROW_LENGTH) {
+                        tooLong = true;
+                    } else if (!tooLong) {
+                        text.append((char) c);
+                    }
+                }
+                if (tooLong) {
+                    return Row.rejected(line, TOO_LONG);
+                }
+                if (!text.toString().isBlank()) {
+                    return new Row(line, null, text.toString(), null);
+                }
+                text.setLength(0);
+            }
+            return null;
+        }
+
+        @Override
+        public PropertyRequest parse(Row row) {
+            if (row.error() != null) {
+                throw new IllegalArgumentException(row.error());
+            }
+            try {
+                return objectMapper.readValue(row.text(), PropertyRequest.class);
+            } catch (MismatchedInputException e) {
+                String field = e.getPath().isEmpty() ? null : e.getPath().get(0).getFieldName();
+                throw new IllegalArgumentException(field != null && INVALID.containsKey(field)
+                        ? INVALID.get(field) : "The line is not a property");
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("The line is not valid JSON");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.juan.property.property_recommendation.importer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class PropertyImportError {
+    private long line;
+    private Long registryNumber;
+    private String message;
+}
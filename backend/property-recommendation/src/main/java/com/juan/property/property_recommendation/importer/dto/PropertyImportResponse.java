@@ -0,0 +1,23 @@
+package com.juan.property.property_recommendation.importer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class PropertyImportResponse {
+    private long rows;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    // The first rejected rows, in file order; rejected counts them all
+    private List<PropertyImportError> errors;
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,13 @@
+package com.juan.property.property_recommendation.importer.service;
+
+import com.juan.property.property_recommendation.importer.PropertyImportFormat;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportResponse;
+import com.juan.property.property_recommendation.user.User;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+public interface IPropertyImportService {
+
+    PropertyImportResponse importProperties(InputStream input, Charset charset, PropertyImportFormat format, User user);
+}
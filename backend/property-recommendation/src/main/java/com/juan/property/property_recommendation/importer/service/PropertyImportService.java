@@ -0,0 +1,244 @@
+package com.juan.property.property_recommendation.importer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.importer.PropertyImportFormat;
+import com.juan.property.property_recommendation.importer.PropertyImportReader;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportError;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportResponse;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.LocationCatalog;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.dto.PropertyRequest;
+import com.juan.property.property_recommendation.property.service.IPropertyService;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registers the listings of a CSV or NDJSON file chunk by chunk. The rows of a chunk are parsed and validated in
+ * parallel with the rules of {@code POST /properties}, their cities come from {@link LocationCatalog}, one query finds
+ * the registry numbers already taken, and the rest are inserted in JDBC batches in one transaction per chunk, so a
+ * chunk costs a handful of round trips instead of three per row.
+ */
+@Slf4j
+@Service
+public class PropertyImportService implements IPropertyImportService {
+
+    // Rows read, validated and inserted together; also the JDBC batch size
+    public static final int CHUNK_SIZE = 500;
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final IPropertyService propertyService;
+    private final PropertyRepository propertyRepository;
+    private final PropertyMapper propertyMapper;
+    private final LocationCatalog locationCatalog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public PropertyImportService(IPropertyService propertyService,
+                                 PropertyRepository propertyRepository,
+                                 PropertyMapper propertyMapper,
+                                 LocationCatalog locationCatalog,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 Validator validator) {
+        this.propertyService = propertyService;
+        this.propertyRepository = propertyRepository;
+        this.propertyMapper = propertyMapper;
+        this.locationCatalog = locationCatalog;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    @Override
+    public PropertyImportResponse importProperties(InputStream input, Charset charset, PropertyImportFormat format, User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User is null");
+        }
+        long start = System.nanoTime();
+        Report report = new Report();
+        try (PropertyImportReader reader = PropertyImportReader.open(input, charset, format, objectMapper)) {
+            List<PropertyImportReader.Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            PropertyImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(reader, chunk, user, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(reader, chunk, user, report);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the import", e);
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        double rowsPerSecond = report.rows * 1e9 / elapsedNanos;
+        log.info("Imported {} of {} properties in {} ms ({} rows/s)", report.imported, report.rows,
+                elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return PropertyImportResponse.builder()
+                .rows(report.rows)
+                .imported(report.imported)
+                .rejected(report.rejected)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond)
+                .errors(report.errors)
+                .errorsTruncated(report.rejected > report.errors.size())
+                .build();
+    }
+
+    private void importChunk(PropertyImportReader reader, List<PropertyImportReader.Row> chunk, User user, Report report) {
+        report.rows += chunk.size();
+        // Parsing and validating only read the row and the immutable city map, so the rows can go to the common pool
+        Map<Integer, City> cities = locationCatalog.citiesById();
+        List<Candidate> candidates = chunk.parallelStream().map(row -> validate(reader, row, cities)).toList();
+
+        List<Candidate> rejected = new ArrayList<>();
+        List<Candidate> valid = new ArrayList<>(candidates.size());
+        // Only this chunk's numbers: a number from an earlier chunk is committed by now and found by the query below
+        Set<Long> registryNumbers = new HashSet<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.error() != null) {
+                rejected.add(candidate);
+            } else if (!registryNumbers.add(candidate.request().getRegistryNumber())) {
+                // Repeated within the chunk: the first row wins
+                rejected.add(candidate.rejected("The property already exists"));
+            } else {
+                valid.add(candidate);
+            }
+        }
+
+        List<Candidate> accepted = new ArrayList<>(valid.size());
+        if (!valid.isEmpty()) {
+            Set<Long> existing = propertyRepository.findExistingRegistryNumbers(
+                    valid.stream().map(candidate -> candidate.request().getRegistryNumber()).toList());
+            for (Candidate candidate : valid) {
+                if (existing.contains(candidate.request().getRegistryNumber())) {
+                    rejected.add(candidate.rejected("The property already exists"));
+                } else {
+                    accepted.add(candidate);
+                }
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            try {
+                insert(accepted, user);
+                report.imported += accepted.size();
+            } catch (DataIntegrityViolationException e) {
+                // A registry number was taken after the check, so only the rows that still fit are kept
+                for (Candidate candidate : accepted) {
+                    try {
+                        insert(List.of(candidate), user);
+                        report.imported++;
+                    } catch (DataIntegrityViolationException rowException) {
+                        if (!PropertyService.isUniqueViolation(rowException)) {
+                            throw rowException;
+                        }
+                        rejected.add(candidate.rejected("The property already exists"));
+                    }
+                }
+            }
+        }
+
+        rejected.sort(Comparator.comparingLong(Candidate::line));
+        rejected.forEach(report::reject);
+    }
+
+    private Candidate validate(PropertyImportReader reader, PropertyImportReader.Row row, Map<Integer, City> cities) {
+        PropertyRequest request = null;
+        try {
+            request = reader.parse(row);
+            Set<ConstraintViolation<PropertyRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                // The first by field name, so the report does not depend on the validator's order
+                ConstraintViolation<PropertyRequest> violation = violations.stream()
+                        .min(Comparator.comparing((ConstraintViolation<PropertyRequest> v) -> v.getPropertyPath().toString())
+                                .thenComparing(ConstraintViolation::getMessage))
+                        .orElseThrow();
+                return new Candidate(row.line(), request, null, violation.getMessage());
+            }
+            propertyService.validate(request);
+            City city = cities.get(request.getCityId());
+            if (city == null) {
+                throw new IllegalArgumentException("The city  does not exist");
+            }
+            return new Candidate(row.line(), request, city, null);
+        } catch (IllegalArgumentException e) {
+            return new Candidate(row.line(), request, null, e.getMessage());
+        }
+    }
+
+    // The rows are flushed on commit, where a unique violation is translated, and the indexes and caches only see
+    // the events once the chunk is committed
+    private void insert(List<Candidate> candidates, User user) {
+        transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(CHUNK_SIZE);
+            for (Candidate candidate : candidates) {
+                Property property = propertyMapper.dtoToProperty(candidate.request());
+                property.setUser(user);
+                property.setCity(candidate.city());
+                entityManager.persist(property);
+                eventPublisher.publishEvent(new PropertyRegisteredEvent(property));
+            }
+        });
+    }
+
+    private record Candidate(long line, PropertyRequest request, City city, String error) {
+
+        private Candidate rejected(String message) {
+            return new Candidate(line, request, city, message);
+        }
+    }
+
+    private static final class Report {
+        private final List<PropertyImportError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        private void reject(Candidate candidate) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(PropertyImportError.builder()
+                        .line(candidate.line())
+                        .registryNumber(candidate.request() == null ? null : candidate.request().getRegistryNumber())
+                        .message(candidate.error())
+                        .build());
+            }
+        }
+    }
+}
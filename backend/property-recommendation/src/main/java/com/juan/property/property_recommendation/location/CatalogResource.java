@@ -0,0 +1,58 @@
+package com.juan.property.property_recommendation.location;
+
+import org.springframework.http.ETag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON response serialized once, kept both as is and gzip-compressed, with a strong ETag per encoding.
+ */
+public record CatalogResource(byte[] identity, byte[] gzip, String etag, String gzipEtag) {
+
+    public static CatalogResource of(byte[] json) {
+        String hash = sha256(json).substring(0, 32);
+        return new CatalogResource(json, gzip(json), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+    }
+
+    /**
+     * Whether an If-None-Match header names either encoding of this resource, or is "*". The comparison is the weak
+     * one, so W/"..." tags, which proxies that recompress the body hand back, match as well.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag identityTag = ETag.create(etag);
+        ETag gzipTag = ETag.create(gzipEtag);
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || candidate.compare(identityTag, false) || candidate.compare(gzipTag, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
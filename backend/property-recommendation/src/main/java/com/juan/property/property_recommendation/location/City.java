@@ -15,7 +15,9 @@ import java.util.List;
 @Setter
 public class City {
     @Id
-    @GeneratedValue
+    // Ids are reserved 500 at a time, so seeding every city of the dataset takes a few sequence calls
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "city_seq")
+    @SequenceGenerator(name = "city_seq", allocationSize = 500)
     @Column(nullable = false)
     private Integer id;
     @Column(nullable = false)
@@ -1,10 +1,14 @@
 package com.juan.property.property_recommendation.location;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface CityRepository extends JpaRepository<City, Integer> {
 
     List<City> findByDepartment(Department department);
+
+    @Query("select c from City c join fetch c.department")
+    List<City> findAllWithDepartment();
 }
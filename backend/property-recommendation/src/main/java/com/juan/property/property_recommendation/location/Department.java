@@ -13,7 +13,8 @@ import java.util.List;
 @Getter
 public class Department {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "department_seq")
+    @SequenceGenerator(name = "department_seq", allocationSize = 50)
     @Column(nullable = false)
     private Integer id;
     @Column(nullable = false)
@@ -0,0 +1,117 @@
+package com.juan.property.property_recommendation.location;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.dto.CityResponse;
+import com.juan.property.property_recommendation.location.dto.DepartmentResponse;
+import com.juan.property.property_recommendation.location.dto.LocationMatchResponse;
+import com.juan.property.property_recommendation.location.mapper.CityMapper;
+import com.juan.property.property_recommendation.location.mapper.DepartmentMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Departments and cities never change once {@link LocationReeder} has seeded them, so they are read once seeding is
+ * done into an immutable snapshot: the responses pre-serialized for the location endpoints, the typeahead index and
+ * the cities by id, with their departments, for the writes that reference them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationCatalog {
+
+    private final DepartmentRepository departmentRepository;
+    private final CityRepository cityRepository;
+    private final DepartmentMapper departmentMapper;
+    private final CityMapper cityMapper;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    public CatalogResource departments() {
+        return snapshot().departments();
+    }
+
+    public Optional<CatalogResource> cities(Integer departmentId) {
+        return Optional.ofNullable(snapshot().citiesByDepartment().get(departmentId));
+    }
+
+    public List<LocationMatchResponse> search(String query, int limit) {
+        return snapshot().searchIndex().search(query, limit);
+    }
+
+    /**
+     * The cities by id, with their departments loaded. They are detached and shared, so they may only be referenced,
+     * never modified.
+     */
+    public Map<Integer, City> citiesById() {
+        return snapshot().citiesById();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    public synchronized Snapshot load() {
+        if (snapshot == null) {
+            snapshot = build();
+        }
+        return snapshot;
+    }
+
+    // A snapshot read before seeding committed may be missing rows, so new rows replace it
+    @EventListener
+    public synchronized void onLocationsSeeded(LocationsSeededEvent event) {
+        if (snapshot == null || event.changed()) {
+            snapshot = build();
+        }
+    }
+
+    private Snapshot build() {
+        List<Department> departments = departmentRepository.findAll();
+        List<City> cities = new ArrayList<>(cityRepository.findAllWithDepartment());
+        cities.sort(Comparator.comparing(City::getId));
+
+        Map<Integer, City> citiesById = new HashMap<>();
+        Map<Integer, List<CityResponse>> citiesByDepartment = new HashMap<>();
+        for (Department department : departments) {
+            citiesByDepartment.put(department.getId(), new ArrayList<>());
+        }
+        for (City city : cities) {
+            citiesById.put(city.getId(), city);
+            citiesByDepartment.get(city.getDepartment().getId()).add(cityMapper.toCityResponse(city));
+        }
+
+        Map<Integer, CatalogResource> cityResources = new HashMap<>();
+        citiesByDepartment.forEach((departmentId, responses) -> cityResources.put(departmentId, serialize(responses)));
+        List<DepartmentResponse> departmentResponses = departments.stream().map(departmentMapper::toDepartmentResponse).toList();
+
+        log.info("Location catalog loaded with {} departments and {} cities", departments.size(), cities.size());
+        return new Snapshot(serialize(departmentResponses), Map.copyOf(cityResources),
+                LocationSearchIndex.of(departments, cities), Map.copyOf(citiesById));
+    }
+
+    private CatalogResource serialize(Object response) {
+        try {
+            return CatalogResource.of(objectMapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the location catalog", e);
+        }
+    }
+
+    private record Snapshot(CatalogResource departments,
+                            Map<Integer, CatalogResource> citiesByDepartment,
+                            LocationSearchIndex searchIndex,
+                            Map<Integer, City> citiesById) {
+    }
+}
@@ -1,14 +1,17 @@
 package com.juan.property.property_recommendation.location;
 
-import com.juan.property.property_recommendation.location.dto.CityResponse;
-import com.juan.property.property_recommendation.location.dto.DepartmentResponse;
+import com.juan.property.property_recommendation.location.dto.LocationMatchResponse;
 import com.juan.property.property_recommendation.location.service.LocationService;
-import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -19,18 +22,66 @@ public class LocationController {
 
     private final LocationService locationService;
 
-    @GetMapping("/departments")
-    @ResponseStatus(HttpStatus.OK)
-    public List<DepartmentResponse> departments() {
-        return  locationService.findAllDepartment();
+    // Reference data is only reseeded on deploy, so caches may keep it for an hour and revalidate with the ETag
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+
+    @GetMapping(value = "/departments", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> departments(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serve(locationService.departmentsResource(), ifNoneMatch, acceptEncoding);
     }
 
 
-    @GetMapping("/departments/{id}/cities")
-    @ResponseStatus(HttpStatus.OK)
-    public List<CityResponse> cities(@PathVariable Integer id) {
-        return locationService.findAllCitiesByDepartmentId(id);
+    @GetMapping(value = "/departments/{id}/cities", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> cities(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serve(locationService.citiesResource(id), ifNoneMatch, acceptEncoding);
+
+    }
 
+    private ResponseEntity<byte[]> serve(CatalogResource resource, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? resource.gzipEtag() : resource.etag();
+        if (resource.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(resource.gzip());
+        }
+        return response.body(resource.identity());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Typeahead: departments and cities with a word starting with q, ignoring case and accents
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public List<LocationMatchResponse> search(@RequestParam String q,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return locationService.search(q, limit);
     }
 
 }
@@ -0,0 +1,37 @@
+package com.juan.property.property_recommendation.location;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Out of service until {@link LocationReeder} has committed the departments and cities. It is part of the readiness
+ * group, so the instance only receives traffic once city ids resolve.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationDataHealthIndicator implements HealthIndicator {
+
+    private final LocationReeder locationReeder;
+
+    @Override
+    public Health health() {
+        CompletableFuture<LocationsSeededEvent> seeded = locationReeder.seeded();
+        if (!seeded.isDone()) {
+            return Health.outOfService().withDetail("seeding", "in progress").build();
+        }
+        try {
+            LocationsSeededEvent event = seeded.join();
+            return Health.up()
+                    .withDetail("dataset", LocationReeder.DATASET)
+                    .withDetail("checksum", event.checksum())
+                    .build();
+        } catch (CompletionException e) {
+            return Health.down(e.getCause()).build();
+        }
+    }
+}
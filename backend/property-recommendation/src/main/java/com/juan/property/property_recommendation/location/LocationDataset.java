@@ -0,0 +1,27 @@
+package com.juan.property.property_recommendation.location;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checksum of the reference file the departments and cities were last seeded from, so {@link LocationReeder} can
+ * skip a file that has not changed.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "location_dataset")
+public class LocationDataset {
+    @Id
+    @Column(length = 64)
+    private String name;
+    @Column(nullable = false, length = 64)
+    private String checksum;
+    @Column(nullable = false)
+    private LocalDateTime seededAt;
+}
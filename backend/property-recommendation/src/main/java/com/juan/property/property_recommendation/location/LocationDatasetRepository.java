@@ -0,0 +1,6 @@
+package com.juan.property.property_recommendation.location;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LocationDatasetRepository extends JpaRepository<LocationDataset, String> {
+}
@@ -2,46 +2,181 @@ package com.juan.property.property_recommendation.location;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.juan.property.property_recommendation.location.dto.DepartmentData;
-import lombok.RequiredArgsConstructor;
-import org.springframework.boot.CommandLineRunner;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Seeds the departments and cities of colombia.json on its own thread once the context has started, so the server
+ * does not wait for it; {@link LocationDataHealthIndicator} keeps the instance out of the readiness group meanwhile.
+ * The checksum of the file is stored with the data: an unchanged file costs one query, and a changed one only inserts
+ * the departments and cities that are missing, in JDBC batches.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
-public class LocationReeder  implements CommandLineRunner {
+public class LocationReeder {
+
+    public static final String DATASET = "colombia.json";
+
+    // Matches the allocation size of the city sequence
+    private static final int BATCH_SIZE = 500;
+
     private final DepartmentRepository departmentRepository;
+    private final CityRepository cityRepository;
+    private final LocationDatasetRepository locationDatasetRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final CompletableFuture<LocationsSeededEvent> seeded = new CompletableFuture<>();
+
+    public LocationReeder(DepartmentRepository departmentRepository,
+                          CityRepository cityRepository,
+                          LocationDatasetRepository locationDatasetRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher,
+                          ObjectMapper objectMapper) {
+        this.departmentRepository = departmentRepository;
+        this.cityRepository = cityRepository;
+        this.locationDatasetRepository = locationDatasetRepository;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        Thread worker = new Thread(this::run, "location-seeder");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Completes with the seeding result once the data is committed and {@link LocationsSeededEvent} handled.
+     */
+    public CompletableFuture<LocationsSeededEvent> seeded() {
+        return seeded.copy();
+    }
+
+    private void run() {
+        try {
+            LocationsSeededEvent event = seed();
+            eventPublisher.publishEvent(event);
+            seeded.complete(event);
+        } catch (RuntimeException e) {
+            log.error("Could not seed the departments and cities", e);
+            seeded.completeExceptionally(e);
+        }
+    }
+
+    public LocationsSeededEvent seed() {
+        long start = System.nanoTime();
+        byte[] json = readDataset();
+        String checksum = sha256(json);
+        LocationsSeededEvent event = transaction.execute(status -> {
+            Optional<LocationDataset> dataset = locationDatasetRepository.findById(DATASET);
+            if (dataset.isPresent() && dataset.get().getChecksum().equals(checksum)) {
+                return new LocationsSeededEvent(checksum, 0, 0);
+            }
+            LocationsSeededEvent inserted = insertMissing(parse(json), checksum);
+            LocationDataset seededDataset = dataset.orElseGet(() -> LocationDataset.builder().name(DATASET).build());
+            seededDataset.setChecksum(checksum);
+            seededDataset.setSeededAt(LocalDateTime.now());
+            if (dataset.isEmpty()) {
+                entityManager.persist(seededDataset);
+            }
+            return inserted;
+        });
+        log.info("Location data seeded in {} ms: {} departments and {} cities inserted",
+                (System.nanoTime() - start) / 1_000_000, event.insertedDepartments(), event.insertedCities());
+        return event;
+    }
+
+    // Departments go first so each table is written in consecutive batches
+    private LocationsSeededEvent insertMissing(List<DepartmentData> data, String checksum) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(BATCH_SIZE);
+        Map<String, Department> departments = new HashMap<>();
+        for (Department department : departmentRepository.findAll()) {
+            departments.put(department.getName(), department);
+        }
+        Set<String> cities = new HashSet<>();
+        for (City city : cityRepository.findAllWithDepartment()) {
+            cities.add(cityKey(city.getDepartment(), city.getName()));
+        }
 
-    @Override
-    public void run(String... args) throws Exception {
-        if (departmentRepository.count() == 0) {
-            InputStream input = getClass().getResourceAsStream("/data/colombia.json");
-            ObjectMapper mapper = new ObjectMapper();
-            List<DepartmentData> data = Arrays.asList(
-                    mapper.readValue(input, DepartmentData[].class)
-            );
-
-            for (DepartmentData dto : data) {
-                Department dept = new Department();
-                dept.setName(dto.getDepartamento());
-
-                List<City> cities = dto.getCiudades().stream().map(cityName -> {
-                    City city = new City();
-                    city.setName(cityName);
-                    city.setDepartment(dept);
-                    return city;
-                }).collect(Collectors.toList());
-
-                dept.setCities(cities);
-                departmentRepository.save(dept); // guarda cascada
+        int insertedDepartments = 0;
+        List<City> missingCities = new ArrayList<>();
+        for (DepartmentData departmentData : data) {
+            Department department = departments.get(departmentData.getDepartamento());
+            if (department == null) {
+                department = Department.builder().name(departmentData.getDepartamento()).build();
+                entityManager.persist(department);
+                departments.put(department.getName(), department);
+                insertedDepartments++;
             }
+            for (String cityName : departmentData.getCiudades()) {
+                // The file lists a few cities twice in the same department
+                if (cities.add(cityKey(department, cityName))) {
+                    missingCities.add(City.builder().name(cityName).department(department).build());
+                }
+            }
+        }
+        missingCities.forEach(entityManager::persist);
+        return new LocationsSeededEvent(checksum, insertedDepartments, missingCities.size());
+    }
 
-            System.out.println("🟢 Departamentos y ciudades cargados");
+    private static String cityKey(Department department, String name) {
+        return department.getId() + ":" + name;
+    }
+
+    private List<DepartmentData> parse(byte[] json) {
+        try {
+            return List.of(objectMapper.readValue(json, DepartmentData[].class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + DATASET, e);
         }
     }
 
+    private byte[] readDataset() {
+        try (InputStream input = getClass().getResourceAsStream("/data/" + DATASET)) {
+            if (input == null) {
+                throw new IllegalStateException(DATASET + " is missing from the classpath");
+            }
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + DATASET, e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package com.juan.property.property_recommendation.location;
+
+import com.juan.property.property_recommendation.location.dto.LocationMatchResponse;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable typeahead over department and city names. Every word start of a folded name is a key of one sorted
+ * array, so a prefix query is a binary search followed by a scan over the matching keys only.
+ */
+public final class LocationSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private final String[] keys;
+    private final int[] locations;
+    private final boolean[] nameStarts;
+    private final LocationMatchResponse[] matches;
+
+    private LocationSearchIndex(String[] keys, int[] locations, boolean[] nameStarts, LocationMatchResponse[] matches) {
+        this.keys = keys;
+        this.locations = locations;
+        this.nameStarts = nameStarts;
+        this.matches = matches;
+    }
+
+    public static LocationSearchIndex of(List<Department> departments, List<City> cities) {
+        List<LocationMatchResponse> matches = new ArrayList<>();
+        for (Department department : departments) {
+            matches.add(LocationMatchResponse.builder()
+                    .type(LocationType.DEPARTMENT)
+                    .id(department.getId())
+                    .name(department.getName())
+                    .departmentId(department.getId())
+                    .departmentName(department.getName())
+                    .build());
+        }
+        for (City city : cities) {
+            matches.add(LocationMatchResponse.builder()
+                    .type(LocationType.CITY)
+                    .id(city.getId())
+                    .name(city.getName())
+                    .departmentId(city.getDepartment().getId())
+                    .departmentName(city.getDepartment().getName())
+                    .build());
+        }
+        // Departments first, then shorter names, so the order of the matches is also their rank
+        matches.sort(Comparator.comparing(LocationMatchResponse::getType)
+                .thenComparingInt(match -> match.getName().length())
+                .thenComparing(match -> fold(match.getName())));
+
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            String folded = fold(matches.get(i).getName());
+            for (int start = 0; start < folded.length(); start = folded.indexOf(' ', start) + 1) {
+                keys.add(new Key(folded.substring(start), i, start == 0));
+                if (folded.indexOf(' ', start) < 0) break;
+            }
+        }
+        keys.sort(Comparator.comparing(Key::text));
+
+        String[] texts = new String[keys.size()];
+        int[] locations = new int[keys.size()];
+        boolean[] nameStarts = new boolean[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            texts[i] = keys.get(i).text();
+            locations[i] = keys.get(i).location();
+            nameStarts[i] = keys.get(i).nameStart();
+        }
+        return new LocationSearchIndex(texts, locations, nameStarts, matches.toArray(new LocationMatchResponse[0]));
+    }
+
+    public int size() {
+        return matches.length;
+    }
+
+    /**
+     * Locations with a word starting with the query, names starting with it first.
+     */
+    public List<LocationMatchResponse> search(String query, int limit) {
+        String prefix = fold(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) low = mid + 1; else high = mid;
+        }
+
+        // Rank is the location's position, pushed behind every name-prefix match when only an inner word matches
+        int[] ranks = new int[0];
+        int found = 0;
+        for (int i = low; i < keys.length && keys[i].startsWith(prefix); i++) {
+            if (found == ranks.length) ranks = Arrays.copyOf(ranks, Math.max(8, found * 2));
+            ranks[found++] = nameStarts[i] ? locations[i] : matches.length + locations[i];
+        }
+        Arrays.sort(ranks, 0, found);
+
+        List<LocationMatchResponse> result = new ArrayList<>(Math.min(limit, found));
+        boolean[] seen = new boolean[matches.length];
+        for (int i = 0; i < found && result.size() < limit; i++) {
+            int location = ranks[i] % matches.length;
+            if (!seen[location]) {
+                seen[location] = true;
+                result.add(matches[location]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lower case without diacritics or punctuation, so "Nariño" and "narino" compare equal.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return SEPARATORS.matcher(plain).replaceAll(" ").trim();
+    }
+
+    private record Key(String text, int location, boolean nameStart) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.juan.property.property_recommendation.location;
+
+public enum LocationType {
+    DEPARTMENT,
+    CITY
+}
@@ -0,0 +1,11 @@
+package com.juan.property.property_recommendation.location;
+
+/**
+ * Published once the departments and cities are committed, whether or not the dataset had to be written.
+ */
+public record LocationsSeededEvent(String checksum, int insertedDepartments, int insertedCities) {
+
+    public boolean changed() {
+        return insertedDepartments > 0 || insertedCities > 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.juan.property.property_recommendation.location.dto;
+
+import com.juan.property.property_recommendation.location.LocationType;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LocationMatchResponse {
+    private LocationType type;
+    private Integer id;
+    private String name;
+    private Integer departmentId;
+    private String departmentName;
+}
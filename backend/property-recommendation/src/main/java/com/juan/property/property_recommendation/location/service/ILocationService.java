@@ -1,7 +1,9 @@
 package com.juan.property.property_recommendation.location.service;
 
+import com.juan.property.property_recommendation.location.CatalogResource;
 import com.juan.property.property_recommendation.location.dto.CityResponse;
 import com.juan.property.property_recommendation.location.dto.DepartmentResponse;
+import com.juan.property.property_recommendation.location.dto.LocationMatchResponse;
 
 import java.util.List;
 
@@ -9,4 +11,7 @@ public interface ILocationService {
 
     List<DepartmentResponse> findAllDepartment();
     List<CityResponse> findAllCitiesByDepartmentId(Integer departmentId);
+    CatalogResource departmentsResource();
+    CatalogResource citiesResource(Integer departmentId);
+    List<LocationMatchResponse> search(String query, int limit);
 }
@@ -3,8 +3,11 @@ package com.juan.property.property_recommendation.location.service;
 import com.juan.property.property_recommendation.location.CityRepository;
 import com.juan.property.property_recommendation.location.Department;
 import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.location.CatalogResource;
+import com.juan.property.property_recommendation.location.LocationCatalog;
 import com.juan.property.property_recommendation.location.dto.CityResponse;
 import com.juan.property.property_recommendation.location.dto.DepartmentResponse;
+import com.juan.property.property_recommendation.location.dto.LocationMatchResponse;
 import com.juan.property.property_recommendation.location.mapper.CityMapper;
 import com.juan.property.property_recommendation.location.mapper.DepartmentMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -21,10 +24,13 @@ import java.util.stream.Collectors;
 @Service
 public class LocationService implements ILocationService {
 
+    public static final int MAX_SEARCH_LIMIT = 50;
+
     private final DepartmentRepository departmentRepository;
     private final CityRepository cityRepository;
     private final DepartmentMapper  departmentMapper;
     private final CityMapper cityMapper;
+    private final LocationCatalog locationCatalog;
 
     @Override
     public List<DepartmentResponse> findAllDepartment() {
@@ -40,4 +46,23 @@ public class LocationService implements ILocationService {
         }
         return cityRepository.findByDepartment(department.get()).stream().map(cityMapper::toCityResponse).collect(Collectors.toList());
     }
+
+    @Override
+    public CatalogResource departmentsResource() {
+        return locationCatalog.departments();
+    }
+
+    @Override
+    public CatalogResource citiesResource(Integer departmentId) {
+        return locationCatalog.cities(departmentId)
+                .orElseThrow(() -> new EntityNotFoundException("Department not found"));
+    }
+
+    @Override
+    public List<LocationMatchResponse> search(String query, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return locationCatalog.search(query, limit);
+    }
 }
@@ -0,0 +1,179 @@
+package com.juan.property.property_recommendation.property;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bounding box, optionally narrowed to a circle around its center. Distances use the equirectangular
+ * approximation, which for radii of a few dozen km is within a fraction of a percent of the great-circle distance
+ * and is cheap enough for the database to evaluate the same way {@link #contains} does.
+ */
+public record GeoFilter(
+        double minLatitude,
+        double minLongitude,
+        double maxLatitude,
+        double maxLongitude,
+        Double latitude,
+        Double longitude,
+        Double radiusKm
+) {
+
+    public static final double MAX_RADIUS_KM = 100;
+
+    private static final double KM_PER_DEGREE = 6371.0088 * Math.PI / 180;
+    // Each cell is a range scan on idx_property_geohash, so this bounds the OR the database has to plan
+    private static final int MAX_INDEX_CELLS = 16;
+
+    /**
+     * Builds the filter from the request parameters, or null when none is given.
+     */
+    public static GeoFilter of(Double lat, Double lon, Double radius, String bbox) {
+        boolean circle = lat != null || lon != null || radius != null;
+        if (bbox != null && !bbox.isBlank()) {
+            if (circle) {
+                throw new IllegalArgumentException("Use either lat, lon and radius or bbox, not both");
+            }
+            return within(bbox);
+        }
+        if (!circle) {
+            return null;
+        }
+        if (lat == null || lon == null || radius == null) {
+            throw new IllegalArgumentException("The lat, lon and radius parameters must be given together");
+        }
+        return around(lat, lon, radius);
+    }
+
+    public static GeoFilter around(double latitude, double longitude, double radiusKm) {
+        checkCoordinates(latitude, longitude);
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("The radius must be greater than 0 and at most " + MAX_RADIUS_KM + " km");
+        }
+        double latitudeDelta = radiusKm / KM_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(latitude));
+        double longitudeDelta = cos < 1e-9 ? 180 : Math.min(180, latitudeDelta / cos);
+        return new GeoFilter(Math.max(-90, latitude - latitudeDelta), Math.max(-180, longitude - longitudeDelta),
+                Math.min(90, latitude + latitudeDelta), Math.min(180, longitude + longitudeDelta),
+                latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Parses "minLon,minLat,maxLon,maxLat", the order GeoJSON and most map libraries use.
+     */
+    public static GeoFilter within(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("The bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        double[] values = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                values[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        checkCoordinates(values[1], values[0]);
+        checkCoordinates(values[3], values[2]);
+        if (values[0] > values[2] || values[1] > values[3]) {
+            throw new IllegalArgumentException("The bbox minimums must not be greater than its maximums");
+        }
+        return new GeoFilter(values[1], values[0], values[3], values[2], null, null, null);
+    }
+
+    public static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("The latitude must be between -90 and 90");
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("The longitude must be between -180 and 180");
+        }
+    }
+
+    public boolean contains(Double lat, Double lon) {
+        return lat != null && lon != null && contains(lat.doubleValue(), lon.doubleValue());
+    }
+
+    public boolean contains(double lat, double lon) {
+        if (!(lat >= minLatitude && lat <= maxLatitude && lon >= minLongitude && lon <= maxLongitude)) {
+            return false;
+        }
+        if (radiusKm == null) {
+            return true;
+        }
+        double latitudeDelta = lat - latitude;
+        double longitudeDelta = (lon - longitude) * longitudeScale();
+        return latitudeDelta * latitudeDelta + longitudeDelta * longitudeDelta <= radiusSquared();
+    }
+
+    /**
+     * Geohash ranges narrow the rows through the index, the box and circle then decide exactly.
+     */
+    public Predicate toPredicate(Root<Property> root, CriteriaBuilder criteriaBuilder) {
+        Path<String> geohash = root.get("geohash");
+        List<Predicate> ranges = new ArrayList<>();
+        for (String[] range : indexRanges()) {
+            Predicate from = criteriaBuilder.greaterThanOrEqualTo(geohash, range[0]);
+            ranges.add(range[1] == null ? from : criteriaBuilder.and(from, criteriaBuilder.lessThan(geohash, range[1])));
+        }
+
+        Path<Double> lat = root.get("latitude");
+        Path<Double> lon = root.get("longitude");
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.or(ranges.toArray(new Predicate[0])));
+        predicates.add(criteriaBuilder.between(lat, minLatitude, maxLatitude));
+        predicates.add(criteriaBuilder.between(lon, minLongitude, maxLongitude));
+        if (radiusKm != null) {
+            Expression<Double> latitudeDelta = criteriaBuilder.diff(lat, latitude);
+            Expression<Double> longitudeDelta = criteriaBuilder.prod(criteriaBuilder.diff(lon, longitude), longitudeScale());
+            predicates.add(criteriaBuilder.le(criteriaBuilder.sum(
+                    criteriaBuilder.prod(latitudeDelta, latitudeDelta),
+                    criteriaBuilder.prod(longitudeDelta, longitudeDelta)), radiusSquared()));
+        }
+        return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * The covering cells as [from, to) ranges of the geohash column, adjacent cells merged. A null end is unbounded.
+     */
+    public List<String[]> indexRanges() {
+        List<String[]> ranges = new ArrayList<>();
+        for (String cell : GeoHash.covering(minLatitude, minLongitude, maxLatitude, maxLongitude, MAX_INDEX_CELLS)) {
+            String[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] != null && follows(cell, last[1])) {
+                last[1] = GeoHash.successor(cell);
+            } else {
+                ranges.add(new String[]{cell, GeoHash.successor(cell)});
+            }
+        }
+        return ranges;
+    }
+
+    // No hash lies between end and cell when cell is end padded with the lowest digit
+    private static boolean follows(String cell, String end) {
+        if (!cell.startsWith(end)) {
+            return false;
+        }
+        for (int i = end.length(); i < cell.length(); i++) {
+            if (cell.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double longitudeScale() {
+        return Math.cos(Math.toRadians(latitude));
+    }
+
+    private double radiusSquared() {
+        double radius = radiusKm / KM_PER_DEGREE;
+        return radius * radius;
+    }
+}
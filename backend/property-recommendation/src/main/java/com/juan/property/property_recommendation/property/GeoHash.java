@@ -0,0 +1,156 @@
+package com.juan.property.property_recommendation.property;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Geohash cells: each extra character splits a cell into 32, alternating longitude and latitude bits. All the points
+ * of a cell share its hash as a prefix, so a cell is a contiguous range of an index on the hash column.
+ */
+public final class GeoHash {
+
+    public static final int PRECISION = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoHash() {
+    }
+
+    public static String encode(double latitude, double longitude) {
+        return encode(latitude, longitude, PRECISION);
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (even) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = ch << 1 | 1;
+                    minLon = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = ch << 1 | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * The cell of the given hash as {minLatitude, minLongitude, maxLatitude, maxLongitude}.
+     */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean even = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int ch = BASE32.indexOf(hash.charAt(i));
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((ch >>> bit) & 1) != 0;
+                if (even) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                even = !even;
+            }
+        }
+        return new double[]{minLat, minLon, maxLat, maxLon};
+    }
+
+    /**
+     * Number of cells of the given precision that intersect the box.
+     */
+    public static long cellCount(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        int latBits = latitudeBits(precision);
+        int lonBits = longitudeBits(precision);
+        long rows = cellIndex(maxLat, -90, 180, latBits) - cellIndex(minLat, -90, 180, latBits) + 1;
+        long columns = cellIndex(maxLon, -180, 360, lonBits) - cellIndex(minLon, -180, 360, lonBits) + 1;
+        return rows * columns;
+    }
+
+    /**
+     * The cells of the given precision that intersect the box, sorted.
+     */
+    public static List<String> cells(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        int latBits = latitudeBits(precision);
+        int lonBits = longitudeBits(precision);
+        double cellHeight = 180 / Math.pow(2, latBits);
+        double cellWidth = 360 / Math.pow(2, lonBits);
+        long firstRow = cellIndex(minLat, -90, 180, latBits);
+        long lastRow = cellIndex(maxLat, -90, 180, latBits);
+        long firstColumn = cellIndex(minLon, -180, 360, lonBits);
+        long lastColumn = cellIndex(maxLon, -180, 360, lonBits);
+
+        List<String> cells = new ArrayList<>();
+        for (long row = firstRow; row <= lastRow; row++) {
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                cells.add(encode(-90 + (row + 0.5) * cellHeight, -180 + (column + 0.5) * cellWidth, precision));
+            }
+        }
+        Collections.sort(cells);
+        return cells;
+    }
+
+    /**
+     * The finest cells covering the box that number at most {@code maxCells}, or the precision 1 cells when even
+     * those are more.
+     */
+    public static List<String> covering(double minLat, double minLon, double maxLat, double maxLon, int maxCells) {
+        int precision = PRECISION;
+        while (precision > 1 && cellCount(minLat, minLon, maxLat, maxLon, precision) > maxCells) {
+            precision--;
+        }
+        return cells(minLat, minLon, maxLat, maxLon, precision);
+    }
+
+    /**
+     * The smallest string greater than every hash starting with {@code prefix}, or null when there is none.
+     */
+    public static String successor(String prefix) {
+        char[] chars = prefix.toCharArray();
+        for (int i = chars.length - 1; i >= 0; i--) {
+            int value = BASE32.indexOf(chars[i]);
+            if (value < BASE32.length() - 1) {
+                chars[i] = BASE32.charAt(value + 1);
+                return new String(chars, 0, i + 1);
+            }
+        }
+        return null;
+    }
+
+    private static int longitudeBits(int precision) {
+        return (5 * precision + 1) / 2;
+    }
+
+    private static int latitudeBits(int precision) {
+        return 5 * precision / 2;
+    }
+
+    private static long cellIndex(double value, double min, double span, int bits) {
+        long cells = 1L << bits;
+        return Math.max(0, Math.min(cells - 1, (long) Math.floor((value - min) / span * cells)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.juan.property.property_recommendation.property;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+
+import java.math.BigDecimal;
+
+/**
+ * Price ranges shown in the filter sidebar. Each bucket covers [lowerBound, next bucket's lowerBound).
+ */
+public enum PriceBucket {
+    UNDER_100M(0),
+    FROM_100M_TO_250M(100_000_000L),
+    FROM_250M_TO_500M(250_000_000L),
+    FROM_500M_TO_1000M(500_000_000L),
+    OVER_1000M(1_000_000_000L);
+
+    private static final PriceBucket[] BUCKETS = values();
+
+    private final BigDecimal lowerBound;
+
+    PriceBucket(long lowerBound) {
+        this.lowerBound = BigDecimal.valueOf(lowerBound);
+    }
+
+    public BigDecimal getLowerBound() {
+        return lowerBound;
+    }
+
+    public static PriceBucket of(BigDecimal price) {
+        for (int i = BUCKETS.length - 1; i > 0; i--) {
+            if (price.compareTo(BUCKETS[i].lowerBound) >= 0) {
+                return BUCKETS[i];
+            }
+        }
+        return BUCKETS[0];
+    }
+
+    /**
+     * The same bucketing as {@link #of} evaluated by the database, yielding the bucket ordinal.
+     */
+    public static Expression<Integer> ordinalOf(CriteriaBuilder criteriaBuilder, Expression<BigDecimal> price) {
+        CriteriaBuilder.Case<Integer> bucket = criteriaBuilder.selectCase();
+        for (int i = BUCKETS.length - 1; i > 0; i--) {
+            bucket = bucket.when(criteriaBuilder.greaterThanOrEqualTo(price, criteriaBuilder.literal(BUCKETS[i].lowerBound)),
+                    criteriaBuilder.literal(i));
+        }
+        return bucket.otherwise(criteriaBuilder.literal(0));
+    }
+}
@@ -7,6 +7,8 @@ import lombok.*;
 import org.hibernate.annotations.Check;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Entity
@@ -15,6 +17,12 @@ import java.util.List;
 @Getter
 @Setter
 @Builder
+@Table(indexes = {
+        @Index(name = "idx_property_price_id", columnList = "price, id"),
+        @Index(name = "idx_property_area_id", columnList = "area, id"),
+        @Index(name = "idx_property_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_property_geohash", columnList = "geohash")
+})
 @Check(constraints = """
     length(cast(registry_number as text)) = 10 AND
     registry_number > 0 AND
@@ -22,7 +30,9 @@ import java.util.List;
     area > 0 AND
     (number_of_bathrooms IS NULL OR number_of_bathrooms > 0) AND
     (number_of_bedrooms IS NULL OR number_of_bedrooms > 0) AND
-    city_id > 0
+    city_id > 0 AND
+    (latitude IS NULL OR latitude BETWEEN -90 AND 90) AND
+    (longitude IS NULL OR longitude BETWEEN -180 AND 180)
 """)
 public class Property {
     @Id
@@ -45,9 +55,16 @@ public class Property {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     public PropertyType propertyType;
+    private Double latitude;
+    private Double longitude;
+    // Derived from the coordinates so radius and bounding-box searches can range scan a B-tree index
+    @Column(length = GeoHash.PRECISION)
+    private String geohash;
 
 //parquadero?????
-    //created at
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
 
     @ManyToOne()
     @JoinColumn(name="city_id", nullable = false)
@@ -56,4 +73,18 @@ public class Property {
     @ManyToOne()
     @JoinColumn(name = "owner_id", nullable = false)
     private User user;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            // Same precision the database keeps, so keyset cursors compare equal after a reload
+            createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        }
+        updateGeohash();
+    }
+
+    @PreUpdate
+    void updateGeohash() {
+        geohash = latitude == null || longitude == null ? null : GeoHash.encode(latitude, longitude);
+    }
 }
@@ -0,0 +1,119 @@
+package com.juan.property.property_recommendation.property;
+
+import com.juan.property.property_recommendation.property.search.AddressTrigramIndex;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ETag;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Counter bumped after every committed property write, so a search answered at one version is still valid while the
+ * version stays the same. The counter lives in memory: tags carry the start time of this instance, so a restart,
+ * which starts counting again, never revalidates a tag it did not issue.
+ */
+@Component
+public class PropertyCatalogVersion {
+
+    private final Clock clock;
+    private final String epoch;
+    private final AtomicReference<Version> current;
+
+    @Autowired
+    public PropertyCatalogVersion() {
+        this(Clock.systemUTC());
+    }
+
+    public PropertyCatalogVersion(Clock clock) {
+        this.clock = clock;
+        this.epoch = Long.toString(clock.millis(), 36);
+        this.current = new AtomicReference<>(new Version(0, now()));
+    }
+
+    public Version current() {
+        return current.get();
+    }
+
+    public Version bump() {
+        return current.updateAndGet(version -> new Version(version.number() + 1, now()));
+    }
+
+    // After commit, so a tag is never handed out for a version whose rows are not visible yet
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyRegistered(PropertyRegisteredEvent event) {
+        bump();
+    }
+
+    /**
+     * Strong tag of the results of a search at the given version. The filters are normalized first, so requests
+     * that select the same rows share a tag.
+     */
+    public String etag(Version version, PropertySearchCriteria criteria, String address) {
+        String filters = criteria + "|" + AddressTrigramIndex.normalize(address);
+        return "\"" + epoch + "." + version.number() + "." + sha256(filters).substring(0, 16) + "\"";
+    }
+
+    /**
+     * The Last-Modified of a version, or empty while the second of its last write is not over, since another write
+     * in that second would share the date.
+     */
+    public Optional<Instant> lastModified(Version version) {
+        return version.modifiedAt().isBefore(now()) ? Optional.of(version.modifiedAt()) : Optional.empty();
+    }
+
+    /**
+     * Whether the client's copy is current. If-None-Match uses the weak comparison, so a tag weakened by a
+     * compressing proxy still matches. If-Modified-Since is only looked at without it, and an unparsable date is
+     * ignored.
+     */
+    public boolean notModified(Version version, String etag, String ifNoneMatch, String ifModifiedSince) {
+        if (ifNoneMatch != null) {
+            ETag current = ETag.create(etag);
+            for (ETag candidate : ETag.parse(ifNoneMatch)) {
+                if (candidate.isWildcard() || candidate.compare(current, false)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            Instant since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return lastModified(version).map(modifiedAt -> !modifiedAt.isAfter(since)).orElse(false);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // HTTP dates have second precision
+    private Instant now() {
+        return clock.instant().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Version(long number, Instant modifiedAt) {
+    }
+}
@@ -1,18 +1,35 @@
 package com.juan.property.property_recommendation.property;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.dto.PropertyFacetsResponse;
+import com.juan.property.property_recommendation.property.dto.PropertyFilterRequest;
+import com.juan.property.property_recommendation.property.dto.PropertyPageResponse;
 import com.juan.property.property_recommendation.property.dto.PropertyRequest;
 import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
 import com.juan.property.property_recommendation.property.service.PropertyService;
 import com.juan.property.property_recommendation.user.User;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(value = "/properties")
@@ -20,40 +37,162 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class PropertyController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final AuthService authService;
     private final PropertyService propertyService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PropertyCatalogVersion propertyCatalogVersion;
 
     private User requiredAuth(String token){
         return authService.authenticate(token)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
     }
 
+    // Browsing by anonymous users is not recorded
+    private Optional<User> optionalAuth(String token){
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        return authService.authenticate(token);
+    }
+
     @GetMapping(produces="application/json")
+    public ResponseEntity<List<PropertyResponse>> findAll(
+            @ModelAttribute PropertyFilterRequest filter,
+            @RequestHeader(value = "X-Auth-Token", required = false) String token,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince
+
+    ){
+        PropertySpecification propertySpecification = filter.toSpecification();
+        String address = filter.getAddress();
+
+        // Read before searching: a write committed meanwhile bumps the version, so these results are never tagged newer
+        PropertyCatalogVersion.Version version = propertyCatalogVersion.current();
+        String etag = propertyCatalogVersion.etag(version, PropertySearchCriteria.from(propertySpecification), address);
+        Optional<Instant> lastModified = propertyCatalogVersion.lastModified(version);
+        if (propertyCatalogVersion.notModified(version, etag, ifNoneMatch, ifModifiedSince)) {
+            // The search was recorded when the client first got these results
+            return conditional(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, lastModified).build();
+        }
+
+        // Address matches come ranked by similarity instead of in registration order
+        List<PropertyResponse> properties = filter.hasAddress()
+                ? propertyService.findByAddress(address, propertySpecification)
+                : propertyService.findAll(propertySpecification);
+        optionalAuth(token).ifPresent(user -> eventPublisher.publishEvent(new PropertySearchedEvent(user, propertySpecification)));
+        return conditional(ResponseEntity.ok(), etag, lastModified).body(properties);
+    }
+
+    // no-cache: clients may keep the results but must revalidate them, which the tag makes cheap
+    private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder response, String etag,
+                                                          Optional<Instant> lastModified) {
+        response.eTag(etag).cacheControl(CacheControl.noCache());
+        lastModified.ifPresent(response::lastModified);
+        return response;
+    }
+
+    // Address matches are ranked by similarity, which a stream, a keyset page or a count has no use for
+    private static PropertySpecification withoutAddress(PropertyFilterRequest filter) {
+        if (filter.hasAddress()) {
+            throw new IllegalArgumentException("The address filter is only supported without limit or stream");
+        }
+        return filter.toSpecification();
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamNdjson(
+            @ModelAttribute PropertyFilterRequest filter
+    ){
+        PropertySpecification propertySpecification = withoutAddress(filter);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(stream(propertySpecification, true));
+    }
+
+    @GetMapping(produces="application/json", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamJsonArray(
+            @ModelAttribute PropertyFilterRequest filter
+    ){
+        PropertySpecification propertySpecification = withoutAddress(filter);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stream(propertySpecification, false));
+    }
+
+    // Rows are written as they are read, so neither the entities nor the response body are ever held in full
+    private StreamingResponseBody stream(PropertySpecification propertySpecification, boolean ndjson) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            propertyService.streamAll(propertySpecification, response -> {
+                try {
+                    writer.writeValue(generator, response);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.close();
+        };
+    }
+
+    @GetMapping(value = "/facets", produces="application/json")
+    @ResponseStatus(HttpStatus.OK)//200
+    public PropertyFacetsResponse facets(
+            @ModelAttribute PropertyFilterRequest filter
+    ){
+        PropertySpecification propertySpecification = withoutAddress(filter);
+        return propertyService.facets(propertySpecification);
+    }
+
+    @GetMapping(value = "/{registryNumber}", produces="application/json")
+    @ResponseStatus(HttpStatus.OK)//200
+    public PropertyResponse findByRegistryNumber(
+            @PathVariable Long registryNumber,
+            @RequestHeader(value = "X-Auth-Token", required = false) String token
+    ){
+        PropertyResponse property = propertyService.findByRegistryNumber(registryNumber);
+        optionalAuth(token).ifPresent(user -> eventPublisher.publishEvent(new PropertyViewedEvent(user, property)));
+        return property;
+    }
+
+    @GetMapping(value = "/{registryNumber}/similar", produces="application/json")
     @ResponseStatus(HttpStatus.OK)//200
-    public List<PropertyResponse> findAll(
-            @RequestParam(required = false) BigDecimal minPrice,
-            @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false) Double minArea,
-            @RequestParam(required = false) Double maxArea,
-            @RequestParam(required = false) Integer numberOfBathrooms,
-            @RequestParam(required = false) Integer numberOfBedrooms,
-            @RequestParam(required = false) String operationType,
-            @RequestParam(required = false) String propertyType,
-            @RequestParam(required = false) Integer cityId,
-            @RequestParam(required = false) Integer departmentId
+    public List<PropertyResponse> findSimilar(
+            @PathVariable Long registryNumber,
+            @RequestParam(defaultValue = "10") int limit
+    ){
+        return propertyService.findSimilar(registryNumber, limit);
+    }
 
+    @GetMapping(produces="application/json", params = "limit")
+    @ResponseStatus(HttpStatus.OK)//200
+    public PropertyPageResponse findPage(
+            @ModelAttribute PropertyFilterRequest filter,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestHeader(value = "X-Auth-Token", required = false) String token
     ){
-        PropertySpecification propertySpecification = new PropertySpecification(minPrice,
-                maxPrice,
-                minArea,
-                maxArea,
-                numberOfBathrooms,
-                numberOfBedrooms,
-                operationType,
-                propertyType,
-                cityId,
-                departmentId);
-        return propertyService.findAll(propertySpecification);
+        PropertySpecification propertySpecification = withoutAddress(filter);
+        PropertyPageResponse page = propertyService.findPage(propertySpecification, PropertySort.from(sort), cursor, limit);
+        if (cursor == null) {
+            optionalAuth(token).ifPresent(user -> eventPublisher.publishEvent(new PropertySearchedEvent(user, propertySpecification)));
+        }
+        return page;
     }
 
     @PostMapping(produces="application/json")
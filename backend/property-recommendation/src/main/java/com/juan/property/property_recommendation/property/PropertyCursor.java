@@ -0,0 +1,42 @@
+package com.juan.property.property_recommendation.property;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class PropertyCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PropertyCursor() {
+    }
+
+    public static String encode(PropertySort sort, KeysetScrollPosition position) {
+        Map<String, ?> keys = position.getKeys();
+        String raw = sort.name() + SEPARATOR + keys.get(sort.getAttribute()) + SEPARATOR + keys.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScrollPosition decode(String cursor, PropertySort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("The cursor is not valid");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sort.getAttribute(), sort.parseValue(parts[1]));
+            keys.put("id", Long.valueOf(parts[2]));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("The cursor is not valid");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.juan.property.property_recommendation.property;
+
+/**
+ * One combination of the facet dimensions shown in the filter sidebar.
+ */
+public record PropertyFacet(
+        OperationType operationType,
+        PropertyType propertyType,
+        Integer cityId,
+        Integer departmentId,
+        Integer numberOfBedrooms,
+        PriceBucket priceBucket
+) {
+
+    public static PropertyFacet of(Property property) {
+        return new PropertyFacet(
+                property.getOperationType(),
+                property.getPropertyType(),
+                property.getCity().getId(),
+                property.getCity().getDepartment().getId(),
+                property.getNumberOfBedrooms(),
+                PriceBucket.of(property.getPrice()));
+    }
+}
@@ -24,6 +24,8 @@ public class PropertyMapper {
                 .ownerPhoneNumber(property.getUser().getPhoneNumber())
                 .ownerEmail(property.getUser().getEmail())
                 .propertyType(property.getPropertyType())
+                .latitude(property.getLatitude())
+                .longitude(property.getLongitude())
                 .build();
     }
 
@@ -39,6 +41,8 @@ public class PropertyMapper {
                 .images(propertyRequest.getImages())
                 .address(propertyRequest.getAddress())
                 .propertyType(propertyRequest.getPropertyType())
+                .latitude(propertyRequest.getLatitude())
+                .longitude(propertyRequest.getLongitude())
                 .build();
     }
 }
@@ -0,0 +1,4 @@
+package com.juan.property.property_recommendation.property;
+
+public record PropertyRegisteredEvent(Property property) {
+}
@@ -1,12 +1,65 @@
 package com.juan.property.property_recommendation.property;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface PropertyRepository  extends JpaRepository<Property,Integer>, JpaSpecificationExecutor<Property> {
+public interface PropertyRepository  extends JpaRepository<Property,Integer>, JpaSpecificationExecutor<Property>, PropertyRepositoryCustom {
 
     Optional<Property> findByRegistryNumber(Long registryNumber);
+
+    @Query("select p.registryNumber from Property p where p.registryNumber in :registryNumbers")
+    Set<Long> findExistingRegistryNumbers(Collection<Long> registryNumbers);
+
+    @Query("select p from Property p join fetch p.city c join fetch c.department join fetch p.user order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Property> streamAllWithDetails();
+
+    @Query("select p from Property p join fetch p.city c join fetch c.department where p.id > :afterId and p.id <= :upToId order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Property> streamWithLocationBetween(long afterId, long upToId);
+
+    @Query("select p from Property p join fetch p.city c join fetch c.department join fetch p.user where p.id > :afterId and p.id <= :upToId order by p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Property> streamWithDetailsBetween(long afterId, long upToId);
+
+    @Query("select coalesce(max(p.id), 0) from Property p")
+    long findMaxId();
+
+    @Query("""
+            select c.id as cityId, c.department.id as departmentId, p.propertyType as propertyType,
+                   p.operationType as operationType, count(p) as count
+            from Property p join p.city c group by c.id, c.department.id, p.propertyType, p.operationType
+            """)
+    List<CityTypeCount> countPerCityAndType();
+
+    interface CityTypeCount {
+        Integer getCityId();
+
+        Integer getDepartmentId();
+
+        PropertyType getPropertyType();
+
+        OperationType getOperationType();
+
+        long getCount();
+    }
 }
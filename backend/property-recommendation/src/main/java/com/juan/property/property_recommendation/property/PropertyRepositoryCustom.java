@@ -0,0 +1,29 @@
+package com.juan.property.property_recommendation.property;
+
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Searches that select the {@link PropertyResponse} columns directly, so no {@link Property}, city or owner entity is
+ * hydrated, snapshotted or lazily completed. The response carries a detached {@link com.juan.property.property_recommendation.location.City}
+ * holding only the id and name.
+ */
+public interface PropertyRepositoryCustom {
+
+    List<PropertyResponse> findResponses(Specification<Property> specification);
+
+    /**
+     * Streams the matching rows in id order, reading {@code fetchSize} rows per round trip. Must be consumed inside a
+     * transaction and closed afterwards.
+     */
+    Stream<PropertyResponse> streamResponses(Specification<Property> specification, int fetchSize);
+
+    /**
+     * Counts the matching listings grouped by every facet dimension at once, in a single aggregate query.
+     */
+    Map<PropertyFacet, Long> countFacets(Specification<Property> specification);
+}
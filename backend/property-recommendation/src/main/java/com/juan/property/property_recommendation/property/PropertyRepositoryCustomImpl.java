@@ -0,0 +1,126 @@
+package com.juan.property.property_recommendation.property;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class PropertyRepositoryCustomImpl implements PropertyRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PropertyResponse> findResponses(Specification<Property> specification) {
+        return responseQuery(specification).getResultStream().map(this::toResponse).toList();
+    }
+
+    @Override
+    public Stream<PropertyResponse> streamResponses(Specification<Property> specification, int fetchSize) {
+        return responseQuery(specification)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Map<PropertyFacet, Long> countFacets(Specification<Property> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, City> city = root.join("city");
+        List<Expression<?>> dimensions = List.of(
+                root.get("operationType"),
+                root.get("propertyType"),
+                city.get("id"),
+                city.get("department").get("id"),
+                root.get("numberOfBedrooms"),
+                PriceBucket.ordinalOf(criteriaBuilder, root.get("price")));
+        List<Selection<?>> selections = new ArrayList<>(dimensions);
+        selections.add(criteriaBuilder.count(root));
+        query.multiselect(selections)
+                .where(specification.toPredicate(root, query, criteriaBuilder))
+                .groupBy(dimensions);
+
+        PriceBucket[] buckets = PriceBucket.values();
+        Map<PropertyFacet, Long> counts = new HashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            counts.put(new PropertyFacet(
+                    tuple.get(0, OperationType.class),
+                    tuple.get(1, PropertyType.class),
+                    tuple.get(2, Integer.class),
+                    tuple.get(3, Integer.class),
+                    tuple.get(4, Integer.class),
+                    buckets[tuple.get(5, Integer.class)]), tuple.get(6, Long.class));
+        }
+        return counts;
+    }
+
+    private TypedQuery<Tuple> responseQuery(Specification<Property> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, City> city = root.join("city");
+        Join<Property, User> user = root.join("user");
+        query.multiselect(
+                        root.get("registryNumber").alias("registryNumber"),
+                        root.get("operationType").alias("operationType"),
+                        root.get("address").alias("address"),
+                        root.get("price").alias("price"),
+                        root.get("area").alias("area"),
+                        root.get("images").alias("images"),
+                        root.get("numberOfBathrooms").alias("numberOfBathrooms"),
+                        root.get("numberOfBedrooms").alias("numberOfBedrooms"),
+                        root.get("propertyType").alias("propertyType"),
+                        root.get("latitude").alias("latitude"),
+                        root.get("longitude").alias("longitude"),
+                        city.get("id").alias("cityId"),
+                        city.get("name").alias("cityName"),
+                        user.get("email").alias("ownerEmail"),
+                        user.get("phoneNumber").alias("ownerPhoneNumber"))
+                .where(specification.toPredicate(root, query, criteriaBuilder))
+                .orderBy(criteriaBuilder.asc(root.get("id")));
+        return entityManager.createQuery(query);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PropertyResponse toResponse(Tuple tuple) {
+        return PropertyResponse.builder()
+                .registryNumber(tuple.get("registryNumber", Long.class))
+                .operationType(tuple.get("operationType", OperationType.class))
+                .address(tuple.get("address", String.class))
+                .price(tuple.get("price", BigDecimal.class))
+                .area(tuple.get("area", Double.class))
+                .images((List<String>) tuple.get("images"))
+                .numberOfBathrooms(tuple.get("numberOfBathrooms", Integer.class))
+                .numberOfBedrooms(tuple.get("numberOfBedrooms", Integer.class))
+                .propertyType(tuple.get("propertyType", PropertyType.class))
+                .latitude(tuple.get("latitude", Double.class))
+                .longitude(tuple.get("longitude", Double.class))
+                .city(City.builder()
+                        .id(tuple.get("cityId", Integer.class))
+                        .name(tuple.get("cityName", String.class))
+                        .build())
+                .ownerEmail(tuple.get("ownerEmail", String.class))
+                .ownerPhoneNumber(tuple.get("ownerPhoneNumber", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,6 @@
+package com.juan.property.property_recommendation.property;
+
+import com.juan.property.property_recommendation.user.User;
+
+public record PropertySearchedEvent(User user, PropertySpecification propertySpecification) {
+}
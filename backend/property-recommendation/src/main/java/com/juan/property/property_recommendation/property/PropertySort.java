@@ -0,0 +1,47 @@
+package com.juan.property.property_recommendation.property;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+public enum PropertySort {
+    PRICE("price", Sort.Direction.ASC, BigDecimal::new),
+    AREA("area", Sort.Direction.ASC, Double::valueOf),
+    NEWEST("createdAt", Sort.Direction.DESC, LocalDateTime::parse);
+
+    private final String attribute;
+    private final Sort.Direction direction;
+    private final Function<String, Object> parser;
+
+    PropertySort(String attribute, Sort.Direction direction, Function<String, Object> parser) {
+        this.attribute = attribute;
+        this.direction = direction;
+        this.parser = parser;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    // The id breaks ties so the order is total and every row has exactly one position
+    public Sort toSort() {
+        return Sort.by(direction, attribute).and(Sort.by(direction, "id"));
+    }
+
+    public Object parseValue(String value) {
+        return parser.apply(value);
+    }
+
+    public static PropertySort from(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return PropertySort.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The sort is not valid");
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.juan.property.property_recommendation.property;
 import com.juan.property.property_recommendation.location.City;
 import com.juan.property.property_recommendation.location.Department;
 import jakarta.persistence.criteria.*;
-import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.jpa.domain.Specification;
@@ -13,8 +13,8 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
-@AllArgsConstructor
 @NoArgsConstructor
+@Getter
 @Setter
 public class PropertySpecification  implements Specification<Property> {
 
@@ -28,8 +28,22 @@ public class PropertySpecification  implements Specification<Property> {
     private String propertyType;
     private Integer cityId;
     private Integer departmentId;
-
-
+    private GeoFilter geoFilter;
+
+    public PropertySpecification(BigDecimal minPrice, BigDecimal maxPrice, Double minArea, Double maxArea,
+                                 Integer numberOfBathrooms, Integer numberOfBedrooms, String operationType,
+                                 String propertyType, Integer cityId, Integer departmentId) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.minArea = minArea;
+        this.maxArea = maxArea;
+        this.numberOfBathrooms = numberOfBathrooms;
+        this.numberOfBedrooms = numberOfBedrooms;
+        this.operationType = operationType;
+        this.propertyType = propertyType;
+        this.cityId = cityId;
+        this.departmentId = departmentId;
+    }
 
     @Override
     public jakarta.persistence.criteria.Predicate toPredicate(Root<Property> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
@@ -44,11 +58,11 @@ public class PropertySpecification  implements Specification<Property> {
             Predicate priceLessThanEqualPredicate = criteriaBuilder.lessThanOrEqualTo(root.get("price"), maxPrice);
             predicates.add(priceLessThanEqualPredicate);
         }
-        if(maxArea != null  && maxArea != 0 ){
+        if(minArea != null  && minArea != 0 ){
             Predicate areaGreaterThanEqualPredicate = criteriaBuilder.greaterThanOrEqualTo(root.get("area"), minArea);
             predicates.add(areaGreaterThanEqualPredicate);
         }
-        if(minArea != null) {
+        if(maxArea != null  && maxArea != 0 ) {
             Predicate areaLessThanEqualPredicate = criteriaBuilder.lessThanOrEqualTo(root.get("area"), maxArea);
             predicates.add(areaLessThanEqualPredicate);
         }
@@ -58,7 +72,7 @@ public class PropertySpecification  implements Specification<Property> {
 
         }
         if(numberOfBedrooms != null) {
-            Predicate bedroomsEqualPredicate = criteriaBuilder.equal(root.get("numberOfBedRooms"), numberOfBathrooms);
+            Predicate bedroomsEqualPredicate = criteriaBuilder.equal(root.get("numberOfBedrooms"), numberOfBedrooms);
             predicates.add(bedroomsEqualPredicate);
 
         }
@@ -87,6 +101,10 @@ public class PropertySpecification  implements Specification<Property> {
             predicates.add(criteriaBuilder.equal(cityDepartmentJoin.get("id"), departmentId));
         }
 
+        if (geoFilter != null) {
+            predicates.add(geoFilter.toPredicate(root, criteriaBuilder));
+        }
+
 
         return criteriaBuilder.and(predicates.toArray(new Predicate[predicates.size()]));
 
@@ -0,0 +1,7 @@
+package com.juan.property.property_recommendation.property;
+
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.user.User;
+
+public record PropertyViewedEvent(User user, PropertyResponse property) {
+}
@@ -0,0 +1,25 @@
+package com.juan.property.property_recommendation.property.dto;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PriceBucket;
+import com.juan.property.property_recommendation.property.PropertyType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class PropertyFacetsResponse {
+    private long total;
+    private Map<OperationType, Long> operationTypes;
+    private Map<PropertyType, Long> propertyTypes;
+    private Map<Integer, Long> departments;
+    private Map<Integer, Long> cities;
+    private Map<Integer, Long> bedrooms;
+    private Map<PriceBucket, Long> priceBuckets;
+}
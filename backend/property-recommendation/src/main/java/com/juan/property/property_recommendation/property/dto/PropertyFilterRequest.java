@@ -1,16 +1,25 @@
 package com.juan.property.property_recommendation.property.dto;
 
-import com.juan.property.property_recommendation.property.OperationType;
-import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.GeoFilter;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
 
+/**
+ * The listing filters, bound from the query parameters of every search endpoint. The operation and property types
+ * are matched as text, so a partial value such as "lease" filters too. The radius is in km and the bbox is
+ * minLon,minLat,maxLon,maxLat.
+ */
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class PropertyFilterRequest {
     private BigDecimal minPrice;
     private BigDecimal maxPrice;
@@ -18,7 +27,32 @@ public class PropertyFilterRequest {
     private Double maxArea;
     private Integer numberOfBathrooms;
     private Integer numberOfBedrooms;
+    private String operationType;
+    private String propertyType;
     private Integer cityId;
-    private OperationType operationType;
-    private PropertyType propertyType;
+    private Integer departmentId;
+    private Double lat;
+    private Double lon;
+    private Double radius;
+    private String bbox;
+    private String address;
+
+    public PropertySpecification toSpecification() {
+        PropertySpecification propertySpecification = new PropertySpecification(minPrice,
+                maxPrice,
+                minArea,
+                maxArea,
+                numberOfBathrooms,
+                numberOfBedrooms,
+                operationType,
+                propertyType,
+                cityId,
+                departmentId);
+        propertySpecification.setGeoFilter(GeoFilter.of(lat, lon, radius, bbox));
+        return propertySpecification;
+    }
+
+    public boolean hasAddress() {
+        return address != null && !address.isBlank();
+    }
 }
@@ -0,0 +1,17 @@
+package com.juan.property.property_recommendation.property.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class PropertyPageResponse {
+    private List<PropertyResponse> items;
+    private String nextCursor;
+}
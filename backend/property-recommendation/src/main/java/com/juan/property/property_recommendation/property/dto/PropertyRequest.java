@@ -50,6 +50,14 @@ public class PropertyRequest {
     @Positive(message = "The city id must be grated than zero" )
     private Integer cityId;
 
+    @DecimalMin(value = "-90.0", message = "The latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "The latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "The longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "The longitude must be between -180 and 180")
+    private Double longitude;
+
 
    public PropertyRequest(){
        if(registryNumber != null){
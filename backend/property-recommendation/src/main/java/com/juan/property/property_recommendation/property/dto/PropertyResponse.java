@@ -28,5 +28,7 @@ public class PropertyResponse {
     private String ownerEmail;
     private Long ownerPhoneNumber;
     private PropertyType propertyType;
+    private Double latitude;
+    private Double longitude;
 
 }
@@ -0,0 +1,54 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class AddressSearchEngine {
+
+    private final AddressTrigramIndex index = new AddressTrigramIndex();
+    private final PropertyRepository propertyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AddressSearchEngine(PropertyRepository propertyRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager) {
+        this.propertyRepository = propertyRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return index.isReady();
+    }
+
+    public List<Long> search(String address, int limit) {
+        return index.search(address, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        index.load(sink -> readOnlyTransaction.executeWithoutResult(status ->
+                propertyRepository.streamAllWithDetails().forEach(property -> {
+                    sink.accept(property);
+                    entityManager.detach(property);
+                })));
+    }
+
+    // Buffered during a running load; listings already loaded are skipped by registry number
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyRegistered(PropertyRegisteredEvent event) {
+        index.add(event.property());
+    }
+}
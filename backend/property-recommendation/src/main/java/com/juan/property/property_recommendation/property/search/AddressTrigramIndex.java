@@ -0,0 +1,326 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.Property;
+import lombok.extern.slf4j.Slf4j;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index from the trigrams of each listing's normalized address and city name to the listings containing
+ * them. A query only visits the posting lists of its own trigrams: the rarest ones produce the candidates and the
+ * rest are probed by binary search, so a specific address costs about as much as the listings that share its rare
+ * trigrams.
+ */
+@Slf4j
+public class AddressTrigramIndex {
+
+    // A listing must contain at least this share of the query trigrams to be returned
+    public static final double MIN_OVERLAP = 0.5;
+
+    private static final int ALPHABET = 37;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+|(?<=[0-9])(?=[a-z])|(?<=[a-z])(?=[0-9])");
+    private static final Map<String, String> ABBREVIATIONS = abbreviations();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[][] postings;
+    private int[] postingSizes;
+    private long[] registryNumbers;
+    private short[] trigramCounts;
+    private Set<Long> indexed;
+    private int size;
+    private volatile boolean ready;
+    // Guarded by lock: listings registered while a load reads the catalog, non-null only meanwhile
+    private List<Property> registeredDuringLoad;
+
+    public AddressTrigramIndex() {
+        reset();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the catalog into a new index without holding the lock, so registrations meanwhile are only buffered, and
+     * swaps it in once complete.
+     */
+    public void load(Consumer<Consumer<Property>> source) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            registeredDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        AddressTrigramIndex loaded = new AddressTrigramIndex();
+        try {
+            source.accept(loaded::append);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                registeredDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            postings = loaded.postings;
+            postingSizes = loaded.postingSizes;
+            registryNumbers = loaded.registryNumbers;
+            trigramCounts = loaded.trigramCounts;
+            indexed = loaded.indexed;
+            size = loaded.size;
+            registeredDuringLoad.forEach(this::append);
+            registeredDuringLoad = null;
+            ready = true;
+            log.info("Address trigram index loaded with {} listings", size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a listing unless it is already indexed, so a registration racing the load is not counted twice.
+     */
+    public void add(Property property) {
+        lock.writeLock().lock();
+        try {
+            if (registeredDuringLoad != null) {
+                registeredDuringLoad.add(property);
+            } else {
+                append(property);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registry numbers of the listings sharing most trigrams with the query, best first. Ties go to the listing whose
+     * address has fewer other trigrams, then to the older listing.
+     */
+    public List<Long> search(String query, int limit) {
+        int[] trigrams = trigrams(normalize(query));
+        if (trigrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return searchLocked(trigrams, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> searchLocked(int[] trigrams, int limit) {
+        int terms = trigrams.length;
+        int minOverlap = Math.max(1, (int) Math.ceil(MIN_OVERLAP * terms));
+        Integer[] order = new Integer[terms];
+        for (int i = 0; i < terms; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(postingSizes[trigrams[a]], postingSizes[trigrams[b]]));
+
+        // A listing with minOverlap of the terms holds at least one of the (terms - minOverlap + 1) rarest
+        int generators = terms - minOverlap + 1;
+        long candidatePostings = 0;
+        for (int i = 0; i < generators; i++) candidatePostings += postingSizes[trigrams[order[i]]];
+
+        int[] candidates;
+        int[] overlaps;
+        if (candidatePostings > size / 8) {
+            // Broad query: counting over every posting is cheaper than merging most of the catalog
+            int[] counts = new int[size];
+            for (int trigram : trigrams) {
+                int[] list = postings[trigram];
+                for (int i = 0, n = postingSizes[trigram]; i < n; i++) counts[list[i]]++;
+            }
+            int matches = 0;
+            for (int count : counts) if (count >= minOverlap) matches++;
+            candidates = new int[matches];
+            overlaps = new int[matches];
+            for (int doc = 0, j = 0; doc < size; doc++) {
+                if (counts[doc] >= minOverlap) {
+                    candidates[j] = doc;
+                    overlaps[j++] = counts[doc];
+                }
+            }
+        } else {
+            candidates = new int[(int) candidatePostings];
+            int n = 0;
+            for (int i = 0; i < generators; i++) {
+                int trigram = trigrams[order[i]];
+                if (postingSizes[trigram] == 0) continue;
+                System.arraycopy(postings[trigram], 0, candidates, n, postingSizes[trigram]);
+                n += postingSizes[trigram];
+            }
+            Arrays.sort(candidates, 0, n);
+            int unique = 0;
+            for (int i = 0; i < n; i++) {
+                if (unique == 0 || candidates[unique - 1] != candidates[i]) candidates[unique++] = candidates[i];
+            }
+            candidates = Arrays.copyOf(candidates, unique);
+            overlaps = new int[unique];
+            for (int trigram : trigrams) {
+                int[] list = postings[trigram];
+                int listSize = postingSizes[trigram];
+                int from = 0;
+                for (int i = 0; i < unique && from < listSize; i++) {
+                    int found = Arrays.binarySearch(list, from, listSize, candidates[i]);
+                    if (found >= 0) {
+                        overlaps[i]++;
+                        from = found + 1;
+                    } else {
+                        from = -found - 1;
+                    }
+                }
+            }
+        }
+
+        PriorityQueue<int[]> top = new PriorityQueue<>(limit + 1, (a, b) -> -compareRank(a, b));
+        for (int i = 0; i < candidates.length; i++) {
+            if (overlaps[i] < minOverlap) continue;
+            int[] entry = {overlaps[i], candidates[i]};
+            if (top.size() < limit) {
+                top.add(entry);
+            } else if (compareRank(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+        List<int[]> ranked = new ArrayList<>(top);
+        ranked.sort(this::compareRank);
+        List<Long> result = new ArrayList<>(ranked.size());
+        for (int[] entry : ranked) result.add(registryNumbers[entry[1]]);
+        return result;
+    }
+
+    // Negative when a ranks before b
+    private int compareRank(int[] a, int[] b) {
+        if (a[0] != b[0]) return Integer.compare(b[0], a[0]);
+        int extra = Integer.compare(trigramCounts[a[1]] - a[0], trigramCounts[b[1]] - b[0]);
+        return extra != 0 ? extra : Integer.compare(a[1], b[1]);
+    }
+
+    private void reset() {
+        postings = new int[ALPHABET * ALPHABET * ALPHABET][];
+        postingSizes = new int[postings.length];
+        registryNumbers = new long[INITIAL_CAPACITY];
+        trigramCounts = new short[INITIAL_CAPACITY];
+        indexed = new HashSet<>();
+        size = 0;
+    }
+
+    private void append(Property property) {
+        if (!indexed.add(property.getRegistryNumber())) {
+            return;
+        }
+        String city = property.getCity() == null ? "" : property.getCity().getName();
+        int[] trigrams = trigrams(normalize(property.getAddress() + " " + city));
+        int doc = size;
+        if (doc == registryNumbers.length) {
+            registryNumbers = Arrays.copyOf(registryNumbers, doc * 2);
+            trigramCounts = Arrays.copyOf(trigramCounts, doc * 2);
+        }
+        registryNumbers[doc] = property.getRegistryNumber();
+        trigramCounts[doc] = (short) Math.min(Short.MAX_VALUE, trigrams.length);
+        for (int trigram : trigrams) {
+            int[] list = postings[trigram];
+            int n = postingSizes[trigram];
+            if (list == null) {
+                list = postings[trigram] = new int[4];
+            } else if (n == list.length) {
+                list = postings[trigram] = Arrays.copyOf(list, n + (n >> 1));
+            }
+            list[n] = doc;
+            postingSizes[trigram] = n + 1;
+        }
+        size = doc + 1;
+    }
+
+    /**
+     * Lower case without accents, with the street type abbreviations unified, e.g. "Carrera 7 #45-10" becomes
+     * "kr 7 45 10" and "Cl. 80a" becomes "cl 80 a".
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(plain.length());
+        for (String word : SEPARATORS.split(plain)) {
+            if (word.isEmpty()) continue;
+            String replacement = ABBREVIATIONS.getOrDefault(word, word);
+            if (replacement.isEmpty()) continue;
+            if (!normalized.isEmpty()) normalized.append(' ');
+            normalized.append(replacement);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Distinct trigrams of a normalized text, sorted. Each word is padded with two spaces in front and one behind,
+     * so short words and word starts weigh in, the way pg_trgm pads them.
+     */
+    public static int[] trigrams(String normalized) {
+        if (normalized.isEmpty()) {
+            return new int[0];
+        }
+        Set<Integer> trigrams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add((code(padded.charAt(i)) * ALPHABET + code(padded.charAt(i + 1))) * ALPHABET
+                        + code(padded.charAt(i + 2)));
+            }
+        }
+        int[] result = new int[trigrams.size()];
+        int i = 0;
+        for (int trigram : trigrams) result[i++] = trigram;
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') return 1 + c - 'a';
+        if (c >= '0' && c <= '9') return 27 + c - '0';
+        return 0;
+    }
+
+    private static Map<String, String> abbreviations() {
+        Map<String, String> abbreviations = new HashMap<>();
+        for (String word : List.of("calle", "cl", "cll", "clle", "call")) abbreviations.put(word, "cl");
+        for (String word : List.of("carrera", "cra", "kra", "kr", "cr", "carr", "crr")) abbreviations.put(word, "kr");
+        for (String word : List.of("avenida", "av", "avda", "ave")) abbreviations.put(word, "av");
+        for (String word : List.of("diagonal", "dg", "diag")) abbreviations.put(word, "dg");
+        for (String word : List.of("transversal", "tv", "tr", "transv", "trans")) abbreviations.put(word, "tv");
+        // "No. 45" and "#45" mean the same, and the sign is already dropped
+        for (String word : List.of("no", "nro", "numero", "num")) abbreviations.put(word, "");
+        return Map.copyOf(abbreviations);
+    }
+}
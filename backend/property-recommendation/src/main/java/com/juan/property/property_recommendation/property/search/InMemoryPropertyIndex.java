@@ -0,0 +1,381 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.GeoFilter;
+import com.juan.property.property_recommendation.property.GeoHash;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented copy of the catalog that answers {@link PropertySearchCriteria} without going to the database.
+ * Low-cardinality columns also keep a {@link CompressedBitmap} per value, so categorical filters become a few
+ * bitmap ANDs and only the surviving rows are checked against the price and area ranges. Coordinates are bucketed
+ * into a uniform grid of geohash cells, so a radius or bounding-box filter only visits the rows of the cells it covers.
+ */
+@Slf4j
+public class InMemoryPropertyIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+    // About 4.9 km x 4.9 km, a few cells for a neighbourhood search and a few hundred for a city viewport
+    private static final int GRID_PRECISION = 5;
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+    private static final PropertyType[] PROPERTY_TYPES = PropertyType.values();
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    private final PropertyMapper propertyMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Columns columns;
+    private Set<Long> indexed;
+    private int size;
+    private volatile boolean ready;
+    // Guarded by lock: listings registered while a load reads the catalog, non-null only meanwhile
+    private List<Property> registeredDuringLoad;
+
+    private CompressedBitmap[] byOperationType;
+    private CompressedBitmap[] byPropertyType;
+    private Map<Integer, CompressedBitmap> byCity;
+    private Map<Integer, CompressedBitmap> byDepartment;
+    private Map<Integer, CompressedBitmap> byBathrooms;
+    private Map<Integer, CompressedBitmap> byBedrooms;
+    private Map<String, CompressedBitmap> byGridCell;
+
+    public InMemoryPropertyIndex(PropertyMapper propertyMapper) {
+        this.propertyMapper = propertyMapper;
+        clear();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the catalog into a new index without holding the lock, so registrations meanwhile are only buffered, and
+     * swaps it in once complete.
+     */
+    public void load(Consumer<Consumer<Property>> source) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            registeredDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        InMemoryPropertyIndex loaded = new InMemoryPropertyIndex(propertyMapper);
+        try {
+            source.accept(loaded::append);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                registeredDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            columns = loaded.columns;
+            indexed = loaded.indexed;
+            size = loaded.size;
+            byOperationType = loaded.byOperationType;
+            byPropertyType = loaded.byPropertyType;
+            byCity = loaded.byCity;
+            byDepartment = loaded.byDepartment;
+            byBathrooms = loaded.byBathrooms;
+            byBedrooms = loaded.byBedrooms;
+            byGridCell = loaded.byGridCell;
+            registeredDuringLoad.forEach(this::append);
+            registeredDuringLoad = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("In-memory property index loaded with {} rows, bitmap indexes use {} KB",
+                size(), bitmapSizeInBytes() / 1024);
+    }
+
+    /**
+     * Adds a listing unless it is already indexed, so a registration racing the load is not listed twice.
+     */
+    public void add(Property property) {
+        lock.writeLock().lock();
+        try {
+            if (registeredDuringLoad != null) {
+                registeredDuringLoad.add(property);
+            } else {
+                append(property);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        columns = new Columns(INITIAL_CAPACITY);
+        indexed = new HashSet<>();
+        size = 0;
+        byOperationType = newBitmaps(OPERATION_TYPES.length);
+        byPropertyType = newBitmaps(PROPERTY_TYPES.length);
+        byCity = new HashMap<>();
+        byDepartment = new HashMap<>();
+        byBathrooms = new HashMap<>();
+        byBedrooms = new HashMap<>();
+        byGridCell = new HashMap<>();
+    }
+
+    public long bitmapSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (CompressedBitmap bitmap : byOperationType) bytes += bitmap.sizeInBytes();
+            for (CompressedBitmap bitmap : byPropertyType) bytes += bitmap.sizeInBytes();
+            for (Map<Integer, CompressedBitmap> bitmaps : List.of(byCity, byDepartment, byBathrooms, byBedrooms)) {
+                for (CompressedBitmap bitmap : bitmaps.values()) bytes += bitmap.sizeInBytes();
+            }
+            for (CompressedBitmap bitmap : byGridCell.values()) bytes += bitmap.sizeInBytes();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<PropertyResponse> search(PropertySearchCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            return searchLocked(criteria);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<PropertyResponse> searchLocked(PropertySearchCriteria criteria) {
+        int n = size;
+        Columns c = columns;
+
+        long minPrice = criteria.minPriceCents();
+        long maxPrice = criteria.maxPriceCents();
+        boolean filterMinArea = criteria.minArea() != null;
+        boolean filterMaxArea = criteria.maxArea() != null;
+        double minArea = filterMinArea ? criteria.minArea() : 0;
+        double maxArea = filterMaxArea ? criteria.maxArea() : 0;
+        boolean filterBathrooms = criteria.numberOfBathrooms() != null;
+        int bathrooms = filterBathrooms ? criteria.numberOfBathrooms() : 0;
+        boolean filterBedrooms = criteria.numberOfBedrooms() != null;
+        int bedrooms = filterBedrooms ? criteria.numberOfBedrooms() : 0;
+        int operationMask = criteria.operationTypeMask(OPERATION_TYPES);
+        int propertyTypeMask = criteria.propertyTypeMask(PROPERTY_TYPES);
+        boolean filterCity = criteria.cityId() != null;
+        int cityId = filterCity ? criteria.cityId() : 0;
+        boolean filterDepartment = criteria.departmentId() != null;
+        int departmentId = filterDepartment ? criteria.departmentId() : 0;
+        GeoFilter geoFilter = criteria.geoFilter();
+
+        List<PropertyResponse> result = new ArrayList<>();
+        CompressedBitmap candidates = categoricalCandidates(criteria, operationMask, propertyTypeMask);
+        if (candidates != null) {
+            candidates.forEach(i -> {
+                long price = c.priceCents[i];
+                if (price < minPrice || price > maxPrice) return;
+                if (filterMinArea && !(c.area[i] >= minArea)) return;
+                if (filterMaxArea && !(c.area[i] <= maxArea)) return;
+                if (geoFilter != null && !geoFilter.contains(c.latitude[i], c.longitude[i])) return;
+                result.add(c.rows[i]);
+            });
+            return result;
+        }
+
+        // Cheapest and usually most selective columns first
+        for (int i = 0; i < n; i++) {
+            if (filterDepartment && c.departmentId[i] != departmentId) continue;
+            if (filterCity && c.cityId[i] != cityId) continue;
+            if (((operationMask >>> c.operationType[i]) & 1) == 0) continue;
+            if (((propertyTypeMask >>> c.propertyType[i]) & 1) == 0) continue;
+            if (filterBedrooms && c.bedrooms[i] != bedrooms) continue;
+            if (filterBathrooms && c.bathrooms[i] != bathrooms) continue;
+            long price = c.priceCents[i];
+            if (price < minPrice || price > maxPrice) continue;
+            if (filterMinArea && !(c.area[i] >= minArea)) continue;
+            if (filterMaxArea && !(c.area[i] <= maxArea)) continue;
+            result.add(c.rows[i]);
+        }
+        return result;
+    }
+
+    // Null when no categorical filter applies and the rows have to be scanned
+    private CompressedBitmap categoricalCandidates(PropertySearchCriteria criteria, int operationMask, int propertyTypeMask) {
+        List<CompressedBitmap> filters = new ArrayList<>();
+        if (operationMask != -1) filters.add(union(byOperationType, operationMask));
+        if (propertyTypeMask != -1) filters.add(union(byPropertyType, propertyTypeMask));
+        if (criteria.cityId() != null) filters.add(byCity.getOrDefault(criteria.cityId(), EMPTY));
+        if (criteria.departmentId() != null) filters.add(byDepartment.getOrDefault(criteria.departmentId(), EMPTY));
+        if (criteria.numberOfBathrooms() != null) filters.add(byBathrooms.getOrDefault(criteria.numberOfBathrooms(), EMPTY));
+        if (criteria.numberOfBedrooms() != null) filters.add(byBedrooms.getOrDefault(criteria.numberOfBedrooms(), EMPTY));
+        if (criteria.geoFilter() != null) filters.add(gridCandidates(criteria.geoFilter()));
+        if (filters.isEmpty()) {
+            return null;
+        }
+        filters.sort(Comparator.comparingInt(CompressedBitmap::cardinality));
+        CompressedBitmap result = filters.get(0);
+        for (int i = 1; i < filters.size() && result.cardinality() > 0; i++) {
+            result = result.and(filters.get(i));
+        }
+        return result;
+    }
+
+    // Looks up the covered cells, or walks the occupied ones when the box covers more cells than hold listings
+    private CompressedBitmap gridCandidates(GeoFilter filter) {
+        double minLat = filter.minLatitude(), minLon = filter.minLongitude();
+        double maxLat = filter.maxLatitude(), maxLon = filter.maxLongitude();
+        CompressedBitmap result = EMPTY;
+        if (GeoHash.cellCount(minLat, minLon, maxLat, maxLon, GRID_PRECISION) <= byGridCell.size()) {
+            for (String cell : GeoHash.cells(minLat, minLon, maxLat, maxLon, GRID_PRECISION)) {
+                CompressedBitmap bitmap = byGridCell.get(cell);
+                if (bitmap != null) result = result.or(bitmap);
+            }
+            return result;
+        }
+        for (Map.Entry<String, CompressedBitmap> entry : byGridCell.entrySet()) {
+            double[] bounds = GeoHash.bounds(entry.getKey());
+            if (bounds[0] <= maxLat && bounds[2] >= minLat && bounds[1] <= maxLon && bounds[3] >= minLon) {
+                result = result.or(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static CompressedBitmap union(CompressedBitmap[] bitmaps, int mask) {
+        if (Integer.bitCount(mask) == 1) {
+            return bitmaps[Integer.numberOfTrailingZeros(mask)];
+        }
+        CompressedBitmap result = EMPTY;
+        for (int i = 0; i < bitmaps.length; i++) {
+            if (((mask >>> i) & 1) != 0) {
+                result = result.or(bitmaps[i]);
+            }
+        }
+        return result;
+    }
+
+    private static CompressedBitmap[] newBitmaps(int length) {
+        CompressedBitmap[] bitmaps = new CompressedBitmap[length];
+        for (int i = 0; i < length; i++) {
+            bitmaps[i] = new CompressedBitmap();
+        }
+        return bitmaps;
+    }
+
+    private void append(Property property) {
+        if (!indexed.add(property.getRegistryNumber())) {
+            return;
+        }
+        int i = size;
+        Columns c = columns;
+        if (i == c.capacity()) {
+            c = c.grow();
+            columns = c;
+        }
+        c.priceCents[i] = PropertySearchCriteria.toCents(property.getPrice());
+        c.area[i] = property.getArea() == null ? Double.NaN : property.getArea();
+        c.bathrooms[i] = property.getNumberOfBathrooms() == null ? NO_VALUE : property.getNumberOfBathrooms();
+        c.bedrooms[i] = property.getNumberOfBedrooms() == null ? NO_VALUE : property.getNumberOfBedrooms();
+        c.operationType[i] = (byte) property.getOperationType().ordinal();
+        c.propertyType[i] = (byte) property.getPropertyType().ordinal();
+        c.cityId[i] = property.getCity().getId();
+        c.departmentId[i] = property.getCity().getDepartment().getId();
+        boolean located = property.getLatitude() != null && property.getLongitude() != null;
+        c.latitude[i] = located ? property.getLatitude() : Double.NaN;
+        c.longitude[i] = located ? property.getLongitude() : Double.NaN;
+        c.rows[i] = propertyMapper.propertyToDto(property);
+        byOperationType[c.operationType[i]].add(i);
+        byPropertyType[c.propertyType[i]].add(i);
+        byCity.computeIfAbsent(c.cityId[i], key -> new CompressedBitmap()).add(i);
+        byDepartment.computeIfAbsent(c.departmentId[i], key -> new CompressedBitmap()).add(i);
+        if (property.getNumberOfBathrooms() != null) {
+            byBathrooms.computeIfAbsent(c.bathrooms[i], key -> new CompressedBitmap()).add(i);
+        }
+        if (property.getNumberOfBedrooms() != null) {
+            byBedrooms.computeIfAbsent(c.bedrooms[i], key -> new CompressedBitmap()).add(i);
+        }
+        if (located) {
+            byGridCell.computeIfAbsent(GeoHash.encode(c.latitude[i], c.longitude[i], GRID_PRECISION),
+                    key -> new CompressedBitmap()).add(i);
+        }
+        size = i + 1;
+    }
+
+    private static final class Columns {
+        final long[] priceCents;
+        final double[] area;
+        final int[] bathrooms;
+        final int[] bedrooms;
+        final byte[] operationType;
+        final byte[] propertyType;
+        final int[] cityId;
+        final int[] departmentId;
+        final double[] latitude;
+        final double[] longitude;
+        final PropertyResponse[] rows;
+
+        Columns(int capacity) {
+            this(new long[capacity], new double[capacity], new int[capacity], new int[capacity], new byte[capacity],
+                    new byte[capacity], new int[capacity], new int[capacity], new double[capacity], new double[capacity],
+                    new PropertyResponse[capacity]);
+        }
+
+        private Columns(long[] priceCents, double[] area, int[] bathrooms, int[] bedrooms, byte[] operationType,
+                        byte[] propertyType, int[] cityId, int[] departmentId, double[] latitude, double[] longitude,
+                        PropertyResponse[] rows) {
+            this.priceCents = priceCents;
+            this.area = area;
+            this.bathrooms = bathrooms;
+            this.bedrooms = bedrooms;
+            this.operationType = operationType;
+            this.propertyType = propertyType;
+            this.cityId = cityId;
+            this.departmentId = departmentId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.rows = rows;
+        }
+
+        int capacity() {
+            return rows.length;
+        }
+
+        Columns grow() {
+            int capacity = capacity() * 2;
+            return new Columns(Arrays.copyOf(priceCents, capacity), Arrays.copyOf(area, capacity),
+                    Arrays.copyOf(bathrooms, capacity), Arrays.copyOf(bedrooms, capacity),
+                    Arrays.copyOf(operationType, capacity), Arrays.copyOf(propertyType, capacity),
+                    Arrays.copyOf(cityId, capacity), Arrays.copyOf(departmentId, capacity),
+                    Arrays.copyOf(latitude, capacity), Arrays.copyOf(longitude, capacity),
+                    Arrays.copyOf(rows, capacity));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.juan.property.property_recommendation.property.search;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a user tends to look at. A listing scores the product of its department, operation type and property type
+ * weights and a Gaussian closeness of its log price to {@code logPrice}. Empty weights mean no preference.
+ */
+public record ListingPreference(
+        Map<Integer, Double> departmentWeights,
+        double[] operationTypeWeights,
+        double[] propertyTypeWeights,
+        Double logPrice,
+        double logPriceSpread,
+        Set<Long> excludedRegistryNumbers
+) {
+}
@@ -0,0 +1,145 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PriceBucket;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyFacet;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyFacetsResponse;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listing counts per combination of facet dimensions. Loaded with one aggregate query on first use and then kept
+ * current from {@link PropertyRegisteredEvent}, so sidebar filters on those dimensions never reach the database.
+ * Filters on price, area or bathrooms run a single filtered aggregate query instead.
+ * <p>
+ * Ids come from a pooled sequence, so a property can commit after the load with an id below the loaded maximum and
+ * nothing tells whether the load counted it. Only events above the loaded maximum are added; any other event, from
+ * then on or during a load, marks the counts stale and the next request counts again.
+ */
+@Service
+public class PropertyFacetIndex {
+
+    private final PropertyRepository propertyRepository;
+    private final Object loadLock = new Object();
+
+    private volatile Map<PropertyFacet, Long> counts = new ConcurrentHashMap<>();
+    private volatile boolean stale = true;
+    // Properties up to this id may be in the loaded counts
+    private long loadedMaxId;
+    // Properties registered while a load runs, applied once it is done
+    private List<Property> registeredDuringLoad;
+
+    public PropertyFacetIndex(PropertyRepository propertyRepository) {
+        this.propertyRepository = propertyRepository;
+    }
+
+    public PropertyFacetsResponse facets(PropertySpecification propertySpecification) {
+        PropertySearchCriteria criteria = PropertySearchCriteria.from(propertySpecification);
+        if (!criteria.filtersFacetDimensionsOnly()) {
+            return summarize(propertyRepository.countFacets(propertySpecification), criteria);
+        }
+        if (stale) {
+            load();
+        }
+        return summarize(counts, criteria);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPropertyRegistered(PropertyRegisteredEvent event) {
+        Property property = event.property();
+        if (registeredDuringLoad != null) {
+            registeredDuringLoad.add(property);
+        } else if (!stale && property.getId() > loadedMaxId) {
+            counts.merge(PropertyFacet.of(property), 1L, Long::sum);
+        } else {
+            stale = true;
+        }
+    }
+
+    // Registrations wait for the lock on this index only while the counts are swapped, not during the query
+    private void load() {
+        synchronized (loadLock) {
+            if (!stale) {
+                return;
+            }
+            synchronized (this) {
+                stale = false;
+                registeredDuringLoad = new ArrayList<>();
+            }
+            Map<PropertyFacet, Long> loaded = new ConcurrentHashMap<>();
+            long maxId;
+            try {
+                maxId = propertyRepository.findMaxId();
+                Specification<Property> upToMaxId =
+                        (root, query, criteriaBuilder) -> criteriaBuilder.lessThanOrEqualTo(root.get("id"), maxId);
+                loaded.putAll(propertyRepository.countFacets(upToMaxId));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    stale = true;
+                    registeredDuringLoad = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                for (Property property : registeredDuringLoad) {
+                    if (property.getId() > maxId) {
+                        loaded.merge(PropertyFacet.of(property), 1L, Long::sum);
+                    } else {
+                        stale = true;
+                    }
+                }
+                registeredDuringLoad = null;
+                counts = loaded;
+                loadedMaxId = maxId;
+            }
+        }
+    }
+
+    private static PropertyFacetsResponse summarize(Map<PropertyFacet, Long> counts, PropertySearchCriteria criteria) {
+        long total = 0;
+        Map<OperationType, Long> operationTypes = new EnumMap<>(OperationType.class);
+        Map<PropertyType, Long> propertyTypes = new EnumMap<>(PropertyType.class);
+        Map<Integer, Long> departments = new TreeMap<>();
+        Map<Integer, Long> cities = new TreeMap<>();
+        Map<Integer, Long> bedrooms = new TreeMap<>();
+        Map<PriceBucket, Long> priceBuckets = new EnumMap<>(PriceBucket.class);
+        for (Map.Entry<PropertyFacet, Long> entry : counts.entrySet()) {
+            PropertyFacet facet = entry.getKey();
+            if (!criteria.matches(facet)) {
+                continue;
+            }
+            long count = entry.getValue();
+            total += count;
+            operationTypes.merge(facet.operationType(), count, Long::sum);
+            propertyTypes.merge(facet.propertyType(), count, Long::sum);
+            departments.merge(facet.departmentId(), count, Long::sum);
+            cities.merge(facet.cityId(), count, Long::sum);
+            if (facet.numberOfBedrooms() != null) {
+                bedrooms.merge(facet.numberOfBedrooms(), count, Long::sum);
+            }
+            priceBuckets.merge(facet.priceBucket(), count, Long::sum);
+        }
+        return PropertyFacetsResponse.builder()
+                .total(total)
+                .operationTypes(operationTypes)
+                .propertyTypes(propertyTypes)
+                .departments(departments)
+                .cities(cities)
+                .bedrooms(bedrooms)
+                .priceBuckets(priceBuckets)
+                .build();
+    }
+}
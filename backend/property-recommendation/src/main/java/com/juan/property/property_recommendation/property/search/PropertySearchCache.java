@@ -0,0 +1,141 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU cache of search results keyed by {@link PropertySearchCriteria}. The cache holds at most
+ * {@code max-entries} results and {@code max-rows} rows across them, and a result with more rows than that is not
+ * cached. Entries expire after a TTL, and a registered property only drops the entries whose filters it matches.
+ */
+@Component
+public class PropertySearchCache {
+
+    private final int maxEntries;
+    private final int maxRows;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<PropertySearchCriteria, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped on every invalidation so a search that started before a write does not cache a stale result
+    private long generation;
+    private long rows;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    @Autowired
+    public PropertySearchCache(@Value("${property.search.cache.max-entries:1000}") int maxEntries,
+                               @Value("${property.search.cache.max-rows:100000}") int maxRows,
+                               @Value("${property.search.cache.ttl:5m}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        this(maxEntries, maxRows, ttl, meterRegistry, Clock.systemUTC());
+    }
+
+    public PropertySearchCache(int maxEntries, int maxRows, Duration ttl, MeterRegistry meterRegistry, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.maxRows = maxRows;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.hits = Counter.builder("property.search.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("property.search.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("property.search.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("property.search.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        this.invalidations = Counter.builder("property.search.cache.evictions").tag("cause", "invalidated").register(meterRegistry);
+        Gauge.builder("property.search.cache.size", this, PropertySearchCache::size).register(meterRegistry);
+        Gauge.builder("property.search.cache.rows", this, PropertySearchCache::rows).register(meterRegistry);
+    }
+
+    public synchronized Optional<List<PropertyResponse>> get(PropertySearchCriteria criteria) {
+        Entry entry = entries.get(criteria);
+        if (entry != null && entry.expiresAt <= clock.millis()) {
+            remove(criteria);
+            expiredEvictions.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.responses);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores the result unless a property was registered since {@code generation} was read or it has more rows than
+     * the whole cache may hold.
+     */
+    public synchronized void put(PropertySearchCriteria criteria, long generation, List<PropertyResponse> responses) {
+        if (maxEntries <= 0 || generation != this.generation || responses.size() > maxRows) {
+            return;
+        }
+        remove(criteria);
+        entries.put(criteria, new Entry(List.copyOf(responses), clock.millis() + ttlMillis));
+        rows += responses.size();
+        while (entries.size() > maxEntries || rows > maxRows) {
+            Iterator<Entry> eldest = entries.values().iterator();
+            rows -= eldest.next().responses.size();
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(Property property) {
+        generation++;
+        Iterator<Map.Entry<PropertySearchCriteria, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<PropertySearchCriteria, Entry> entry = iterator.next();
+            if (entry.getKey().matches(property)) {
+                rows -= entry.getValue().responses.size();
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long rows() {
+        return rows;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyRegistered(PropertyRegisteredEvent event) {
+        invalidate(event.property());
+    }
+
+    private void remove(PropertySearchCriteria criteria) {
+        Entry removed = entries.remove(criteria);
+        if (removed != null) {
+            rows -= removed.responses.size();
+        }
+    }
+
+    private record Entry(List<PropertyResponse> responses, long expiresAt) {
+    }
+}
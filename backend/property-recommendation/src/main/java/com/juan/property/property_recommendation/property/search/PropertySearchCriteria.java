@@ -0,0 +1,145 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.GeoFilter;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyFacet;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Pattern;
+
+/**
+ * The filters of a {@link PropertySpecification} after applying the same null/zero rules as
+ * {@link PropertySpecification#toPredicate}, so two specifications that select the same rows are equal.
+ */
+public record PropertySearchCriteria(
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Double minArea,
+        Double maxArea,
+        Integer numberOfBathrooms,
+        Integer numberOfBedrooms,
+        String operationType,
+        String propertyType,
+        Integer cityId,
+        Integer departmentId,
+        GeoFilter geoFilter
+) {
+
+    public static PropertySearchCriteria from(PropertySpecification spec) {
+        return new PropertySearchCriteria(
+                normalizePrice(spec.getMinPrice()),
+                normalizePrice(spec.getMaxPrice()),
+                normalizeArea(spec.getMinArea()),
+                normalizeArea(spec.getMaxArea()),
+                spec.getNumberOfBathrooms(),
+                spec.getNumberOfBedrooms(),
+                StringUtils.hasText(spec.getOperationType()) ? spec.getOperationType().toUpperCase() : null,
+                StringUtils.hasText(spec.getPropertyType()) ? spec.getPropertyType().toUpperCase() : null,
+                spec.getCityId() != null && spec.getCityId() > 0 ? spec.getCityId() : null,
+                spec.getDepartmentId() != null && spec.getDepartmentId() > 0 ? spec.getDepartmentId() : null,
+                spec.getGeoFilter()
+        );
+    }
+
+    public long minPriceCents() {
+        return minPrice == null ? Long.MIN_VALUE : minPrice.movePointRight(2).setScale(0, RoundingMode.CEILING).longValue();
+    }
+
+    public long maxPriceCents() {
+        return maxPrice == null ? Long.MAX_VALUE : maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue();
+    }
+
+    public int operationTypeMask(Enum<?>[] values) {
+        return likeMask(values, operationType);
+    }
+
+    public int propertyTypeMask(Enum<?>[] values) {
+        return likeMask(values, propertyType);
+    }
+
+    /**
+     * Whether the given property would be selected by these filters, following {@link PropertySpecification#toPredicate}.
+     */
+    public boolean matches(Property property) {
+        BigDecimal price = property.getPrice();
+        if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) return false;
+        if (maxPrice != null && (price == null || price.compareTo(maxPrice) > 0)) return false;
+        Double area = property.getArea();
+        if (minArea != null && (area == null || area < minArea)) return false;
+        if (maxArea != null && (area == null || area > maxArea)) return false;
+        if (numberOfBathrooms != null && !numberOfBathrooms.equals(property.getNumberOfBathrooms())) return false;
+        if (numberOfBedrooms != null && !numberOfBedrooms.equals(property.getNumberOfBedrooms())) return false;
+        if (operationType != null && !likeMatches(property.getOperationType(), operationType)) return false;
+        if (propertyType != null && !likeMatches(property.getPropertyType(), propertyType)) return false;
+        if (cityId != null && (property.getCity() == null || !cityId.equals(property.getCity().getId()))) return false;
+        if (geoFilter != null && !geoFilter.contains(property.getLatitude(), property.getLongitude())) return false;
+        return departmentId == null || (property.getCity() != null && property.getCity().getDepartment() != null
+                && departmentId.equals(property.getCity().getDepartment().getId()));
+    }
+
+    /**
+     * Whether every filter is on a {@link PropertyFacet} dimension, so {@link #matches(PropertyFacet)} decides alone.
+     */
+    public boolean filtersFacetDimensionsOnly() {
+        return minPrice == null && maxPrice == null && minArea == null && maxArea == null && numberOfBathrooms == null
+                && geoFilter == null;
+    }
+
+    public boolean matches(PropertyFacet facet) {
+        if (numberOfBedrooms != null && !numberOfBedrooms.equals(facet.numberOfBedrooms())) return false;
+        if (operationType != null && !likeMatches(facet.operationType(), operationType)) return false;
+        if (propertyType != null && !likeMatches(facet.propertyType(), propertyType)) return false;
+        if (cityId != null && !cityId.equals(facet.cityId())) return false;
+        return departmentId == null || departmentId.equals(facet.departmentId());
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    // Bit i is set when values[i] matches upper(name) LIKE '%text%', the way toPredicate compares enums
+    private static int likeMask(Enum<?>[] values, String text) {
+        if (text == null) {
+            return -1;
+        }
+        int mask = 0;
+        for (Enum<?> value : values) {
+            if (likeMatches(value, text)) {
+                mask |= 1 << value.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    private static boolean likeMatches(Enum<?> value, String text) {
+        if (value == null) {
+            return false;
+        }
+        // Plain text is the usual case and needs no pattern
+        if (text.indexOf('%') < 0 && text.indexOf('_') < 0) {
+            return value.name().contains(text);
+        }
+        StringBuilder regex = new StringBuilder(".*");
+        for (char c : text.toCharArray()) {
+            if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.append(".*").toString(), Pattern.DOTALL).matcher(value.name()).matches();
+    }
+
+    private static BigDecimal normalizePrice(BigDecimal price) {
+        return price == null || price.signum() == 0 ? null : price.stripTrailingZeros();
+    }
+
+    private static Double normalizeArea(Double area) {
+        return area == null || area == 0 ? null : area;
+    }
+}
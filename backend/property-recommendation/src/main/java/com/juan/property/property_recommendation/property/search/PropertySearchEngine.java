@@ -0,0 +1,71 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class PropertySearchEngine {
+
+    private final boolean enabled;
+    private final InMemoryPropertyIndex index;
+    private final PropertyRepository propertyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public PropertySearchEngine(@Value("${property.search.in-memory.enabled:false}") boolean enabled,
+                                PropertyMapper propertyMapper,
+                                PropertyRepository propertyRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.index = new InMemoryPropertyIndex(propertyMapper);
+        this.propertyRepository = propertyRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return enabled && index.isReady();
+    }
+
+    public List<PropertyResponse> search(PropertySpecification propertySpecification) {
+        return index.search(PropertySearchCriteria.from(propertySpecification));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        index.load(sink -> readOnlyTransaction.executeWithoutResult(status ->
+                propertyRepository.streamAllWithDetails().forEach(property -> {
+                    sink.accept(property);
+                    entityManager.detach(property);
+                })));
+    }
+
+    // Runs before the search cache is invalidated, so a search racing the invalidation already sees the new row
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyRegistered(PropertyRegisteredEvent event) {
+        if (enabled) {
+            index.add(event.property());
+        }
+    }
+}
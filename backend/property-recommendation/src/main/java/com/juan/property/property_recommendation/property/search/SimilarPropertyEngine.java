@@ -0,0 +1,68 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class SimilarPropertyEngine {
+
+    private final SimilarPropertyIndex index;
+    private final PropertyRepository propertyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public SimilarPropertyEngine(PropertyMapper propertyMapper,
+                                 PropertyRepository propertyRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager) {
+        this.index = new SimilarPropertyIndex(propertyMapper);
+        this.propertyRepository = propertyRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Optional<List<PropertyResponse>> similar(long registryNumber, int k) {
+        if (!index.isReady()) {
+            load();
+        }
+        return index.similar(registryNumber, k);
+    }
+
+    public List<PropertyResponse> preferred(ListingPreference preference, int k) {
+        if (!index.isReady()) {
+            load();
+        }
+        return index.preferred(preference, k);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        if (index.isReady()) {
+            return;
+        }
+        index.load(sink -> readOnlyTransaction.executeWithoutResult(status ->
+                propertyRepository.streamAllWithDetails().forEach(property -> {
+                    sink.accept(property);
+                    entityManager.detach(property);
+                })));
+    }
+
+    // Waits for a running load; listings already loaded are skipped by registry number
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyRegistered(PropertyRegisteredEvent event) {
+        index.add(event.property());
+    }
+}
@@ -0,0 +1,391 @@
+package com.juan.property.property_recommendation.property.search;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Exact k-nearest-neighbour search over listing feature vectors. The distance between two listings is
+ * {@link #distance(Property, Property)}: scaled differences of log price, log area, bedrooms and bathrooms plus fixed
+ * penalties for a different property type, operation type, city or department.
+ * <p>
+ * Listings are partitioned by city, and each city by operation and property type into cells sorted by log price. A
+ * query visits cells in order of their penalty and stops once the penalty alone exceeds the current k-th distance;
+ * inside a cell it walks outwards from the query price and stops once the price difference does. Most queries only
+ * touch a few cells of their own city, whatever the size of the catalog.
+ */
+@Slf4j
+public class SimilarPropertyIndex {
+
+    // One unit of distance is roughly a 28% difference in price or area, or one bedroom or bathroom
+    private static final double LOG_PRICE_SCALE = 0.25;
+    private static final double LOG_AREA_SCALE = 0.25;
+    private static final double MISSING_AREA_PENALTY = 1;
+    // Squared distances between one-hot encodings and between locations
+    private static final double PROPERTY_TYPE_PENALTY = 4;
+    private static final double OPERATION_TYPE_PENALTY = 9;
+    private static final double CITY_PENALTY = 1;
+    private static final double DEPARTMENT_PENALTY = 4;
+
+    private static final int OPERATION_TYPES = OperationType.values().length;
+    private static final int PROPERTY_TYPES = PropertyType.values().length;
+
+    private final PropertyMapper propertyMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Entry> byRegistryNumber = new HashMap<>();
+    private final Map<Integer, Cell[]> cellsByCity = new HashMap<>();
+    private final Map<Integer, Set<Integer>> citiesByDepartment = new HashMap<>();
+    private volatile boolean ready;
+
+    public SimilarPropertyIndex(PropertyMapper propertyMapper) {
+        this.propertyMapper = propertyMapper;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byRegistryNumber.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void load(Consumer<Consumer<Property>> source) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            byRegistryNumber.clear();
+            cellsByCity.clear();
+            citiesByDepartment.clear();
+            source.accept(this::insert);
+            ready = true;
+            log.info("Similar property index loaded with {} listings in {} cities", byRegistryNumber.size(), cellsByCity.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Property property) {
+        lock.writeLock().lock();
+        try {
+            insert(property);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code k} listings closest to the one with the given registry number, nearest first, or empty when that
+     * listing is not indexed.
+     */
+    public Optional<List<PropertyResponse>> similar(long registryNumber, int k) {
+        lock.readLock().lock();
+        try {
+            Entry query = byRegistryNumber.get(registryNumber);
+            if (query == null) {
+                return Optional.empty();
+            }
+            TopK top = new TopK(k);
+            Combination[] combinations = combinationsFor(query);
+
+            searchCity(query, query.cityId, 0, combinations, top);
+            for (int cityId : citiesByDepartment.get(query.departmentId)) {
+                if (CITY_PENALTY >= top.bound()) break;
+                if (cityId != query.cityId) searchCity(query, cityId, CITY_PENALTY, combinations, top);
+            }
+            for (Map.Entry<Integer, Set<Integer>> department : citiesByDepartment.entrySet()) {
+                if (DEPARTMENT_PENALTY >= top.bound()) break;
+                if (department.getKey() == query.departmentId) continue;
+                for (int cityId : department.getValue()) {
+                    searchCity(query, cityId, DEPARTMENT_PENALTY, combinations, top);
+                }
+            }
+            return Optional.of(top.sorted());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code k} listings with the highest {@link ListingPreference} score, best first. Cells are visited in order
+     * of their weight and walked outwards from the preferred price, so both stop as soon as they cannot beat the
+     * current k-th score.
+     */
+    public List<PropertyResponse> preferred(ListingPreference preference, int k) {
+        lock.readLock().lock();
+        try {
+            List<WeightedCell> weightedCells = new ArrayList<>();
+            for (Map.Entry<Integer, Set<Integer>> department : citiesByDepartment.entrySet()) {
+                double departmentWeight = preference.departmentWeights().isEmpty()
+                        ? 1 : preference.departmentWeights().getOrDefault(department.getKey(), 0.0);
+                if (departmentWeight <= 0) continue;
+                for (int cityId : department.getValue()) {
+                    Cell[] cells = cellsByCity.get(cityId);
+                    for (int operationType = 0; operationType < OPERATION_TYPES; operationType++) {
+                        for (int propertyType = 0; propertyType < PROPERTY_TYPES; propertyType++) {
+                            Cell cell = cells[cellIndex(operationType, propertyType)];
+                            double weight = departmentWeight
+                                    * weight(preference.operationTypeWeights(), operationType)
+                                    * weight(preference.propertyTypeWeights(), propertyType);
+                            if (cell != null && weight > 0) {
+                                weightedCells.add(new WeightedCell(cell, weight));
+                            }
+                        }
+                    }
+                }
+            }
+            weightedCells.sort(Comparator.comparingDouble(WeightedCell::weight).reversed());
+
+            TopK top = new TopK(k);
+            for (WeightedCell weightedCell : weightedCells) {
+                // Scores are stored negated so the same heap keeps the k best
+                if (-weightedCell.weight >= top.bound()) break;
+                weightedCell.cell.searchPreferred(preference, weightedCell.weight, top);
+            }
+            return top.sorted();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double weight(double[] weights, int ordinal) {
+        return weights == null ? 1 : weights[ordinal];
+    }
+
+    public static double distance(Property a, Property b) {
+        return Entry.of(a, null).distanceTo(Entry.of(b, null));
+    }
+
+    private void searchCity(Entry query, int cityId, double locationPenalty, Combination[] combinations, TopK top) {
+        Cell[] cells = cellsByCity.get(cityId);
+        for (Combination combination : combinations) {
+            double penalty = locationPenalty + combination.penalty;
+            if (penalty >= top.bound()) {
+                return;
+            }
+            Cell cell = cells[combination.cell];
+            if (cell != null) {
+                cell.search(query, penalty, top);
+            }
+        }
+    }
+
+    // Every (operation type, property type) cell with its penalty relative to the query, cheapest first
+    private static Combination[] combinationsFor(Entry query) {
+        Combination[] combinations = new Combination[OPERATION_TYPES * PROPERTY_TYPES];
+        for (int operationType = 0; operationType < OPERATION_TYPES; operationType++) {
+            for (int propertyType = 0; propertyType < PROPERTY_TYPES; propertyType++) {
+                double penalty = (operationType == query.operationType ? 0 : OPERATION_TYPE_PENALTY)
+                        + (propertyType == query.propertyType ? 0 : PROPERTY_TYPE_PENALTY);
+                int cell = cellIndex(operationType, propertyType);
+                combinations[cell] = new Combination(cell, penalty);
+            }
+        }
+        Arrays.sort(combinations, Comparator.comparingDouble(Combination::penalty));
+        return combinations;
+    }
+
+    private static int cellIndex(int operationType, int propertyType) {
+        return operationType * PROPERTY_TYPES + propertyType;
+    }
+
+    private void insert(Property property) {
+        if (byRegistryNumber.containsKey(property.getRegistryNumber())) {
+            return;
+        }
+        Entry entry = Entry.of(property, propertyMapper.propertyToDto(property));
+        byRegistryNumber.put(entry.registryNumber, entry);
+        citiesByDepartment.computeIfAbsent(entry.departmentId, key -> new LinkedHashSet<>()).add(entry.cityId);
+        Cell[] cells = cellsByCity.computeIfAbsent(entry.cityId, key -> new Cell[OPERATION_TYPES * PROPERTY_TYPES]);
+        int cell = cellIndex(entry.operationType, entry.propertyType);
+        if (cells[cell] == null) {
+            cells[cell] = new Cell();
+        }
+        cells[cell].insert(entry);
+    }
+
+    private record Combination(int cell, double penalty) {
+    }
+
+    private record WeightedCell(Cell cell, double weight) {
+    }
+
+    private record Entry(long registryNumber, int cityId, int departmentId, int operationType, int propertyType,
+                         double logPrice, double logArea, double bedrooms, double bathrooms, PropertyResponse row) {
+
+        static Entry of(Property property, PropertyResponse row) {
+            return new Entry(property.getRegistryNumber(),
+                    property.getCity().getId(),
+                    property.getCity().getDepartment().getId(),
+                    property.getOperationType().ordinal(),
+                    property.getPropertyType().ordinal(),
+                    Math.log(property.getPrice().doubleValue()) / LOG_PRICE_SCALE,
+                    property.getArea() == null || property.getArea() <= 0 ? Double.NaN : Math.log(property.getArea()) / LOG_AREA_SCALE,
+                    property.getNumberOfBedrooms() == null ? 0 : property.getNumberOfBedrooms(),
+                    property.getNumberOfBathrooms() == null ? 0 : property.getNumberOfBathrooms(),
+                    row);
+        }
+
+        double distanceTo(Entry other) {
+            double distance = 0;
+            if (cityId != other.cityId) {
+                distance += departmentId == other.departmentId ? CITY_PENALTY : DEPARTMENT_PENALTY;
+            }
+            if (operationType != other.operationType) distance += OPERATION_TYPE_PENALTY;
+            if (propertyType != other.propertyType) distance += PROPERTY_TYPE_PENALTY;
+            return distance + featureDistance(other);
+        }
+
+        double featureDistance(Entry other) {
+            double price = logPrice - other.logPrice;
+            double bedroomsDelta = bedrooms - other.bedrooms;
+            double bathroomsDelta = bathrooms - other.bathrooms;
+            double distance = price * price + bedroomsDelta * bedroomsDelta + bathroomsDelta * bathroomsDelta;
+            if (Double.isNaN(logArea) || Double.isNaN(other.logArea)) {
+                return distance + MISSING_AREA_PENALTY;
+            }
+            double area = logArea - other.logArea;
+            return distance + area * area;
+        }
+    }
+
+    private static final class Cell {
+        private double[] logPrices = new double[4];
+        private Entry[] entries = new Entry[4];
+        private int size;
+
+        void insert(Entry entry) {
+            int index = lowerBound(entry.logPrice);
+            if (size == entries.length) {
+                logPrices = Arrays.copyOf(logPrices, size * 2);
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            System.arraycopy(logPrices, index, logPrices, index + 1, size - index);
+            System.arraycopy(entries, index, entries, index + 1, size - index);
+            logPrices[index] = entry.logPrice;
+            entries[index] = entry;
+            size++;
+        }
+
+        // Every entry of a cell has the same penalty relative to the query, only the features differ
+        void search(Entry query, double penalty, TopK top) {
+            int start = lowerBound(query.logPrice);
+            for (int i = start; i < size; i++) {
+                double price = logPrices[i] - query.logPrice;
+                if (penalty + price * price >= top.bound()) break;
+                offer(query, entries[i], penalty, top);
+            }
+            for (int i = start - 1; i >= 0; i--) {
+                double price = query.logPrice - logPrices[i];
+                if (penalty + price * price >= top.bound()) break;
+                offer(query, entries[i], penalty, top);
+            }
+        }
+
+        void searchPreferred(ListingPreference preference, double weight, TopK top) {
+            if (preference.logPrice() == null) {
+                for (int i = 0; i < size && -weight < top.bound(); i++) {
+                    offerPreferred(preference, entries[i], -weight, top);
+                }
+                return;
+            }
+            int start = lowerBound(preference.logPrice() / LOG_PRICE_SCALE);
+            for (int i = start; i < size; i++) {
+                double score = -weight * closeness(preference, logPrices[i]);
+                if (score >= top.bound()) break;
+                offerPreferred(preference, entries[i], score, top);
+            }
+            for (int i = start - 1; i >= 0; i--) {
+                double score = -weight * closeness(preference, logPrices[i]);
+                if (score >= top.bound()) break;
+                offerPreferred(preference, entries[i], score, top);
+            }
+        }
+
+        private static double closeness(ListingPreference preference, double scaledLogPrice) {
+            double deviation = (scaledLogPrice * LOG_PRICE_SCALE - preference.logPrice()) / preference.logPriceSpread();
+            return Math.exp(-deviation * deviation / 2);
+        }
+
+        private static void offerPreferred(ListingPreference preference, Entry candidate, double score, TopK top) {
+            if (!preference.excludedRegistryNumbers().contains(candidate.registryNumber)) {
+                top.offer(candidate, score);
+            }
+        }
+
+        private static void offer(Entry query, Entry candidate, double penalty, TopK top) {
+            if (candidate.registryNumber != query.registryNumber) {
+                top.offer(candidate, penalty + query.featureDistance(candidate));
+            }
+        }
+
+        private int lowerBound(double logPrice) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (logPrices[mid] < logPrice) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class TopK {
+        private final int k;
+        // Farthest of the current best candidates on top
+        private final PriorityQueue<Candidate> heap;
+
+        TopK(int k) {
+            this.k = k;
+            this.heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Candidate::distance).reversed());
+        }
+
+        double bound() {
+            return heap.size() < k ? Double.POSITIVE_INFINITY : heap.peek().distance;
+        }
+
+        void offer(Entry entry, double distance) {
+            if (distance < bound()) {
+                heap.add(new Candidate(entry, distance));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<PropertyResponse> sorted() {
+            List<Candidate> candidates = new ArrayList<>(heap);
+            candidates.sort(Comparator.comparingDouble(Candidate::distance));
+            return candidates.stream().map(candidate -> candidate.entry.row).toList();
+        }
+    }
+
+    private record Candidate(Entry entry, double distance) {
+    }
+}
@@ -1,18 +1,39 @@
 package com.juan.property.property_recommendation.property.service;
 
+import com.juan.property.property_recommendation.property.PropertySort;
 import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyFacetsResponse;
 import com.juan.property.property_recommendation.property.dto.PropertyFilterRequest;
+import com.juan.property.property_recommendation.property.dto.PropertyPageResponse;
 import com.juan.property.property_recommendation.property.dto.PropertyRequest;
 import com.juan.property.property_recommendation.property.dto.PropertyResponse;
 import com.juan.property.property_recommendation.user.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IPropertyService {
 
     List<PropertyResponse> findAll(PropertySpecification propertySpecification);
 
+    List<PropertyResponse> findByAddress(String address, PropertySpecification propertySpecification);
+
+    PropertyFacetsResponse facets(PropertySpecification propertySpecification);
+
+    PropertyResponse findByRegistryNumber(Long registryNumber);
+
+    List<PropertyResponse> findSimilar(Long registryNumber, int limit);
+
+    void streamAll(PropertySpecification propertySpecification, Consumer<PropertyResponse> consumer);
+
+    PropertyPageResponse findPage(PropertySpecification propertySpecification, PropertySort sort, String cursor, int limit);
+
     PropertyResponse register(PropertyRequest propertyRequest, User user);
 
+    /**
+     * The checks {@link #register} makes on the request itself, before looking up the city and the registry number.
+     */
+    void validate(PropertyRequest propertyRequest);
+
   //  List<PropertyResponse> filter(PropertyFilterRequest filter);
 }
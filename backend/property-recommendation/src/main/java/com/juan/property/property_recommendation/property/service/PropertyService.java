@@ -1,26 +1,63 @@
 package com.juan.property.property_recommendation.property.service;
 
 import com.juan.property.property_recommendation.location.City;
-import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.LocationCatalog;
 import com.juan.property.property_recommendation.property.*;
+import com.juan.property.property_recommendation.property.dto.PropertyFacetsResponse;
 import com.juan.property.property_recommendation.property.dto.PropertyFilterRequest;
+import com.juan.property.property_recommendation.property.dto.PropertyPageResponse;
 import com.juan.property.property_recommendation.property.dto.PropertyRequest;
 import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.AddressSearchEngine;
+import com.juan.property.property_recommendation.property.search.AddressTrigramIndex;
+import com.juan.property.property_recommendation.property.search.PropertyFacetIndex;
+import com.juan.property.property_recommendation.property.search.PropertySearchCache;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import com.juan.property.property_recommendation.property.search.PropertySearchEngine;
+import com.juan.property.property_recommendation.property.search.SimilarPropertyEngine;
 import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class PropertyService implements  IPropertyService{
 
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int STREAM_FETCH_SIZE = 500;
+    // Best address matches the other filters are applied to
+    public static final int ADDRESS_CANDIDATES = 1000;
+    // SQLSTATE of a unique violation, the same in PostgreSQL and H2
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final PropertyRepository propertyRepository;
     private final PropertyMapper propertyMapper;
-    private final CityRepository cityRepository;
+    private final LocationCatalog locationCatalog;
+    private final PropertySearchEngine propertySearchEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PropertySearchCache propertySearchCache;
+    private final PropertyFacetIndex propertyFacetIndex;
+    private final SimilarPropertyEngine similarPropertyEngine;
+    private final AddressSearchEngine addressSearchEngine;
 
 
     private boolean isNumeric(String value) {
@@ -38,8 +75,105 @@ public class PropertyService implements  IPropertyService{
 
     @Override
     public List<PropertyResponse> findAll(PropertySpecification propertySpecification ) {
-        return propertyRepository.findAll(propertySpecification).stream()
-                .map(propertyMapper::propertyToDto).collect(Collectors.toList());
+        PropertySearchCriteria criteria = PropertySearchCriteria.from(propertySpecification);
+        Optional<List<PropertyResponse>> cached = propertySearchCache.get(criteria);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        long generation = propertySearchCache.generation();
+        List<PropertyResponse> properties;
+        if (propertySearchEngine.isReady()) {
+            properties = propertySearchEngine.search(propertySpecification);
+        } else {
+            properties = propertyRepository.findResponses(propertySpecification);
+        }
+        propertySearchCache.put(criteria, generation, properties);
+        return properties;
+    }
+
+    @Override
+    public List<PropertyResponse> findByAddress(String address, PropertySpecification propertySpecification) {
+        if (AddressTrigramIndex.normalize(address).isEmpty()) {
+            throw new IllegalArgumentException("The address must contain letters or digits");
+        }
+        if (!addressSearchEngine.isReady()) {
+            // The index loads after startup; until then the address is matched as a substring, in registration order
+            List<Property> matches = propertyRepository.findBy(propertySpecification.and(addressContaining(address)),
+                    query -> query.sortBy(Sort.by("id")).limit(MAX_PAGE_SIZE).all());
+            return matches.stream().map(propertyMapper::propertyToDto).toList();
+        }
+        List<Long> ranked = addressSearchEngine.search(address, ADDRESS_CANDIDATES);
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            rank.put(ranked.get(i), i);
+        }
+        Specification<Property> candidates = (root, query, criteriaBuilder) -> root.get("registryNumber").in(ranked);
+        return propertyRepository.findResponses(propertySpecification.and(candidates)).stream()
+                .sorted(Comparator.comparing(property -> rank.get(property.getRegistryNumber())))
+                .limit(MAX_PAGE_SIZE)
+                .toList();
+    }
+
+    private static Specification<Property> addressContaining(String address) {
+        String pattern = "%" + address.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, criteriaBuilder) -> criteriaBuilder.like(criteriaBuilder.lower(root.get("address")), pattern, '\\');
+    }
+
+    @Override
+    public PropertyFacetsResponse facets(PropertySpecification propertySpecification) {
+        return propertyFacetIndex.facets(propertySpecification);
+    }
+
+    @Override
+    public PropertyResponse findByRegistryNumber(Long registryNumber) {
+        return propertyRepository.findByRegistryNumber(registryNumber)
+                .map(propertyMapper::propertyToDto)
+                .orElseThrow(() -> new EntityNotFoundException("The property does not exist"));
+    }
+
+    @Override
+    public List<PropertyResponse> findSimilar(Long registryNumber, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return similarPropertyEngine.similar(registryNumber, limit)
+                .orElseThrow(() -> new EntityNotFoundException("The property does not exist"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(PropertySpecification propertySpecification, Consumer<PropertyResponse> consumer) {
+        try (Stream<PropertyResponse> properties = propertyRepository.streamResponses(propertySpecification, STREAM_FETCH_SIZE)) {
+            properties.forEach(consumer);
+        }
+    }
+
+    @Override
+    public PropertyPageResponse findPage(PropertySpecification propertySpecification, PropertySort sort, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Keyset scroll: seeks past the last (sort value, id) instead of skipping rows with OFFSET
+        Window<Property> window = propertyRepository.findBy(propertySpecification, query -> query
+                .sortBy(sort.toSort())
+                .limit(limit)
+                .scroll(PropertyCursor.decode(cursor, sort)));
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = PropertyCursor.encode(sort, (KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+
+        return PropertyPageResponse.builder()
+                .items(window.stream().map(propertyMapper::propertyToDto).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
@@ -51,6 +185,48 @@ public class PropertyService implements  IPropertyService{
             throw   new IllegalArgumentException("User is null");
         }
 
+        validate(propertyRequest);
+        City city = locationCatalog.citiesById().get(propertyRequest.getCityId());
+        if(city == null) {
+            throw new RuntimeException("The city  does not exist");
+        }
+
+       var newProperty = propertyMapper.dtoToProperty(propertyRequest);
+
+        newProperty.setUser(user);
+        newProperty.setCity(city);
+        //The property already exists? The unique registry number decides, so the insert is the only statement.
+        //It is flushed here so the violation surfaces even when the caller holds a transaction
+        Property savedProperty;
+        try {
+            savedProperty = propertyRepository.saveAndFlush(newProperty);
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new RuntimeException("The property already exists", e);
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new PropertyRegisteredEvent(savedProperty));
+        return propertyMapper.propertyToDto(savedProperty);
+    }
+
+    /**
+     * Whether the insert broke a unique constraint. The id is generated, so for a property it can only be the
+     * registry number.
+     */
+    public static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+                        || UNIQUE_VIOLATION.equals(violation.getSQLState());
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void validate(PropertyRequest propertyRequest) {
+
         //Registry number
         if(propertyRequest.getRegistryNumber() == null || propertyRequest.getRegistryNumber() < 0  || String.valueOf(propertyRequest.getRegistryNumber()).length() != 10){
             throw  new IllegalArgumentException("The registry number is not valid");
@@ -83,7 +259,7 @@ public class PropertyService implements  IPropertyService{
         }
 
         // Images
-        if(propertyRequest.getImages().isEmpty() || propertyRequest.getImages().size() >4 ){
+        if(propertyRequest.getImages() == null || propertyRequest.getImages().isEmpty() || propertyRequest.getImages().size() >4 ){
             throw  new IllegalArgumentException("The image list is not valid");
 
         }
@@ -109,27 +285,18 @@ public class PropertyService implements  IPropertyService{
             throw  new IllegalArgumentException("The property type is not valid");
         }
 
+        //Coordinates are optional, but only as a pair
+        if(propertyRequest.getLatitude() != null || propertyRequest.getLongitude() != null){
+            if(propertyRequest.getLatitude() == null || propertyRequest.getLongitude() == null){
+                throw  new IllegalArgumentException("The latitude and longitude must be given together");
+            }
+            GeoFilter.checkCoordinates(propertyRequest.getLatitude(), propertyRequest.getLongitude());
+        }
+
         //Valid city
         if(propertyRequest.getCityId() == null || !isNumeric(propertyRequest.getCityId().toString()) || propertyRequest.getCityId() < 0 ){
             throw  new IllegalArgumentException("The city id is not valid");
         }
-        Optional<City> city = cityRepository.findById(propertyRequest.getCityId());
-        if(city.isEmpty()) {
-            throw new RuntimeException("The city  does not exist");
-        }
-
-
-        //The property already exists?
-        Optional<Property> existingProperty = propertyRepository.findByRegistryNumber(propertyRequest.getRegistryNumber());
-        if(existingProperty.isPresent()) {
-            throw new RuntimeException("The property already exists");
-        }
-
-       var newProperty = propertyMapper.dtoToProperty(propertyRequest);
-
-        newProperty.setUser(user);
-        newProperty.setCity(city.get());
-        return propertyMapper.propertyToDto(propertyRepository.save(newProperty));
     }
 
 
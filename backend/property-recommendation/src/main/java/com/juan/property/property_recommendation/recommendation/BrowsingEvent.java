@@ -0,0 +1,92 @@
+package com.juan.property.property_recommendation.recommendation;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(indexes = @Index(name = "idx_browsing_event_user_id", columnList = "userId, id"))
+public class BrowsingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+    @Column(nullable = false)
+    private Integer userId;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private BrowsingEventType type;
+    private Long registryNumber;
+    private Integer cityId;
+    private Integer departmentId;
+    @Enumerated(EnumType.STRING)
+    private OperationType operationType;
+    @Enumerated(EnumType.STRING)
+    private PropertyType propertyType;
+    private BigDecimal price;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public static BrowsingEvent search(User user, PropertySpecification propertySpecification) {
+        return BrowsingEvent.builder()
+                .userId(user.getId())
+                .type(BrowsingEventType.SEARCH)
+                .cityId(propertySpecification.getCityId())
+                .departmentId(propertySpecification.getDepartmentId())
+                .operationType(parse(OperationType.class, propertySpecification.getOperationType()))
+                .propertyType(parse(PropertyType.class, propertySpecification.getPropertyType()))
+                .price(priceOf(propertySpecification.getMinPrice(), propertySpecification.getMaxPrice()))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static BrowsingEvent view(User user, PropertyResponse property) {
+        return BrowsingEvent.builder()
+                .userId(user.getId())
+                .type(BrowsingEventType.VIEW)
+                .registryNumber(property.getRegistryNumber())
+                .cityId(property.getCity() == null ? null : property.getCity().getId())
+                .departmentId(property.getCity() == null || property.getCity().getDepartment() == null
+                        ? null : property.getCity().getDepartment().getId())
+                .operationType(property.getOperationType())
+                .propertyType(property.getPropertyType())
+                .price(property.getPrice())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Filters are matched with LIKE, so only a value naming exactly one constant says what the user wants
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value.trim())) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    // Geometric middle of the requested price range
+    private static BigDecimal priceOf(BigDecimal minPrice, BigDecimal maxPrice) {
+        boolean hasMin = minPrice != null && minPrice.signum() > 0;
+        boolean hasMax = maxPrice != null && maxPrice.signum() > 0;
+        if (hasMin && hasMax) {
+            return minPrice.multiply(maxPrice).sqrt(MathContext.DECIMAL64);
+        }
+        return hasMin ? minPrice : hasMax ? maxPrice : null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.juan.property.property_recommendation.recommendation;
+
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.property.PropertySearchedEvent;
+import com.juan.property.property_recommendation.property.PropertyViewedEvent;
+import com.juan.property.property_recommendation.recommendation.service.RecommendationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures search and view events without slowing the request down: the request thread only offers the event to a
+ * bounded queue, and a single worker drains it in batches, saves each batch in one transaction and then updates the
+ * preference profiles. When the queue is full the event is dropped and counted rather than blocking the request.
+ */
+@Slf4j
+@Component
+public class BrowsingEventRecorder {
+
+    private final BlockingQueue<BrowsingEvent> queue;
+    private final int batchSize;
+    private final BrowsingEventRepository browsingEventRepository;
+    private final RecommendationService recommendationService;
+    private final CityRepository cityRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final Map<Integer, Integer> departmentByCity = new ConcurrentHashMap<>();
+
+    private final Counter recorded;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public BrowsingEventRecorder(@Value("${recommendation.events.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${recommendation.events.batch-size:200}") int batchSize,
+                                 BrowsingEventRepository browsingEventRepository,
+                                 RecommendationService recommendationService,
+                                 CityRepository cityRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.browsingEventRepository = browsingEventRepository;
+        this.recommendationService = recommendationService;
+        this.cityRepository = cityRepository;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.recorded = Counter.builder("recommendation.events").tag("result", "recorded").register(meterRegistry);
+        this.dropped = Counter.builder("recommendation.events").tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("recommendation.events.queued", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @EventListener
+    public void onPropertySearched(PropertySearchedEvent event) {
+        record(BrowsingEvent.search(event.user(), event.propertySpecification()));
+    }
+
+    @EventListener
+    public void onPropertyViewed(PropertyViewedEvent event) {
+        record(BrowsingEvent.view(event.user(), event.property()));
+    }
+
+    public void record(BrowsingEvent event) {
+        if (queue.offer(event)) {
+            recorded.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "browsing-event-recorder");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<BrowsingEvent> batch = new ArrayList<>(batchSize);
+            try {
+                BrowsingEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not record {} browsing events", batch.size(), e);
+            }
+        }
+    }
+
+    private void flush(List<BrowsingEvent> batch) {
+        for (BrowsingEvent event : batch) {
+            if (event.getDepartmentId() == null && event.getCityId() != null) {
+                event.setDepartmentId(departmentOf(event.getCityId()));
+            }
+        }
+        transaction.executeWithoutResult(status -> {
+            // Sends the inserts as JDBC batches without changing the batch size of every other session
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            browsingEventRepository.saveAll(batch);
+        });
+        // Only once committed, so a failed save does not leave the profiles ahead of the table
+        recommendationService.apply(batch);
+    }
+
+    private Integer departmentOf(Integer cityId) {
+        Integer departmentId = departmentByCity.get(cityId);
+        if (departmentId == null) {
+            departmentId = cityRepository.findById(cityId).map(city -> city.getDepartment().getId()).orElse(null);
+            if (departmentId != null) {
+                departmentByCity.put(cityId, departmentId);
+            }
+        }
+        return departmentId;
+    }
+}
@@ -0,0 +1,10 @@
+package com.juan.property.property_recommendation.recommendation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BrowsingEventRepository extends JpaRepository<BrowsingEvent, Long> {
+
+    List<BrowsingEvent> findTop200ByUserIdOrderByIdDesc(Integer userId);
+}
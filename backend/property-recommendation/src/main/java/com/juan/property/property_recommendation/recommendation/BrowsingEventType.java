@@ -0,0 +1,6 @@
+package com.juan.property.property_recommendation.recommendation;
+
+public enum BrowsingEventType {
+    SEARCH,
+    VIEW
+}
@@ -0,0 +1,33 @@
+package com.juan.property.property_recommendation.recommendation;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.recommendation.service.RecommendationService;
+import com.juan.property.property_recommendation.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/properties/recommended")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class RecommendationController {
+
+    private final AuthService authService;
+    private final RecommendationService recommendationService;
+
+    @GetMapping(produces = "application/json")
+    @ResponseStatus(HttpStatus.OK)
+    public List<PropertyResponse> recommended(
+            @RequestHeader("X-Auth-Token") String token,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        User user = authService.authenticate(token)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        return recommendationService.recommend(user, limit);
+    }
+}
@@ -0,0 +1,109 @@
+package com.juan.property.property_recommendation.recommendation;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.search.ListingPreference;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Decayed counts of the departments, operation types and property types a user browsed, plus a running mean and
+ * variance of the log price. Older events fade by {@link #DECAY} per new event, so the profile follows the user
+ * without keeping the history around.
+ */
+public class UserPreferenceProfile {
+
+    private static final double DECAY = 0.95;
+    private static final double VIEW_WEIGHT = 1.0;
+    private static final double SEARCH_WEIGHT = 0.5;
+    private static final int MAX_DEPARTMENTS = 5;
+    private static final int RECENT_VIEWS = 50;
+    // Types the user never looked at still fill the feed, after the preferred ones
+    private static final double UNSEEN_TYPE_WEIGHT = 0.02;
+    private static final double MIN_LOG_PRICE_SPREAD = 0.25;
+    private static final double MAX_LOG_PRICE_SPREAD = 1.0;
+
+    private final double[] operationTypes = new double[OperationType.values().length];
+    private final double[] propertyTypes = new double[PropertyType.values().length];
+    private final Map<Integer, Double> departments = new HashMap<>();
+    private final ArrayDeque<Long> recentViews = new ArrayDeque<>();
+    private double priceWeight;
+    private double logPriceMean;
+    private double logPriceVariance;
+    private long events;
+
+    public synchronized void apply(BrowsingEvent event) {
+        double weight = event.getType() == BrowsingEventType.VIEW ? VIEW_WEIGHT : SEARCH_WEIGHT;
+        decay();
+        if (event.getOperationType() != null) {
+            operationTypes[event.getOperationType().ordinal()] += weight;
+        }
+        if (event.getPropertyType() != null) {
+            propertyTypes[event.getPropertyType().ordinal()] += weight;
+        }
+        if (event.getDepartmentId() != null) {
+            departments.merge(event.getDepartmentId(), weight, Double::sum);
+            if (departments.size() > MAX_DEPARTMENTS) {
+                departments.remove(Collections.min(departments.entrySet(), Map.Entry.comparingByValue()).getKey());
+            }
+        }
+        if (event.getPrice() != null && event.getPrice().signum() > 0) {
+            // Exponentially weighted mean and variance
+            double logPrice = Math.log(event.getPrice().doubleValue());
+            priceWeight += weight;
+            double share = weight / priceWeight;
+            double delta = logPrice - logPriceMean;
+            logPriceMean += share * delta;
+            logPriceVariance = (1 - share) * (logPriceVariance + share * delta * delta);
+        }
+        if (event.getType() == BrowsingEventType.VIEW && event.getRegistryNumber() != null) {
+            recentViews.addLast(event.getRegistryNumber());
+            if (recentViews.size() > RECENT_VIEWS) {
+                recentViews.removeFirst();
+            }
+        }
+        events++;
+    }
+
+    public synchronized boolean isEmpty() {
+        return events == 0;
+    }
+
+    public synchronized ListingPreference toPreference() {
+        Map<Integer, Double> departmentWeights = new HashMap<>();
+        double maxDepartment = departments.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+        departments.forEach((departmentId, weight) -> departmentWeights.put(departmentId, weight / maxDepartment));
+        return new ListingPreference(
+                departmentWeights,
+                normalize(operationTypes),
+                normalize(propertyTypes),
+                priceWeight > 0 ? logPriceMean : null,
+                Math.max(MIN_LOG_PRICE_SPREAD, Math.min(MAX_LOG_PRICE_SPREAD, Math.sqrt(logPriceVariance))),
+                new HashSet<>(recentViews));
+    }
+
+    private void decay() {
+        for (int i = 0; i < operationTypes.length; i++) operationTypes[i] *= DECAY;
+        for (int i = 0; i < propertyTypes.length; i++) propertyTypes[i] *= DECAY;
+        departments.replaceAll((departmentId, weight) -> weight * DECAY);
+        priceWeight *= DECAY;
+    }
+
+    // Null when the user showed no preference at all
+    private static double[] normalize(double[] weights) {
+        double max = 0;
+        for (double weight : weights) max = Math.max(max, weight);
+        if (max == 0) {
+            return null;
+        }
+        double[] normalized = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            normalized[i] = Math.max(UNSEEN_TYPE_WEIGHT, weights[i] / max);
+        }
+        return normalized;
+    }
+}
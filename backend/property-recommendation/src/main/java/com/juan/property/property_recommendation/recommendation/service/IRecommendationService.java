@@ -0,0 +1,14 @@
+package com.juan.property.property_recommendation.recommendation.service;
+
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.recommendation.BrowsingEvent;
+import com.juan.property.property_recommendation.user.User;
+
+import java.util.List;
+
+public interface IRecommendationService {
+
+    List<PropertyResponse> recommend(User user, int limit);
+
+    void apply(List<BrowsingEvent> events);
+}
@@ -0,0 +1,184 @@
+package com.juan.property.property_recommendation.recommendation.service;
+
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.SimilarPropertyEngine;
+import com.juan.property.property_recommendation.recommendation.BrowsingEvent;
+import com.juan.property.property_recommendation.recommendation.BrowsingEventRepository;
+import com.juan.property.property_recommendation.recommendation.UserPreferenceProfile;
+import com.juan.property.property_recommendation.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * "Recommended for you" feed. Profiles live in a bounded in-memory cache and are rebuilt from the last persisted
+ * browsing events when a user is not cached, after a restart or once the profile expired or was evicted. Saved
+ * browsing events are applied to the cached profiles only, since a profile rebuilt later reads them from the table.
+ */
+@Service
+public class RecommendationService implements IRecommendationService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private final BrowsingEventRepository browsingEventRepository;
+    private final SimilarPropertyEngine similarPropertyEngine;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<Integer, CachedProfile> profiles = new ConcurrentHashMap<>();
+
+    // Guarded by this: profiles in the order they were cached, which is the order they expire in
+    private final Queue<CachedProfile> order = new ArrayDeque<>();
+    // Guarded by this: profiles cached since the last batch was applied, which may have read that batch already
+    private final List<CachedProfile> rebuiltSinceLastBatch = new ArrayList<>();
+    // Guarded by this: bumped on every applied batch so a profile rebuilt meanwhile is not cached
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    @Autowired
+    public RecommendationService(BrowsingEventRepository browsingEventRepository,
+                                 SimilarPropertyEngine similarPropertyEngine,
+                                 @Value("${recommendation.profiles.max-entries:10000}") int maxEntries,
+                                 @Value("${recommendation.profiles.ttl:30m}") Duration ttl,
+                                 MeterRegistry meterRegistry) {
+        this(browsingEventRepository, similarPropertyEngine, maxEntries, ttl, meterRegistry, Clock.systemUTC());
+    }
+
+    public RecommendationService(BrowsingEventRepository browsingEventRepository,
+                                 SimilarPropertyEngine similarPropertyEngine,
+                                 int maxEntries,
+                                 Duration ttl,
+                                 MeterRegistry meterRegistry,
+                                 Clock clock) {
+        this.browsingEventRepository = browsingEventRepository;
+        this.similarPropertyEngine = similarPropertyEngine;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.hits = Counter.builder("recommendation.profiles.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("recommendation.profiles.requests").tag("result", "miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("recommendation.profiles.evictions").tag("cause", "size").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("recommendation.profiles.evictions").tag("cause", "expired").register(meterRegistry);
+        Gauge.builder("recommendation.profiles.size", profiles, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public List<PropertyResponse> recommend(User user, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_LIMIT);
+        }
+        UserPreferenceProfile profile = profile(user.getId());
+        if (profile.isEmpty()) {
+            return List.of();
+        }
+        return similarPropertyEngine.preferred(profile.toPreference(), limit);
+    }
+
+    /**
+     * Applies a batch of browsing events once it is saved. Users without a cached profile are skipped, their profile
+     * is rebuilt with these events from the table the next time it is needed.
+     */
+    @Override
+    public synchronized void apply(List<BrowsingEvent> events) {
+        generation++;
+        for (BrowsingEvent event : events) {
+            CachedProfile cached = profiles.get(event.getUserId());
+            if (cached != null && !cached.rebuiltFrom.contains(event.getId())) {
+                cached.profile.apply(event);
+            }
+        }
+        // Any later batch was saved after these profiles read the table
+        for (CachedProfile cached : rebuiltSinceLastBatch) {
+            cached.rebuiltFrom = Collections.emptySet();
+        }
+        rebuiltSinceLastBatch.clear();
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    private UserPreferenceProfile profile(Integer userId) {
+        CachedProfile cached = profiles.get(userId);
+        if (cached != null && cached.expiresAt > clock.millis()) {
+            hits.increment();
+            return cached.profile;
+        }
+        misses.increment();
+        long generation;
+        synchronized (this) {
+            generation = this.generation;
+        }
+        // Read outside any lock, so a slow query only holds up this user
+        List<BrowsingEvent> history = new ArrayList<>(browsingEventRepository.findTop200ByUserIdOrderByIdDesc(userId));
+        Collections.reverse(history);
+        UserPreferenceProfile profile = new UserPreferenceProfile();
+        history.forEach(profile::apply);
+        cache(userId, profile, history.stream().map(BrowsingEvent::getId).collect(Collectors.toSet()), generation);
+        return profile;
+    }
+
+    private synchronized void cache(Integer userId, UserPreferenceProfile profile, Set<Long> rebuiltFrom, long generation) {
+        if (maxEntries <= 0 || generation != this.generation) {
+            return;
+        }
+        long now = clock.millis();
+        CachedProfile cached = new CachedProfile(userId, profile, rebuiltFrom, now + ttlMillis);
+        profiles.put(userId, cached);
+        order.add(cached);
+        rebuiltSinceLastBatch.add(cached);
+        evict(now);
+    }
+
+    // Drops profiles from the head of the queue while they are expired or the cache is over its size. Profiles that
+    // were replaced are no longer in the map and are only dropped from the queue.
+    private void evict(long now) {
+        CachedProfile head;
+        while ((head = order.peek()) != null
+                && (head.expiresAt <= now || profiles.size() > maxEntries || order.size() > 2 * maxEntries)) {
+            order.remove();
+            if (!profiles.remove(head.userId, head)) {
+                continue;
+            }
+            if (head.expiresAt <= now) {
+                expiredEvictions.increment();
+            } else {
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    private static final class CachedProfile {
+        private final Integer userId;
+        private final UserPreferenceProfile profile;
+        private final long expiresAt;
+        // Ids of the events the profile was rebuilt from, so the batch that saved them is not applied twice
+        private Set<Long> rebuiltFrom;
+
+        private CachedProfile(Integer userId, UserPreferenceProfile profile, Set<Long> rebuiltFrom, long expiresAt) {
+            this.userId = userId;
+            this.profile = profile;
+            this.rebuiltFrom = rebuiltFrom;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
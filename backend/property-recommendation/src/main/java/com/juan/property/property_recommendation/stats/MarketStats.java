@@ -0,0 +1,93 @@
+package com.juan.property.property_recommendation.stats;
+
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.stats.dto.MarketStatsResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals and quantile sketches for the price and the price per square metre of one {@link MarketStatsKey}.
+ */
+public class MarketStats {
+
+    private long count;
+    private long lastPropertyId;
+    private BigDecimal priceSum = BigDecimal.ZERO;
+    private long pricePerSquareMeterCount;
+    private double pricePerSquareMeterSum;
+    private final QuantileSketch prices;
+    private final QuantileSketch pricesPerSquareMeter;
+
+    public MarketStats() {
+        this(new QuantileSketch(), new QuantileSketch());
+    }
+
+    private MarketStats(QuantileSketch prices, QuantileSketch pricesPerSquareMeter) {
+        this.prices = prices;
+        this.pricesPerSquareMeter = pricesPerSquareMeter;
+    }
+
+    public synchronized void add(Property property) {
+        count++;
+        if (property.getId() != null) {
+            lastPropertyId = Math.max(lastPropertyId, property.getId());
+        }
+        priceSum = priceSum.add(property.getPrice());
+        prices.add(property.getPrice().doubleValue());
+        if (property.getArea() != null && property.getArea() > 0) {
+            double pricePerSquareMeter = property.getPrice().doubleValue() / property.getArea();
+            pricePerSquareMeterCount++;
+            pricePerSquareMeterSum += pricePerSquareMeter;
+            pricesPerSquareMeter.add(pricePerSquareMeter);
+        }
+    }
+
+    public synchronized MarketStatsResponse toResponse() {
+        return MarketStatsResponse.builder()
+                .count(count)
+                .averagePrice(count == 0 ? null : priceSum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP))
+                .medianPrice(round(prices.quantile(0.5)))
+                .p90Price(round(prices.quantile(0.9)))
+                .averagePricePerSquareMeter(pricePerSquareMeterCount == 0 ? null
+                        : round(pricePerSquareMeterSum / pricePerSquareMeterCount))
+                .medianPricePerSquareMeter(round(pricesPerSquareMeter.quantile(0.5)))
+                .p90PricePerSquareMeter(round(pricesPerSquareMeter.quantile(0.9)))
+                .build();
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized long lastPropertyId() {
+        return lastPropertyId;
+    }
+
+    public synchronized void writeTo(MarketStatsSnapshot snapshot) {
+        snapshot.setCount(count);
+        snapshot.setPriceSum(priceSum);
+        snapshot.setPricePerSquareMeterCount(pricePerSquareMeterCount);
+        snapshot.setPricePerSquareMeterSum(pricePerSquareMeterSum);
+        snapshot.setPrices(prices.toBytes());
+        snapshot.setPricesPerSquareMeter(pricesPerSquareMeter.toBytes());
+        snapshot.setLastPropertyId(lastPropertyId);
+        snapshot.setUpdatedAt(LocalDateTime.now());
+    }
+
+    public static MarketStats fromSnapshot(MarketStatsSnapshot snapshot) {
+        MarketStats stats = new MarketStats(QuantileSketch.fromBytes(snapshot.getPrices()),
+                QuantileSketch.fromBytes(snapshot.getPricesPerSquareMeter()));
+        stats.count = snapshot.getCount();
+        stats.lastPropertyId = snapshot.getLastPropertyId();
+        stats.priceSum = snapshot.getPriceSum();
+        stats.pricePerSquareMeterCount = snapshot.getPricePerSquareMeterCount();
+        stats.pricePerSquareMeterSum = snapshot.getPricePerSquareMeterSum();
+        return stats;
+    }
+
+    private static BigDecimal round(Double value) {
+        return value == null ? null : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,29 @@
+package com.juan.property.property_recommendation.stats;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.stats.dto.MarketStatsResponse;
+import com.juan.property.property_recommendation.stats.service.MarketStatsService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/stats")
+@AllArgsConstructor
+@CrossOrigin(origins = "*")
+public class MarketStatsController {
+
+    private final MarketStatsService marketStatsService;
+
+    @GetMapping(produces = "application/json")
+    @ResponseStatus(HttpStatus.OK)
+    public MarketStatsResponse stats(
+            @RequestParam(required = false) Integer cityId,
+            @RequestParam(required = false) Integer departmentId,
+            @RequestParam(required = false) PropertyType propertyType,
+            @RequestParam(required = false) OperationType operationType
+    ) {
+        return marketStatsService.stats(cityId, departmentId, propertyType, operationType);
+    }
+}
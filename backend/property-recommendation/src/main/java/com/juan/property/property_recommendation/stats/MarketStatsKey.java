@@ -0,0 +1,73 @@
+package com.juan.property.property_recommendation.stats;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One aggregate the statistics are kept for. A {@code null} property or operation type stands for all of them, and
+ * the location is either one city, one department or the whole country.
+ */
+public record MarketStatsKey(Scope scope, Integer locationId, PropertyType propertyType, OperationType operationType) {
+
+    private static final String ANY = "*";
+
+    public enum Scope {
+        ALL, DEPARTMENT, CITY
+    }
+
+    /**
+     * The aggregate for a query. A city already implies its department, so asking for both is rejected rather than
+     * answering for the city alone when it lies in another department.
+     */
+    public static MarketStatsKey of(Integer cityId, Integer departmentId, PropertyType propertyType, OperationType operationType) {
+        if (cityId != null && departmentId != null) {
+            throw new IllegalArgumentException("Filter by cityId or by departmentId, not both");
+        }
+        if (cityId != null) {
+            return new MarketStatsKey(Scope.CITY, cityId, propertyType, operationType);
+        }
+        if (departmentId != null) {
+            return new MarketStatsKey(Scope.DEPARTMENT, departmentId, propertyType, operationType);
+        }
+        return new MarketStatsKey(Scope.ALL, null, propertyType, operationType);
+    }
+
+    /**
+     * Every aggregate the property counts towards, so a query for any combination is a single lookup.
+     */
+    public static List<MarketStatsKey> allFor(Property property) {
+        return allFor(property.getCity().getId(), property.getCity().getDepartment().getId(),
+                property.getPropertyType(), property.getOperationType());
+    }
+
+    public static List<MarketStatsKey> allFor(Integer cityId, Integer departmentId,
+                                              PropertyType propertyType, OperationType operationType) {
+        List<MarketStatsKey> keys = new ArrayList<>(12);
+        for (PropertyType typeOrAll : new PropertyType[]{propertyType, null}) {
+            for (OperationType operationOrAll : new OperationType[]{operationType, null}) {
+                keys.add(new MarketStatsKey(Scope.CITY, cityId, typeOrAll, operationOrAll));
+                keys.add(new MarketStatsKey(Scope.DEPARTMENT, departmentId, typeOrAll, operationOrAll));
+                keys.add(new MarketStatsKey(Scope.ALL, null, typeOrAll, operationOrAll));
+            }
+        }
+        return keys;
+    }
+
+    public String toId() {
+        return scope + ":" + (locationId == null ? ANY : locationId) + ":"
+                + (propertyType == null ? ANY : propertyType) + ":"
+                + (operationType == null ? ANY : operationType);
+    }
+
+    public static MarketStatsKey fromId(String id) {
+        String[] parts = id.split(":");
+        return new MarketStatsKey(Scope.valueOf(parts[0]),
+                ANY.equals(parts[1]) ? null : Integer.valueOf(parts[1]),
+                ANY.equals(parts[2]) ? null : PropertyType.valueOf(parts[2]),
+                ANY.equals(parts[3]) ? null : OperationType.valueOf(parts[3]));
+    }
+}
@@ -0,0 +1,11 @@
+package com.juan.property.property_recommendation.stats;
+
+/**
+ * Thrown while the market statistics are still being loaded after a start, so the query can be retried shortly.
+ */
+public class MarketStatsLoadingException extends RuntimeException {
+
+    public MarketStatsLoadingException() {
+        super("Market statistics are loading, try again shortly");
+    }
+}
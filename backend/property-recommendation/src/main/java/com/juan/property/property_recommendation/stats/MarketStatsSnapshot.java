@@ -0,0 +1,40 @@
+package com.juan.property.property_recommendation.stats;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted copy of one {@link MarketStats}, so a restart only replays the properties registered after
+ * {@code lastPropertyId}.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "market_stats_snapshot")
+public class MarketStatsSnapshot {
+    @Id
+    @Column(length = 64)
+    private String id;
+    @Column(nullable = false)
+    private long count;
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal priceSum;
+    @Column(nullable = false)
+    private long pricePerSquareMeterCount;
+    @Column(nullable = false)
+    private double pricePerSquareMeterSum;
+    @Column(nullable = false, length = 16384)
+    private byte[] prices;
+    @Column(nullable = false, length = 16384)
+    private byte[] pricesPerSquareMeter;
+    @Column(nullable = false)
+    private long lastPropertyId;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,6 @@
+package com.juan.property.property_recommendation.stats;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MarketStatsSnapshotRepository extends JpaRepository<MarketStatsSnapshot, String> {
+}
@@ -0,0 +1,134 @@
+package com.juan.property.property_recommendation.stats;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch over positive values. Each value is counted in a logarithmic bucket whose width is a
+ * fixed fraction of the value, so every quantile is answered within {@link #RELATIVE_ACCURACY} of the true value
+ * and the memory used depends on the range of values, not on how many were added. Two sketches merge by adding
+ * their bucket counts.
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // counts[i] holds the bucket minIndex + i
+    private long[] counts = new long[0];
+    private int minIndex;
+    private long count;
+
+    public void add(double value) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Only positive finite values can be added: " + value);
+        }
+        increment((int) Math.ceil(Math.log(value) / LOG_GAMMA), 1);
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] > 0) {
+                increment(other.minIndex + i, other.counts[i]);
+            }
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Estimated value at the given rank, or {@code null} while the sketch is empty.
+     */
+    public Double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("The quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // Midpoint of the bucket in relative terms, which bounds the error on both sides
+                return 2 * Math.pow(GAMMA, minIndex + i) / (GAMMA + 1);
+            }
+        }
+        throw new IllegalStateException("Bucket counts do not add up to " + count);
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch();
+        copy.counts = counts.clone();
+        copy.minIndex = minIndex;
+        copy.count = count;
+        return copy;
+    }
+
+    /**
+     * Compact encoding: the first bucket index and the number of buckets followed by one varint per bucket.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + counts.length * 2);
+        writeVarLong(out, (minIndex << 1) ^ (minIndex >> 31));
+        writeVarLong(out, counts.length);
+        for (long bucket : counts) {
+            writeVarLong(out, bucket);
+        }
+        return out.toByteArray();
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        int zigZag = (int) readVarLong(in);
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.minIndex = (zigZag >>> 1) ^ -(zigZag & 1);
+        sketch.counts = new long[(int) readVarLong(in)];
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = readVarLong(in);
+            sketch.count += sketch.counts[i];
+        }
+        return sketch;
+    }
+
+    private void increment(int index, long n) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            minIndex = index;
+        } else if (index < minIndex) {
+            long[] grown = new long[counts.length + (minIndex - index)];
+            System.arraycopy(counts, 0, grown, minIndex - index, counts.length);
+            counts = grown;
+            minIndex = index;
+        } else if (index >= minIndex + counts.length) {
+            counts = Arrays.copyOf(counts, index - minIndex + 1);
+        }
+        counts[index - minIndex] += n;
+        count += n;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.juan.property.property_recommendation.stats.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class MarketStatsResponse {
+    private long count;
+    private BigDecimal averagePrice;
+    private BigDecimal medianPrice;
+    private BigDecimal p90Price;
+    private BigDecimal averagePricePerSquareMeter;
+    private BigDecimal medianPricePerSquareMeter;
+    private BigDecimal p90PricePerSquareMeter;
+}
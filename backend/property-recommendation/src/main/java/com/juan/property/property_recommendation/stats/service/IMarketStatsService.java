@@ -0,0 +1,10 @@
+package com.juan.property.property_recommendation.stats.service;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.stats.dto.MarketStatsResponse;
+
+public interface IMarketStatsService {
+
+    MarketStatsResponse stats(Integer cityId, Integer departmentId, PropertyType propertyType, OperationType operationType);
+}
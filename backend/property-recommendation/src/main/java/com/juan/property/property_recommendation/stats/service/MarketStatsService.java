@@ -0,0 +1,303 @@
+package com.juan.property.property_recommendation.stats.service;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.stats.MarketStats;
+import com.juan.property.property_recommendation.stats.MarketStatsKey;
+import com.juan.property.property_recommendation.stats.MarketStatsLoadingException;
+import com.juan.property.property_recommendation.stats.MarketStatsSnapshot;
+import com.juan.property.property_recommendation.stats.MarketStatsSnapshotRepository;
+import com.juan.property.property_recommendation.stats.dto.MarketStatsResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Market statistics per city, department, property type and operation type. Every registered property updates the
+ * twelve aggregates it belongs to, so a query is one map lookup whatever the size of the catalog. The aggregates
+ * are written to {@link MarketStatsSnapshot} rows periodically and restored on startup, which only has to replay
+ * the properties registered since the last snapshot.
+ * <p>
+ * Ids come from a pooled sequence and do not follow commit order, so a property can commit below an id the load or a
+ * snapshot already covers and be skipped. After the load, and whenever a registration arrives at or below the loaded
+ * id, every aggregate's count is compared with the table, and the aggregates are rebuilt if any differs.
+ * <p>
+ * The load and rebuilds read the table into a new map that is swapped in once complete, so registrations are only
+ * held back for the swap; the ones that arrive meanwhile are buffered and applied to the new map. Until the first
+ * load completes, queries are refused with {@link MarketStatsLoadingException}.
+ */
+@Slf4j
+@Service
+public class MarketStatsService implements IMarketStatsService {
+
+    private static final MarketStats EMPTY = new MarketStats();
+
+    private final PropertyRepository propertyRepository;
+    private final MarketStatsSnapshotRepository snapshotRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Set<MarketStatsKey> dirty = ConcurrentHashMap.newKeySet();
+    // Serializes the load and the reconciliations, which read the table without holding this service's lock
+    private final Object loadLock = new Object();
+
+    private volatile Map<MarketStatsKey, MarketStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    // Guarded by this: properties up to this id may have been read by the last load, so their events do not tell
+    // whether to add them
+    private long loadedMaxId;
+    // Guarded by this
+    private boolean reconcileNeeded;
+    // Guarded by this: registrations that arrive while the table is read, non-null only meanwhile
+    private List<Property> registeredDuringLoad;
+
+    public MarketStatsService(PropertyRepository propertyRepository,
+                              MarketStatsSnapshotRepository snapshotRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.propertyRepository = propertyRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public MarketStatsResponse stats(Integer cityId, Integer departmentId, PropertyType propertyType, OperationType operationType) {
+        MarketStatsKey key = MarketStatsKey.of(cityId, departmentId, propertyType, operationType);
+        if (!loaded) {
+            throw new MarketStatsLoadingException();
+        }
+        return stats.getOrDefault(key, EMPTY).toResponse();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPropertyRegistered(PropertyRegisteredEvent event) {
+        Property property = event.property();
+        if (registeredDuringLoad != null) {
+            registeredDuringLoad.add(property);
+        } else if (!loaded) {
+            // The load has not read the table yet, and this property is committed
+            return;
+        } else if (property.getId() > loadedMaxId) {
+            add(stats, property);
+        } else {
+            reconcileNeeded = true;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            startBuffering();
+            Map<MarketStatsKey, MarketStats> restored = new ConcurrentHashMap<>();
+            long maxId;
+            try {
+                maxId = readOnlyTransaction.execute(status -> {
+                    long max = propertyRepository.findMaxId();
+                    for (MarketStatsSnapshot snapshot : snapshotRepository.findAll()) {
+                        restored.put(MarketStatsKey.fromId(snapshot.getId()), MarketStats.fromSnapshot(snapshot));
+                    }
+                    long replayFrom = restored.values().stream().mapToLong(MarketStats::lastPropertyId).min().orElse(0);
+                    int replayed = 0;
+                    try (Stream<Property> properties = propertyRepository.streamWithLocationBetween(replayFrom, max)) {
+                        for (Property property : (Iterable<Property>) properties::iterator) {
+                            replay(restored, property);
+                            entityManager.detach(property);
+                            replayed++;
+                        }
+                    }
+                    log.info("Market statistics restored for {} aggregates after replaying {} properties",
+                            restored.size(), replayed);
+                    return max;
+                });
+            } catch (RuntimeException e) {
+                stopBuffering();
+                throw e;
+            }
+            swap(restored, maxId);
+            // A snapshot may cover ids that committed after it was written
+            reconcileWithTable();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${property.stats.reconcile-interval:1m}",
+            initialDelayString = "${property.stats.reconcile-interval:1m}")
+    public void reconcile() {
+        synchronized (loadLock) {
+            synchronized (this) {
+                if (!loaded || !reconcileNeeded) {
+                    return;
+                }
+                // Cleared first, so a registration that arrives during the check asks for another one
+                reconcileNeeded = false;
+            }
+            reconcileWithTable();
+        }
+    }
+
+    /**
+     * Writes the aggregates that changed since the last run, reading the existing rows in one query and inserting
+     * the others.
+     */
+    @Scheduled(fixedDelayString = "${property.stats.snapshot-interval:5m}",
+            initialDelayString = "${property.stats.snapshot-interval:5m}")
+    public void persist() {
+        if (!loaded || dirty.isEmpty()) {
+            return;
+        }
+        List<MarketStatsKey> keys = new ArrayList<>(dirty);
+        dirty.removeAll(keys);
+        try {
+            transaction.executeWithoutResult(status -> {
+                Map<String, MarketStatsSnapshot> existing = snapshotRepository
+                        .findAllById(keys.stream().map(MarketStatsKey::toId).toList())
+                        .stream()
+                        .collect(Collectors.toMap(MarketStatsSnapshot::getId, Function.identity()));
+                for (MarketStatsKey key : keys) {
+                    MarketStats current = stats.get(key);
+                    if (current == null) {
+                        continue;
+                    }
+                    MarketStatsSnapshot snapshot = existing.get(key.toId());
+                    if (snapshot == null) {
+                        snapshot = MarketStatsSnapshot.builder().id(key.toId()).build();
+                        current.writeTo(snapshot);
+                        // The id is assigned, so save() would merge and select the row again
+                        entityManager.persist(snapshot);
+                    } else {
+                        current.writeTo(snapshot);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            dirty.addAll(keys);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        try {
+            persist();
+        } catch (RuntimeException e) {
+            log.warn("Could not persist market statistics on shutdown", e);
+        }
+    }
+
+    // Registrations keep moving the counts during the check, so one that lands in between costs a spare rebuild
+    private void reconcileWithTable() {
+        boolean matches = readOnlyTransaction.execute(status -> {
+            Map<MarketStatsKey, Long> counts = new HashMap<>();
+            for (PropertyRepository.CityTypeCount row : propertyRepository.countPerCityAndType()) {
+                for (MarketStatsKey key : MarketStatsKey.allFor(row.getCityId(), row.getDepartmentId(),
+                        row.getPropertyType(), row.getOperationType())) {
+                    counts.merge(key, row.getCount(), Long::sum);
+                }
+            }
+            // An aggregate the table has no rows for, such as one restored from a stale snapshot, differs too
+            Map<MarketStatsKey, Long> current = new HashMap<>();
+            stats.forEach((key, value) -> {
+                if (value.count() > 0) {
+                    current.put(key, value.count());
+                }
+            });
+            return current.equals(counts);
+        });
+        if (!matches) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        startBuffering();
+        Map<MarketStatsKey, MarketStats> rebuilt = new ConcurrentHashMap<>();
+        long maxId;
+        try {
+            maxId = readOnlyTransaction.execute(status -> {
+                long max = propertyRepository.findMaxId();
+                try (Stream<Property> properties = propertyRepository.streamWithLocationBetween(0, max)) {
+                    for (Property property : (Iterable<Property>) properties::iterator) {
+                        add(rebuilt, property);
+                        entityManager.detach(property);
+                    }
+                }
+                return max;
+            });
+        } catch (RuntimeException e) {
+            stopBuffering();
+            throw e;
+        }
+        swap(rebuilt, maxId);
+        log.warn("Market statistics did not match the properties table and were rebuilt up to property {}", maxId);
+    }
+
+    private synchronized void startBuffering() {
+        registeredDuringLoad = new ArrayList<>();
+    }
+
+    private synchronized void stopBuffering() {
+        registeredDuringLoad = null;
+    }
+
+    // Properties above the id the table was read up to are missing from the new map, the others may or may not be in it
+    private synchronized void swap(Map<MarketStatsKey, MarketStats> loadedStats, long maxId) {
+        stats = loadedStats;
+        loadedMaxId = maxId;
+        for (Property property : registeredDuringLoad) {
+            if (property.getId() > maxId) {
+                add(loadedStats, property);
+            } else {
+                reconcileNeeded = true;
+            }
+        }
+        registeredDuringLoad = null;
+        loaded = true;
+    }
+
+    private void replay(Map<MarketStatsKey, MarketStats> restored, Property property) {
+        for (MarketStatsKey key : MarketStatsKey.allFor(property)) {
+            MarketStats current = restored.get(key);
+            // A restored aggregate already contains everything up to its own snapshot
+            if (current == null || property.getId() > current.lastPropertyId()) {
+                add(restored, key, property);
+            }
+        }
+    }
+
+    private void add(Map<MarketStatsKey, MarketStats> target, Property property) {
+        for (MarketStatsKey key : MarketStatsKey.allFor(property)) {
+            add(target, key, property);
+        }
+    }
+
+    private void add(Map<MarketStatsKey, MarketStats> target, MarketStatsKey key, Property property) {
+        target.computeIfAbsent(key, k -> new MarketStats()).add(property);
+        dirty.add(key);
+    }
+}
@@ -1,6 +1,9 @@
 package com.juan.property.property_recommendation.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -9,4 +12,10 @@ public interface UserRepository extends JpaRepository<User,Integer> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByDocumentNumber(Long documentNumber);
+
+    // Only replaces the password it was computed from, so a change made meanwhile is kept
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :upgraded where u.id = :id and u.password = :current")
+    int updatePassword(Integer id, String current, String upgraded);
 }
@@ -0,0 +1,88 @@
+package com.juan.property.property_recommendation.address_search;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.search.AddressTrigramIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+public class AddressSearchBenchmark {
+
+    private static final int QUERIES = 200;
+    private static final String[] STREET_TYPES = {"Calle", "Carrera", "Avenida", "Diagonal", "Transversal", "Cl", "Cra", "Kr"};
+
+    static List<Property> buildListings(int listings) {
+        Random random = new Random(7);
+        List<City> cities = new ArrayList<>();
+        for (int c = 0; c < 1_100; c++) {
+            cities.add(City.builder().id(c + 1).name("Municipio " + c).build());
+        }
+        List<Property> properties = new ArrayList<>(listings);
+        for (int i = 0; i < listings; i++) {
+            int city = random.nextInt(3) == 0 ? random.nextInt(cities.size()) : random.nextInt(5);
+            properties.add(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .address(STREET_TYPES[random.nextInt(STREET_TYPES.length)] + " " + (1 + random.nextInt(200))
+                            + (random.nextInt(4) == 0 ? "B" : "") + " # " + (1 + random.nextInt(150)) + "-"
+                            + (1 + random.nextInt(99)))
+                    .city(cities.get(city))
+                    .build());
+        }
+        return properties;
+    }
+
+    private static int[] trigrams(String text) {
+        return AddressTrigramIndex.trigrams(AddressTrigramIndex.normalize(text));
+    }
+
+    private static boolean containsAll(int[] sorted, int[] values) {
+        return Arrays.stream(values).allMatch(value -> Arrays.binarySearch(sorted, value) >= 0);
+    }
+
+    @ParameterizedTest(name = "{0} listings")
+    @ValueSource(ints = {100_000, 1_000_000})
+    public void benchmarkLongTailQueries(int listings) {
+        List<Property> properties = buildListings(listings);
+        AddressTrigramIndex index = new AddressTrigramIndex();
+        long loadStart = System.nanoTime();
+        index.load(sink -> properties.forEach(sink));
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        Random random = new Random(11);
+        List<Property> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(properties.get(random.nextInt(properties.size())));
+        }
+        for (Property query : queries) {
+            index.search(query.getAddress(), 10);
+        }
+
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Property query = queries.get(i);
+            long start = System.nanoTime();
+            List<Long> result = index.search(query.getAddress(), 10);
+            nanos[i] = System.nanoTime() - start;
+            // Trigrams ignore word order, so "Calle 12 # 34-56" and "Calle 34 # 12-56" tie; the best must hold them all
+            Property best = properties.get((int) (result.get(0) - 1000000000L));
+            assertTrue(containsAll(trigrams(best.getAddress() + " " + best.getCity().getName()), trigrams(query.getAddress())));
+        }
+        Arrays.sort(nanos);
+
+        long broadStart = System.nanoTime();
+        index.search("calle 80", 10);
+        long broadMicros = (System.nanoTime() - broadStart) / 1_000;
+
+        System.out.printf("listings=%d load=%dms long-tail p50=%dus p99=%dus broad \"calle 80\"=%dus%n",
+                listings, loadMillis, nanos[QUERIES / 2] / 1_000, nanos[QUERIES * 99 / 100] / 1_000, broadMicros);
+    }
+}
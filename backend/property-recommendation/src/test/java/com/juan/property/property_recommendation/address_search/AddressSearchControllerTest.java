@@ -0,0 +1,73 @@
+package com.juan.property.property_recommendation.address_search;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+public class AddressSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    public void testAddressSearchKeepsTheOtherFilters() throws Exception {
+        when(propertyService.findByAddress(eq("calle 80"), any())).thenReturn(List.of(
+                PropertyResponse.builder().registryNumber(100100200L).address("Calle 80 # 12-3").build()));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties").param("address", "calle 80").param("cityId", "495"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].registryNumber").value(100100200L));
+
+        ArgumentCaptor<PropertySpecification> captor = ArgumentCaptor.forClass(PropertySpecification.class);
+        verify(propertyService).findByAddress(eq("calle 80"), captor.capture());
+        assertEquals(495, captor.getValue().getCityId());
+        verify(propertyService, never()).findAll(any());
+    }
+
+    @Test
+    public void testBlankAddressIsIgnored() throws Exception {
+        when(propertyService.findAll(any())).thenReturn(List.of());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties").param("address", " "))
+                .andExpect(status().isOk());
+
+        verify(propertyService, never()).findByAddress(any(), any());
+    }
+
+    @Test
+    public void testInvalidAddressIsRejected() throws Exception {
+        when(propertyService.findByAddress(eq("#"), any()))
+                .thenThrow(new IllegalArgumentException("The address must contain letters or digits"));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties").param("address", "#"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,84 @@
+package com.juan.property.property_recommendation.address_search;
+
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.AddressSearchEngine;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AddressSearchServiceTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @Mock
+    private AddressSearchEngine addressSearchEngine;
+
+    @Mock
+    private PropertyMapper propertyMapper;
+
+    @InjectMocks
+    private PropertyService propertyService;
+
+    @Test
+    public void testResultsKeepTheAddressRanking() {
+        when(addressSearchEngine.isReady()).thenReturn(true);
+        when(addressSearchEngine.search("cra 7 #45", PropertyService.ADDRESS_CANDIDATES))
+                .thenReturn(List.of(1000000003L, 1000000001L, 1000000002L));
+        // The database returns the filtered candidates in id order
+        when(propertyRepository.findResponses(any())).thenReturn(List.of(
+                PropertyResponse.builder().registryNumber(1000000001L).build(),
+                PropertyResponse.builder().registryNumber(1000000003L).build()));
+
+        List<PropertyResponse> result = propertyService.findByAddress("cra 7 #45", new PropertySpecification());
+
+        assertEquals(List.of(1000000003L, 1000000001L), result.stream().map(PropertyResponse::getRegistryNumber).toList());
+    }
+
+    @Test
+    public void testNoAddressMatchSkipsTheDatabase() {
+        when(addressSearchEngine.isReady()).thenReturn(true);
+        when(addressSearchEngine.search("zzz", PropertyService.ADDRESS_CANDIDATES)).thenReturn(List.of());
+
+        assertTrue(propertyService.findByAddress("zzz", new PropertySpecification()).isEmpty());
+        verify(propertyRepository, never()).findResponses(any());
+    }
+
+    @Test
+    public void testAddressIsMatchedInTheDatabaseUntilTheIndexIsLoaded() {
+        Property property = Property.builder().registryNumber(1000000001L).build();
+        doReturn(List.of(property)).when(propertyRepository).findBy(any(Specification.class), any());
+        when(propertyMapper.propertyToDto(property)).thenReturn(PropertyResponse.builder().registryNumber(1000000001L).build());
+
+        List<PropertyResponse> result = propertyService.findByAddress("cra 7 #45", new PropertySpecification());
+
+        assertEquals(List.of(1000000001L), result.stream().map(PropertyResponse::getRegistryNumber).toList());
+        verify(addressSearchEngine, never()).search(any(), anyInt());
+    }
+
+    @Test
+    public void testAddressWithoutLettersOrDigitsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> propertyService.findByAddress("#-", new PropertySpecification()));
+    }
+}
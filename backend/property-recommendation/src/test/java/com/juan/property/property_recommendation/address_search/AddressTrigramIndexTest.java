@@ -0,0 +1,150 @@
+package com.juan.property.property_recommendation.address_search;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.search.AddressTrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AddressTrigramIndexTest {
+
+    private static final String[] STREET_TYPES = {"Calle", "Cl.", "Carrera", "Cra", "Kr", "Avenida", "Diagonal", "Transversal"};
+    private static final String[] CITIES = {"Bogotá", "Medellín", "Cali", "Barranquilla", "Bucaramanga", "Pasto"};
+
+    private final Random random = new Random(42);
+    private final List<Property> properties = new ArrayList<>();
+    private AddressTrigramIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < 3_000; i++) {
+            properties.add(property(1000000000L + i, STREET_TYPES[random.nextInt(STREET_TYPES.length)] + " "
+                    + (1 + random.nextInt(150)) + (random.nextInt(4) == 0 ? "A" : "") + " # "
+                    + (1 + random.nextInt(100)) + "-" + (1 + random.nextInt(99)), CITIES[random.nextInt(CITIES.length)]));
+        }
+        index = new AddressTrigramIndex();
+        index.load(sink -> properties.forEach(sink));
+    }
+
+    private static Property property(long registryNumber, String address, String city) {
+        return Property.builder()
+                .registryNumber(registryNumber)
+                .address(address)
+                .city(City.builder().name(city).build())
+                .build();
+    }
+
+    // Every listing scored the way the index ranks them
+    private List<Long> bruteForce(String query, int limit) {
+        int[] terms = AddressTrigramIndex.trigrams(AddressTrigramIndex.normalize(query));
+        int minOverlap = Math.max(1, (int) Math.ceil(AddressTrigramIndex.MIN_OVERLAP * terms.length));
+        List<long[]> scored = new ArrayList<>();
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            int[] trigrams = AddressTrigramIndex.trigrams(AddressTrigramIndex.normalize(
+                    property.getAddress() + " " + property.getCity().getName()));
+            int overlap = (int) Arrays.stream(terms).filter(term -> Arrays.binarySearch(trigrams, term) >= 0).count();
+            if (overlap >= minOverlap) {
+                scored.add(new long[]{overlap, trigrams.length - overlap, i, property.getRegistryNumber()});
+            }
+        }
+        return scored.stream()
+                .sorted(Comparator.<long[]>comparingLong(entry -> -entry[0])
+                        .thenComparingLong(entry -> entry[1])
+                        .thenComparingLong(entry -> entry[2]))
+                .limit(limit)
+                .map(entry -> entry[3])
+                .toList();
+    }
+
+    @Test
+    public void testNormalizesAccentsAndStreetTypes() {
+        assertEquals("kr 7 45 10 bogota", AddressTrigramIndex.normalize("Carrera 7 #45-10 Bogotá"));
+        assertEquals("kr 7 45 10", AddressTrigramIndex.normalize("KRA. 7 No. 45 - 10"));
+        assertEquals("cl 80 a 12", AddressTrigramIndex.normalize("Cll 80A # 12"));
+        assertEquals("av boyaca", AddressTrigramIndex.normalize("Avenida Boyacá"));
+        assertEquals("", AddressTrigramIndex.normalize(" #- "));
+    }
+
+    @Test
+    public void testAbbreviationsFindTheSameListing() {
+        AddressTrigramIndex small = new AddressTrigramIndex();
+        small.load(sink -> {
+            sink.accept(property(1000000001L, "Carrera 7 # 45-10", "Bogotá"));
+            sink.accept(property(1000000002L, "Calle 45 # 7-10", "Bogotá"));
+            sink.accept(property(1000000003L, "Carrera 17 # 4-5", "Medellín"));
+        });
+
+        assertEquals(1000000001L, small.search("cra 7 #45", 3).get(0));
+        assertEquals(1000000001L, small.search("kr 7 45 10", 3).get(0));
+        assertEquals(1000000002L, small.search("cl 45 7", 3).get(0));
+        assertEquals(1000000003L, small.search("carrera 17 medellin", 3).get(0));
+    }
+
+    @Test
+    public void testRankingMatchesBruteForce() {
+        List<String> queries = new ArrayList<>(List.of("calle 80", "cra 7 #45", "bogota", "Avenida 12 Cali",
+                "transversal 99a", "kr 150 # 3-7 pasto", "zzz"));
+        for (int i = 0; i < 30; i++) {
+            queries.add(properties.get(random.nextInt(properties.size())).getAddress());
+        }
+        for (String query : queries) {
+            assertEquals(bruteForce(query, 20), index.search(query, 20), "Mismatch for " + query);
+        }
+    }
+
+    @Test
+    public void testExactAddressRanksFirst() {
+        for (int i = 0; i < 50; i++) {
+            Property property = properties.get(random.nextInt(properties.size()));
+            List<Long> result = index.search(property.getAddress() + " " + property.getCity().getName(), 5);
+
+            assertEquals(property.getRegistryNumber(), result.get(0));
+        }
+    }
+
+    @Test
+    public void testRegisteredListingIsSearchableOnce() {
+        Property property = property(1999999999L, "Diagonal 182 # 20-35", "Chía");
+        index.add(property);
+        index.add(property);
+
+        assertEquals(3_001, index.size());
+        assertEquals(1999999999L, index.search("dg 182 20 35 chia", 5).get(0));
+    }
+
+    @Test
+    public void testListingRegisteredDuringTheLoadIsSearchableOnce() {
+        Property registered = property(1999999999L, "Diagonal 182 # 20-35", "Chía");
+        AddressTrigramIndex loading = new AddressTrigramIndex();
+        loading.load(sink -> {
+            sink.accept(property(1000000001L, "Carrera 7 # 45-10", "Bogotá"));
+            // Committed before the load read it, so both the load and the event see the listing
+            sink.accept(registered);
+            // The event is handled on another thread, which must not wait for the load
+            assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> loading.add(registered)).get(5, TimeUnit.SECONDS));
+            assertFalse(loading.isReady());
+        });
+
+        assertEquals(2, loading.size());
+        assertEquals(List.of(1999999999L), loading.search("dg 182 20 35 chia", 5));
+    }
+
+    @Test
+    public void testQueryWithoutLettersOrDigitsFindsNothing() {
+        assertTrue(index.search("#-", 10).isEmpty());
+    }
+}
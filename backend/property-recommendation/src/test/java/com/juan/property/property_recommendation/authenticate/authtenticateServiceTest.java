@@ -1,7 +1,10 @@
 package com.juan.property.property_recommendation.authenticate;
 
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionExpiry;
 import com.juan.property.property_recommendation.auth.SessionToken;
 import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
 import com.juan.property.property_recommendation.auth.service.AuthService;
 import com.juan.property.property_recommendation.user.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,9 +14,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 
@@ -23,6 +33,15 @@ public class authtenticateServiceTest {
     @Mock
     private SessionTokenRepository sessionTokenRepository;
 
+    @Mock
+    private SessionCache sessionCache;
+
+    @Mock
+    private SignedSessionTokens signedSessionTokens;
+
+    @Mock
+    private SessionExpiry sessionExpiry;
+
     @InjectMocks
     private AuthService authService;
 
@@ -52,6 +71,18 @@ public class authtenticateServiceTest {
 
         assertTrue(result.isPresent());
         assertEquals("juan@example.com", result.get().getEmail());
+        verify(sessionCache).put(eq("valid-token-123"), eq(user), anyLong(), anyLong());
+    }
+
+    @Test
+    void authenticateWithCachedToken_shouldNotQueryTheDatabase() {
+        when(sessionCache.get("valid-token-123")).thenReturn(Optional.of(user));
+
+        Optional<User> result = authService.authenticate("valid-token-123");
+
+        assertTrue(result.isPresent());
+        assertEquals("juan@example.com", result.get().getEmail());
+        verifyNoInteractions(sessionTokenRepository);
     }
 
     // ❌ EDGE CASES
@@ -82,5 +113,34 @@ public class authtenticateServiceTest {
         Optional<User> result = authService.authenticate("non-existent-token");
 
         assertFalse(result.isPresent());
+        verify(sessionCache, never()).put(any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testAuthenticateWithExpiredSession() {
+        when(sessionTokenRepository.findByToken("valid-token-123"))
+                .thenReturn(Optional.of(sessionToken));
+        when(sessionExpiry.expired(eq(sessionToken), any())).thenReturn(true);
+
+        Optional<User> result = authService.authenticate("valid-token-123");
+
+        assertFalse(result.isPresent());
+        verify(sessionTokenRepository, never()).touch(any(), any());
+        verify(sessionCache, never()).put(any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testAuthenticateRecordsTheUseOnceATouchIsDue() {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(sessionTokenRepository.findByToken("valid-token-123"))
+                .thenReturn(Optional.of(sessionToken));
+        when(sessionExpiry.now()).thenReturn(now);
+        when(sessionExpiry.touchDue(sessionToken, now)).thenReturn(true);
+
+        Optional<User> result = authService.authenticate("valid-token-123");
+
+        assertTrue(result.isPresent());
+        verify(sessionTokenRepository).touch("valid-token-123", now);
+        assertEquals(now, sessionToken.getLastUsedAt());
     }
 }
@@ -0,0 +1,108 @@
+package com.juan.property.property_recommendation.bulk_import;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.importer.PropertyImportController;
+import com.juan.property.property_recommendation.importer.PropertyImportFormat;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportError;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportResponse;
+import com.juan.property.property_recommendation.importer.service.PropertyImportService;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyImportController.class)
+public class PropertyImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyImportService propertyImportService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    private final User user = User.builder().id(7).email("pepito666@gmail.com").build();
+
+    @Test
+    public void testCsvIsImportedWithItsCharset() throws Exception {
+        when(authService.authenticate("token-123")).thenReturn(Optional.of(user));
+        when(propertyImportService.importProperties(any(InputStream.class), eq(StandardCharsets.ISO_8859_1),
+                eq(PropertyImportFormat.CSV), eq(user)))
+                .thenReturn(PropertyImportResponse.builder()
+                        .rows(2)
+                        .imported(1)
+                        .rejected(1)
+                        .elapsedMillis(4)
+                        .rowsPerSecond(500)
+                        .errors(List.of(PropertyImportError.builder()
+                                .line(3).registryNumber(1000000002L).message("The property already exists").build()))
+                        .build());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/properties/import")
+                        .header("X-Auth-Token", "token-123")
+                        .contentType("text/csv;charset=ISO-8859-1")
+                        .content("registryNumber\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rowsPerSecond").value(500.0))
+                .andExpect(jsonPath("$.errors[0].line").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("The property already exists"));
+    }
+
+    @Test
+    public void testNdjsonDefaultsToUtf8() throws Exception {
+        when(authService.authenticate("token-123")).thenReturn(Optional.of(user));
+        when(propertyImportService.importProperties(any(InputStream.class), any(), any(), any()))
+                .thenReturn(PropertyImportResponse.builder().errors(List.of()).build());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/properties/import")
+                        .header("X-Auth-Token", "token-123")
+                        .contentType("application/x-ndjson")
+                        .content("{}\n"))
+                .andExpect(status().isOk());
+
+        verify(propertyImportService).importProperties(any(InputStream.class), eq(StandardCharsets.UTF_8),
+                eq(PropertyImportFormat.NDJSON), eq(user));
+    }
+
+    @Test
+    public void testImportRequiresAValidToken() throws Exception {
+        when(authService.authenticate(anyString())).thenReturn(Optional.empty());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/properties/import")
+                        .header("X-Auth-Token", "expired")
+                        .contentType("text/csv")
+                        .content("registryNumber\n"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(propertyImportService);
+    }
+
+    @Test
+    public void testOtherFormatsAreUnsupported() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/properties/import")
+                        .header("X-Auth-Token", "token-123")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(propertyImportService);
+    }
+}
@@ -0,0 +1,167 @@
+package com.juan.property.property_recommendation.bulk_import;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.importer.PropertyImportFormat;
+import com.juan.property.property_recommendation.importer.PropertyImportReader;
+import com.juan.property.property_recommendation.property.dto.PropertyRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.juan.property.property_recommendation.property.OperationType.LEASE;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyImportReaderTest {
+
+    private static final String HEADER = "registryNumber,operationType,address,price,area,images,numberOfBathrooms,"
+            + "numberOfBedrooms,propertyType,cityId\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PropertyImportReader open(PropertyImportFormat format, String content) throws IOException {
+        return PropertyImportReader.open(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, format, objectMapper);
+    }
+
+    private List<PropertyImportReader.Row> readAll(PropertyImportReader reader) throws IOException {
+        List<PropertyImportReader.Row> rows = new ArrayList<>();
+        PropertyImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    public void testCsvRowIsConvertedByColumnName() throws IOException {
+        PropertyImportReader reader = open(PropertyImportFormat.CSV,
+                "cityId,propertyType,numberOfBedrooms,numberOfBathrooms,images,area,price,address,operationType,registryNumber,latitude,longitude\r\n"
+                        + "7,house,3,2,a.jpg| b.jpg,80.5,250000000,Calle 80 # 10-20,LEASE,1000000001,4.65,-74.05\r\n");
+
+        PropertyImportReader.Row row = reader.next();
+        PropertyRequest request = reader.parse(row);
+
+        assertEquals(2, row.line());
+        assertEquals(1000000001L, request.getRegistryNumber());
+        assertEquals(LEASE, request.getOperationType());
+        assertEquals(HOUSE, request.getPropertyType());
+        assertEquals("Calle 80 # 10-20", request.getAddress());
+        assertEquals(new BigDecimal("250000000"), request.getPrice());
+        assertEquals(80.5, request.getArea());
+        assertEquals(List.of("a.jpg", "b.jpg"), request.getImages());
+        assertEquals(2, request.getNumberOfBathrooms());
+        assertEquals(3, request.getNumberOfBedrooms());
+        assertEquals(7, request.getCityId());
+        assertEquals(4.65, request.getLatitude());
+        assertEquals(-74.05, request.getLongitude());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testCsvQuotedValuesKeepCommasQuotesAndLineBreaks() throws IOException {
+        PropertyImportReader reader = open(PropertyImportFormat.CSV, HEADER
+                + "1000000001,SELL,\"Carrera 7, \"\"Edificio\"\"\nApto 301\",100,50,a.jpg,1,1,HOUSE,1\n"
+                + "\n"
+                + "1000000002,SELL,Calle 1,100,50,a.jpg,1,1,HOUSE,1\n");
+
+        List<PropertyImportReader.Row> rows = readAll(reader);
+
+        assertEquals(2, rows.size());
+        assertEquals("Carrera 7, \"Edificio\"\nApto 301", reader.parse(rows.get(0)).getAddress());
+        assertEquals(2, rows.get(0).line());
+        // The quoted line break and the blank line are both counted
+        assertEquals(5, rows.get(1).line());
+    }
+
+    @Test
+    public void testCsvValuesThatCannotBeConvertedUseTheRegisterMessages() throws IOException {
+        PropertyImportReader reader = open(PropertyImportFormat.CSV, HEADER
+                + "1000000001,RENT,Calle 1,100,50,a.jpg,1,1,HOUSE,1\n"
+                + "1000000002,SELL,Calle 1,cien,50,a.jpg,1,1,HOUSE,1\n"
+                + "1000000003,SELL,Calle 1,100,50\n"
+                + "1000000004,SELL,\"Calle 1,100,50,a.jpg,1,1,HOUSE,1\n");
+
+        List<PropertyImportReader.Row> rows = readAll(reader);
+
+        assertEquals("The operation type is not valid",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(rows.get(0))).getMessage());
+        assertEquals("The price is not valid",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(rows.get(1))).getMessage());
+        assertEquals("Expected 10 values but found 5",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(rows.get(2))).getMessage());
+        assertEquals("A quoted value is not closed",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(rows.get(3))).getMessage());
+    }
+
+    @Test
+    public void testCsvHeaderMustNameTheRequestFields() {
+        assertEquals("Unknown CSV column rooms", assertThrows(IllegalArgumentException.class,
+                () -> open(PropertyImportFormat.CSV, HEADER.replace("numberOfBedrooms", "rooms"))).getMessage());
+        assertEquals("The CSV column cityId is missing", assertThrows(IllegalArgumentException.class,
+                () -> open(PropertyImportFormat.CSV, HEADER.replace(",cityId", ""))).getMessage());
+    }
+
+    @Test
+    public void testUnclosedQuoteIsRejectedOnceTheRowIsTooLong() throws IOException {
+        String filler = "x".repeat(1000) + "\n";
+        PropertyImportReader reader = open(PropertyImportFormat.CSV, HEADER
+                + "1000000001,SELL,\"Calle 1,100,50,a.jpg,1,1,HOUSE,1\n"
+                + filler.repeat(4 * PropertyImportReader.MAX_ROW_LENGTH / filler.length()));
+
+        PropertyImportReader.Row row = reader.next();
+
+        assertEquals(2, row.line());
+        assertEquals("The row is longer than 65536 characters",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(row)).getMessage());
+        // Reading resumes after the line the cap was hit on, and each later line is a row of its own
+        PropertyImportReader.Row next = reader.next();
+        assertTrue(next.line() > row.line() + PropertyImportReader.MAX_ROW_LENGTH / filler.length());
+        assertEquals(List.of("x".repeat(1000)), next.values());
+    }
+
+    @Test
+    public void testNdjsonLineIsRejectedOnceItIsTooLong() throws IOException {
+        PropertyImportReader reader = open(PropertyImportFormat.NDJSON,
+                "{\"address\":\"" + "x".repeat(2 * PropertyImportReader.MAX_ROW_LENGTH) + "\"}\n"
+                        + "{\"registryNumber\":1000000002}\n");
+
+        List<PropertyImportReader.Row> rows = readAll(reader);
+
+        assertEquals(List.of(1L, 2L), rows.stream().map(PropertyImportReader.Row::line).toList());
+        assertEquals("The row is longer than 65536 characters",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(rows.get(0))).getMessage());
+        assertEquals(1000000002L, reader.parse(rows.get(1)).getRegistryNumber());
+    }
+
+    @Test
+    public void testEmptyCsvHasNoRows() throws IOException {
+        assertNull(open(PropertyImportFormat.CSV, "").next());
+    }
+
+    @Test
+    public void testNdjsonLinesAreRequestBodies() throws IOException {
+        PropertyImportReader reader = open(PropertyImportFormat.NDJSON,
+                "{\"registryNumber\":1000000001,\"operationType\":\"LEASE\",\"images\":[\"a.jpg\"],\"cityId\":7}\n"
+                        + "\n"
+                        + "{\"registryNumber\":1000000002,\"operationType\":\"RENT\"}\n"
+                        + "{\"registryNumber\":\n");
+
+        List<PropertyImportReader.Row> rows = readAll(reader);
+
+        assertEquals(List.of(1L, 3L, 4L), rows.stream().map(PropertyImportReader.Row::line).toList());
+        PropertyRequest request = reader.parse(rows.get(0));
+        assertEquals(1000000001L, request.getRegistryNumber());
+        assertEquals(LEASE, request.getOperationType());
+        assertEquals(List.of("a.jpg"), request.getImages());
+        assertEquals("The operation type is not valid",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(rows.get(1))).getMessage());
+        assertEquals("The line is not valid JSON",
+                assertThrows(IllegalArgumentException.class, () -> reader.parse(rows.get(2))).getMessage());
+    }
+}
@@ -0,0 +1,218 @@
+package com.juan.property.property_recommendation.bulk_import;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.importer.PropertyImportFormat;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportError;
+import com.juan.property.property_recommendation.importer.dto.PropertyImportResponse;
+import com.juan.property.property_recommendation.importer.service.PropertyImportService;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.location.LocationCatalog;
+import com.juan.property.property_recommendation.location.mapper.CityMapper;
+import com.juan.property.property_recommendation.location.mapper.DepartmentMapper;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import com.juan.property.property_recommendation.support.SqlStatementCounter;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.juan.property.property_recommendation.property.OperationType.SELL;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+public class PropertyImportRepositoryTest {
+
+    private static final String HEADER = "registryNumber,operationType,address,price,area,images,numberOfBathrooms,"
+            + "numberOfBedrooms,propertyType,cityId,latitude,longitude\n";
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+    private PropertyImportService propertyImportService;
+    private User user;
+    private City city;
+
+    @BeforeEach
+    public void setUp() {
+        user = User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build();
+        entityManager.persist(user);
+        Department department = departmentRepository.save(Department.builder().name("Cundinamarca").build());
+        city = cityRepository.save(City.builder().name("Bogota").department(department).build());
+        propertyRepository.save(Property.builder()
+                .registryNumber(1000000099L)
+                .operationType(SELL)
+                .address("Calle 99")
+                .price(BigDecimal.valueOf(100_000_000L))
+                .area(50.0)
+                .images(List.of("img1.jpg"))
+                .numberOfBathrooms(1)
+                .numberOfBedrooms(2)
+                .propertyType(HOUSE)
+                .city(city)
+                .user(user)
+                .build());
+        entityManager.flush();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        LocationCatalog locationCatalog = new LocationCatalog(departmentRepository, cityRepository,
+                new DepartmentMapper(), new CityMapper(), objectMapper);
+        PropertyService propertyService = new PropertyService(propertyRepository, new PropertyMapper(),
+                null, null, null, null, null, null, null);
+        propertyImportService = new PropertyImportService(propertyService, propertyRepository, new PropertyMapper(),
+                locationCatalog, entityManager, transactionManager, events::add, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private String row(long registryNumber, String price, int cityId, String coordinates) {
+        return registryNumber + ",SELL,Calle " + registryNumber + "," + price + ",60,a.jpg|b.jpg,1,2,HOUSE," + cityId + ","
+                + coordinates + "\n";
+    }
+
+    // The test transaction is never committed, so the inserts are flushed here
+    private PropertyImportResponse importCsv(String csv) {
+        PropertyImportResponse response = propertyImportService.importProperties(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8,
+                PropertyImportFormat.CSV, user);
+        entityManager.flush();
+        entityManager.clear();
+        return response;
+    }
+
+    @Test
+    public void testValidRowsAreImportedAndInvalidOnesReported() {
+        PropertyImportResponse response = importCsv(HEADER
+                + row(1000000001L, "120000000", city.getId(), "4.65,-74.05")
+                + row(1000000002L, "0", city.getId(), ",")
+                + row(1000000003L, "120000000", city.getId() + 1000, ",")
+                + row(1000000004L, "120000000", city.getId(), "4.65,")
+                + row(1000000099L, "120000000", city.getId(), ",")
+                + row(1000000001L, "130000000", city.getId(), ",")
+                + row(1000000005L, "120000000", city.getId(), ","));
+
+        assertEquals(7, response.getRows());
+        assertEquals(2, response.getImported());
+        assertEquals(5, response.getRejected());
+        assertFalse(response.isErrorsTruncated());
+        assertTrue(response.getRowsPerSecond() > 0);
+        List<PropertyImportError> errors = response.getErrors();
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), errors.stream().map(PropertyImportError::getLine).toList());
+        assertEquals(List.of(
+                "The price must be greater than zero",
+                "The city  does not exist",
+                "The latitude and longitude must be given together",
+                "The property already exists",
+                "The property already exists"), errors.stream().map(PropertyImportError::getMessage).toList());
+        assertEquals(1000000002L, errors.get(0).getRegistryNumber());
+
+        Property imported = propertyRepository.findByRegistryNumber(1000000001L).orElseThrow();
+        assertEquals(new BigDecimal("120000000.00"), imported.getPrice().setScale(2));
+        assertEquals(List.of("a.jpg", "b.jpg"), imported.getImages());
+        assertEquals(city.getId(), imported.getCity().getId());
+        assertEquals(user.getId(), imported.getUser().getId());
+        assertNotNull(imported.getGeohash());
+        assertTrue(propertyRepository.findByRegistryNumber(1000000005L).isPresent());
+        assertEquals(3, propertyRepository.count());
+    }
+
+    @Test
+    public void testEveryImportedRowIsPublished() {
+        importCsv(HEADER + row(1000000001L, "120000000", city.getId(), ",")
+                + row(1000000002L, "120000000", city.getId(), ","));
+
+        assertEquals(List.of(1000000001L, 1000000002L), events.stream()
+                .map(event -> ((PropertyRegisteredEvent) event).property().getRegistryNumber())
+                .toList());
+    }
+
+    @Test
+    public void testChunksAreCheckedAndInsertedInBatches() {
+        int rows = 3 * PropertyImportService.CHUNK_SIZE;
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            csv.append(row(2000000000L + i, "120000000", city.getId(), ","));
+        }
+
+        SqlStatementCounter.reset();
+        PropertyImportResponse response = importCsv(csv.toString());
+
+        assertEquals(rows, response.getImported());
+        assertEquals(rows + 1, propertyRepository.count());
+        // Per chunk one uniqueness query and one batch, plus an id block every 50 rows, instead of three per row
+        long expected = 3 * 2 + rows / 50;
+        assertTrue(SqlStatementCounter.statements() <= expected + 3, "SQL statements: " + SqlStatementCounter.statements());
+    }
+
+    @Test
+    public void testRowRepeatedInALaterChunkIsRejected() {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < PropertyImportService.CHUNK_SIZE; i++) {
+            csv.append(row(2000000000L + i, "120000000", city.getId(), ","));
+        }
+        csv.append(row(2000000000L, "130000000", city.getId(), ","));
+
+        PropertyImportResponse response = importCsv(csv.toString());
+
+        assertEquals(PropertyImportService.CHUNK_SIZE, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals(PropertyImportService.CHUNK_SIZE + 2L, response.getErrors().get(0).getLine());
+        assertEquals("The property already exists", response.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    public void testOnlyTheFirstErrorsAreListed() {
+        StringBuilder csv = new StringBuilder(HEADER);
+        int rows = PropertyImportService.MAX_REPORTED_ERRORS + 10;
+        for (int i = 0; i < rows; i++) {
+            csv.append(row(2000000000L + i, "-1", city.getId(), ","));
+        }
+
+        PropertyImportResponse response = importCsv(csv.toString());
+
+        assertEquals(rows, response.getRejected());
+        assertEquals(PropertyImportService.MAX_REPORTED_ERRORS, response.getErrors().size());
+        assertTrue(response.isErrorsTruncated());
+    }
+}
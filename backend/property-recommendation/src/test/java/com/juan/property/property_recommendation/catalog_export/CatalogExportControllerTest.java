@@ -0,0 +1,73 @@
+package com.juan.property.property_recommendation.catalog_export;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.exporter.CatalogExportController;
+import com.juan.property.property_recommendation.exporter.CatalogExportStatus;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportResponse;
+import com.juan.property.property_recommendation.exporter.service.CatalogExportService;
+import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CatalogExportController.class)
+public class CatalogExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CatalogExportService catalogExportService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    private final User user = User.builder().id(7).email("pepito666@gmail.com").build();
+
+    @Test
+    public void testStartIsAcceptedWithTheJobLocation() throws Exception {
+        when(authService.authenticate("token-123")).thenReturn(Optional.of(user));
+        when(catalogExportService.start()).thenReturn(CatalogExportResponse.builder()
+                .id("20261018T120000Z-1a2b3c4d")
+                .status(CatalogExportStatus.RUNNING)
+                .startedAt(Instant.parse("2026-10-18T12:00:00Z"))
+                .build());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/properties/export").header("X-Auth-Token", "token-123"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/properties/export/20261018T120000Z-1a2b3c4d"))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    public void testUnknownExportIsNotFound() throws Exception {
+        when(authService.authenticate("token-123")).thenReturn(Optional.of(user));
+        when(catalogExportService.status("missing")).thenThrow(new EntityNotFoundException("The export does not exist"));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/export/missing").header("X-Auth-Token", "token-123"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testExportRequiresAValidToken() throws Exception {
+        when(authService.authenticate(anyString())).thenReturn(Optional.empty());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.post("/properties/export").header("X-Auth-Token", "expired"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(catalogExportService);
+    }
+}
@@ -0,0 +1,233 @@
+package com.juan.property.property_recommendation.catalog_export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.exporter.CatalogExportStatus;
+import com.juan.property.property_recommendation.exporter.CatalogExportWriter;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportFile;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportManifest;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportPartition;
+import com.juan.property.property_recommendation.exporter.dto.CatalogExportResponse;
+import com.juan.property.property_recommendation.exporter.service.CatalogExportService;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static com.juan.property.property_recommendation.property.OperationType.SELL;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The workers read in transactions of their own, so the data is committed and removed afterwards
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CatalogExportRepositoryTest {
+
+    private static final int PROPERTIES = 40;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private CatalogExportService catalogExportService;
+    private Department cundinamarca;
+    private Department antioquia;
+
+    @BeforeEach
+    public void setUp() {
+        User user = userRepository.save(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        cundinamarca = departmentRepository.save(Department.builder().name("Cundinamarca").build());
+        antioquia = departmentRepository.save(Department.builder().name("Antioquia").build());
+        City bogota = cityRepository.save(City.builder().name("Bogotá").department(cundinamarca).build());
+        City soacha = cityRepository.save(City.builder().name("Soacha").department(cundinamarca).build());
+        City medellin = cityRepository.save(City.builder().name("Medellín").department(antioquia).build());
+        List<City> cities = List.of(bogota, soacha, medellin);
+
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < PROPERTIES; i++) {
+            properties.add(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .operationType(SELL)
+                    .address(i == 0 ? "Carrera 7, \"Edificio Central\"" : "Calle " + i)
+                    .price(BigDecimal.valueOf(100_000_000L + i))
+                    .area(50.0 + i)
+                    .images(List.of("img" + i + ".jpg", "plano" + i + ".jpg"))
+                    .numberOfBathrooms(1)
+                    .numberOfBedrooms(2)
+                    .propertyType(HOUSE)
+                    .city(cities.get(i % cities.size()))
+                    .user(user)
+                    .build());
+        }
+        propertyRepository.saveAll(properties);
+
+        // Ranges of 7 ids over 3 workers, so every worker writes to every file
+        catalogExportService = new CatalogExportService(propertyRepository, new PropertyMapper(), entityManager,
+                transactionManager, objectMapper, directory, 3, 7);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        propertyRepository.deleteAll();
+        cityRepository.deleteAll();
+        departmentRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private static List<String> gunzipLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    @Test
+    public void testEveryPropertyIsWrittenOnceToItsDepartment() throws Exception {
+        CatalogExportManifest manifest = catalogExportService.export("first", Instant.now());
+
+        Path export = directory.resolve("first");
+        assertFalse(Files.exists(directory.resolve("first.partial")));
+        assertTrue(Files.exists(export.resolve(CatalogExportService.MANIFEST)));
+        assertEquals(PROPERTIES, manifest.getRows());
+        assertEquals(List.of(cundinamarca.getId(), antioquia.getId()).stream().sorted().toList(),
+                manifest.getDepartments().stream().map(CatalogExportPartition::getDepartmentId).toList());
+
+        Set<Long> registryNumbers = new HashSet<>();
+        for (CatalogExportPartition department : manifest.getDepartments()) {
+            // Two of every three properties are in Cundinamarca
+            long expected = department.getDepartmentId().equals(cundinamarca.getId()) ? 27 : 13;
+            assertEquals(expected, department.getRows());
+
+            List<String> csv = gunzipLines(export.resolve("department-" + department.getDepartmentId() + ".csv.gz"));
+            assertEquals(CatalogExportWriter.CSV_HEADER.trim(), csv.get(0));
+            assertEquals(expected, csv.size() - 1);
+
+            List<String> ndjson = gunzipLines(export.resolve("department-" + department.getDepartmentId() + ".ndjson.gz"));
+            assertEquals(expected, ndjson.size());
+            for (String line : ndjson) {
+                JsonNode node = objectMapper.readTree(line);
+                assertEquals(department.getDepartmentId().intValue(), node.get("department").get("id").asInt());
+                assertEquals(department.getDepartmentName(), node.get("department").get("name").asText());
+                assertEquals("pepito666@gmail.com", node.get("ownerEmail").asText());
+                assertNotNull(node.get("city").get("name").asText());
+                assertTrue(registryNumbers.add(node.get("registryNumber").asLong()));
+            }
+        }
+        assertEquals(PROPERTIES, registryNumbers.size());
+    }
+
+    @Test
+    public void testCsvValuesAreQuotedWhenNeeded() throws Exception {
+        catalogExportService.export("quoted", Instant.now());
+
+        Integer bogota = cityRepository.findAll().stream()
+                .filter(city -> city.getName().equals("Bogotá")).findFirst().orElseThrow().getId();
+        List<String> csv = gunzipLines(directory.resolve("quoted").resolve("department-" + cundinamarca.getId() + ".csv.gz"));
+        assertTrue(csv.contains("1000000000,SELL,HOUSE,\"Carrera 7, \"\"Edificio Central\"\"\",100000000.00,50.0,1,2,,,"
+                + "img0.jpg|plano0.jpg," + bogota + ",Bogotá," + cundinamarca.getId() + ",Cundinamarca,pepito666@gmail.com,3138785644"),
+                csv.toString());
+    }
+
+    @Test
+    public void testManifestDescribesTheFilesOnDisk() throws Exception {
+        CatalogExportManifest manifest = catalogExportService.export("checked", Instant.now());
+
+        CatalogExportManifest written = objectMapper.readValue(
+                directory.resolve("checked").resolve(CatalogExportService.MANIFEST).toFile(), CatalogExportManifest.class);
+        assertEquals(manifest.getRows(), written.getRows());
+        for (CatalogExportPartition department : written.getDepartments()) {
+            assertEquals(2, department.getFiles().size());
+            for (CatalogExportFile file : department.getFiles()) {
+                byte[] bytes = Files.readAllBytes(directory.resolve("checked").resolve(file.getName()));
+                assertEquals(bytes.length, file.getBytes());
+                assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)), file.getSha256());
+                assertEquals(department.getRows(), file.getRows());
+            }
+        }
+    }
+
+    @Test
+    public void testAnExistingExportIsNotOverwritten() throws Exception {
+        catalogExportService.export("twice", Instant.now());
+
+        assertThrows(IllegalArgumentException.class, () -> catalogExportService.export("twice", Instant.now()));
+        assertTrue(Files.exists(directory.resolve("twice").resolve(CatalogExportService.MANIFEST)));
+    }
+
+    @Test
+    public void testStartedExportIsPolledUntilComplete() throws Exception {
+        CatalogExportResponse started = catalogExportService.start();
+        // A second start while it runs returns the same job
+        assertEquals(started.getId(), catalogExportService.start().getId());
+
+        CatalogExportResponse status = started;
+        for (int i = 0; i < 300 && status.getStatus() == CatalogExportStatus.RUNNING; i++) {
+            Thread.sleep(100);
+            status = catalogExportService.status(started.getId());
+        }
+
+        assertEquals(CatalogExportStatus.COMPLETED, status.getStatus());
+        assertEquals(PROPERTIES, status.getManifest().getRows());
+        assertEquals(directory.resolve(started.getId()).toString(), status.getDirectory());
+        assertNotEquals(started.getId(), catalogExportService.start().getId());
+    }
+}
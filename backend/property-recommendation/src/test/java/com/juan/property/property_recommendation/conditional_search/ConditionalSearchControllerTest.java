@@ -0,0 +1,90 @@
+package com.juan.property.property_recommendation.conditional_search;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+public class ConditionalSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PropertyCatalogVersion catalogVersion;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @BeforeEach
+    public void setUp() {
+        when(propertyService.findAll(any())).thenReturn(List.of(
+                PropertyResponse.builder().registryNumber(100100200L).build()));
+    }
+
+    @Test
+    public void testMatchingEtagIsAnsweredWithoutSearching() throws Exception {
+        String etag = mockMvc.perform(get("/properties").param("operationType", "sell"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$[0].registryNumber").value(100100200L))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/properties").param("operationType", "SELL")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .header("X-Auth-Token", "token"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(propertyService, times(1)).findAll(any());
+        verify(authService, never()).authenticate(any());
+    }
+
+    @Test
+    public void testOtherFiltersGetTheirOwnEtag() throws Exception {
+        String etag = mockMvc.perform(get("/properties").param("operationType", "SELL"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/properties").param("operationType", "LEASE").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testARegisteredPropertyInvalidatesTheEtag() throws Exception {
+        String etag = mockMvc.perform(get("/properties"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        catalogVersion.onPropertyRegistered(new PropertyRegisteredEvent(null));
+
+        mockMvc.perform(get("/properties").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].registryNumber").value(100100200L));
+        verify(propertyService, times(2)).findAll(any());
+    }
+}
@@ -0,0 +1,141 @@
+package com.juan.property.property_recommendation.conditional_search;
+
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyCatalogVersionTest {
+
+    private MutableClock clock;
+    private PropertyCatalogVersion catalogVersion;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock();
+        catalogVersion = new PropertyCatalogVersion(clock);
+    }
+
+    @Test
+    public void testEquivalentFiltersShareATag() {
+        PropertyCatalogVersion.Version version = catalogVersion.current();
+
+        String plain = catalogVersion.etag(version, criteria(null, "SELL"), null);
+        String equivalent = catalogVersion.etag(version, criteria(BigDecimal.ZERO, "sell"), " ");
+
+        assertEquals(plain, equivalent);
+        assertNotEquals(plain, catalogVersion.etag(version, criteria(null, "LEASE"), null));
+        assertNotEquals(plain, catalogVersion.etag(version, criteria(null, "SELL"), "calle 80"));
+    }
+
+    @Test
+    public void testAWriteChangesEveryTag() {
+        String before = catalogVersion.etag(catalogVersion.current(), criteria(null, "SELL"), null);
+
+        catalogVersion.bump();
+
+        String after = catalogVersion.etag(catalogVersion.current(), criteria(null, "SELL"), null);
+        assertNotEquals(before, after);
+        assertEquals(1, catalogVersion.current().number());
+    }
+
+    @Test
+    public void testARestartedInstanceDoesNotReuseTags() {
+        String before = catalogVersion.etag(catalogVersion.current(), criteria(null, null), null);
+        clock.advance(Duration.ofSeconds(30));
+
+        PropertyCatalogVersion restarted = new PropertyCatalogVersion(clock);
+
+        assertNotEquals(before, restarted.etag(restarted.current(), criteria(null, null), null));
+    }
+
+    @Test
+    public void testIfNoneMatchUsesTheWeakComparison() {
+        PropertyCatalogVersion.Version version = catalogVersion.current();
+        String etag = catalogVersion.etag(version, criteria(null, null), null);
+
+        assertTrue(catalogVersion.notModified(version, etag, etag, null));
+        assertTrue(catalogVersion.notModified(version, etag, "\"stale\", W/" + etag, null));
+        assertTrue(catalogVersion.notModified(version, etag, "*", null));
+        assertFalse(catalogVersion.notModified(version, etag, "\"stale\"", null));
+    }
+
+    @Test
+    public void testIfNoneMatchTakesPrecedenceOverIfModifiedSince() {
+        clock.advance(Duration.ofSeconds(2));
+        PropertyCatalogVersion.Version version = catalogVersion.current();
+        String etag = catalogVersion.etag(version, criteria(null, null), null);
+
+        assertFalse(catalogVersion.notModified(version, etag, "\"stale\"", httpDate(clock.instant())));
+    }
+
+    @Test
+    public void testLastModifiedIsWithheldUntilItsSecondIsOver() {
+        clock.advance(Duration.ofMillis(300));
+        PropertyCatalogVersion.Version version = catalogVersion.bump();
+
+        assertEquals(Optional.empty(), catalogVersion.lastModified(version));
+
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(Optional.of(Instant.parse("2025-01-01T00:00:00Z")), catalogVersion.lastModified(version));
+    }
+
+    @Test
+    public void testIfModifiedSince() {
+        clock.advance(Duration.ofSeconds(5));
+        PropertyCatalogVersion.Version version = catalogVersion.current();
+        String etag = catalogVersion.etag(version, criteria(null, null), null);
+
+        assertTrue(catalogVersion.notModified(version, etag, null, "Wed, 01 Jan 2025 00:00:00 GMT"));
+        assertFalse(catalogVersion.notModified(version, etag, null, "Tue, 31 Dec 2024 23:59:59 GMT"));
+        assertFalse(catalogVersion.notModified(version, etag, null, "yesterday"));
+
+        PropertyCatalogVersion.Version written = catalogVersion.bump();
+        clock.advance(Duration.ofSeconds(1));
+        assertFalse(catalogVersion.notModified(written, etag, null, "Wed, 01 Jan 2025 00:00:00 GMT"));
+    }
+
+    private static PropertySearchCriteria criteria(BigDecimal minPrice, String operationType) {
+        return PropertySearchCriteria.from(new PropertySpecification(minPrice, null, null, null, null, null,
+                operationType, null, null, null));
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
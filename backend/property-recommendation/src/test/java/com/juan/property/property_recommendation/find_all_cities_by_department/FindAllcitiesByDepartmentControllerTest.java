@@ -1,6 +1,7 @@
 package com.juan.property.property_recommendation.find_all_cities_by_department;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.CatalogResource;
 import com.juan.property.property_recommendation.location.LocationController;
 import com.juan.property.property_recommendation.location.dto.CityResponse;
 import com.juan.property.property_recommendation.location.service.LocationService;
@@ -40,7 +41,7 @@ public class FindAllcitiesByDepartmentControllerTest {
 
         List<CityResponse> cityList = List.of(city1, city2);
 
-        when(locationService.findAllCitiesByDepartmentId(departmentId)).thenReturn(cityList);
+        when(locationService.citiesResource(departmentId)).thenReturn(CatalogResource.of(objectMapper.writeValueAsBytes(cityList)));
 
         mockMvc.perform(get("/location/departments/{id}/cities", departmentId)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -52,7 +53,7 @@ public class FindAllcitiesByDepartmentControllerTest {
     void testDindCitiesByInvalidDepartmentId() throws Exception {
         int invalidDepartmentId = 999;
 
-        when(locationService.findAllCitiesByDepartmentId(invalidDepartmentId))
+        when(locationService.citiesResource(invalidDepartmentId))
                 .thenThrow(new EntityNotFoundException("Department not found"));
 
         mockMvc.perform(get("/location/departments/{id}/cities", invalidDepartmentId)
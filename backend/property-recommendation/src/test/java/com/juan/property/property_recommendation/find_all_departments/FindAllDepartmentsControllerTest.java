@@ -2,6 +2,7 @@ package com.juan.property.property_recommendation.find_all_departments;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.CatalogResource;
 import com.juan.property.property_recommendation.location.LocationController;
 import com.juan.property.property_recommendation.location.dto.DepartmentResponse;
 import com.juan.property.property_recommendation.location.service.LocationService;
@@ -38,7 +39,7 @@ public class FindAllDepartmentsControllerTest {
         DepartmentResponse d2 = DepartmentResponse.builder().id(2).name("Antioquia").build();
         List<DepartmentResponse> departmentList = List.of(d1, d2);
 
-        when(locationService.findAllDepartment()).thenReturn(departmentList);
+        when(locationService.departmentsResource()).thenReturn(CatalogResource.of(objectMapper.writeValueAsBytes(departmentList)));
 
         // Act & Assert
         mockMvc.perform(get("/location/departments")
@@ -6,6 +6,7 @@ import com.juan.property.property_recommendation.auth.service.AuthService;
 import com.juan.property.property_recommendation.location.City;
 import com.juan.property.property_recommendation.property.OperationType;
 import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
 import com.juan.property.property_recommendation.property.PropertyController;
 import com.juan.property.property_recommendation.property.PropertySpecification;
 import com.juan.property.property_recommendation.property.dto.PropertyRequest;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -31,6 +33,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
 public class FindAllPropertiesControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
@@ -5,6 +5,9 @@ import com.juan.property.property_recommendation.location.CityRepository;
 import com.juan.property.property_recommendation.property.*;
 import com.juan.property.property_recommendation.property.dto.PropertyRequest;
 import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.PropertySearchCache;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import com.juan.property.property_recommendation.property.search.PropertySearchEngine;
 import com.juan.property.property_recommendation.property.service.PropertyService;
 import com.juan.property.property_recommendation.user.DocumentType;
 import com.juan.property.property_recommendation.user.User;
@@ -17,11 +20,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 import static com.juan.property.property_recommendation.property.OperationType.SELL;
 import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +42,12 @@ public class FindAllPropertiesServiceTest {
     @Mock
     private CityRepository cityRepository;
 
+    @Mock
+    private PropertySearchEngine propertySearchEngine;
+
+    @Mock
+    private PropertySearchCache propertySearchCache;
+
     @InjectMocks
     private PropertyService propertyService;
 
@@ -111,8 +124,7 @@ public class FindAllPropertiesServiceTest {
     @Test
     public void testFindAllProperties(){
         PropertySpecification spec = new PropertySpecification();
-        when(propertyRepository.findAll(spec)).thenReturn(List.of(property));
-        when(propertyMapper.propertyToDto(property)).thenReturn(propertyResponse);
+        when(propertyRepository.findResponses(spec)).thenReturn(List.of(propertyResponse));
 
         List<PropertyResponse> properties = propertyService.findAll(spec);
 
@@ -125,7 +137,7 @@ public class FindAllPropertiesServiceTest {
     public void testFilterPropertiesW(){
         PropertySpecification spec = new PropertySpecification();
         spec.setNumberOfBathrooms(4);
-        when(propertyRepository.findAll(spec)).thenReturn(List.of());
+        when(propertyRepository.findResponses(spec)).thenReturn(List.of());
 
         List<PropertyResponse> properties = propertyService.findAll(spec);
 
@@ -133,4 +145,27 @@ public class FindAllPropertiesServiceTest {
 
 
     }
+
+    @Test
+    public void testFindAllPropertiesFromCache(){
+        PropertySpecification spec = new PropertySpecification();
+        spec.setCityId(495);
+        when(propertySearchCache.get(PropertySearchCriteria.from(spec))).thenReturn(Optional.of(List.of(propertyResponse)));
+
+        List<PropertyResponse> properties = propertyService.findAll(spec);
+
+        assertEquals(properties.get(0).getRegistryNumber(), propertyResponse.getRegistryNumber());
+        verify(propertyRepository, never()).findResponses(any(PropertySpecification.class));
+    }
+
+    @Test
+    public void testFindAllPropertiesStoresResultInCache(){
+        PropertySpecification spec = new PropertySpecification();
+        when(propertySearchCache.generation()).thenReturn(7L);
+        when(propertyRepository.findResponses(spec)).thenReturn(List.of(propertyResponse));
+
+        List<PropertyResponse> properties = propertyService.findAll(spec);
+
+        verify(propertySearchCache).put(PropertySearchCriteria.from(spec), 7L, properties);
+    }
 }
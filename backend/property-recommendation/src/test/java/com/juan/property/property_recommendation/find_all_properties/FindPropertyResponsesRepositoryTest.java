@@ -0,0 +1,125 @@
+package com.juan.property.property_recommendation.find_all_properties;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.juan.property.property_recommendation.property.OperationType.LEASE;
+import static com.juan.property.property_recommendation.property.OperationType.SELL;
+import static com.juan.property.property_recommendation.property.PropertyType.STUDIO_APARTMENT;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+public class FindPropertyResponsesRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private City bogota;
+
+    @BeforeEach
+    public void setUp() {
+        User user = testEntityManager.persist(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        Department cundinamarca = testEntityManager.persist(Department.builder().name("Cundinamarca").build());
+        Department antioquia = testEntityManager.persist(Department.builder().name("Antioquia").build());
+        bogota = testEntityManager.persist(City.builder().name("Bogota").department(cundinamarca).build());
+        City medellin = testEntityManager.persist(City.builder().name("Medellin").department(antioquia).build());
+
+        for (int i = 0; i < 10; i++) {
+            testEntityManager.persist(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .operationType(i % 2 == 0 ? SELL : LEASE)
+                    .address("Calle " + i)
+                    .price(BigDecimal.valueOf(100_000_000L + i * 1_000_000L))
+                    .area(i % 3 == 0 ? null : 50.0 + i)
+                    .images(List.of("img" + i + ".jpg", "plano.jpg"))
+                    .numberOfBathrooms(i % 4 == 0 ? null : 1 + i % 2)
+                    .numberOfBedrooms(2)
+                    .propertyType(i % 3 == 0 ? STUDIO_APARTMENT : HOUSE)
+                    .city(i < 6 ? bogota : medellin)
+                    .user(user)
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    private void assertSameResponses(List<PropertyResponse> expected, List<PropertyResponse> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            PropertyResponse e = expected.get(i);
+            PropertyResponse a = actual.get(i);
+            assertEquals(e.getRegistryNumber(), a.getRegistryNumber());
+            assertEquals(e.getOperationType(), a.getOperationType());
+            assertEquals(e.getAddress(), a.getAddress());
+            assertEquals(0, e.getPrice().compareTo(a.getPrice()));
+            assertEquals(e.getArea(), a.getArea());
+            assertEquals(e.getImages(), a.getImages());
+            assertEquals(e.getNumberOfBathrooms(), a.getNumberOfBathrooms());
+            assertEquals(e.getNumberOfBedrooms(), a.getNumberOfBedrooms());
+            assertEquals(e.getPropertyType(), a.getPropertyType());
+            assertEquals(e.getCity().getId(), a.getCity().getId());
+            assertEquals(e.getCity().getName(), a.getCity().getName());
+            assertEquals(e.getOwnerEmail(), a.getOwnerEmail());
+            assertEquals(e.getOwnerPhoneNumber(), a.getOwnerPhoneNumber());
+        }
+    }
+
+    private List<PropertyResponse> mapEntities(PropertySpecification spec) {
+        PropertyMapper propertyMapper = new PropertyMapper();
+        return propertyRepository.findAll(spec).stream()
+                .sorted(Comparator.comparing(Property::getId))
+                .map(propertyMapper::propertyToDto)
+                .toList();
+    }
+
+    @Test
+    public void testProjectionMatchesEntityMapping() {
+        PropertySpecification all = new PropertySpecification();
+        PropertySpecification filtered = new PropertySpecification();
+        filtered.setOperationType("sell");
+        filtered.setMinArea(52.0);
+        filtered.setDepartmentId(bogota.getDepartment().getId());
+
+        assertSameResponses(mapEntities(all), propertyRepository.findResponses(all));
+        assertSameResponses(mapEntities(filtered), propertyRepository.findResponses(filtered));
+    }
+
+    @Test
+    public void testProjectionDoesNotHydrateEntities() {
+        Session session = testEntityManager.getEntityManager().unwrap(Session.class);
+
+        List<PropertyResponse> responses = propertyRepository.findResponses(new PropertySpecification());
+
+        assertEquals(10, responses.size());
+        assertEquals(0, session.getStatistics().getEntityCount());
+    }
+}
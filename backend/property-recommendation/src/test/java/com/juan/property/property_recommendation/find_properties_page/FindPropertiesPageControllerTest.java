@@ -0,0 +1,64 @@
+package com.juan.property.property_recommendation.find_properties_page;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.PropertySort;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyPageResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+public class FindPropertiesPageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    public void testFindPageUsesCursorMode() throws Exception {
+        when(propertyService.findPage(any(PropertySpecification.class), eq(PropertySort.PRICE), eq("abc"), eq(20)))
+                .thenReturn(PropertyPageResponse.builder().items(List.of()).nextCursor("next").build());
+
+        this.mockMvc.perform(
+                MockMvcRequestBuilders.get("/properties")
+                        .param("limit", "20")
+                        .param("cursor", "abc")
+                        .param("sort", "price")
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isOk()).andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(propertyService, never()).findAll(any(PropertySpecification.class));
+    }
+
+    @Test
+    public void testInvalidSortIsBadRequest() throws Exception {
+        this.mockMvc.perform(
+                MockMvcRequestBuilders.get("/properties")
+                        .param("limit", "20")
+                        .param("sort", "bogus")
+        ).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,127 @@
+package com.juan.property.property_recommendation.find_properties_page;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyCursor;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySort;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyPageResponse;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.juan.property.property_recommendation.property.OperationType.SELL;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class FindPropertiesPageRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private PropertyService propertyService;
+
+    @BeforeEach
+    public void setUp() {
+        propertyService = new PropertyService(propertyRepository, new PropertyMapper(), null, null, null, null, null, null, null);
+
+        User user = testEntityManager.persist(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        Department department = testEntityManager.persist(Department.builder().name("Cundinamarca").build());
+        City city = testEntityManager.persist(City.builder().name("Bogota").department(department).build());
+
+        // Repeated prices force the id tie-breaker to do its job
+        for (int i = 0; i < 25; i++) {
+            testEntityManager.persist(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .operationType(SELL)
+                    .address("Calle " + i)
+                    .price(BigDecimal.valueOf(100_000_000L + (i % 5) * 1_000_000L))
+                    .area(50.0 + i)
+                    .images(List.of("img1.jpg"))
+                    .numberOfBathrooms(1)
+                    .numberOfBedrooms(2)
+                    .propertyType(HOUSE)
+                    .city(city)
+                    .user(user)
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    private List<PropertyResponse> readAllPages(PropertySort sort, int limit) {
+        List<PropertyResponse> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            PropertyPageResponse page = propertyService.findPage(new PropertySpecification(), sort, cursor, limit);
+            assertTrue(page.getItems().size() <= limit);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    @Test
+    public void testPagesByPriceCoverEveryRowOnceInOrder() {
+        List<PropertyResponse> all = readAllPages(PropertySort.PRICE, 7);
+
+        assertEquals(25, all.size());
+        assertEquals(25, all.stream().map(PropertyResponse::getRegistryNumber).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getPrice().compareTo(all.get(i).getPrice()) <= 0);
+        }
+    }
+
+    @Test
+    public void testPagesByNewestCoverEveryRowOnce() {
+        List<PropertyResponse> all = readAllPages(PropertySort.NEWEST, 10);
+
+        assertEquals(25, all.stream().map(PropertyResponse::getRegistryNumber).distinct().count());
+    }
+
+    @Test
+    public void testLastPageHasNoCursor() {
+        PropertyPageResponse page = propertyService.findPage(new PropertySpecification(), PropertySort.AREA, null, 50);
+
+        assertEquals(25, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testCursorFromAnotherSortIsRejected() {
+        PropertyPageResponse page = propertyService.findPage(new PropertySpecification(), PropertySort.PRICE, null, 5);
+
+        assertThrows(IllegalArgumentException.class, () -> PropertyCursor.decode(page.getNextCursor(), PropertySort.AREA));
+    }
+
+    @Test
+    public void testInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () ->
+                propertyService.findPage(new PropertySpecification(), PropertySort.PRICE, null, 0));
+    }
+}
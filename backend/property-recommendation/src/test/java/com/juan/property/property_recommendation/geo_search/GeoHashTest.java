@@ -0,0 +1,86 @@
+package com.juan.property.property_recommendation.geo_search;
+
+import com.juan.property.property_recommendation.property.GeoFilter;
+import com.juan.property.property_recommendation.property.GeoHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GeoHashTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testEncodeKnownPoint() {
+        assertEquals("u4pruydqq", GeoHash.encode(57.64911, 10.40744));
+        assertEquals("d2g6", GeoHash.encode(4.6097, -74.0817, 4));
+    }
+
+    @Test
+    public void testBoundsContainTheEncodedPoint() {
+        double[] bounds = GeoHash.bounds(GeoHash.encode(4.6097, -74.0817, 6));
+
+        assertTrue(bounds[0] <= 4.6097 && 4.6097 < bounds[2]);
+        assertTrue(bounds[1] <= -74.0817 && -74.0817 < bounds[3]);
+    }
+
+    @Test
+    public void testCellsCoverEveryPointOfTheBox() {
+        for (int i = 0; i < 200; i++) {
+            double minLat = -4 + random.nextDouble() * 16;
+            double minLon = -79 + random.nextDouble() * 12;
+            double maxLat = minLat + random.nextDouble() * 0.5;
+            double maxLon = minLon + random.nextDouble() * 0.5;
+            int precision = 3 + random.nextInt(4);
+            List<String> cells = GeoHash.cells(minLat, minLon, maxLat, maxLon, precision);
+
+            assertEquals(GeoHash.cellCount(minLat, minLon, maxLat, maxLon, precision), cells.size());
+            for (int j = 0; j < 20; j++) {
+                double lat = minLat + random.nextDouble() * (maxLat - minLat);
+                double lon = minLon + random.nextDouble() * (maxLon - minLon);
+                assertTrue(cells.contains(GeoHash.encode(lat, lon, precision)));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexRangesContainTheHashOfEveryPointInside() {
+        for (int i = 0; i < 200; i++) {
+            GeoFilter filter = GeoFilter.around(-4 + random.nextDouble() * 16, -79 + random.nextDouble() * 12,
+                    0.5 + random.nextDouble() * 30);
+            List<String[]> ranges = filter.indexRanges();
+
+            for (int j = 0; j < 20; j++) {
+                double lat = filter.minLatitude() + random.nextDouble() * (filter.maxLatitude() - filter.minLatitude());
+                double lon = filter.minLongitude() + random.nextDouble() * (filter.maxLongitude() - filter.minLongitude());
+                String hash = GeoHash.encode(lat, lon);
+                assertTrue(ranges.stream().anyMatch(range ->
+                        hash.compareTo(range[0]) >= 0 && (range[1] == null || hash.compareTo(range[1]) < 0)));
+            }
+        }
+    }
+
+    @Test
+    public void testSuccessorCarries() {
+        assertEquals("d2g7", GeoHash.successor("d2g6"));
+        assertEquals("d2h", GeoHash.successor("d2gz"));
+        assertNull(GeoHash.successor("zz"));
+    }
+
+    @Test
+    public void testInvalidParametersAreRejected() {
+        assertNull(GeoFilter.of(null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> GeoFilter.of(4.6, -74.0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> GeoFilter.of(4.6, -74.0, 2.0, "-74.2,4.5,-74.0,4.8"));
+        assertThrows(IllegalArgumentException.class, () -> GeoFilter.of(94.6, -74.0, 2.0, null));
+        assertThrows(IllegalArgumentException.class, () -> GeoFilter.of(4.6, -74.0, 0.0, null));
+        assertThrows(IllegalArgumentException.class, () -> GeoFilter.of(null, null, null, "-74.0,4.5,-74.2,4.8"));
+        assertThrows(IllegalArgumentException.class, () -> GeoFilter.of(null, null, null, "-74.2,4.5,-74.0"));
+    }
+}
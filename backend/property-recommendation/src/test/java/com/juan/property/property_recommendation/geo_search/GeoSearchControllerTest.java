@@ -0,0 +1,182 @@
+package com.juan.property.property_recommendation.geo_search;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.GeoFilter;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.PropertySort;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyFacetsResponse;
+import com.juan.property.property_recommendation.property.dto.PropertyPageResponse;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+public class GeoSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    private PropertySpecification capturedSpecification() {
+        ArgumentCaptor<PropertySpecification> captor = ArgumentCaptor.forClass(PropertySpecification.class);
+        verify(propertyService).findAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static void assertRadius(PropertySpecification specification) {
+        GeoFilter filter = specification.getGeoFilter();
+        assertEquals(4.6, filter.latitude());
+        assertEquals(-74.08, filter.longitude());
+        assertEquals(2.0, filter.radiusKm());
+    }
+
+    @Test
+    public void testRadiusSearch() throws Exception {
+        when(propertyService.findAll(any())).thenReturn(List.of(PropertyResponse.builder()
+                .registryNumber(100100200L).latitude(4.65).longitude(-74.1).build()));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties")
+                        .param("lat", "4.65").param("lon", "-74.1").param("radius", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].latitude").value(4.65))
+                .andExpect(jsonPath("$[0].longitude").value(-74.1));
+
+        GeoFilter filter = capturedSpecification().getGeoFilter();
+        assertEquals(4.65, filter.latitude());
+        assertEquals(-74.1, filter.longitude());
+        assertEquals(2.0, filter.radiusKm());
+    }
+
+    @Test
+    public void testBoundingBoxSearch() throws Exception {
+        when(propertyService.findAll(any())).thenReturn(List.of());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties").param("bbox", "-74.2,4.5,-74.0,4.8"))
+                .andExpect(status().isOk());
+
+        GeoFilter filter = capturedSpecification().getGeoFilter();
+        assertEquals(4.5, filter.minLatitude());
+        assertEquals(-74.2, filter.minLongitude());
+        assertEquals(4.8, filter.maxLatitude());
+        assertEquals(-74.0, filter.maxLongitude());
+        assertNull(filter.radiusKm());
+    }
+
+    @Test
+    public void testIncompleteRadiusIsRejected() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties").param("lat", "4.65").param("lon", "-74.1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(propertyService);
+    }
+
+    @Test
+    public void testMalformedBoundingBoxIsRejected() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties").param("bbox", "-74.0,4.5,-74.2,4.8"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(propertyService);
+    }
+
+    @Test
+    public void testRadiusPage() throws Exception {
+        when(propertyService.findPage(any(), any(), isNull(), anyInt())).thenReturn(PropertyPageResponse.builder()
+                .items(List.of()).build());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties")
+                        .param("lat", "4.6").param("lon", "-74.08").param("radius", "2").param("limit", "20"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<PropertySpecification> captor = ArgumentCaptor.forClass(PropertySpecification.class);
+        verify(propertyService).findPage(captor.capture(), any(PropertySort.class), isNull(), anyInt());
+        assertRadius(captor.getValue());
+    }
+
+    @Test
+    public void testRadiusStream() throws Exception {
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/properties")
+                        .param("lat", "4.6").param("lon", "-74.08").param("radius", "2")
+                        .accept(PropertyController.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted()).andReturn();
+        this.mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        ArgumentCaptor<PropertySpecification> captor = ArgumentCaptor.forClass(PropertySpecification.class);
+        verify(propertyService).streamAll(captor.capture(), any());
+        assertRadius(captor.getValue());
+    }
+
+    @Test
+    public void testBoundingBoxJsonArrayStream() throws Exception {
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders.get("/properties")
+                        .param("bbox", "-74.2,4.5,-74.0,4.8").param("stream", "true"))
+                .andExpect(request().asyncStarted()).andReturn();
+        this.mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        ArgumentCaptor<PropertySpecification> captor = ArgumentCaptor.forClass(PropertySpecification.class);
+        verify(propertyService).streamAll(captor.capture(), any());
+        assertEquals(4.5, captor.getValue().getGeoFilter().minLatitude());
+        assertEquals(-74.0, captor.getValue().getGeoFilter().maxLongitude());
+    }
+
+    @Test
+    public void testRadiusFacets() throws Exception {
+        when(propertyService.facets(any())).thenReturn(PropertyFacetsResponse.builder().total(0).build());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/facets")
+                        .param("lat", "4.6").param("lon", "-74.08").param("radius", "2"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<PropertySpecification> captor = ArgumentCaptor.forClass(PropertySpecification.class);
+        verify(propertyService).facets(captor.capture());
+        assertRadius(captor.getValue());
+    }
+
+    @Test
+    public void testIncompleteRadiusPageIsRejected() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties")
+                        .param("lat", "4.6").param("radius", "2").param("limit", "20"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(propertyService);
+    }
+
+    @Test
+    public void testAddressPageIsRejected() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties")
+                        .param("address", "calle 100").param("limit", "20"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/facets").param("address", "calle 100"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(propertyService);
+    }
+}
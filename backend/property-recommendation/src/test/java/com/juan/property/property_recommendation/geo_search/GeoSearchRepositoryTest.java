@@ -0,0 +1,144 @@
+package com.juan.property.property_recommendation.geo_search;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.GeoFilter;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.InMemoryPropertyIndex;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class GeoSearchRepositoryTest {
+
+    // Around Bogota
+    private static final double LATITUDE = 4.65;
+    private static final double LONGITUDE = -74.1;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private final Random random = new Random(42);
+    private List<Property> properties;
+    private InMemoryPropertyIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        User user = testEntityManager.persist(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        Department department = testEntityManager.persist(Department.builder().name("Cundinamarca").build());
+        City city = testEntityManager.persist(City.builder().name("Bogota").department(department).build());
+        for (int i = 0; i < 500; i++) {
+            boolean located = random.nextInt(10) != 0;
+            testEntityManager.persist(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .operationType(OperationType.values()[random.nextInt(OperationType.values().length)])
+                    .address("Calle " + i)
+                    .price(BigDecimal.valueOf(100_000_000L + random.nextInt(1_000_000)))
+                    .area(30.0 + random.nextInt(200))
+                    .images(List.of("img1.jpg"))
+                    .numberOfBathrooms(1 + random.nextInt(3))
+                    .numberOfBedrooms(1 + random.nextInt(4))
+                    .propertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)])
+                    .latitude(located ? LATITUDE + (random.nextDouble() - 0.5) * 0.6 : null)
+                    .longitude(located ? LONGITUDE + (random.nextDouble() - 0.5) * 0.6 : null)
+                    .city(city)
+                    .user(user)
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        properties = propertyRepository.streamAllWithDetails().toList();
+        index = new InMemoryPropertyIndex(new PropertyMapper());
+        index.load(sink -> properties.forEach(sink));
+    }
+
+    private GeoFilter randomFilter() {
+        double latitude = LATITUDE + (random.nextDouble() - 0.5) * 0.6;
+        double longitude = LONGITUDE + (random.nextDouble() - 0.5) * 0.6;
+        if (random.nextBoolean()) {
+            return GeoFilter.around(latitude, longitude, 0.5 + random.nextDouble() * 15);
+        }
+        double height = random.nextDouble() * 0.2;
+        double width = random.nextDouble() * 0.2;
+        return GeoFilter.within(longitude + "," + latitude + "," + (longitude + width) + "," + (latitude + height));
+    }
+
+    private Set<Long> registryNumbers(List<PropertyResponse> responses) {
+        return responses.stream().map(PropertyResponse::getRegistryNumber).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testGeohashIsStoredWithTheCoordinates() {
+        for (Property property : properties) {
+            assertEquals(property.getLatitude() == null, property.getGeohash() == null);
+        }
+    }
+
+    @Test
+    public void testDatabaseAndIndexMatchBruteForce() {
+        for (int i = 0; i < 100; i++) {
+            GeoFilter filter = randomFilter();
+            PropertySpecification spec = new PropertySpecification();
+            spec.setGeoFilter(filter);
+            if (random.nextInt(3) == 0) spec.setOperationType(OperationType.SELL.name());
+
+            PropertySearchCriteria criteria = PropertySearchCriteria.from(spec);
+            Set<Long> expected = properties.stream().filter(criteria::matches)
+                    .map(Property::getRegistryNumber).collect(Collectors.toSet());
+
+            assertEquals(expected, registryNumbers(propertyRepository.findResponses(spec)), "Database mismatch for " + filter);
+            assertEquals(expected, registryNumbers(index.search(criteria)), "Index mismatch for " + filter);
+        }
+    }
+
+    @Test
+    public void testRadiusSelectsOnlyNearbyListings() {
+        PropertySpecification spec = new PropertySpecification();
+        spec.setGeoFilter(GeoFilter.around(LATITUDE, LONGITUDE, 5));
+        List<PropertyResponse> responses = propertyRepository.findResponses(spec);
+
+        assertFalse(responses.isEmpty());
+        for (PropertyResponse response : responses) {
+            assertNotNull(response.getLatitude());
+            double km = Math.hypot(response.getLatitude() - LATITUDE,
+                    (response.getLongitude() - LONGITUDE) * Math.cos(Math.toRadians(LATITUDE))) * 111.195;
+            assertFalse(km > 5.001, "Listing " + km + " km away");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.juan.property.property_recommendation.location_catalog;
+
+import com.juan.property.property_recommendation.location.CatalogResource;
+import com.juan.property.property_recommendation.location.LocationController;
+import com.juan.property.property_recommendation.location.service.LocationService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LocationController.class)
+public class LocationCatalogControllerTest {
+
+    private static final String DEPARTMENTS = "[{\"id\":1,\"name\":\"Cundinamarca\"}]";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LocationService locationService;
+
+    private CatalogResource departments;
+
+    @BeforeEach
+    public void setUp() {
+        departments = CatalogResource.of(DEPARTMENTS.getBytes(StandardCharsets.UTF_8));
+        when(locationService.departmentsResource()).thenReturn(departments);
+    }
+
+    @Test
+    public void testIdentityResponseCarriesEtagAndCacheControl() throws Exception {
+        mockMvc.perform(get("/location/departments"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, departments.etag()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().json(DEPARTMENTS));
+    }
+
+    @Test
+    public void testGzipIsServedWhenAccepted() throws Exception {
+        mockMvc.perform(get("/location/departments").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, departments.gzipEtag()))
+                .andExpect(content().bytes(departments.gzip()));
+    }
+
+    @Test
+    public void testGzipRefusedWithZeroQuality() throws Exception {
+        mockMvc.perform(get("/location/departments").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testMatchingEtagIsNotModified() throws Exception {
+        mockMvc.perform(get("/location/departments").header(HttpHeaders.IF_NONE_MATCH, departments.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, departments.etag()))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void testWeakEtagFromARecompressingProxyIsNotModified() throws Exception {
+        mockMvc.perform(get("/location/departments")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + departments.gzipEtag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testStaleEtagGetsTheBody() throws Exception {
+        mockMvc.perform(get("/location/departments").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().json(DEPARTMENTS));
+    }
+
+    @Test
+    public void testUnknownDepartmentIsNotFound() throws Exception {
+        when(locationService.citiesResource(999)).thenThrow(new EntityNotFoundException("Department not found"));
+
+        mockMvc.perform(get("/location/departments/999/cities"))
+                .andExpect(status().isNotFound());
+    }
+}
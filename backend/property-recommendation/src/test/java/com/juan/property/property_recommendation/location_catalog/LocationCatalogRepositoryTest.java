@@ -0,0 +1,96 @@
+package com.juan.property.property_recommendation.location_catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.CatalogResource;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.location.LocationCatalog;
+import com.juan.property.property_recommendation.location.mapper.CityMapper;
+import com.juan.property.property_recommendation.location.mapper.DepartmentMapper;
+import com.juan.property.property_recommendation.location.service.LocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class LocationCatalogRepositoryTest {
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LocationService locationService;
+    private LocationCatalog catalog;
+    private Department cundinamarca;
+    private Department amazonas;
+
+    @BeforeEach
+    public void setUp() {
+        cundinamarca = departmentRepository.save(Department.builder().name("Cundinamarca").build());
+        amazonas = departmentRepository.save(Department.builder().name("Amazonas").build());
+        cityRepository.saveAll(List.of(
+                City.builder().name("Bogotá").department(cundinamarca).build(),
+                City.builder().name("Soacha").department(cundinamarca).build(),
+                City.builder().name("Leticia").department(amazonas).build()));
+        departmentRepository.save(Department.builder().name("Sin ciudades").build());
+
+        catalog = new LocationCatalog(departmentRepository, cityRepository, new DepartmentMapper(), new CityMapper(), objectMapper);
+        locationService = new LocationService(departmentRepository, cityRepository, new DepartmentMapper(), new CityMapper(), catalog);
+    }
+
+    @Test
+    public void testCatalogServesWhatTheDatabaseReturns() throws Exception {
+        assertArrayEquals(objectMapper.writeValueAsBytes(locationService.findAllDepartment()), catalog.departments().identity());
+        for (Department department : departmentRepository.findAll()) {
+            assertArrayEquals(objectMapper.writeValueAsBytes(locationService.findAllCitiesByDepartmentId(department.getId())),
+                    catalog.cities(department.getId()).orElseThrow().identity());
+        }
+        assertTrue(catalog.cities(-1).isEmpty());
+    }
+
+    @Test
+    public void testGzipHoldsTheSameBytes() throws Exception {
+        CatalogResource departments = catalog.departments();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(departments.gzip()))) {
+            assertArrayEquals(departments.identity(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testEtagsAreStablePerContentAndEncoding() {
+        CatalogResource cundinamarcaCities = catalog.cities(cundinamarca.getId()).orElseThrow();
+        CatalogResource amazonasCities = catalog.cities(amazonas.getId()).orElseThrow();
+
+        assertNotEquals(cundinamarcaCities.etag(), amazonasCities.etag());
+        assertNotEquals(cundinamarcaCities.etag(), cundinamarcaCities.gzipEtag());
+        assertEquals(cundinamarcaCities.etag(), CatalogResource.of(cundinamarcaCities.identity()).etag());
+        assertTrue(cundinamarcaCities.matches("\"other\", " + cundinamarcaCities.gzipEtag()));
+        assertTrue(cundinamarcaCities.matches("*"));
+        assertFalse(cundinamarcaCities.matches(amazonasCities.etag()));
+    }
+
+    @Test
+    public void testSnapshotIsLoadedOnce() {
+        CatalogResource departments = catalog.departments();
+        departmentRepository.save(Department.builder().name("Nuevo").build());
+
+        assertSame(departments, catalog.departments());
+    }
+}
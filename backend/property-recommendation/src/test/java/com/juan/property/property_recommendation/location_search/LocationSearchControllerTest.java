@@ -0,0 +1,54 @@
+package com.juan.property.property_recommendation.location_search;
+
+import com.juan.property.property_recommendation.location.LocationController;
+import com.juan.property.property_recommendation.location.LocationType;
+import com.juan.property.property_recommendation.location.dto.LocationMatchResponse;
+import com.juan.property.property_recommendation.location.service.LocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LocationController.class)
+public class LocationSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private LocationService locationService;
+
+    @Test
+    public void testSearchReturnsMatchesWithTheirDepartment() throws Exception {
+        when(locationService.search("bog", 10)).thenReturn(List.of(LocationMatchResponse.builder()
+                .type(LocationType.CITY).id(149).name("Bogotá").departmentId(6).departmentName("Bogotá D.C.").build()));
+
+        mockMvc.perform(get("/location/search").param("q", "bog"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("CITY"))
+                .andExpect(jsonPath("$[0].name").value("Bogotá"))
+                .andExpect(jsonPath("$[0].departmentId").value(6));
+    }
+
+    @Test
+    public void testInvalidLimitIsRejected() throws Exception {
+        when(locationService.search("bog", 500)).thenThrow(new IllegalArgumentException("The limit must be between 1 and 50"));
+
+        mockMvc.perform(get("/location/search").param("q", "bog").param("limit", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testQueryIsRequired() throws Exception {
+        mockMvc.perform(get("/location/search"))
+                .andExpect(status().isBadRequest());
+    }
+}
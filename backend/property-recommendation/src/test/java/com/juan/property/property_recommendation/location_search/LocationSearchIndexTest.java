@@ -0,0 +1,93 @@
+package com.juan.property.property_recommendation.location_search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.location.LocationSearchIndex;
+import com.juan.property.property_recommendation.location.LocationType;
+import com.juan.property.property_recommendation.location.dto.DepartmentData;
+import com.juan.property.property_recommendation.location.dto.LocationMatchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocationSearchIndexTest {
+
+    private List<City> cities;
+    private LocationSearchIndex index;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        List<Department> departments = new ArrayList<>();
+        cities = new ArrayList<>();
+        try (InputStream input = getClass().getResourceAsStream("/data/colombia.json")) {
+            for (DepartmentData data : new ObjectMapper().readValue(input, DepartmentData[].class)) {
+                Department department = Department.builder().id(departments.size() + 1).name(data.getDepartamento()).build();
+                departments.add(department);
+                for (String name : data.getCiudades()) {
+                    cities.add(City.builder().id(cities.size() + 1).name(name).department(department).build());
+                }
+            }
+        }
+        index = LocationSearchIndex.of(departments, cities);
+    }
+
+    @Test
+    public void testPrefixIgnoresCaseAndAccents() {
+        List<LocationMatchResponse> matches = index.search("bog", 10);
+
+        assertEquals("Bogotá", matches.get(0).getName());
+        assertEquals(LocationType.CITY, matches.get(0).getType());
+        assertEquals("Bogotá", index.search("BOGOTA", 10).get(0).getName());
+    }
+
+    @Test
+    public void testDepartmentRanksBeforeCitiesOfTheSameName() {
+        List<LocationMatchResponse> matches = index.search("Narino", 10);
+
+        assertEquals(LocationType.DEPARTMENT, matches.get(0).getType());
+        assertEquals("Nariño", matches.get(0).getName());
+        assertTrue(matches.stream().skip(1).limit(3).allMatch(match ->
+                match.getType() == LocationType.CITY && match.getName().equals("Nariño")));
+    }
+
+    @Test
+    public void testCityCarriesItsDepartment() {
+        LocationMatchResponse leticia = index.search("leti", 1).get(0);
+
+        assertEquals("Leticia", leticia.getName());
+        assertEquals("Amazonas", leticia.getDepartmentName());
+    }
+
+    @Test
+    public void testInnerWordsMatchAfterNamePrefixes() {
+        List<LocationMatchResponse> matches = index.search("andres", 50);
+
+        assertTrue(matches.stream().anyMatch(match -> match.getName().equals("San Andrés de Sotavento")));
+        List<LocationMatchResponse> multiWord = index.search("san andres de", 10);
+        assertEquals(2, multiWord.size());
+    }
+
+    @Test
+    public void testMatchesEveryFoldedPrefix() {
+        for (City city : cities) {
+            String folded = LocationSearchIndex.fold(city.getName());
+            String prefix = folded.substring(0, Math.min(3, folded.length()));
+            assertTrue(index.search(prefix, 2000).stream().anyMatch(match -> match.getId().equals(city.getId())
+                    && match.getType() == LocationType.CITY), "Missing " + city.getName());
+        }
+    }
+
+    @Test
+    public void testLimitAndEmptyQuery() {
+        assertEquals(5, index.search("s", 5).size());
+        assertTrue(index.search(" - ", 5).isEmpty());
+        assertTrue(index.search("xyzzy", 5).isEmpty());
+    }
+}
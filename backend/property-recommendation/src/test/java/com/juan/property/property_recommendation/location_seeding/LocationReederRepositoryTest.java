@@ -0,0 +1,122 @@
+package com.juan.property.property_recommendation.location_seeding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.location.LocationDataset;
+import com.juan.property.property_recommendation.location.LocationDatasetRepository;
+import com.juan.property.property_recommendation.location.LocationReeder;
+import com.juan.property.property_recommendation.location.LocationsSeededEvent;
+import com.juan.property.property_recommendation.support.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SqlStatementCounter.class)
+public class LocationReederRepositoryTest {
+
+    private static final int DEPARTMENTS = 32;
+    private static final int CITIES = 1_103;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private LocationDatasetRepository locationDatasetRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private LocationReeder locationReeder;
+
+    @BeforeEach
+    public void setUp() {
+        locationReeder = new LocationReeder(departmentRepository, cityRepository, locationDatasetRepository,
+                entityManager, transactionManager, eventPublisher, new ObjectMapper());
+    }
+
+    @Test
+    public void testEmptyDatabaseIsSeededInBatches() {
+        SqlStatementCounter.reset();
+        LocationsSeededEvent event = seed();
+
+        assertEquals(DEPARTMENTS, event.insertedDepartments());
+        assertEquals(CITIES, event.insertedCities());
+        // Reads, a few id blocks and one batch per 500 rows, instead of one insert per row
+        assertTrue(SqlStatementCounter.statements() < 20, "SQL statements: " + SqlStatementCounter.statements());
+        assertEquals(DEPARTMENTS, departmentRepository.count());
+        assertEquals(CITIES, cityRepository.count());
+        assertEquals(event.checksum(), locationDatasetRepository.findById(LocationReeder.DATASET).orElseThrow().getChecksum());
+    }
+
+    @Test
+    public void testCitiesAreUniquePerDepartment() {
+        seed();
+
+        Set<String> keys = new HashSet<>();
+        for (City city : cityRepository.findAllWithDepartment()) {
+            assertTrue(keys.add(city.getDepartment().getId() + ":" + city.getName()), city.getName());
+        }
+    }
+
+    @Test
+    public void testUnchangedDatasetIsSkipped() {
+        LocationsSeededEvent first = seed();
+
+        SqlStatementCounter.reset();
+        LocationsSeededEvent second = seed();
+
+        assertFalse(second.changed());
+        assertEquals(first.checksum(), second.checksum());
+        assertEquals(1, SqlStatementCounter.statements());
+        assertEquals(CITIES, cityRepository.count());
+    }
+
+    @Test
+    public void testChangedDatasetOnlyInsertsWhatIsMissing() {
+        seed();
+        City removed = cityRepository.findAll().get(0);
+        cityRepository.delete(removed);
+        LocationDataset dataset = locationDatasetRepository.findById(LocationReeder.DATASET).orElseThrow();
+        dataset.setChecksum("outdated");
+        entityManager.flush();
+        entityManager.clear();
+
+        LocationsSeededEvent event = seed();
+
+        assertEquals(0, event.insertedDepartments());
+        assertEquals(1, event.insertedCities());
+        assertEquals(DEPARTMENTS, departmentRepository.count());
+        assertEquals(CITIES, cityRepository.count());
+        assertNotEquals("outdated", locationDatasetRepository.findById(LocationReeder.DATASET).orElseThrow().getChecksum());
+    }
+
+    // The test transaction is never committed, so the inserts are flushed here
+    private LocationsSeededEvent seed() {
+        LocationsSeededEvent event = locationReeder.seed();
+        entityManager.flush();
+        entityManager.clear();
+        return event;
+    }
+}
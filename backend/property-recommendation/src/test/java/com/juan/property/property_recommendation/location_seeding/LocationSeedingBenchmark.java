@@ -0,0 +1,41 @@
+package com.juan.property.property_recommendation.location_seeding;
+
+import com.juan.property.property_recommendation.PropertyRecommendationApplication;
+import com.juan.property.property_recommendation.location.LocationReeder;
+import com.juan.property.property_recommendation.location.LocationsSeededEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@Tag("benchmark")
+public class LocationSeedingBenchmark {
+
+    @Test
+    public void benchmarkColdStart() throws Exception {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PropertyRecommendationApplication.class)
+                .run("--spring.profiles.active=test", "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:location_seeding_benchmark")) {
+            long startedMillis = (System.nanoTime() - start) / 1_000_000;
+            LocationReeder locationReeder = context.getBean(LocationReeder.class);
+            LocationsSeededEvent event = locationReeder.seeded().get(60, TimeUnit.SECONDS);
+            long seededMillis = (System.nanoTime() - start) / 1_000_000;
+
+            long skipStart = System.nanoTime();
+            LocationsSeededEvent unchanged = locationReeder.seed();
+            long skipMicros = (System.nanoTime() - skipStart) / 1_000;
+
+            System.out.printf("Cold start: started in %d ms, location data ready in %d ms (%d departments, %d cities); "
+                            + "unchanged dataset checked in %d us%n",
+                    startedMillis, seededMillis, event.insertedDepartments(), event.insertedCities(), skipMicros);
+            assertEquals(1_103, event.insertedCities());
+            assertFalse(unchanged.changed());
+        }
+    }
+}
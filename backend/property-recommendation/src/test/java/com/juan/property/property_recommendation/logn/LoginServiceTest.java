@@ -1,7 +1,11 @@
 package com.juan.property.property_recommendation.logn;
 
+import com.juan.property.property_recommendation.auth.PasswordHasher;
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionExpiry;
 import com.juan.property.property_recommendation.auth.SessionToken;
 import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
 import com.juan.property.property_recommendation.auth.dto.AuthRequest;
 import com.juan.property.property_recommendation.auth.service.AuthService;
 import com.juan.property.property_recommendation.user.DocumentType;
@@ -22,6 +26,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,6 +41,18 @@ public class LoginServiceTest {
     @Mock
     private SessionTokenRepository sessionTokenRepository;
 
+    @Mock
+    private SessionCache sessionCache;
+
+    @Mock
+    private SignedSessionTokens signedSessionTokens;
+
+    @Mock
+    private SessionExpiry sessionExpiry;
+
+    @Mock
+    private PasswordHasher passwordHasher;
+
     @InjectMocks
     private AuthService authService;
 
@@ -132,6 +150,7 @@ public class LoginServiceTest {
         user.setPassword(encryptedPassword);
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordHasher.matches(rawPassword, encryptedPassword)).thenReturn(true);
         when(sessionTokenRepository.save(any(SessionToken.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -145,6 +164,7 @@ public class LoginServiceTest {
         assertThat(token).isNotEmpty();
         verify(userRepository).findByEmail(email);
         verify(sessionTokenRepository).save(any(SessionToken.class));
+        verify(sessionCache).put(eq(token), eq(user), anyLong(), anyLong());
     }
 
 
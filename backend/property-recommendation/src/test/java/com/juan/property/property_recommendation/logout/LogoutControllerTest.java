@@ -0,0 +1,42 @@
+package com.juan.property.property_recommendation.logout;
+
+import com.juan.property.property_recommendation.auth.AuthController;
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AuthController.class)
+public class LogoutControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    void testLogout() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .header("X-Auth-Token", "valid-token-123"))
+                .andExpect(status().isNoContent());
+
+        verify(authService).logout("valid-token-123");
+    }
+
+    @Test
+    void testLogoutWithoutToken() throws Exception {
+        mockMvc.perform(post("/auth/logout"))
+                .andExpect(status().isBadRequest());
+
+        verify(authService, never()).logout(any());
+    }
+}
@@ -0,0 +1,57 @@
+package com.juan.property.property_recommendation.logout;
+
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionExpiry;
+import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class LogoutServiceTest {
+
+    @Mock
+    private SessionTokenRepository sessionTokenRepository;
+
+    @Mock
+    private SessionCache sessionCache;
+
+    @Mock
+    private SignedSessionTokens signedSessionTokens;
+
+    @Mock
+    private SessionExpiry sessionExpiry;
+
+    @InjectMocks
+    private AuthService authService;
+
+    @Test
+    void testLogoutDeletesTheSessionBeforeInvalidatingIt() {
+        authService.logout("valid-token-123");
+
+        // The other way round, a request in between could cache the session again from the table
+        InOrder order = inOrder(sessionTokenRepository, sessionCache);
+        order.verify(sessionTokenRepository).deleteById("valid-token-123");
+        order.verify(sessionCache).invalidate("valid-token-123");
+    }
+
+    @Test
+    void testLogoutWithBlankToken() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            authService.logout("   ");
+        });
+
+        assertEquals("Token must not be null or blank.", exception.getMessage());
+        verifyNoInteractions(sessionTokenRepository, sessionCache);
+    }
+}
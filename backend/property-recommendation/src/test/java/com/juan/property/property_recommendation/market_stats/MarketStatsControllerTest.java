@@ -0,0 +1,72 @@
+package com.juan.property.property_recommendation.market_stats;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.stats.MarketStatsController;
+import com.juan.property.property_recommendation.stats.MarketStatsLoadingException;
+import com.juan.property.property_recommendation.stats.dto.MarketStatsResponse;
+import com.juan.property.property_recommendation.stats.service.MarketStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.math.BigDecimal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(MarketStatsController.class)
+public class MarketStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private MarketStatsService marketStatsService;
+
+    @Test
+    public void testStatsForCityAndPropertyType() throws Exception {
+        when(marketStatsService.stats(495, null, PropertyType.HOUSE, null)).thenReturn(MarketStatsResponse.builder()
+                .count(12)
+                .averagePrice(BigDecimal.valueOf(410_000_000))
+                .medianPrice(BigDecimal.valueOf(350_000_000))
+                .p90Price(BigDecimal.valueOf(720_000_000))
+                .medianPricePerSquareMeter(BigDecimal.valueOf(2_900_000))
+                .build());
+
+        this.mockMvc.perform(
+                MockMvcRequestBuilders.get("/stats")
+                        .param("cityId", "495")
+                        .param("propertyType", "HOUSE")
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(12))
+                .andExpect(jsonPath("$.medianPrice").value(350_000_000))
+                .andExpect(jsonPath("$.p90Price").value(720_000_000))
+                .andExpect(jsonPath("$.medianPricePerSquareMeter").value(2_900_000));
+    }
+
+    @Test
+    public void testUnknownOperationTypeIsRejected() throws Exception {
+        this.mockMvc.perform(
+                MockMvcRequestBuilders.get("/stats")
+                        .param("operationType", "BARTER")
+        ).andExpect(status().isBadRequest());
+
+        verify(marketStatsService, never()).stats(any(), any(), any(), any(OperationType.class));
+    }
+
+    @Test
+    public void testStatsAreUnavailableWhileLoading() throws Exception {
+        when(marketStatsService.stats(null, null, null, null)).thenThrow(new MarketStatsLoadingException());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/stats"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+}
@@ -0,0 +1,331 @@
+package com.juan.property.property_recommendation.market_stats;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.stats.MarketStats;
+import com.juan.property.property_recommendation.stats.MarketStatsKey;
+import com.juan.property.property_recommendation.stats.MarketStatsLoadingException;
+import com.juan.property.property_recommendation.stats.MarketStatsSnapshot;
+import com.juan.property.property_recommendation.stats.MarketStatsSnapshotRepository;
+import com.juan.property.property_recommendation.stats.dto.MarketStatsResponse;
+import com.juan.property.property_recommendation.stats.service.MarketStatsService;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class MarketStatsRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private MarketStatsSnapshotRepository snapshotRepository;
+
+    private final Random random = new Random(3);
+    private final List<City> cities = new ArrayList<>();
+    private final List<Property> properties = new ArrayList<>();
+    private User user;
+    private long nextRegistryNumber = 1000000000L;
+
+    @BeforeEach
+    public void setUp() {
+        user = testEntityManager.persist(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        for (int d = 0; d < 2; d++) {
+            Department department = testEntityManager.persist(Department.builder().name("Department " + d).build());
+            for (int c = 0; c < 3; c++) {
+                cities.add(testEntityManager.persist(City.builder().name("City " + d + c).department(department).build()));
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            properties.add(testEntityManager.persist(randomProperty()));
+        }
+        testEntityManager.flush();
+    }
+
+    private MarketStatsService newService() {
+        return newService(propertyRepository);
+    }
+
+    private MarketStatsService newService(PropertyRepository repository) {
+        return new MarketStatsService(repository, snapshotRepository, entityManager, transactionManager);
+    }
+
+    // The table as seen while the late property is not committed yet, although its id is below ones that are
+    private PropertyRepository withUncommitted(Property late, AtomicBoolean lateCommitted) {
+        PropertyRepository repository = mock(PropertyRepository.class, delegatesTo(propertyRepository));
+        doAnswer(invocation -> propertyRepository
+                .streamWithLocationBetween(invocation.getArgument(0), invocation.getArgument(1))
+                .filter(property -> lateCommitted.get() || !property.getId().equals(late.getId())))
+                .when(repository).streamWithLocationBetween(anyLong(), anyLong());
+        doAnswer(invocation -> propertyRepository.countPerCityAndType().stream()
+                .map(row -> lateCommitted.get() || !row.getCityId().equals(late.getCity().getId())
+                        || row.getPropertyType() != late.getPropertyType() || row.getOperationType() != late.getOperationType()
+                        ? row : withoutOne(row))
+                .toList())
+                .when(repository).countPerCityAndType();
+        return repository;
+    }
+
+    private static PropertyRepository.CityTypeCount withoutOne(PropertyRepository.CityTypeCount row) {
+        return new PropertyRepository.CityTypeCount() {
+            public Integer getCityId() {
+                return row.getCityId();
+            }
+
+            public Integer getDepartmentId() {
+                return row.getDepartmentId();
+            }
+
+            public PropertyType getPropertyType() {
+                return row.getPropertyType();
+            }
+
+            public OperationType getOperationType() {
+                return row.getOperationType();
+            }
+
+            public long getCount() {
+                return row.getCount() - 1;
+            }
+        };
+    }
+
+    private Property randomProperty() {
+        return Property.builder()
+                .registryNumber(nextRegistryNumber++)
+                .operationType(OperationType.values()[random.nextInt(OperationType.values().length)])
+                .address("Calle " + nextRegistryNumber)
+                .price(BigDecimal.valueOf(50_000_000L + random.nextInt(1_200) * 1_000_000L))
+                .area(30.0 + random.nextInt(200))
+                .images(List.of("img1.jpg"))
+                .numberOfBathrooms(1 + random.nextInt(3))
+                .numberOfBedrooms(1 + random.nextInt(4))
+                .propertyType(PropertyType.values()[random.nextInt(4)])
+                .city(cities.get(random.nextInt(cities.size())))
+                .user(user)
+                .build();
+    }
+
+    private Property register() {
+        Property property = testEntityManager.persist(randomProperty());
+        testEntityManager.flush();
+        properties.add(property);
+        return property;
+    }
+
+    private void assertMatchesExact(MarketStatsResponse stats, Predicate<Property> filter) {
+        List<Property> matching = properties.stream().filter(filter).toList();
+        List<BigDecimal> prices = matching.stream().map(Property::getPrice).sorted().toList();
+        BigDecimal sum = prices.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(matching.size(), stats.getCount());
+        assertEquals(sum.divide(BigDecimal.valueOf(prices.size()), 2, RoundingMode.HALF_UP), stats.getAveragePrice());
+        assertWithinOnePercent(prices.get((prices.size() - 1) / 2), stats.getMedianPrice());
+        assertWithinOnePercent(prices.get((int) Math.floor(0.9 * (prices.size() - 1))), stats.getP90Price());
+
+        List<Double> pricesPerSquareMeter = matching.stream()
+                .map(property -> property.getPrice().doubleValue() / property.getArea())
+                .sorted()
+                .toList();
+        assertWithinOnePercent(BigDecimal.valueOf(pricesPerSquareMeter.get((pricesPerSquareMeter.size() - 1) / 2)),
+                stats.getMedianPricePerSquareMeter());
+    }
+
+    private static void assertWithinOnePercent(BigDecimal expected, BigDecimal actual) {
+        double error = Math.abs(actual.doubleValue() - expected.doubleValue()) / expected.doubleValue();
+        assertTrue(error <= 0.0101, "expected " + expected + " but was " + actual);
+    }
+
+    @Test
+    public void testStatsMatchExactValuesPerScope() {
+        MarketStatsService service = newService();
+        service.load();
+        City city = cities.get(1);
+        Department department = city.getDepartment();
+
+        assertMatchesExact(service.stats(null, null, null, null), property -> true);
+        assertMatchesExact(service.stats(city.getId(), null, null, null),
+                property -> property.getCity().getId().equals(city.getId()));
+        assertMatchesExact(service.stats(null, department.getId(), PropertyType.HOUSE, null),
+                property -> property.getCity().getDepartment().getId().equals(department.getId())
+                        && property.getPropertyType() == PropertyType.HOUSE);
+        assertMatchesExact(service.stats(null, null, null, OperationType.SELL),
+                property -> property.getOperationType() == OperationType.SELL);
+    }
+
+    @Test
+    public void testCityAndDepartmentTogetherAreRejected() {
+        MarketStatsService service = newService();
+        City city = cities.get(0);
+        Integer otherDepartmentId = cities.get(5).getDepartment().getId();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.stats(city.getId(), otherDepartmentId, null, null));
+    }
+
+    @Test
+    public void testRegisteredPropertiesUpdateStatsWithoutQueries() {
+        MarketStatsService service = newService();
+        service.load();
+        for (int i = 0; i < 20; i++) {
+            service.onPropertyRegistered(new PropertyRegisteredEvent(register()));
+        }
+
+        assertMatchesExact(service.stats(null, null, null, null), property -> true);
+    }
+
+    @Test
+    public void testRestartRestoresSnapshotAndReplaysNewerProperties() {
+        MarketStatsService first = newService();
+        first.load();
+        first.persist();
+        long snapshotId = properties.get(properties.size() - 1).getId();
+        for (int i = 0; i < 20; i++) {
+            first.onPropertyRegistered(new PropertyRegisteredEvent(register()));
+        }
+
+        MarketStatsService restarted = newService();
+        restarted.load();
+        City city = cities.get(4);
+
+        assertEquals(snapshotId, snapshotRepository.findById("ALL:*:*:*").orElseThrow().getLastPropertyId());
+        assertMatchesExact(restarted.stats(null, null, null, null), property -> true);
+        assertMatchesExact(restarted.stats(city.getId(), null, null, OperationType.LEASE),
+                property -> property.getCity().getId().equals(city.getId())
+                        && property.getOperationType() == OperationType.LEASE);
+    }
+
+    @Test
+    public void testLowerIdCommittedAfterTheLoadIsCounted() {
+        Property late = register();
+        Property early = register();
+        AtomicBoolean lateCommitted = new AtomicBoolean();
+        MarketStatsService service = newService(withUncommitted(late, lateCommitted));
+        service.load();
+        service.onPropertyRegistered(new PropertyRegisteredEvent(early));
+
+        lateCommitted.set(true);
+        service.onPropertyRegistered(new PropertyRegisteredEvent(late));
+        service.reconcile();
+
+        assertMatchesExact(service.stats(null, null, null, null), property -> true);
+        assertMatchesExact(service.stats(late.getCity().getId(), null, late.getPropertyType(), late.getOperationType()),
+                property -> property.getCity().getId().equals(late.getCity().getId())
+                        && property.getPropertyType() == late.getPropertyType()
+                        && property.getOperationType() == late.getOperationType());
+    }
+
+    @Test
+    public void testRestartCountsALowerIdTheSnapshotMissed() {
+        Property late = register();
+        register();
+        AtomicBoolean lateCommitted = new AtomicBoolean();
+        MarketStatsService first = newService(withUncommitted(late, lateCommitted));
+        first.load();
+        first.persist();
+        // The late property commits and the first instance stops before its event is handled
+        lateCommitted.set(true);
+
+        MarketStatsService restarted = newService();
+        restarted.load();
+
+        assertMatchesExact(restarted.stats(null, null, null, null), property -> true);
+    }
+
+    @Test
+    public void testStatsAreUnavailableUntilLoaded() {
+        MarketStatsService service = newService();
+
+        assertThrows(MarketStatsLoadingException.class, () -> service.stats(null, null, null, null));
+        service.load();
+        assertMatchesExact(service.stats(null, null, null, null), property -> true);
+    }
+
+    @Test
+    public void testPropertyRegisteredDuringTheLoadIsCounted() {
+        AtomicReference<MarketStatsService> service = new AtomicReference<>();
+        PropertyRepository repository = mock(PropertyRepository.class, delegatesTo(propertyRepository));
+        doAnswer(invocation -> {
+            Stream<Property> read = propertyRepository
+                    .streamWithLocationBetween(invocation.getArgument(0), invocation.getArgument(1));
+            service.get().onPropertyRegistered(new PropertyRegisteredEvent(register()));
+            return read;
+        }).when(repository).streamWithLocationBetween(anyLong(), anyLong());
+        service.set(newService(repository));
+
+        service.get().load();
+
+        assertMatchesExact(service.get().stats(null, null, null, null), property -> true);
+    }
+
+    @Test
+    public void testAggregateWithoutRowsInTheTableIsDropped() {
+        MarketStatsService first = newService();
+        first.load();
+        first.persist();
+        // A snapshot left for properties that are no longer in the table
+        City city = cities.get(0);
+        MarketStats stale = new MarketStats();
+        stale.add(properties.get(properties.size() - 1));
+        MarketStatsSnapshot snapshot = MarketStatsSnapshot.builder()
+                .id(MarketStatsKey.of(city.getId(), null, PropertyType.LOT, null).toId())
+                .build();
+        stale.writeTo(snapshot);
+        snapshotRepository.save(snapshot);
+
+        MarketStatsService restarted = newService();
+        restarted.load();
+
+        assertEquals(0, restarted.stats(city.getId(), null, PropertyType.LOT, null).getCount());
+        assertMatchesExact(restarted.stats(null, null, null, null), property -> true);
+    }
+}
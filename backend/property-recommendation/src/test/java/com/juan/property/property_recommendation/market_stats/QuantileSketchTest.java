@@ -0,0 +1,90 @@
+package com.juan.property.property_recommendation.market_stats;
+
+import com.juan.property.property_recommendation.stats.QuantileSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    private final Random random = new Random(11);
+
+    private double randomPrice() {
+        // Log-normal around 300 million, like listing prices
+        return Math.exp(Math.log(300_000_000) + random.nextGaussian());
+    }
+
+    private static void assertWithinRelativeAccuracy(List<Double> sorted, QuantileSketch sketch) {
+        for (double q : QUANTILES) {
+            double exact = sorted.get((int) Math.floor(q * (sorted.size() - 1)));
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= exact * QuantileSketch.RELATIVE_ACCURACY + 1e-6,
+                    "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+    }
+
+    @Test
+    public void testQuantilesAreWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch();
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            double value = randomPrice();
+            values.add(value);
+            sketch.add(value);
+        }
+        Collections.sort(values);
+
+        assertEquals(values.size(), sketch.count());
+        assertWithinRelativeAccuracy(values, sketch);
+    }
+
+    @Test
+    public void testMergedSketchMatchesSketchOfAllValues() {
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            double value = randomPrice();
+            values.add(value);
+            // Disjoint ranges so the merge has to grow the bucket array on both ends
+            (value < 300_000_000 ? left : right).add(value);
+        }
+        right.merge(left);
+        Collections.sort(values);
+
+        assertEquals(values.size(), right.count());
+        assertWithinRelativeAccuracy(values, right);
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(randomPrice());
+        }
+
+        QuantileSketch restored = QuantileSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.count(), restored.count());
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), restored.quantile(q));
+        }
+    }
+
+    @Test
+    public void testEmptySketchHasNoQuantiles() {
+        assertNull(new QuantileSketch().quantile(0.5));
+    }
+
+    @Test
+    public void testNonPositiveValuesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch().add(0));
+    }
+}
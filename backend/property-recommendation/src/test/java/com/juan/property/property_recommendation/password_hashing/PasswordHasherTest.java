@@ -0,0 +1,113 @@
+package com.juan.property.property_recommendation.password_hashing;
+
+import com.juan.property.property_recommendation.auth.PasswordHasher;
+import com.juan.property.property_recommendation.auth.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHasher hasher = new PasswordHasher(1_000, 1, 4, meterRegistry);
+
+    @AfterEach
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    public void testHashMatchesItsPasswordOnly() {
+        String stored = hasher.hash("contraseña123");
+
+        assertTrue(stored.startsWith("pbkdf2_sha256$1000$"));
+        assertTrue(hasher.matches("contraseña123", stored));
+        assertFalse(hasher.matches("contraseña124", stored));
+        assertFalse(hasher.needsUpgrade(stored));
+    }
+
+    @Test
+    public void testSamePasswordGetsADifferentSalt() {
+        assertNotEquals(hasher.hash("contraseña123"), hasher.hash("contraseña123"));
+    }
+
+    @Test
+    public void testBase64PasswordStillMatchesAndNeedsUpgrade() {
+        String legacy = Base64.getEncoder().encodeToString("123456".getBytes());
+
+        assertTrue(hasher.matches("123456", legacy));
+        assertFalse(hasher.matches("1234567", legacy));
+        assertTrue(hasher.needsUpgrade(legacy));
+    }
+
+    @Test
+    public void testHashWithFewerIterationsMatchesAndNeedsUpgrade() {
+        PasswordHasher weaker = new PasswordHasher(500, 1, 4, new SimpleMeterRegistry());
+        String stored = weaker.hash("123456");
+        weaker.shutdown();
+
+        assertTrue(hasher.matches("123456", stored));
+        assertTrue(hasher.needsUpgrade(stored));
+    }
+
+    @Test
+    public void testDummyHashCostsTheConfiguredIterations() {
+        assertFalse(hasher.needsUpgrade(hasher.dummyHash()));
+        assertFalse(hasher.matches("123456", hasher.dummyHash()));
+        assertFalse(hasher.matches("", hasher.dummyHash()));
+    }
+
+    @Test
+    public void testMalformedHashDoesNotMatch() {
+        assertFalse(hasher.matches("123456", "pbkdf2_sha256$1000$salt"));
+        assertFalse(hasher.matches("123456", "pbkdf2_sha256$many$c2FsdA$aGFzaA"));
+        assertFalse(hasher.matches("123456", "pbkdf2_sha256$1000$%%%$aGFzaA"));
+        assertFalse(hasher.matches("123456", null));
+    }
+
+    @Test
+    public void testHashIsRefusedWhenThePoolAndQueueAreFull() throws Exception {
+        // One thread and one queued hash, slow enough that the other callers arrive while both are taken
+        PasswordHasher small = new PasswordHasher(1_000_000, 1, 1, meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(callers.submit(() -> {
+                    start.await();
+                    return small.hash("123456");
+                }));
+            }
+            start.countDown();
+            int refused = 0;
+            for (Future<String> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof PasswordHashingBusyException);
+                    refused++;
+                }
+            }
+            assertTrue(refused >= 1 && refused <= 4);
+            assertEquals(refused, meterRegistry.get("auth.password.hash.rejected").counter().count());
+        } finally {
+            callers.shutdownNow();
+            small.shutdown();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.juan.property.property_recommendation.password_hashing;
+
+import com.juan.property.property_recommendation.auth.PasswordHasher;
+import com.juan.property.property_recommendation.auth.PasswordHashingBusyException;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.search.AddressTrigramIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Searches run on the in-memory address index, the CPU-bound work a request thread does, while a storm of logins
+// checks passwords. Hashing on as many threads as there are logins stands for hashing on the request threads.
+@Tag("benchmark")
+public class PasswordHashingBenchmark {
+
+    private static final int ITERATIONS = 600_000;
+    private static final int LOGIN_THREADS = 32;
+    private static final int SEARCH_THREADS = 2;
+    private static final long DURATION_MILLIS = 8_000;
+    private static final String PASSWORD = "contraseña123";
+
+    private static AddressTrigramIndex searchIndex() {
+        Random random = new Random(7);
+        City city = City.builder().id(1).name("Bogota").build();
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            properties.add(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .address("Calle " + (1 + random.nextInt(200)) + " # " + (1 + random.nextInt(150)) + "-" + (1 + random.nextInt(99)))
+                    .city(city)
+                    .build());
+        }
+        AddressTrigramIndex index = new AddressTrigramIndex();
+        index.load(sink -> properties.forEach(sink));
+        return index;
+    }
+
+    private void measure(String name, AddressTrigramIndex index, PasswordHasher hasher) throws Exception {
+        String stored = hasher == null ? null : hasher.hash(PASSWORD);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong logins = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        List<Long> latencies = new ArrayList<>();
+        ExecutorService threads = Executors.newFixedThreadPool(LOGIN_THREADS + SEARCH_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; hasher != null && t < LOGIN_THREADS; t++) {
+                futures.add(threads.submit(() -> {
+                    while (running.get()) {
+                        try {
+                            assertTrue(hasher.matches(PASSWORD, stored));
+                            logins.incrementAndGet();
+                        } catch (PasswordHashingBusyException e) {
+                            rejected.incrementAndGet();
+                            // The client retries after a while instead of at once
+                            Thread.sleep(20);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int t = 0; t < SEARCH_THREADS; t++) {
+                int seed = t;
+                futures.add(threads.submit(() -> {
+                    Random random = new Random(seed);
+                    List<Long> own = new ArrayList<>();
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        index.search("calle " + (1 + random.nextInt(200)) + " " + (1 + random.nextInt(150)), 10);
+                        own.add(System.nanoTime() - start);
+                    }
+                    synchronized (latencies) {
+                        latencies.addAll(own);
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(DURATION_MILLIS);
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+            threads.awaitTermination(10, TimeUnit.SECONDS);
+            if (hasher != null) {
+                hasher.shutdown();
+            }
+        }
+
+        long[] nanos = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("%-24s logins %6.1f/s rejected %6d  searches %8.0f/s p50 %6dus p99 %7dus%n",
+                name, logins.get() * 1000.0 / DURATION_MILLIS, rejected.get(), nanos.length * 1000.0 / DURATION_MILLIS,
+                nanos[nanos.length / 2] / 1_000, nanos[nanos.length * 99 / 100] / 1_000);
+        assertTrue(nanos.length > 0);
+    }
+
+    @Test
+    public void benchmarkLoginStorm() throws Exception {
+        AddressTrigramIndex index = searchIndex();
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("cores=%d iterations=%d login threads=%d search threads=%d%n",
+                cores, ITERATIONS, LOGIN_THREADS, SEARCH_THREADS);
+
+        measure("no logins", index, null);
+        measure("hash on request threads", index,
+                new PasswordHasher(ITERATIONS, LOGIN_THREADS, LOGIN_THREADS, new SimpleMeterRegistry()));
+        measure("bounded pool", index,
+                new PasswordHasher(ITERATIONS, Math.max(1, cores / 2), 8, new SimpleMeterRegistry()));
+    }
+}
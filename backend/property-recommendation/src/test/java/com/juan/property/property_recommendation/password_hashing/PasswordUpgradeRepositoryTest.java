@@ -0,0 +1,54 @@
+package com.juan.property.property_recommendation.password_hashing;
+
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class PasswordUpgradeRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = testEntityManager.persistFlushFind(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Juan")
+                .lastName("Rodríguez")
+                .email("juan@example.com")
+                .phoneNumber(3123456789L)
+                .password("MTIzNDU2")
+                .build());
+        testEntityManager.clear();
+    }
+
+    @Test
+    void testPasswordIsReplacedWhenItIsStillTheOneHashed() {
+        int updated = userRepository.updatePassword(user.getId(), "MTIzNDU2", "pbkdf2_sha256$1000$c2FsdA$aGFzaA");
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(testEntityManager.find(User.class, user.getId()).getPassword()).isEqualTo("pbkdf2_sha256$1000$c2FsdA$aGFzaA");
+    }
+
+    @Test
+    void testPasswordChangedMeanwhileIsKept() {
+        int updated = userRepository.updatePassword(user.getId(), "b3RyYQ", "pbkdf2_sha256$1000$c2FsdA$aGFzaA");
+
+        assertThat(updated).isEqualTo(0);
+        assertThat(testEntityManager.find(User.class, user.getId()).getPassword()).isEqualTo("MTIzNDU2");
+    }
+}
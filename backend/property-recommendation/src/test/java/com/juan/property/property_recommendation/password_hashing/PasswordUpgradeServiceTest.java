@@ -0,0 +1,132 @@
+package com.juan.property.property_recommendation.password_hashing;
+
+import com.juan.property.property_recommendation.auth.AuthMapper;
+import com.juan.property.property_recommendation.auth.PasswordHasher;
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionExpiry;
+import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
+import com.juan.property.property_recommendation.auth.dto.AuthRequest;
+import com.juan.property.property_recommendation.auth.dto.RegisterRequest;
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PasswordUpgradeServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SessionTokenRepository sessionTokenRepository;
+
+    @Mock
+    private SessionCache sessionCache;
+
+    @Mock
+    private SignedSessionTokens signedSessionTokens;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher passwordHasher;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        passwordHasher = new PasswordHasher(1_000, 1, 4, meterRegistry);
+        authService = new AuthService(userRepository, sessionTokenRepository, new AuthMapper(), sessionCache,
+                signedSessionTokens, new SessionExpiry(Duration.ofDays(7), Duration.ofHours(2), Duration.ofMinutes(5)),
+                passwordHasher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    private User user(String password) {
+        return User.builder().id(7).email("juan@example.com").password(password).build();
+    }
+
+    @Test
+    void testBase64PasswordIsHashedOnTheNextLogin() {
+        String legacy = Base64.getEncoder().encodeToString("123456".getBytes());
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.of(user(legacy)));
+
+        authService.login(new AuthRequest("juan@example.com", "123456"));
+
+        ArgumentCaptor<String> upgraded = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePassword(eq(7), eq(legacy), upgraded.capture());
+        assertNotEquals(legacy, upgraded.getValue());
+        assertTrue(passwordHasher.matches("123456", upgraded.getValue()));
+    }
+
+    @Test
+    void testHashedPasswordIsNotWrittenAgain() {
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.of(user(passwordHasher.hash("123456"))));
+
+        authService.login(new AuthRequest("juan@example.com", "123456"));
+
+        verify(userRepository, never()).updatePassword(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testWrongPasswordIsNotUpgraded() {
+        String legacy = Base64.getEncoder().encodeToString("123456".getBytes());
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.of(user(legacy)));
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> authService.login(new AuthRequest("juan@example.com", "654321")));
+
+        assertEquals("Invalid credentials", exception.getMessage());
+        verify(userRepository, never()).updatePassword(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testUnknownEmailIsHashedLikeAWrongPassword() {
+        when(userRepository.findByEmail("nadie@example.com")).thenReturn(Optional.empty());
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> authService.login(new AuthRequest("nadie@example.com", "123456")));
+
+        assertEquals("Invalid credentials", exception.getMessage());
+        assertEquals(1, meterRegistry.get("auth.password.hash.duration").timer().count());
+    }
+
+    @Test
+    void testRegisteredPasswordIsHashed() {
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        when(userRepository.save(saved.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        authService.register(new RegisterRequest(DocumentType.CC, 1001234357L, "Pepito juan", "Perez rodriguez",
+                "pepito666@gmail.com", "contraseña123", 3138785644L));
+
+        assertTrue(saved.getValue().getPassword().startsWith("pbkdf2_sha256$"));
+        assertTrue(passwordHasher.matches("contraseña123", saved.getValue().getPassword()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.juan.property.property_recommendation.property_facets;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PriceBucket;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyFacetsResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+public class PropertyFacetsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    public void testFacetsUseTheSameFilters() throws Exception {
+        when(propertyService.facets(any(PropertySpecification.class))).thenReturn(PropertyFacetsResponse.builder()
+                .total(3)
+                .operationTypes(Map.of(OperationType.SELL, 3L))
+                .cities(Map.of(495, 3L))
+                .priceBuckets(Map.of(PriceBucket.FROM_250M_TO_500M, 3L))
+                .build());
+
+        this.mockMvc.perform(
+                MockMvcRequestBuilders.get("/properties/facets")
+                        .param("cityId", "495")
+                        .param("operationType", "sell")
+        ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.operationTypes.SELL").value(3))
+                .andExpect(jsonPath("$.cities.495").value(3))
+                .andExpect(jsonPath("$.priceBuckets.FROM_250M_TO_500M").value(3));
+
+        verify(propertyService).facets(argThat(spec -> spec.getCityId() == 495 && "sell".equals(spec.getOperationType())));
+        verify(propertyService, never()).findAll(any(PropertySpecification.class));
+    }
+}
@@ -0,0 +1,196 @@
+package com.juan.property.property_recommendation.property_facets;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PriceBucket;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyFacetsResponse;
+import com.juan.property.property_recommendation.property.search.PropertyFacetIndex;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class PropertyFacetsRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private final Random random = new Random(7);
+    private final List<City> cities = new ArrayList<>();
+    private User user;
+    private PropertyFacetIndex propertyFacetIndex;
+
+    @BeforeEach
+    public void setUp() {
+        user = testEntityManager.persist(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        for (int d = 0; d < 2; d++) {
+            Department department = testEntityManager.persist(Department.builder().name("Department " + d).build());
+            for (int c = 0; c < 3; c++) {
+                cities.add(testEntityManager.persist(City.builder().name("City " + d + c).department(department).build()));
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            testEntityManager.persist(randomProperty(1000000000L + i));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        propertyFacetIndex = new PropertyFacetIndex(propertyRepository);
+    }
+
+    private Property randomProperty(long registryNumber) {
+        return Property.builder()
+                .registryNumber(registryNumber)
+                .operationType(OperationType.values()[random.nextInt(OperationType.values().length)])
+                .address("Calle " + registryNumber)
+                .price(BigDecimal.valueOf(50_000_000L + random.nextInt(1_200) * 1_000_000L))
+                .area(30.0 + random.nextInt(200))
+                .images(List.of("img1.jpg"))
+                .numberOfBathrooms(1 + random.nextInt(3))
+                .numberOfBedrooms(random.nextInt(10) == 0 ? null : 1 + random.nextInt(4))
+                .propertyType(PropertyType.values()[random.nextInt(4)])
+                .city(cities.get(random.nextInt(cities.size())))
+                .user(user)
+                .build();
+    }
+
+    private static <K> Map<K, Long> countBy(List<Property> properties, Function<Property, K> key) {
+        return properties.stream().filter(property -> key.apply(property) != null)
+                .collect(Collectors.groupingBy(key, Collectors.counting()));
+    }
+
+    private void assertFacetsMatchJpa(PropertySpecification spec) {
+        List<Property> expected = propertyRepository.findAll(spec);
+        PropertyFacetsResponse facets = propertyFacetIndex.facets(spec);
+
+        assertEquals(expected.size(), facets.getTotal());
+        assertEquals(countBy(expected, Property::getOperationType), facets.getOperationTypes());
+        assertEquals(countBy(expected, Property::getPropertyType), facets.getPropertyTypes());
+        assertEquals(countBy(expected, property -> property.getCity().getDepartment().getId()), facets.getDepartments());
+        assertEquals(countBy(expected, property -> property.getCity().getId()), facets.getCities());
+        assertEquals(countBy(expected, Property::getNumberOfBedrooms), facets.getBedrooms());
+        assertEquals(countBy(expected, property -> PriceBucket.of(property.getPrice())), facets.getPriceBuckets());
+    }
+
+    @Test
+    public void testFacetsWithoutFilters() {
+        assertFacetsMatchJpa(new PropertySpecification());
+    }
+
+    @Test
+    public void testFacetsFilteredOnFacetDimensions() {
+        PropertySpecification spec = new PropertySpecification();
+        spec.setOperationType("sel");
+        spec.setDepartmentId(cities.get(0).getDepartment().getId());
+        spec.setNumberOfBedrooms(2);
+        assertFacetsMatchJpa(spec);
+    }
+
+    @Test
+    public void testFacetsFilteredOnPriceAndArea() {
+        PropertySpecification spec = new PropertySpecification();
+        spec.setMinPrice(BigDecimal.valueOf(250_000_000L));
+        spec.setMaxPrice(BigDecimal.valueOf(900_000_000L));
+        spec.setMinArea(80.0);
+        assertFacetsMatchJpa(spec);
+    }
+
+    @Test
+    public void testRegisteredPropertyIsCountedIncrementally() {
+        assertFacetsMatchJpa(new PropertySpecification());
+
+        Property property = randomProperty(1999999999L);
+        property.setCity(testEntityManager.find(City.class, cities.get(0).getId()));
+        property.setUser(testEntityManager.find(User.class, user.getId()));
+        testEntityManager.persistAndFlush(property);
+        propertyFacetIndex.onPropertyRegistered(new PropertyRegisteredEvent(property));
+
+        assertFacetsMatchJpa(new PropertySpecification());
+        PropertySpecification spec = new PropertySpecification();
+        spec.setCityId(cities.get(0).getId());
+        assertFacetsMatchJpa(spec);
+    }
+
+    private Property persistRegistered(long registryNumber) {
+        Property property = randomProperty(registryNumber);
+        property.setCity(testEntityManager.find(City.class, cities.get(0).getId()));
+        property.setUser(testEntityManager.find(User.class, user.getId()));
+        return testEntityManager.persistAndFlush(property);
+    }
+
+    @Test
+    public void testLowerIdCommittedAfterTheLoadIsCounted() {
+        Property late = persistRegistered(1999999998L);
+        Property early = persistRegistered(1999999999L);
+        // The load runs while the lower id is still uncommitted, so its query does not see it yet
+        AtomicBoolean lateCommitted = new AtomicBoolean();
+        PropertyRepository repository = mock(PropertyRepository.class, delegatesTo(propertyRepository));
+        doAnswer(invocation -> {
+            Specification<Property> spec = invocation.getArgument(0);
+            return propertyRepository.countFacets(lateCommitted.get() ? spec
+                    : spec.and((root, query, criteriaBuilder) -> criteriaBuilder.notEqual(root.get("id"), late.getId())));
+        }).when(repository).countFacets(any());
+        propertyFacetIndex = new PropertyFacetIndex(repository);
+        propertyFacetIndex.onPropertyRegistered(new PropertyRegisteredEvent(early));
+
+        assertEquals(201, propertyFacetIndex.facets(new PropertySpecification()).getTotal());
+
+        lateCommitted.set(true);
+        propertyFacetIndex.onPropertyRegistered(new PropertyRegisteredEvent(late));
+
+        assertFacetsMatchJpa(new PropertySpecification());
+    }
+
+    @Test
+    public void testPropertyRegisteredDuringTheLoadIsCounted() {
+        PropertyRepository repository = mock(PropertyRepository.class, delegatesTo(propertyRepository));
+        doAnswer(invocation -> {
+            Map<?, Long> counts = propertyRepository.countFacets(invocation.getArgument(0));
+            propertyFacetIndex.onPropertyRegistered(new PropertyRegisteredEvent(persistRegistered(1999999999L)));
+            return counts;
+        }).when(repository).countFacets(any());
+        propertyFacetIndex = new PropertyFacetIndex(repository);
+
+        assertEquals(201, propertyFacetIndex.facets(new PropertySpecification()).getTotal());
+        assertFacetsMatchJpa(new PropertySpecification());
+    }
+}
@@ -0,0 +1,186 @@
+package com.juan.property.property_recommendation.property_search_cache;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.PropertySearchCache;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PropertySearchCacheTest {
+
+    private final List<PropertyResponse> responses = List.of(PropertyResponse.builder().registryNumber(100100200L).build());
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private PropertySearchCache cache;
+    private Property property;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new PropertySearchCache(2, 3, Duration.ofMinutes(5), meterRegistry, clock);
+
+        Department department = Department.builder().id(5).name("Cundinamarca").build();
+        property = Property.builder()
+                .registryNumber(100100200L)
+                .operationType(OperationType.SELL)
+                .price(BigDecimal.valueOf(350_000_000))
+                .area(120.0)
+                .numberOfBathrooms(2)
+                .numberOfBedrooms(3)
+                .propertyType(PropertyType.HOUSE)
+                .city(City.builder().id(495).name("Bogota").department(department).build())
+                .build();
+    }
+
+    private PropertySearchCriteria criteria(Integer cityId, String operationType, BigDecimal maxPrice) {
+        PropertySpecification spec = new PropertySpecification();
+        spec.setCityId(cityId);
+        spec.setOperationType(operationType);
+        spec.setMaxPrice(maxPrice);
+        return PropertySearchCriteria.from(spec);
+    }
+
+    private static List<PropertyResponse> rows(int count) {
+        return LongStream.range(0, count).mapToObj(i -> PropertyResponse.builder().registryNumber(i).build()).toList();
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    @Test
+    public void testEquivalentSpecificationsShareAnEntry() {
+        cache.put(criteria(0, "", BigDecimal.ZERO), cache.generation(), responses);
+
+        assertTrue(cache.get(criteria(null, null, null)).isPresent());
+        assertEquals(1, count("property.search.cache.requests", "result", "hit"));
+    }
+
+    @Test
+    public void testMissIsCounted() {
+        assertFalse(cache.get(criteria(495, null, null)).isPresent());
+        assertEquals(1, count("property.search.cache.requests", "result", "miss"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.put(criteria(1, null, null), cache.generation(), responses);
+        cache.put(criteria(2, null, null), cache.generation(), responses);
+        cache.get(criteria(1, null, null));
+        cache.put(criteria(3, null, null), cache.generation(), responses);
+
+        assertTrue(cache.get(criteria(1, null, null)).isPresent());
+        assertFalse(cache.get(criteria(2, null, null)).isPresent());
+        assertEquals(1, count("property.search.cache.evictions", "cause", "size"));
+    }
+
+    @Test
+    public void testEntriesAreBoundedByTheirRows() {
+        cache.put(criteria(1, null, null), cache.generation(), responses);
+        cache.put(criteria(2, null, null), cache.generation(), rows(2));
+        cache.get(criteria(1, null, null));
+        cache.put(criteria(3, null, null), cache.generation(), responses);
+        cache.put(criteria(1, null, null), cache.generation(), responses);
+
+        assertTrue(cache.get(criteria(1, null, null)).isPresent());
+        assertFalse(cache.get(criteria(2, null, null)).isPresent());
+        assertEquals(2, cache.rows());
+        assertEquals(1, count("property.search.cache.evictions", "cause", "size"));
+    }
+
+    @Test
+    public void testResultWithMoreRowsThanTheCacheIsNotStored() {
+        cache.put(criteria(1, null, null), cache.generation(), responses);
+        cache.put(criteria(2, null, null), cache.generation(), rows(4));
+
+        assertTrue(cache.get(criteria(1, null, null)).isPresent());
+        assertFalse(cache.get(criteria(2, null, null)).isPresent());
+        assertEquals(1, cache.rows());
+        assertEquals(0, count("property.search.cache.evictions", "cause", "size"));
+    }
+
+    @Test
+    public void testEntryExpiresAfterTtl() {
+        cache.put(criteria(495, null, null), cache.generation(), responses);
+        clock.advance(Duration.ofMinutes(5));
+
+        assertFalse(cache.get(criteria(495, null, null)).isPresent());
+        assertEquals(1, count("property.search.cache.evictions", "cause", "expired"));
+    }
+
+    @Test
+    public void testRegisteredPropertyOnlyInvalidatesMatchingEntries() {
+        cache.put(criteria(495, null, null), cache.generation(), responses);
+        cache.put(criteria(null, "LEASE", null), cache.generation(), responses);
+        cache.invalidate(property);
+
+        assertFalse(cache.get(criteria(495, null, null)).isPresent());
+        assertTrue(cache.get(criteria(null, "LEASE", null)).isPresent());
+        assertEquals(1, count("property.search.cache.evictions", "cause", "invalidated"));
+        assertEquals(1, cache.rows());
+    }
+
+    @Test
+    public void testPriceFilterDecidesInvalidation() {
+        cache.put(criteria(null, "sel", BigDecimal.valueOf(300_000_000)), cache.generation(), responses);
+        cache.put(criteria(null, "sel", BigDecimal.valueOf(400_000_000)), cache.generation(), responses);
+        cache.invalidate(property);
+
+        assertTrue(cache.get(criteria(null, "sel", BigDecimal.valueOf(300_000_000))).isPresent());
+        assertFalse(cache.get(criteria(null, "sel", BigDecimal.valueOf(400_000_000))).isPresent());
+    }
+
+    @Test
+    public void testResultComputedBeforeAWriteIsNotStored() {
+        long generation = cache.generation();
+        cache.invalidate(property);
+        cache.put(criteria(null, "LEASE", null), generation, responses);
+
+        assertEquals(0, cache.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.juan.property.property_recommendation.property_search_index;
+
+import com.juan.property.property_recommendation.property.search.CompressedBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBitmapTest {
+
+    private final Random random = new Random(3);
+
+    // Mixes sparse containers with dense ones so both container kinds and their conversions are exercised
+    private CompressedBitmap randomBitmap(BitSet expected, int density) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 300_000; i++) {
+            int chunk = i >>> 16;
+            if (random.nextInt(100) < (chunk % 2 == 0 ? density : 1)) {
+                bitmap.add(i);
+                expected.set(i);
+            }
+        }
+        return bitmap;
+    }
+
+    private List<Integer> values(CompressedBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+
+    private List<Integer> values(BitSet bitSet) {
+        List<Integer> values = new ArrayList<>();
+        bitSet.stream().forEach(values::add);
+        return values;
+    }
+
+    @Test
+    public void testAndMatchesBitSet() {
+        BitSet left = new BitSet();
+        BitSet right = new BitSet();
+        CompressedBitmap a = randomBitmap(left, 40);
+        CompressedBitmap b = randomBitmap(right, 10);
+
+        left.and(right);
+        CompressedBitmap result = a.and(b);
+
+        assertEquals(values(left), values(result));
+        assertEquals(left.cardinality(), result.cardinality());
+    }
+
+    @Test
+    public void testOrMatchesBitSet() {
+        BitSet left = new BitSet();
+        BitSet right = new BitSet();
+        CompressedBitmap a = randomBitmap(left, 40);
+        CompressedBitmap b = randomBitmap(right, 3);
+
+        left.or(right);
+        CompressedBitmap result = a.or(b);
+
+        assertEquals(values(left), values(result));
+        assertEquals(left.cardinality(), result.cardinality());
+    }
+
+    @Test
+    public void testOutOfOrderAddsAndContains() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(200_000);
+        bitmap.add(5);
+        bitmap.add(70_000);
+        bitmap.add(5);
+
+        assertEquals(List.of(5, 70_000, 200_000), values(bitmap));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(70_001));
+    }
+
+    @Test
+    public void testSparseBitmapIsSmallerThanDense() {
+        CompressedBitmap sparse = new CompressedBitmap();
+        CompressedBitmap dense = new CompressedBitmap();
+        for (int i = 0; i < 65_536; i++) {
+            dense.add(i);
+            if (i % 1000 == 0) {
+                sparse.add(i);
+            }
+        }
+
+        assertTrue(sparse.sizeInBytes() < 1024);
+        assertTrue(dense.sizeInBytes() >= 8192);
+    }
+}
@@ -0,0 +1,98 @@
+package com.juan.property.property_recommendation.property_search_index;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.search.InMemoryPropertyIndex;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+public class PropertySearchIndexBenchmark {
+
+    private static final int LISTINGS = 1_000_000;
+
+    static InMemoryPropertyIndex buildIndex(int listings) {
+        Random random = new Random(7);
+        User owner = User.builder().id(1).email("owner@example.com").phoneNumber(3001234567L).build();
+        List<City> cities = new ArrayList<>();
+        for (int d = 1; d <= 32; d++) {
+            Department department = Department.builder().id(d).name("Department " + d).build();
+            for (int c = 0; c < 35; c++) {
+                cities.add(City.builder().id(cities.size() + 1).name("City " + cities.size()).department(department).build());
+            }
+        }
+        InMemoryPropertyIndex index = new InMemoryPropertyIndex(new PropertyMapper());
+        index.load(sink -> {
+            for (int i = 0; i < listings; i++) {
+                sink.accept(Property.builder()
+                        .id((long) i)
+                        .registryNumber(1000000000L + i)
+                        .operationType(OperationType.values()[random.nextInt(3)])
+                        .address("Calle " + i)
+                        .price(BigDecimal.valueOf(80_000_000L + random.nextInt(900_000_000)))
+                        .area(30.0 + random.nextInt(300))
+                        .images(List.of("img1.jpg"))
+                        .numberOfBathrooms(1 + random.nextInt(4))
+                        .numberOfBedrooms(1 + random.nextInt(5))
+                        .propertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)])
+                        .city(cities.get(random.nextInt(cities.size())))
+                        .user(owner)
+                        .build());
+            }
+        });
+        return index;
+    }
+
+    static long[] measure(InMemoryPropertyIndex index, PropertySearchCriteria criteria, int iterations) {
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            index.search(criteria);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    @Test
+    public void benchmarkFilterLatencyAtOneMillionListings() {
+        InMemoryPropertyIndex index = buildIndex(LISTINGS);
+        System.out.printf("bitmap indexes=%d KB%n", index.bitmapSizeInBytes() / 1024);
+
+        PropertySpecification selective = new PropertySpecification();
+        selective.setOperationType("LEASE");
+        selective.setPropertyType("HOUSE");
+        selective.setDepartmentId(5);
+        selective.setMinPrice(BigDecimal.valueOf(200_000_000));
+        selective.setMaxPrice(BigDecimal.valueOf(400_000_000));
+
+        PropertySpecification broad = new PropertySpecification();
+        broad.setMinArea(100.0);
+        broad.setNumberOfBedrooms(3);
+
+        for (PropertySpecification spec : List.of(selective, broad)) {
+            PropertySearchCriteria criteria = PropertySearchCriteria.from(spec);
+            measure(index, criteria, 2000);
+            long[] nanos = measure(index, criteria, 500);
+            int matches = index.search(criteria).size();
+            System.out.printf("filter=%s matches=%d p50=%dus p99=%dus%n", criteria, matches,
+                    nanos[nanos.length / 2] / 1_000, nanos[nanos.length * 99 / 100] / 1_000);
+            assertTrue(matches > 0);
+        }
+    }
+}
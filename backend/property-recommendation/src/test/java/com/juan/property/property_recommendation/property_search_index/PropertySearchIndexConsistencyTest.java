@@ -0,0 +1,176 @@
+package com.juan.property.property_recommendation.property_search_index;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.InMemoryPropertyIndex;
+import com.juan.property.property_recommendation.property.search.PropertySearchCriteria;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest
+public class PropertySearchIndexConsistencyTest {
+
+    private static final String[] TYPE_FILTERS = {"SELL", "lease", "SE", "E", "HOUSE", "office", "BUILDING", "_", "XYZ"};
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private final Random random = new Random(42);
+    private final List<City> cities = new ArrayList<>();
+    private InMemoryPropertyIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        User user = testEntityManager.persist(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        for (int d = 0; d < 2; d++) {
+            Department department = testEntityManager.persist(Department.builder().name("Department " + d).build());
+            for (int c = 0; c < 3; c++) {
+                cities.add(testEntityManager.persist(City.builder().name("City " + d + c).department(department).build()));
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            testEntityManager.persist(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .operationType(OperationType.values()[random.nextInt(OperationType.values().length)])
+                    .address("Calle " + i)
+                    .price(BigDecimal.valueOf(50_000_000_00L + random.nextInt(1_000_000) * 100L + random.nextInt(100), 2))
+                    .area(random.nextInt(10) == 0 ? null : 30.0 + random.nextInt(200))
+                    .images(List.of("img1.jpg"))
+                    .numberOfBathrooms(random.nextInt(10) == 0 ? null : 1 + random.nextInt(3))
+                    .numberOfBedrooms(random.nextInt(10) == 0 ? null : 1 + random.nextInt(4))
+                    .propertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)])
+                    .city(cities.get(random.nextInt(cities.size())))
+                    .user(user)
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        index = new InMemoryPropertyIndex(new PropertyMapper());
+        index.load(sink -> propertyRepository.streamAllWithDetails().forEach(sink));
+    }
+
+    private PropertySpecification randomSpecification() {
+        PropertySpecification spec = new PropertySpecification();
+        if (random.nextBoolean()) spec.setMinPrice(BigDecimal.valueOf(50_000_000L + random.nextInt(10_000_000)));
+        if (random.nextBoolean()) spec.setMaxPrice(BigDecimal.valueOf(52_000_000L + random.nextInt(10_000_000)));
+        if (random.nextInt(4) == 0) spec.setMinPrice(BigDecimal.ZERO);
+        if (random.nextBoolean()) spec.setMinArea(random.nextInt(4) == 0 ? 0.0 : 30.0 + random.nextInt(100));
+        if (random.nextBoolean()) spec.setMaxArea(100.0 + random.nextInt(150));
+        if (random.nextInt(3) == 0) spec.setNumberOfBathrooms(1 + random.nextInt(3));
+        if (random.nextInt(3) == 0) spec.setNumberOfBedrooms(1 + random.nextInt(4));
+        if (random.nextInt(3) == 0) spec.setOperationType(TYPE_FILTERS[random.nextInt(4)]);
+        if (random.nextInt(3) == 0) spec.setPropertyType(TYPE_FILTERS[3 + random.nextInt(TYPE_FILTERS.length - 3)]);
+        if (random.nextInt(3) == 0) spec.setCityId(random.nextInt(5) == 0 ? 0 : cities.get(random.nextInt(cities.size())).getId());
+        if (random.nextInt(3) == 0) spec.setDepartmentId(cities.get(random.nextInt(cities.size())).getDepartment().getId());
+        return spec;
+    }
+
+    private Set<Long> registryNumbers(List<PropertyResponse> responses) {
+        return responses.stream().map(PropertyResponse::getRegistryNumber).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testIndexMatchesJpaForRandomFilters() {
+        for (int i = 0; i < 300; i++) {
+            PropertySpecification spec = randomSpecification();
+
+            Set<Long> expected = propertyRepository.findAll(spec).stream()
+                    .map(Property::getRegistryNumber).collect(Collectors.toSet());
+            Set<Long> actual = registryNumbers(index.search(PropertySearchCriteria.from(spec)));
+
+            assertEquals(expected, actual, "Mismatch for " + PropertySearchCriteria.from(spec));
+        }
+    }
+
+    @Test
+    public void testCriteriaMatchesAgreesWithJpa() {
+        List<Property> properties = propertyRepository.streamAllWithDetails().toList();
+        for (int i = 0; i < 100; i++) {
+            PropertySpecification spec = randomSpecification();
+            PropertySearchCriteria criteria = PropertySearchCriteria.from(spec);
+
+            Set<Long> expected = propertyRepository.findAll(spec).stream()
+                    .map(Property::getRegistryNumber).collect(Collectors.toSet());
+            Set<Long> actual = properties.stream().filter(criteria::matches)
+                    .map(Property::getRegistryNumber).collect(Collectors.toSet());
+
+            assertEquals(expected, actual, "Mismatch for " + criteria);
+        }
+    }
+
+    @Test
+    public void testIndexWithoutFiltersReturnsEveryRow() {
+        assertEquals(300, index.search(PropertySearchCriteria.from(new PropertySpecification())).size());
+    }
+
+    @Test
+    public void testRegistrationRacingTheLoadIsListedOnce() throws Exception {
+        Property registered = propertyRepository.findByRegistryNumber(1000000000L).orElseThrow();
+        InMemoryPropertyIndex reloaded = new InMemoryPropertyIndex(new PropertyMapper());
+        Thread afterCommit = new Thread(() -> reloaded.add(registered));
+
+        // The load already streamed the row when its after-commit event arrives, which is buffered instead of
+        // waiting for the load to finish
+        reloaded.load(sink -> {
+            propertyRepository.streamAllWithDetails().forEach(sink);
+            afterCommit.start();
+            try {
+                afterCommit.join(5_000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            assertFalse(afterCommit.isAlive());
+            assertFalse(reloaded.isReady());
+        });
+
+        List<PropertyResponse> all = reloaded.search(PropertySearchCriteria.from(new PropertySpecification()));
+        assertEquals(300, all.size());
+        assertEquals(300, registryNumbers(all).size());
+    }
+
+    @Test
+    public void testAddedPropertyIsSearchable() {
+        Property property = propertyRepository.findByRegistryNumber(1000000000L).orElseThrow();
+        property.setRegistryNumber(1999999999L);
+        index.add(property);
+
+        PropertySpecification spec = new PropertySpecification();
+        spec.setCityId(property.getCity().getId());
+        assertFalse(index.search(PropertySearchCriteria.from(spec)).stream()
+                .noneMatch(response -> response.getRegistryNumber() == 1999999999L));
+    }
+}
@@ -0,0 +1,90 @@
+package com.juan.property.property_recommendation.recommended_properties;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.PropertySearchedEvent;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.PropertyViewedEvent;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+@RecordApplicationEvents
+public class BrowsingEventCaptureControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    private final User user = User.builder().id(7).email("pepito666@gmail.com").build();
+
+    @Test
+    public void testViewByLoggedInUserIsPublished() throws Exception {
+        when(authService.authenticate("token-123")).thenReturn(Optional.of(user));
+        when(propertyService.findByRegistryNumber(100100200L))
+                .thenReturn(PropertyResponse.builder().registryNumber(100100200L).build());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/100100200").header("X-Auth-Token", "token-123"))
+                .andExpect(status().isOk());
+
+        List<PropertyViewedEvent> views = events.stream(PropertyViewedEvent.class).toList();
+        assertEquals(1, views.size());
+        assertEquals(100100200L, views.get(0).property().getRegistryNumber());
+        assertEquals(user, views.get(0).user());
+    }
+
+    @Test
+    public void testSearchByLoggedInUserIsPublished() throws Exception {
+        when(authService.authenticate("token-123")).thenReturn(Optional.of(user));
+        when(propertyService.findAll(any(PropertySpecification.class))).thenReturn(List.of());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties")
+                        .header("X-Auth-Token", "token-123")
+                        .param("departmentId", "5"))
+                .andExpect(status().isOk());
+
+        List<PropertySearchedEvent> searches = events.stream(PropertySearchedEvent.class).toList();
+        assertEquals(1, searches.size());
+        assertEquals(5, searches.get(0).propertySpecification().getDepartmentId());
+    }
+
+    @Test
+    public void testAnonymousSearchIsNotRecorded() throws Exception {
+        when(propertyService.findAll(any(PropertySpecification.class))).thenReturn(List.of());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties"))
+                .andExpect(status().isOk());
+
+        assertEquals(0, events.stream(PropertySearchedEvent.class).count());
+        verify(authService, never()).authenticate(anyString());
+    }
+}
@@ -0,0 +1,123 @@
+package com.juan.property.property_recommendation.recommended_properties;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.recommendation.BrowsingEvent;
+import com.juan.property.property_recommendation.recommendation.BrowsingEventRecorder;
+import com.juan.property.property_recommendation.recommendation.BrowsingEventRepository;
+import com.juan.property.property_recommendation.recommendation.service.RecommendationService;
+import com.juan.property.property_recommendation.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BrowsingEventRecorderTest {
+
+    @Mock
+    private BrowsingEventRepository browsingEventRepository;
+
+    @Mock
+    private RecommendationService recommendationService;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final User user = User.builder().id(7).build();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+        Department department = Department.builder().id(5).name("Cundinamarca").build();
+        when(cityRepository.findById(495)).thenReturn(Optional.of(City.builder().id(495).department(department).build()));
+    }
+
+    private BrowsingEventRecorder recorder(int queueCapacity, int batchSize) {
+        return new BrowsingEventRecorder(queueCapacity, batchSize, browsingEventRepository, recommendationService,
+                cityRepository, entityManager, transactionManager, meterRegistry);
+    }
+
+    private BrowsingEvent search(Integer cityId) {
+        PropertySpecification spec = new PropertySpecification();
+        spec.setCityId(cityId);
+        spec.setOperationType("lease");
+        return BrowsingEvent.search(user, spec);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEventsArePersistedInBatchesOffTheCallingThread() throws Exception {
+        BrowsingEventRecorder recorder = recorder(1_000, 50);
+        for (int i = 0; i < 120; i++) {
+            recorder.record(search(495));
+        }
+        recorder.start();
+        recorder.stop();
+
+        ArgumentCaptor<List<BrowsingEvent>> batches = ArgumentCaptor.forClass(List.class);
+        verify(browsingEventRepository, atLeast(3)).saveAll(batches.capture());
+        List<BrowsingEvent> saved = new ArrayList<>();
+        for (List<BrowsingEvent> batch : batches.getAllValues()) {
+            assertTrue(batch.size() <= 50);
+            saved.addAll(batch);
+        }
+        assertEquals(120, saved.size());
+        assertTrue(saved.stream().allMatch(event -> event.getDepartmentId() == 5));
+        verify(cityRepository, times(1)).findById(495);
+        verify(recommendationService, atLeast(3)).apply(anyList());
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenTheQueueIsFull() {
+        BrowsingEventRecorder recorder = recorder(2, 50);
+        for (int i = 0; i < 5; i++) {
+            recorder.record(search(null));
+        }
+
+        assertEquals(2, meterRegistry.get("recommendation.events").tag("result", "recorded").counter().count());
+        assertEquals(3, meterRegistry.get("recommendation.events").tag("result", "dropped").counter().count());
+    }
+
+    @Test
+    public void testProfilesAreNotUpdatedWhenTheSaveFails() throws Exception {
+        when(browsingEventRepository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+        BrowsingEventRecorder recorder = recorder(1_000, 50);
+        for (int i = 0; i < 10; i++) {
+            recorder.record(search(495));
+        }
+        recorder.start();
+        recorder.stop();
+
+        verify(browsingEventRepository, atLeastOnce()).saveAll(anyList());
+        verify(recommendationService, never()).apply(anyList());
+    }
+}
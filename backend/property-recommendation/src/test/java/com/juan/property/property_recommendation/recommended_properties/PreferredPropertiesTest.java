@@ -0,0 +1,129 @@
+package com.juan.property.property_recommendation.recommended_properties;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.ListingPreference;
+import com.juan.property.property_recommendation.property.search.SimilarPropertyIndex;
+import com.juan.property.property_recommendation.recommendation.BrowsingEvent;
+import com.juan.property.property_recommendation.recommendation.UserPreferenceProfile;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PreferredPropertiesTest {
+
+    private final Random random = new Random(9);
+    private final List<City> cities = new ArrayList<>();
+    private final List<Property> properties = new ArrayList<>();
+    private final PropertyMapper propertyMapper = new PropertyMapper();
+    private final User user = User.builder().id(7).email("pepito666@gmail.com").phoneNumber(3138785644L).build();
+    private SimilarPropertyIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        for (int d = 1; d <= 6; d++) {
+            Department department = Department.builder().id(d).name("Department " + d).build();
+            for (int c = 0; c < 4; c++) {
+                cities.add(City.builder().id(cities.size() + 1).name("City " + cities.size()).department(department).build());
+            }
+        }
+        for (int i = 0; i < 5_000; i++) {
+            properties.add(Property.builder()
+                    .id((long) i)
+                    .registryNumber(1000000000L + i)
+                    .operationType(OperationType.values()[random.nextInt(OperationType.values().length)])
+                    .address("Calle " + i)
+                    .price(BigDecimal.valueOf(80_000_000L + random.nextInt(900_000_000)))
+                    .area(30.0 + random.nextInt(300))
+                    .images(List.of("img1.jpg"))
+                    .numberOfBathrooms(1 + random.nextInt(4))
+                    .numberOfBedrooms(1 + random.nextInt(5))
+                    .propertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)])
+                    .city(cities.get(random.nextInt(cities.size())))
+                    .user(user)
+                    .build());
+        }
+        index = new SimilarPropertyIndex(propertyMapper);
+        index.load(sink -> properties.forEach(sink));
+    }
+
+    private UserPreferenceProfile profileOfViews(List<Property> viewed) {
+        UserPreferenceProfile profile = new UserPreferenceProfile();
+        viewed.forEach(property -> profile.apply(BrowsingEvent.view(user, propertyMapper.propertyToDto(property))));
+        return profile;
+    }
+
+    private static double score(ListingPreference preference, Property property) {
+        double department = preference.departmentWeights().isEmpty() ? 1
+                : preference.departmentWeights().getOrDefault(property.getCity().getDepartment().getId(), 0.0);
+        double operationType = preference.operationTypeWeights() == null ? 1
+                : preference.operationTypeWeights()[property.getOperationType().ordinal()];
+        double propertyType = preference.propertyTypeWeights() == null ? 1
+                : preference.propertyTypeWeights()[property.getPropertyType().ordinal()];
+        double deviation = (Math.log(property.getPrice().doubleValue()) - preference.logPrice()) / preference.logPriceSpread();
+        return department * operationType * propertyType * Math.exp(-deviation * deviation / 2);
+    }
+
+    private List<Long> bruteForce(ListingPreference preference, int k) {
+        return properties.stream()
+                .filter(property -> !preference.excludedRegistryNumbers().contains(property.getRegistryNumber()))
+                .sorted(Comparator.comparingDouble((Property property) -> score(preference, property)).reversed())
+                .limit(k)
+                .map(Property::getRegistryNumber)
+                .toList();
+    }
+
+    @Test
+    public void testFeedMatchesBruteForceRanking() {
+        for (int i = 0; i < 50; i++) {
+            List<Property> viewed = new ArrayList<>();
+            for (int j = 0; j < 1 + random.nextInt(10); j++) {
+                viewed.add(properties.get(random.nextInt(properties.size())));
+            }
+            ListingPreference preference = profileOfViews(viewed).toPreference();
+
+            List<Long> feed = index.preferred(preference, 20).stream().map(PropertyResponse::getRegistryNumber).toList();
+
+            assertEquals(bruteForce(preference, 20), feed);
+        }
+    }
+
+    @Test
+    public void testFeedFollowsViewedDepartmentTypeAndPrice() {
+        List<Property> viewed = properties.stream()
+                .filter(property -> property.getCity().getDepartment().getId() == 2
+                        && property.getOperationType() == OperationType.LEASE
+                        && property.getPropertyType() == PropertyType.HOUSE
+                        && property.getPrice().compareTo(BigDecimal.valueOf(300_000_000)) < 0)
+                .limit(5)
+                .toList();
+        ListingPreference preference = profileOfViews(viewed).toPreference();
+
+        List<PropertyResponse> feed = index.preferred(preference, 3);
+        assertEquals(3, feed.size());
+        for (PropertyResponse property : feed) {
+            assertEquals(OperationType.LEASE, property.getOperationType());
+            assertEquals(PropertyType.HOUSE, property.getPropertyType());
+            assertEquals(2, property.getCity().getDepartment().getId());
+            assertFalse(viewed.stream().anyMatch(view -> view.getRegistryNumber().equals(property.getRegistryNumber())));
+        }
+    }
+
+    @Test
+    public void testProfileWithoutEventsIsEmpty() {
+        assertTrue(new UserPreferenceProfile().isEmpty());
+    }
+}
@@ -0,0 +1,172 @@
+package com.juan.property.property_recommendation.recommended_properties;
+
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.search.ListingPreference;
+import com.juan.property.property_recommendation.property.search.SimilarPropertyEngine;
+import com.juan.property.property_recommendation.recommendation.BrowsingEvent;
+import com.juan.property.property_recommendation.recommendation.BrowsingEventRepository;
+import com.juan.property.property_recommendation.recommendation.BrowsingEventType;
+import com.juan.property.property_recommendation.recommendation.UserPreferenceProfile;
+import com.juan.property.property_recommendation.recommendation.service.RecommendationService;
+import com.juan.property.property_recommendation.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RecommendationProfileCacheTest {
+
+    @Mock
+    private BrowsingEventRepository browsingEventRepository;
+
+    @Mock
+    private SimilarPropertyEngine similarPropertyEngine;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MutableClock clock;
+    private RecommendationService service;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock();
+        service = new RecommendationService(browsingEventRepository, similarPropertyEngine, 2, Duration.ofMinutes(30),
+                meterRegistry, clock);
+    }
+
+    private static BrowsingEvent view(long id, int userId, PropertyType propertyType) {
+        return BrowsingEvent.builder()
+                .id(id)
+                .userId(userId)
+                .type(BrowsingEventType.VIEW)
+                .departmentId(5)
+                .operationType(OperationType.SELL)
+                .propertyType(propertyType)
+                .price(BigDecimal.valueOf(300_000_000))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static User user(int id) {
+        return User.builder().id(id).build();
+    }
+
+    private ListingPreference lastPreference() {
+        ArgumentCaptor<ListingPreference> preference = ArgumentCaptor.forClass(ListingPreference.class);
+        verify(similarPropertyEngine, atLeastOnce()).preferred(preference.capture(), anyInt());
+        return preference.getValue();
+    }
+
+    private static void assertSamePreference(ListingPreference expected, ListingPreference actual) {
+        assertEquals(expected.departmentWeights(), actual.departmentWeights());
+        assertArrayEquals(expected.operationTypeWeights(), actual.operationTypeWeights());
+        assertArrayEquals(expected.propertyTypeWeights(), actual.propertyTypeWeights());
+        assertEquals(expected.logPrice(), actual.logPrice());
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    @Test
+    public void testProfilesAreBoundedBySize() {
+        for (int userId = 1; userId <= 3; userId++) {
+            when(browsingEventRepository.findTop200ByUserIdOrderByIdDesc(userId))
+                    .thenReturn(List.of(view(userId, userId, PropertyType.HOUSE)));
+            service.recommend(user(userId), 10);
+        }
+        service.recommend(user(3), 10);
+
+        assertEquals(2, service.size());
+        assertEquals(1, count("recommendation.profiles.evictions", "cause", "size"));
+        assertEquals(1, count("recommendation.profiles.requests", "result", "hit"));
+        verify(browsingEventRepository, times(1)).findTop200ByUserIdOrderByIdDesc(3);
+    }
+
+    @Test
+    public void testExpiredProfileIsRebuilt() {
+        when(browsingEventRepository.findTop200ByUserIdOrderByIdDesc(1)).thenReturn(List.of(view(1, 1, PropertyType.HOUSE)));
+        service.recommend(user(1), 10);
+        clock.advance(Duration.ofMinutes(31));
+        service.recommend(user(1), 10);
+
+        verify(browsingEventRepository, times(2)).findTop200ByUserIdOrderByIdDesc(1);
+    }
+
+    @Test
+    public void testBatchTheProfileWasRebuiltFromIsNotAppliedTwice() {
+        BrowsingEvent saved = view(1, 1, PropertyType.HOUSE);
+        when(browsingEventRepository.findTop200ByUserIdOrderByIdDesc(1)).thenReturn(List.of(saved));
+        UserPreferenceProfile expected = new UserPreferenceProfile();
+        expected.apply(saved);
+
+        service.recommend(user(1), 10);
+        service.apply(List.of(saved));
+        service.recommend(user(1), 10);
+
+        assertSamePreference(expected.toPreference(), lastPreference());
+
+        service.apply(List.of(view(2, 1, PropertyType.OFFICE)));
+        service.recommend(user(1), 10);
+
+        assertFalse(Arrays.equals(expected.toPreference().propertyTypeWeights(), lastPreference().propertyTypeWeights()));
+        verify(browsingEventRepository, times(1)).findTop200ByUserIdOrderByIdDesc(1);
+    }
+
+    @Test
+    public void testProfileRebuiltWhileABatchIsAppliedIsNotCached() {
+        when(browsingEventRepository.findTop200ByUserIdOrderByIdDesc(1)).thenAnswer(invocation -> {
+            // A batch commits after the history was read and is applied before the profile is cached
+            service.apply(List.of(view(2, 1, PropertyType.OFFICE)));
+            return List.of(view(1, 1, PropertyType.HOUSE));
+        });
+
+        service.recommend(user(1), 10);
+        service.recommend(user(1), 10);
+
+        verify(browsingEventRepository, times(2)).findTop200ByUserIdOrderByIdDesc(1);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
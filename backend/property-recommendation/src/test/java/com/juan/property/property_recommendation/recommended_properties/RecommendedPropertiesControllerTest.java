@@ -0,0 +1,60 @@
+package com.juan.property.property_recommendation.recommended_properties;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.recommendation.RecommendationController;
+import com.juan.property.property_recommendation.recommendation.service.RecommendationService;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RecommendationController.class)
+public class RecommendedPropertiesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RecommendationService recommendationService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    public void testRecommendedForLoggedInUser() throws Exception {
+        User user = User.builder().id(7).email("pepito666@gmail.com").build();
+        when(authService.authenticate("token-123")).thenReturn(Optional.of(user));
+        when(recommendationService.recommend(user, 3)).thenReturn(List.of(
+                PropertyResponse.builder().registryNumber(100100201L).build()));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/recommended")
+                        .header("X-Auth-Token", "token-123")
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].registryNumber").value(100100201L));
+    }
+
+    @Test
+    public void testUnknownTokenIsUnauthorized() throws Exception {
+        when(authService.authenticate("expired")).thenReturn(Optional.empty());
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/recommended")
+                        .header("X-Auth-Token", "expired"))
+                .andExpect(status().isUnauthorized());
+
+        verify(recommendationService, never()).recommend(any(), anyInt());
+    }
+}
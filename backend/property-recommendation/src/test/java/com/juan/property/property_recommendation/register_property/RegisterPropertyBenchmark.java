@@ -0,0 +1,179 @@
+package com.juan.property.property_recommendation.register_property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.location.LocationCatalog;
+import com.juan.property.property_recommendation.location.mapper.CityMapper;
+import com.juan.property.property_recommendation.location.mapper.DepartmentMapper;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.dto.PropertyRequest;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import com.juan.property.property_recommendation.support.SqlStatementCounter;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import static com.juan.property.property_recommendation.property.OperationType.SELL;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SqlStatementCounter.class)
+public class RegisterPropertyBenchmark {
+
+    private static final int THREADS = 4;
+    private static final int REGISTRATIONS = 4_000;
+    private static final int WARMUP = 400;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final PropertyMapper propertyMapper = new PropertyMapper();
+    private PropertyService propertyService;
+    private User user;
+    private City city;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        Department cundinamarca = departmentRepository.save(Department.builder().name("Cundinamarca").build());
+        city = cityRepository.save(City.builder().name("Bogotá").department(cundinamarca).build());
+
+        LocationCatalog locationCatalog = new LocationCatalog(departmentRepository, cityRepository,
+                new DepartmentMapper(), new CityMapper(), new ObjectMapper());
+        propertyService = new PropertyService(propertyRepository, propertyMapper, locationCatalog,
+                null, event -> { }, null, null, null, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        propertyRepository.deleteAll();
+        cityRepository.deleteAll();
+        departmentRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private PropertyRequest propertyRequest(long registryNumber) {
+        return PropertyRequest.builder()
+                .registryNumber(registryNumber)
+                .operationType(SELL)
+                .address("Calle " + registryNumber)
+                .price(BigDecimal.valueOf(350_000_000L))
+                .area(120.0)
+                .images(List.of("img1.jpg"))
+                .numberOfBathrooms(2)
+                .numberOfBedrooms(3)
+                .propertyType(HOUSE)
+                .cityId(city.getId())
+                .build();
+    }
+
+    // The write path before: the city and the registry number are each looked up before the insert
+    private void registerCheckingFirst(long registryNumber) {
+        PropertyRequest request = propertyRequest(registryNumber);
+        City found = cityRepository.findById(request.getCityId()).orElseThrow();
+        if (propertyRepository.findByRegistryNumber(registryNumber).isPresent()) {
+            throw new RuntimeException("The property already exists");
+        }
+        Property property = propertyMapper.dtoToProperty(request);
+        property.setUser(user);
+        property.setCity(found);
+        propertyRepository.save(property);
+    }
+
+    private void registerInOneStatement(long registryNumber) {
+        propertyService.register(propertyRequest(registryNumber), user);
+    }
+
+    // Each thread registers its own registry numbers, starting at the given one
+    private double run(long firstRegistryNumber, int registrations, LongConsumer register) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long from = firstRegistryNumber + (long) t * (registrations / THREADS);
+                futures.add(executor.submit(SqlStatementCounter.counted(() -> {
+                    for (long registryNumber = from; registryNumber < from + registrations / THREADS; registryNumber++) {
+                        register.accept(registryNumber);
+                    }
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return registrations * 1e9 / (System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void measure(String name, long firstRegistryNumber, LongConsumer register) throws Exception {
+        run(firstRegistryNumber, WARMUP, register);
+        SqlStatementCounter.reset();
+        double perSecond = run(firstRegistryNumber + WARMUP, REGISTRATIONS, register);
+        double statements = (double) SqlStatementCounter.statements() / REGISTRATIONS;
+        System.out.printf("%-20s %,10.0f registrations/s  %.2f statements per registration (%d threads)%n",
+                name, perSecond, statements, THREADS);
+    }
+
+    @Test
+    public void benchmarkRegistration() throws Exception {
+        measure("check then insert", 3000000000L, this::registerCheckingFirst);
+        measure("insert only", 4000000000L, this::registerInOneStatement);
+
+        assertEquals(2L * (WARMUP + REGISTRATIONS), propertyRepository.count());
+        SqlStatementCounter.reset();
+        for (long registryNumber = 4000000000L; registryNumber < 4000000000L + 100; registryNumber++) {
+            long taken = registryNumber;
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> registerInOneStatement(taken));
+            assertEquals("The property already exists", exception.getMessage());
+        }
+        // A duplicate costs the rejected insert alone
+        assertTrue(SqlStatementCounter.statements() <= 100, "SQL statements: " + SqlStatementCounter.statements());
+    }
+}
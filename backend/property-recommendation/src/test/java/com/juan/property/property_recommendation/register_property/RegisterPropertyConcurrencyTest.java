@@ -0,0 +1,182 @@
+package com.juan.property.property_recommendation.register_property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.location.LocationCatalog;
+import com.juan.property.property_recommendation.location.mapper.CityMapper;
+import com.juan.property.property_recommendation.location.mapper.DepartmentMapper;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyRegisteredEvent;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.dto.PropertyRequest;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.juan.property.property_recommendation.property.OperationType.SELL;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every registration commits on its own, so the data is committed and removed afterwards
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class RegisterPropertyConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int REGISTRY_NUMBERS = 25;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Queue<PropertyRegisteredEvent> events = new ConcurrentLinkedQueue<>();
+    private PropertyService propertyService;
+    private User user;
+    private City city;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        Department cundinamarca = departmentRepository.save(Department.builder().name("Cundinamarca").build());
+        city = cityRepository.save(City.builder().name("Bogotá").department(cundinamarca).build());
+
+        LocationCatalog locationCatalog = new LocationCatalog(departmentRepository, cityRepository,
+                new DepartmentMapper(), new CityMapper(), new ObjectMapper());
+        propertyService = new PropertyService(propertyRepository, new PropertyMapper(), locationCatalog,
+                null, event -> events.add((PropertyRegisteredEvent) event), null, null, null, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        propertyRepository.deleteAll();
+        cityRepository.deleteAll();
+        departmentRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private PropertyRequest propertyRequest(long registryNumber) {
+        return PropertyRequest.builder()
+                .registryNumber(registryNumber)
+                .operationType(SELL)
+                .address("Calle 123 #45-67")
+                .price(BigDecimal.valueOf(350_000_000L))
+                .area(120.0)
+                .images(List.of("img1.jpg"))
+                .numberOfBathrooms(2)
+                .numberOfBedrooms(3)
+                .propertyType(HOUSE)
+                .cityId(city.getId())
+                .build();
+    }
+
+    @Test
+    public void testOnlyOneOfConcurrentRegistrationsOfARegistryNumberSucceeds() throws Exception {
+        List<Long> registryNumbers = new ArrayList<>();
+        for (int i = 0; i < REGISTRY_NUMBERS; i++) {
+            registryNumbers.add(2000000000L + i);
+        }
+        ConcurrentHashMap<Long, AtomicInteger> registered = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Long, AtomicInteger> rejected = new ConcurrentHashMap<>();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                // Each thread goes through the numbers in its own order, so pairs of threads meet on different numbers
+                List<Long> order = new ArrayList<>(registryNumbers);
+                Collections.shuffle(order, new Random(t));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (Long registryNumber : order) {
+                        try {
+                            propertyService.register(propertyRequest(registryNumber), user);
+                            registered.computeIfAbsent(registryNumber, key -> new AtomicInteger()).incrementAndGet();
+                        } catch (RuntimeException e) {
+                            if ("The property already exists".equals(e.getMessage())) {
+                                rejected.computeIfAbsent(registryNumber, key -> new AtomicInteger()).incrementAndGet();
+                            } else {
+                                unexpected.add(e);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(unexpected.isEmpty(), unexpected.toString());
+        for (Long registryNumber : registryNumbers) {
+            assertEquals(1, registered.get(registryNumber).get(), "registrations of " + registryNumber);
+            assertEquals(THREADS - 1, rejected.get(registryNumber).get(), "rejections of " + registryNumber);
+        }
+        assertEquals(REGISTRY_NUMBERS, propertyRepository.count());
+        assertEquals(REGISTRY_NUMBERS, events.size());
+    }
+
+    @Test
+    public void testRegistrationOfAnExistingPropertyLeavesItUnchanged() {
+        propertyService.register(propertyRequest(2000000100L), user);
+        PropertyRequest duplicate = propertyRequest(2000000100L);
+        duplicate.setAddress("Carrera 7 #12-30");
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> propertyService.register(duplicate, user));
+
+        assertEquals("The property already exists", exception.getMessage());
+        assertEquals(1, propertyRepository.count());
+        assertEquals("Calle 123 #45-67", propertyRepository.findByRegistryNumber(2000000100L).orElseThrow().getAddress());
+        assertEquals(1, events.size());
+    }
+}
@@ -6,6 +6,7 @@ import com.juan.property.property_recommendation.auth.service.AuthService;
 import com.juan.property.property_recommendation.location.City;
 import com.juan.property.property_recommendation.property.OperationType;
 import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
 import com.juan.property.property_recommendation.property.PropertyController;
 import com.juan.property.property_recommendation.property.dto.PropertyRequest;
 import com.juan.property.property_recommendation.property.dto.PropertyResponse;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -35,6 +37,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 
 @WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
 public class RegisterPropertyControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
@@ -1,10 +1,12 @@
 package com.juan.property.property_recommendation.register_property;
 
 import com.juan.property.property_recommendation.location.City;
-import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.LocationCatalog;
 import com.juan.property.property_recommendation.property.*;
 import com.juan.property.property_recommendation.property.dto.PropertyRequest;
 import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.PropertySearchCache;
+import com.juan.property.property_recommendation.property.search.PropertySearchEngine;
 import com.juan.property.property_recommendation.property.service.PropertyService;
 import com.juan.property.property_recommendation.user.DocumentType;
 import com.juan.property.property_recommendation.user.User;
@@ -14,10 +16,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static com.juan.property.property_recommendation.property.OperationType.SELL;
 import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
@@ -38,7 +44,16 @@ public class RegisterPropertyServiceTest {
     private PropertyMapper propertyMapper;
 
     @Mock
-    private CityRepository cityRepository;
+    private LocationCatalog locationCatalog;
+
+    @Mock
+    private PropertySearchEngine propertySearchEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PropertySearchCache propertySearchCache;
 
     @InjectMocks
     private PropertyService propertyService;
@@ -116,9 +131,9 @@ public class RegisterPropertyServiceTest {
 
     @Test
     public void testRegisterPropertySuccess(){
-        when(cityRepository.findById(propertyRequest.getCityId())).thenReturn(Optional.of(city));
+        when(locationCatalog.citiesById()).thenReturn(Map.of(495, city));
         when(propertyMapper.dtoToProperty(propertyRequest)).thenReturn(property);
-        when(propertyRepository.save(property)).thenReturn(property);
+        when(propertyRepository.saveAndFlush(property)).thenReturn(property);
         when(propertyMapper.propertyToDto(property)).thenReturn(propertyResponse);
 
         PropertyResponse propertyResponse = propertyService.register(propertyRequest, user);
@@ -132,26 +147,46 @@ public class RegisterPropertyServiceTest {
     @Test
     public void testRegisterPropertyWithUnexistedCity(){
 
-        when(cityRepository.findById(propertyRequest.getCityId())).thenReturn(Optional.empty());
+        when(locationCatalog.citiesById()).thenReturn(Map.of());
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             propertyService.register(propertyRequest, user);
         });
         assertEquals("The city  does not exist", exception.getMessage());
-        verify(cityRepository, times(1)).findById(propertyRequest.getCityId());
-        verify(propertyRepository, never()).save(any());
+        verify(locationCatalog, times(1)).citiesById();
+        verify(propertyRepository, never()).saveAndFlush(any());
 
     }
 
     @Test
     public void testRegisterPropertyThatAlreadyExists(){
 
-        when(propertyRepository.findByRegistryNumber(propertyRequest.getRegistryNumber())).thenReturn(Optional.of(property));
+        when(locationCatalog.citiesById()).thenReturn(Map.of(495, city));
+        when(propertyMapper.dtoToProperty(propertyRequest)).thenReturn(property);
+        when(propertyRepository.saveAndFlush(property)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation", new SQLException("duplicate", "23505"),
+                        "insert into property", ConstraintViolationException.ConstraintKind.UNIQUE, "uk_registry_number")));
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             propertyService.register(propertyRequest, user);
         });
         assertEquals("The property already exists", exception.getMessage());
-        verify(propertyRepository, times(1)).findByRegistryNumber(propertyRequest.getRegistryNumber());
-        verify(propertyRepository, never()).save(any());
+        verify(propertyRepository, never()).findByRegistryNumber(any());
+        verify(eventPublisher, never()).publishEvent(any());
+
+    }
+
+    @Test
+    public void testRegisterPropertyOtherIntegrityViolationIsNotADuplicate(){
+
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("NULL not allowed", new SQLException("null", "23502"),
+                        "insert into property", ConstraintViolationException.ConstraintKind.OTHER, null));
+        when(locationCatalog.citiesById()).thenReturn(Map.of(495, city));
+        when(propertyMapper.dtoToProperty(propertyRequest)).thenReturn(property);
+        when(propertyRepository.saveAndFlush(property)).thenThrow(violation);
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+            propertyService.register(propertyRequest, user);
+        });
+        assertEquals(violation, exception);
 
     }
 
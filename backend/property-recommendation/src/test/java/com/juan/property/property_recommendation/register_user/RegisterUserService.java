@@ -2,6 +2,7 @@ package com.juan.property.property_recommendation.register_user;
 
 
 import com.juan.property.property_recommendation.auth.AuthMapper;
+import com.juan.property.property_recommendation.auth.PasswordHasher;
 import com.juan.property.property_recommendation.auth.dto.RegisterRequest;
 import com.juan.property.property_recommendation.auth.dto.RegisterResponse;
 import com.juan.property.property_recommendation.auth.service.AuthService;
@@ -37,6 +38,9 @@ public class RegisterUserService {
     @Mock
     private AuthMapper authMapper;
 
+    @Mock
+    private PasswordHasher passwordHasher;
+
     private RegisterRequest validRequest;
     private User user;
     private RegisterResponse response;
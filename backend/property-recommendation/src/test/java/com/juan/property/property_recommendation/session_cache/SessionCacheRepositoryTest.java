@@ -0,0 +1,100 @@
+package com.juan.property.property_recommendation.session_cache;
+
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionCacheUserListener;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The cache only hears of committed changes, so the data is committed and removed afterwards
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({SessionCache.class, SessionCacheUserListener.class, SimpleMeterRegistry.class})
+public class SessionCacheRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionCache sessionCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private User other;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        other = userRepository.save(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234358L)
+                .firstName("Maria")
+                .lastName("Gomez")
+                .email("maria@gmail.com")
+                .phoneNumber(3138785645L)
+                .password("contraseña456")
+                .build());
+        sessionCache.put("token-1", user, sessionCache.generation());
+        sessionCache.put("token-2", other, sessionCache.generation());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        sessionCache.invalidate("token-1");
+        sessionCache.invalidate("token-2");
+    }
+
+    @Test
+    public void testCommittedUserChangeInvalidatesItsSessions() {
+        user.setPhoneNumber(3001112233L);
+        userRepository.save(user);
+
+        assertFalse(sessionCache.get("token-1").isPresent());
+        assertTrue(sessionCache.get("token-2").isPresent());
+    }
+
+    @Test
+    public void testDeletedUserInvalidatesItsSessions() {
+        userRepository.delete(user);
+
+        assertFalse(sessionCache.get("token-1").isPresent());
+        assertTrue(sessionCache.get("token-2").isPresent());
+    }
+
+    @Test
+    public void testRolledBackUserChangeKeepsItsSessions() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User found = userRepository.findById(user.getId()).orElseThrow();
+            found.setPhoneNumber(3001112233L);
+            userRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertTrue(sessionCache.get("token-1").isPresent());
+    }
+}
@@ -0,0 +1,200 @@
+package com.juan.property.property_recommendation.session_cache;
+
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private SessionCache cache;
+    private User juan;
+    private User maria;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new SessionCache(2, Duration.ofMinutes(30), meterRegistry, clock);
+        juan = User.builder()
+                .id(1)
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Juan")
+                .lastName("Pérez")
+                .email("juan@example.com")
+                .phoneNumber(3001234567L)
+                .password("MTIzNDU2")
+                .build();
+        maria = User.builder().id(2).email("maria@example.com").build();
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    @Test
+    public void testCachedTokenReturnsASnapshotOfTheUser() {
+        cache.put("token-1", juan, cache.generation());
+
+        User user = cache.get("token-1").orElseThrow();
+        assertEquals(1, user.getId());
+        assertEquals("juan@example.com", user.getEmail());
+        assertEquals(3001234567L, user.getPhoneNumber());
+        assertNull(user.getPassword());
+        assertEquals(1, count("auth.session.cache.requests", "result", "hit"));
+    }
+
+    @Test
+    public void testHitsReturnTheSameResult() {
+        cache.put("token-1", juan, cache.generation());
+
+        Optional<User> first = cache.get("token-1");
+        assertSame(first, cache.get("token-1"));
+    }
+
+    @Test
+    public void testMissIsCounted() {
+        assertFalse(cache.get("unknown").isPresent());
+        assertEquals(1, count("auth.session.cache.requests", "result", "miss"));
+    }
+
+    @Test
+    public void testHitRatioIsPublished() {
+        cache.put("token-1", juan, cache.generation());
+        cache.get("token-1");
+        cache.get("token-1");
+        cache.get("token-1");
+        cache.get("unknown");
+
+        assertEquals(0.75, meterRegistry.get("auth.session.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    public void testOldestEntryIsEvictedWhenFull() {
+        cache.put("token-1", juan, cache.generation());
+        clock.advance(Duration.ofSeconds(1));
+        cache.put("token-2", maria, cache.generation());
+        clock.advance(Duration.ofSeconds(1));
+        cache.put("token-3", juan, cache.generation());
+
+        assertEquals(2, cache.size());
+        assertFalse(cache.get("token-1").isPresent());
+        assertTrue(cache.get("token-2").isPresent());
+        assertTrue(cache.get("token-3").isPresent());
+        assertEquals(1, count("auth.session.cache.evictions", "cause", "size"));
+    }
+
+    @Test
+    public void testEntryExpiresAfterTtl() {
+        cache.put("token-1", juan, cache.generation());
+        clock.advance(Duration.ofMinutes(30));
+
+        assertFalse(cache.get("token-1").isPresent());
+        assertEquals(0, cache.size());
+        assertEquals(1, count("auth.session.cache.evictions", "cause", "expired"));
+    }
+
+    @Test
+    public void testEntryExpiresWithItsSessionBeforeTheTtl() {
+        cache.put("token-1", juan, cache.generation(), clock.millis() + Duration.ofMinutes(5).toMillis());
+        clock.advance(Duration.ofMinutes(5).minusSeconds(1));
+        assertTrue(cache.get("token-1").isPresent());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertFalse(cache.get("token-1").isPresent());
+    }
+
+    @Test
+    public void testExpiredSessionIsNotCached() {
+        cache.put("token-1", juan, cache.generation(), clock.millis());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLogoutInvalidatesOnlyThatToken() {
+        cache.put("token-1", juan, cache.generation());
+        cache.put("token-2", juan, cache.generation());
+        cache.invalidate("token-1");
+
+        assertFalse(cache.get("token-1").isPresent());
+        assertTrue(cache.get("token-2").isPresent());
+        assertEquals(1, count("auth.session.cache.evictions", "cause", "invalidated"));
+    }
+
+    @Test
+    public void testUserChangeInvalidatesEveryTokenOfTheUser() {
+        cache.put("token-1", juan, cache.generation());
+        cache.put("token-2", maria, cache.generation());
+        cache.put("token-3", juan, cache.generation());
+        cache.invalidateUser(1);
+
+        assertFalse(cache.get("token-1").isPresent());
+        assertTrue(cache.get("token-2").isPresent());
+        assertFalse(cache.get("token-3").isPresent());
+    }
+
+    @Test
+    public void testSessionReadBeforeAnInvalidationIsNotStored() {
+        long generation = cache.generation();
+        cache.invalidate("token-1");
+        cache.put("token-1", juan, generation);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidatedEntriesDoNotEvictLiveOnes() {
+        for (int i = 0; i < 10; i++) {
+            cache.put("token-" + i, juan, cache.generation());
+            cache.invalidate("token-" + i);
+        }
+        cache.put("live-1", juan, cache.generation());
+        cache.put("live-2", maria, cache.generation());
+
+        assertTrue(cache.get("live-1").isPresent());
+        assertTrue(cache.get("live-2").isPresent());
+        assertEquals(0, count("auth.session.cache.evictions", "cause", "size"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
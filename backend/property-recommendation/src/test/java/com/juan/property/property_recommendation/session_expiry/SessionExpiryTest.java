@@ -0,0 +1,69 @@
+package com.juan.property.property_recommendation.session_expiry;
+
+import com.juan.property.property_recommendation.auth.SessionExpiry;
+import com.juan.property.property_recommendation.auth.SessionToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionExpiryTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final SessionExpiry expiry = new SessionExpiry(Duration.ofDays(7), Duration.ofHours(2), Duration.ofMinutes(5),
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    private final LocalDateTime now = expiry.now();
+
+    private static SessionToken session(LocalDateTime createdAt, LocalDateTime lastUsedAt) {
+        return SessionToken.builder().token("token").createdAt(createdAt).lastUsedAt(lastUsedAt).build();
+    }
+
+    @Test
+    public void testSessionExpiresAfterTheAbsoluteTtlEvenIfUsed() {
+        assertFalse(expiry.expired(session(now.minusDays(7).plusSeconds(1), now), now));
+        assertTrue(expiry.expired(session(now.minusDays(7), now), now));
+    }
+
+    @Test
+    public void testSessionExpiresAfterTheIdleTtl() {
+        assertFalse(expiry.expired(session(now.minusDays(1), now.minusHours(2).plusSeconds(1)), now));
+        assertTrue(expiry.expired(session(now.minusDays(1), now.minusHours(2)), now));
+    }
+
+    @Test
+    public void testSessionWithoutLastUseIsIdleSinceItWasCreated() {
+        assertFalse(expiry.expired(session(now.minusHours(1), null), now));
+        assertTrue(expiry.expired(session(now.minusHours(2), null), now));
+        assertTrue(expiry.expired(session(null, null), now));
+    }
+
+    @Test
+    public void testTouchIsDueAfterTheInterval() {
+        assertFalse(expiry.touchDue(session(now.minusHours(1), now.minusMinutes(4)), now));
+        assertTrue(expiry.touchDue(session(now.minusHours(1), now.minusMinutes(5)), now));
+    }
+
+    @Test
+    public void testSessionIsCachedUntilItsNextTouchOrItsAbsoluteExpiry() {
+        assertEquals(NOW.plus(Duration.ofMinutes(5)).toEpochMilli(), expiry.cacheUntil(session(now.minusHours(1), now)));
+        assertEquals(NOW.plus(Duration.ofMinutes(1)).toEpochMilli(),
+                expiry.cacheUntil(session(now.minusDays(7).plusMinutes(1), now)));
+    }
+
+    @Test
+    public void testTouchIntervalMustBeShorterThanTheIdleTtl() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new SessionExpiry(Duration.ofDays(7), Duration.ofMinutes(5), Duration.ofMinutes(5)));
+        assertEquals("auth.session.touch-interval must be positive and shorter than auth.session.idle-ttl",
+                exception.getMessage());
+    }
+}
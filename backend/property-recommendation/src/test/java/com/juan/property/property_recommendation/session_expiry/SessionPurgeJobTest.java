@@ -0,0 +1,138 @@
+package com.juan.property.property_recommendation.session_expiry;
+
+import com.juan.property.property_recommendation.auth.SessionExpiry;
+import com.juan.property.property_recommendation.auth.SessionPurgeJob;
+import com.juan.property.property_recommendation.auth.SessionToken;
+import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.support.SqlStatementCounter;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every batch commits on its own, so the data is committed and removed afterwards
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SqlStatementCounter.class)
+public class SessionPurgeJobTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionTokenRepository sessionTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionPurgeJob purgeJob;
+    private LocalDateTime now;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        SessionExpiry expiry = new SessionExpiry(Duration.ofDays(7), Duration.ofHours(2), Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        meterRegistry = new SimpleMeterRegistry();
+        purgeJob = new SessionPurgeJob(2, sessionTokenRepository, expiry, transactionManager, meterRegistry);
+        now = expiry.now();
+        user = userRepository.save(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sessionTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private SessionToken session(String token, LocalDateTime createdAt, LocalDateTime lastUsedAt) {
+        return SessionToken.builder().token(token).user(user).createdAt(createdAt).lastUsedAt(lastUsedAt).build();
+    }
+
+    private Set<String> remaining() {
+        return sessionTokenRepository.findAll().stream().map(SessionToken::getToken).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testExpiredSessionsAreDeletedAndLiveOnesKept() {
+        // Live and expired sessions alternate in createdAt order, so later batches have to step over the live ones
+        List<SessionToken> sessions = new ArrayList<>();
+        sessions.add(session("absolute-1", now.minusDays(9), now.minusMinutes(1)));
+        sessions.add(session("idle-1", now.minusDays(8), now.minusDays(8)));
+        sessions.add(session("absolute-2", now.minusDays(7), now));
+        sessions.add(session("live-1", now.minusDays(3), now.minusMinutes(30)));
+        sessions.add(session("idle-2", now.minusDays(2), now.minusHours(3)));
+        sessions.add(session("live-2", now.minusDays(1), now.minusMinutes(1)));
+        sessions.add(session("idle-3", now.minusHours(5), null));
+        sessions.add(session("live-3", now.minusHours(1), null));
+        sessions.add(session("live-4", now.minusMinutes(1), now.minusMinutes(1)));
+        sessionTokenRepository.saveAll(sessions);
+
+        assertEquals(5, purgeJob.purge());
+
+        assertEquals(Set.of("live-1", "live-2", "live-3", "live-4"), remaining());
+        assertEquals(5, meterRegistry.get("auth.session.purge.deleted").counter().count());
+        assertEquals(4, meterRegistry.get("auth.session.live").gauge().value());
+        assertEquals(1, meterRegistry.get("auth.session.purge.duration").timer().count());
+    }
+
+    @Test
+    public void testSessionsAreDeletedInBoundedBatches() {
+        List<SessionToken> sessions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sessions.add(session("expired-" + i, now.minusDays(10).plusMinutes(i), null));
+        }
+        sessionTokenRepository.saveAll(sessions);
+
+        SqlStatementCounter.reset();
+        assertEquals(5, purgeJob.purge());
+
+        // Three batches of at most two rows, each a select and a delete, and the count of live sessions
+        assertEquals(3 * 2 + 1, SqlStatementCounter.statements());
+        assertEquals(Set.of(), remaining());
+        assertEquals(0, meterRegistry.get("auth.session.live").gauge().value());
+    }
+
+    @Test
+    public void testNothingToPurge() {
+        sessionTokenRepository.save(session("live", now.minusMinutes(1), now.minusMinutes(1)));
+
+        assertEquals(0, purgeJob.purge());
+
+        assertEquals(Set.of("live"), remaining());
+        assertEquals(0, meterRegistry.get("auth.session.purge.rate").gauge().value());
+        assertEquals(1, meterRegistry.get("auth.session.live").gauge().value());
+    }
+}
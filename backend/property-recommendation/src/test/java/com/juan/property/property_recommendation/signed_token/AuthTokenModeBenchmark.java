@@ -0,0 +1,137 @@
+package com.juan.property.property_recommendation.signed_token;
+
+import com.juan.property.property_recommendation.auth.AuthMapper;
+import com.juan.property.property_recommendation.auth.AuthTokenMode;
+import com.juan.property.property_recommendation.auth.PasswordHasher;
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionExpiry;
+import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
+import com.juan.property.property_recommendation.auth.dto.AuthRequest;
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.support.SqlStatementCounter;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SqlStatementCounter.class)
+public class AuthTokenModeBenchmark {
+
+    private static final int THREADS = 4;
+    private static final int LOGINS = 200;
+    private static final int AUTHENTICATIONS = 50_000;
+    private static final String PASSWORD = "contraseña123";
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionTokenRepository sessionTokenRepository;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository.save(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password(Base64.getEncoder().encodeToString(PASSWORD.getBytes()))
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sessionTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // The token modes are compared, so the password hash is kept cheap
+    private AuthService authService(AuthTokenMode mode, int cachedSessions) {
+        return new AuthService(userRepository, sessionTokenRepository, new AuthMapper(),
+                new SessionCache(cachedSessions, Duration.ofMinutes(30), new SimpleMeterRegistry()),
+                new SignedSessionTokens(mode, SECRET, Duration.ofHours(12)),
+                new SessionExpiry(Duration.ofDays(7), Duration.ofHours(2), Duration.ofMinutes(5)),
+                new PasswordHasher(1_000, 1, 16, new SimpleMeterRegistry()));
+    }
+
+    // Every thread authenticates the tokens in turn, as requests of many users would
+    private double authenticate(AuthService authService, List<String> tokens) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t;
+                futures.add(executor.submit(SqlStatementCounter.counted(() -> {
+                    for (int i = 0; i < AUTHENTICATIONS / THREADS; i++) {
+                        assertTrue(authService.authenticate(tokens.get((offset + i) % tokens.size())).isPresent());
+                    }
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return AUTHENTICATIONS * 1e9 / (System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void measure(String name, AuthService authService) throws Exception {
+        AuthRequest request = new AuthRequest("pepito666@gmail.com", PASSWORD);
+        SqlStatementCounter.reset();
+        long start = System.nanoTime();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            tokens.add(authService.login(request));
+        }
+        double loginsPerSecond = LOGINS * 1e9 / (System.nanoTime() - start);
+        double loginStatements = (double) SqlStatementCounter.statements() / LOGINS;
+
+        authenticate(authService, tokens);
+        SqlStatementCounter.reset();
+        double authenticationsPerSecond = authenticate(authService, tokens);
+        double statements = (double) SqlStatementCounter.statements() / AUTHENTICATIONS;
+
+        System.out.printf("%-18s login %,8.0f/s (%.2f statements)  authenticate %,12.0f/s (%.2f statements)%n",
+                name, loginsPerSecond, loginStatements, authenticationsPerSecond, statements);
+    }
+
+    @Test
+    public void benchmarkTokenModes() throws Exception {
+        measure("database", authService(AuthTokenMode.DATABASE, 0));
+        measure("database + cache", authService(AuthTokenMode.DATABASE, 10_000));
+        measure("signed", authService(AuthTokenMode.SIGNED, 0));
+
+        // Signed tokens leave the session table untouched
+        assertEquals(2L * LOGINS, sessionTokenRepository.count());
+    }
+}
@@ -0,0 +1,168 @@
+package com.juan.property.property_recommendation.signed_token;
+
+import com.juan.property.property_recommendation.auth.AuthTokenMode;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SignedSessionTokensTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+
+    private MutableClock clock;
+    private SignedSessionTokens tokens;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock();
+        tokens = new SignedSessionTokens(AuthTokenMode.SIGNED, SECRET, Duration.ofHours(12), clock);
+        user = User.builder()
+                .id(42)
+                .firstName("Juan")
+                .email("juan@example.com")
+                .phoneNumber(3001234567L)
+                .password("MTIzNDU2")
+                .build();
+    }
+
+    @Test
+    public void testIssuedTokenVerifiesToItsUser() {
+        User verified = tokens.verify(tokens.issue(user)).orElseThrow();
+
+        assertEquals(42, verified.getId());
+        assertEquals("juan@example.com", verified.getEmail());
+        assertEquals(3001234567L, verified.getPhoneNumber());
+        assertNull(verified.getPassword());
+    }
+
+    @Test
+    public void testEveryLoginGetsADifferentToken() {
+        assertNotEquals(tokens.issue(user), tokens.issue(user));
+    }
+
+    @Test
+    public void testTokenIsCheckedOnAnotherNodeWithTheSameSecret() {
+        SignedSessionTokens otherNode = new SignedSessionTokens(AuthTokenMode.SIGNED, SECRET, Duration.ofHours(12), clock);
+        SignedSessionTokens otherSecret = new SignedSessionTokens(AuthTokenMode.SIGNED, OTHER_SECRET, Duration.ofHours(12), clock);
+        String token = tokens.issue(user);
+
+        assertTrue(otherNode.verify(token).isPresent());
+        assertFalse(otherSecret.verify(token).isPresent());
+    }
+
+    @Test
+    public void testChangedClaimsAreRejected() {
+        String token = tokens.issue(user);
+        String[] parts = token.split("\\.");
+        byte[] claims = Base64.getUrlDecoder().decode(parts[0]);
+        // The last byte of the user id
+        claims[4]++;
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(claims) + "." + parts[1];
+
+        assertFalse(tokens.verify(forged).isPresent());
+    }
+
+    @Test
+    public void testMalformedTokensAreRejected() {
+        String token = tokens.issue(user);
+
+        assertFalse(tokens.verify("9b2f6c1e-2a4b-4c1d-8e2f-0a1b2c3d4e5f").isPresent());
+        assertFalse(tokens.verify(token + ".extra").isPresent());
+        assertFalse(tokens.verify(token.substring(0, token.length() - 2)).isPresent());
+        assertFalse(tokens.verify("." + token.substring(token.indexOf('.') + 1)).isPresent());
+        assertFalse(tokens.verify("%%%." + token.substring(token.indexOf('.') + 1)).isPresent());
+    }
+
+    @Test
+    public void testTokenExpiresAfterTtl() {
+        String token = tokens.issue(user);
+        clock.advance(Duration.ofHours(12).minusSeconds(1));
+        assertTrue(tokens.verify(token).isPresent());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertFalse(tokens.verify(token).isPresent());
+    }
+
+    @Test
+    public void testRevokedTokenIsRejectedAndOthersAreNot() {
+        String revoked = tokens.issue(user);
+        String other = tokens.issue(user);
+        tokens.revoke(revoked);
+
+        assertFalse(tokens.verify(revoked).isPresent());
+        assertTrue(tokens.verify(other).isPresent());
+    }
+
+    @Test
+    public void testRevocationListOnlyKeepsTokensThatHaveNotExpired() {
+        tokens.revoke(tokens.issue(user));
+        tokens.revoke(tokens.issue(user));
+        assertEquals(2, tokens.revokedCount());
+
+        clock.advance(Duration.ofHours(12));
+        tokens.revoke(tokens.issue(user));
+        assertEquals(1, tokens.revokedCount());
+    }
+
+    @Test
+    public void testForgedTokenIsNotRevoked() {
+        tokens.revoke("not.a-token");
+
+        assertEquals(0, tokens.revokedCount());
+    }
+
+    @Test
+    public void testShortSecretIsRefused() {
+        String shortSecret = Base64.getEncoder().encodeToString("short".getBytes());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new SignedSessionTokens(AuthTokenMode.SIGNED, shortSecret, Duration.ofHours(12), clock));
+        assertEquals("auth.token.secret must be at least 32 bytes in Base64", exception.getMessage());
+    }
+
+    @Test
+    public void testDatabaseModeIsNotEnabled() {
+        assertFalse(new SignedSessionTokens(AuthTokenMode.DATABASE, "", Duration.ofHours(12), clock).enabled());
+        assertTrue(tokens.enabled());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.juan.property.property_recommendation.signed_token;
+
+import com.juan.property.property_recommendation.auth.AuthMapper;
+import com.juan.property.property_recommendation.auth.AuthTokenMode;
+import com.juan.property.property_recommendation.auth.PasswordHasher;
+import com.juan.property.property_recommendation.auth.SessionCache;
+import com.juan.property.property_recommendation.auth.SessionExpiry;
+import com.juan.property.property_recommendation.auth.SessionTokenRepository;
+import com.juan.property.property_recommendation.auth.SignedSessionTokens;
+import com.juan.property.property_recommendation.auth.dto.AuthRequest;
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SignedTokenAuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SessionTokenRepository sessionTokenRepository;
+
+    @Mock
+    private SessionCache sessionCache;
+
+    private AuthService authService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String secret = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+        authService = new AuthService(userRepository, sessionTokenRepository, new AuthMapper(), sessionCache,
+                new SignedSessionTokens(AuthTokenMode.SIGNED, secret, Duration.ofHours(12)),
+                new SessionExpiry(Duration.ofDays(7), Duration.ofHours(2), Duration.ofMinutes(5)),
+                new PasswordHasher(1_000, 1, 16, new SimpleMeterRegistry()));
+        user = User.builder()
+                .id(7)
+                .email("juan@example.com")
+                .phoneNumber(3001234567L)
+                .password(Base64.getEncoder().encodeToString("123456".getBytes()))
+                .build();
+    }
+
+    @Test
+    void testLoginIssuesATokenWithoutStoringASession() {
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.of(user));
+
+        String token = authService.login(new AuthRequest("juan@example.com", "123456"));
+
+        assertTrue(token.contains("."));
+        verifyNoInteractions(sessionTokenRepository, sessionCache);
+    }
+
+    @Test
+    void testAuthenticateChecksTheTokenWithoutLookups() {
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.of(user));
+        String token = authService.login(new AuthRequest("juan@example.com", "123456"));
+
+        Optional<User> authenticated = authService.authenticate(token);
+
+        assertTrue(authenticated.isPresent());
+        assertEquals(7, authenticated.get().getId());
+        assertEquals("juan@example.com", authenticated.get().getEmail());
+        verifyNoInteractions(sessionTokenRepository, sessionCache);
+    }
+
+    @Test
+    void testDatabaseTokenIsNotAcceptedInSignedMode() {
+        assertFalse(authService.authenticate("9b2f6c1e-2a4b-4c1d-8e2f-0a1b2c3d4e5f").isPresent());
+        verifyNoInteractions(sessionTokenRepository, sessionCache);
+    }
+
+    @Test
+    void testLogoutRevokesTheToken() {
+        when(userRepository.findByEmail("juan@example.com")).thenReturn(Optional.of(user));
+        String token = authService.login(new AuthRequest("juan@example.com", "123456"));
+
+        authService.logout(token);
+
+        assertFalse(authService.authenticate(token).isPresent());
+        verifyNoInteractions(sessionTokenRepository, sessionCache);
+    }
+}
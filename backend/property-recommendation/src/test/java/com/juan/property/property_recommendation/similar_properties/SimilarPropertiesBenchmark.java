@@ -0,0 +1,124 @@
+package com.juan.property.property_recommendation.similar_properties;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.SimilarPropertyIndex;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+public class SimilarPropertiesBenchmark {
+
+    private static final int K = 10;
+    private static final int QUERIES = 200;
+
+    static List<Property> buildListings(int listings) {
+        Random random = new Random(7);
+        User owner = User.builder().id(1).email("owner@example.com").phoneNumber(3001234567L).build();
+        List<City> cities = new ArrayList<>();
+        for (int d = 1; d <= 32; d++) {
+            Department department = Department.builder().id(d).name("Department " + d).build();
+            for (int c = 0; c < 35; c++) {
+                cities.add(City.builder().id(cities.size() + 1).name("City " + cities.size()).department(department).build());
+            }
+        }
+        List<Property> properties = new ArrayList<>(listings);
+        for (int i = 0; i < listings; i++) {
+            // A few large cities hold most of the listings, like Bogota and Medellin do
+            int city = random.nextInt(3) == 0 ? random.nextInt(cities.size()) : random.nextInt(5);
+            properties.add(Property.builder()
+                    .id((long) i)
+                    .registryNumber(1000000000L + i)
+                    .operationType(OperationType.values()[random.nextInt(3)])
+                    .address("Calle " + i)
+                    .price(BigDecimal.valueOf(80_000_000L + random.nextInt(900_000_000)))
+                    .area(30.0 + random.nextInt(300))
+                    .images(List.of("img1.jpg"))
+                    .numberOfBathrooms(1 + random.nextInt(4))
+                    .numberOfBedrooms(1 + random.nextInt(5))
+                    .propertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)])
+                    .city(cities.get(city))
+                    .user(owner)
+                    .build());
+        }
+        return properties;
+    }
+
+    static Set<Long> bruteForce(List<Property> properties, Property query) {
+        PriorityQueue<double[]> top = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0]));
+        for (Property property : properties) {
+            if (property == query) continue;
+            double distance = SimilarPropertyIndex.distance(query, property);
+            if (top.size() < K || distance < top.peek()[0]) {
+                top.add(new double[]{distance, property.getRegistryNumber()});
+                if (top.size() > K) top.poll();
+            }
+        }
+        Set<Long> registryNumbers = new HashSet<>();
+        top.forEach(entry -> registryNumbers.add((long) entry[1]));
+        return registryNumbers;
+    }
+
+    @ParameterizedTest(name = "{0} listings")
+    @ValueSource(ints = {100_000, 1_000_000})
+    public void benchmarkLatencyAndRecallAgainstBruteForce(int listings) {
+        List<Property> properties = buildListings(listings);
+        SimilarPropertyIndex index = new SimilarPropertyIndex(new PropertyMapper());
+        long loadStart = System.nanoTime();
+        index.load(sink -> properties.forEach(sink));
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        Random random = new Random(11);
+        List<Property> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(properties.get(random.nextInt(properties.size())));
+        }
+        for (Property query : queries) {
+            index.similar(query.getRegistryNumber(), K);
+        }
+
+        long[] indexNanos = new long[QUERIES];
+        long[] scanNanos = new long[QUERIES];
+        double recall = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            Property query = queries.get(i);
+            long start = System.nanoTime();
+            List<PropertyResponse> similar = index.similar(query.getRegistryNumber(), K).orElseThrow();
+            indexNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Set<Long> expected = bruteForce(properties, query);
+            scanNanos[i] = System.nanoTime() - start;
+
+            recall += similar.stream().filter(response -> expected.contains(response.getRegistryNumber())).count() / (double) K;
+        }
+        recall /= QUERIES;
+        Arrays.sort(indexNanos);
+        Arrays.sort(scanNanos);
+
+        System.out.printf("listings=%d load=%dms index p50=%dus p99=%dus brute force p50=%dus p99=%dus recall@%d=%.4f%n",
+                listings, loadMillis,
+                indexNanos[QUERIES / 2] / 1_000, indexNanos[QUERIES * 99 / 100] / 1_000,
+                scanNanos[QUERIES / 2] / 1_000, scanNanos[QUERIES * 99 / 100] / 1_000,
+                K, recall);
+        assertTrue(recall >= 0.99);
+    }
+}
@@ -0,0 +1,63 @@
+package com.juan.property.property_recommendation.similar_properties;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+public class SimilarPropertiesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @Test
+    public void testSimilarPropertiesWithDefaultLimit() throws Exception {
+        when(propertyService.findSimilar(100100200L, 10)).thenReturn(List.of(
+                PropertyResponse.builder().registryNumber(100100201L).build(),
+                PropertyResponse.builder().registryNumber(100100202L).build()));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/100100200/similar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].registryNumber").value(100100201L));
+    }
+
+    @Test
+    public void testUnknownPropertyIsNotFound() throws Exception {
+        when(propertyService.findSimilar(100100200L, 5)).thenThrow(new EntityNotFoundException("The property does not exist"));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/100100200/similar").param("limit", "5"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testInvalidLimitIsRejected() throws Exception {
+        when(propertyService.findSimilar(100100200L, 0)).thenThrow(new IllegalArgumentException("The limit must be between 1 and 100"));
+
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/properties/100100200/similar").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,126 @@
+package com.juan.property.property_recommendation.similar_properties;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyMapper;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.search.SimilarPropertyIndex;
+import com.juan.property.property_recommendation.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimilarPropertyIndexTest {
+
+    private final Random random = new Random(5);
+    private final List<City> cities = new ArrayList<>();
+    private final List<Property> properties = new ArrayList<>();
+    private final User owner = User.builder().id(1).email("owner@example.com").phoneNumber(3001234567L).build();
+    private SimilarPropertyIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        for (int d = 1; d <= 4; d++) {
+            Department department = Department.builder().id(d).name("Department " + d).build();
+            for (int c = 0; c < 5; c++) {
+                cities.add(City.builder().id(cities.size() + 1).name("City " + cities.size()).department(department).build());
+            }
+        }
+        for (int i = 0; i < 5_000; i++) {
+            properties.add(randomProperty());
+        }
+        index = new SimilarPropertyIndex(new PropertyMapper());
+        index.load(sink -> properties.forEach(sink));
+    }
+
+    private Property randomProperty() {
+        return Property.builder()
+                .id((long) properties.size())
+                .registryNumber(1000000000L + properties.size())
+                .operationType(OperationType.values()[random.nextInt(OperationType.values().length)])
+                .address("Calle " + properties.size())
+                .price(BigDecimal.valueOf(80_000_000L + random.nextInt(900_000_000)))
+                .area(random.nextInt(20) == 0 ? null : 30.0 + random.nextInt(300))
+                .images(List.of("img1.jpg"))
+                .numberOfBathrooms(random.nextInt(20) == 0 ? null : 1 + random.nextInt(4))
+                .numberOfBedrooms(1 + random.nextInt(5))
+                .propertyType(PropertyType.values()[random.nextInt(PropertyType.values().length)])
+                // Skewed so some cities are large and others almost empty
+                .city(cities.get((int) Math.min(cities.size() - 1, Math.abs(random.nextGaussian()) * 4)))
+                .user(owner)
+                .build();
+    }
+
+    private List<Long> bruteForce(Property query, int k) {
+        return properties.stream()
+                .filter(property -> !property.getRegistryNumber().equals(query.getRegistryNumber()))
+                .sorted(Comparator.comparingDouble(property -> SimilarPropertyIndex.distance(query, property)))
+                .limit(k)
+                .map(Property::getRegistryNumber)
+                .toList();
+    }
+
+    private List<Long> similar(Property query, int k) {
+        return index.similar(query.getRegistryNumber(), k).orElseThrow().stream()
+                .map(PropertyResponse::getRegistryNumber)
+                .toList();
+    }
+
+    @Test
+    public void testNeighboursMatchBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            Property query = properties.get(random.nextInt(properties.size()));
+            int k = 1 + random.nextInt(20);
+            assertEquals(bruteForce(query, k), similar(query, k), "query " + query.getRegistryNumber());
+        }
+    }
+
+    @Test
+    public void testNeighboursFromOtherDepartmentsFillSmallCities() {
+        // The last city gets no listings from the skewed distribution above
+        properties.add(randomProperty());
+        Property lonely = properties.get(properties.size() - 1);
+        lonely.setCity(cities.get(cities.size() - 1));
+        index.add(lonely);
+
+        assertEquals(bruteForce(lonely, 10), similar(lonely, 10));
+    }
+
+    @Test
+    public void testRegisteredPropertyBecomesANeighbour() {
+        Property query = properties.get(0);
+        Property twin = Property.builder()
+                .id(99_999L)
+                .registryNumber(1999999999L)
+                .operationType(query.getOperationType())
+                .address("Calle gemela")
+                .price(query.getPrice())
+                .area(query.getArea())
+                .images(List.of("img1.jpg"))
+                .numberOfBathrooms(query.getNumberOfBathrooms())
+                .numberOfBedrooms(query.getNumberOfBedrooms())
+                .propertyType(query.getPropertyType())
+                .city(query.getCity())
+                .user(owner)
+                .build();
+        index.add(twin);
+
+        assertEquals(twin.getRegistryNumber(), similar(query, 1).get(0));
+        assertFalse(similar(query, 50).contains(query.getRegistryNumber()));
+    }
+
+    @Test
+    public void testUnknownRegistryNumber() {
+        assertTrue(index.similar(1234567890123L, 10).isEmpty());
+    }
+}
@@ -0,0 +1,217 @@
+package com.juan.property.property_recommendation.sql_statement_count;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.juan.property.property_recommendation.auth.dto.AuthRequest;
+import com.juan.property.property_recommendation.auth.dto.RegisterRequest;
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.CityRepository;
+import com.juan.property.property_recommendation.location.DepartmentRepository;
+import com.juan.property.property_recommendation.location.LocationReeder;
+import com.juan.property.property_recommendation.property.OperationType;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertyType;
+import com.juan.property.property_recommendation.property.dto.PropertyRequest;
+import com.juan.property.property_recommendation.support.SqlStatementCounter;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import com.juan.property.property_recommendation.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements and fetched rows per endpoint call. The counts must not grow with the number of
+ * listings, so a change that adds a query per row (or per distinct city or owner) fails here.
+ */
+@SpringBootTest(properties = "property.search.cache.max-entries=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SqlStatementCounter.class)
+public class SqlStatementCountTest {
+
+    private static final int OWNERS = 10;
+    private static final int CITIES = 50;
+    private static final String EMAIL = "pepito666@gmail.com";
+    private static final String PASSWORD = "contraseña123";
+
+    private static int seededSize = -1;
+    private static long nextRegistryNumber = 1000000000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private LocationReeder locationReeder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private enum Endpoint {
+        FIND_ALL_PROPERTIES,
+        REGISTER_PROPERTY,
+        LOGIN,
+        DEPARTMENTS,
+        CITIES_BY_DEPARTMENT,
+        LOCATION_SEARCH
+    }
+
+    static Stream<Arguments> calls() {
+        // Grouped by size so the dataset is only rebuilt three times
+        List<Arguments> arguments = new ArrayList<>();
+        for (int size : new int[]{10, 1_000, 10_000}) {
+            for (Endpoint endpoint : Endpoint.values()) {
+                arguments.add(Arguments.of(size, endpoint));
+            }
+        }
+        return arguments.stream();
+    }
+
+    @ParameterizedTest(name = "{1} with {0} listings")
+    @MethodSource("calls")
+    public void testStatementAndRowCounts(int size, Endpoint endpoint) throws Exception {
+        ensureDataset(size);
+        long listings = propertyRepository.count();
+
+        switch (endpoint) {
+            case FIND_ALL_PROPERTIES -> assertCounts(get("/properties"), 1, listings);
+            // The session of the login is cached, so only the insert runs
+            case REGISTER_PROPERTY -> assertCounts(post("/properties")
+                    .header("X-Auth-Token", login())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(propertyRequest())), 1, 0);
+            case LOGIN -> assertCounts(post("/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new AuthRequest(EMAIL, PASSWORD))), 2, 1);
+            // Served from the location catalog loaded at startup
+            case DEPARTMENTS -> assertCounts(get("/location/departments"), 0, 0);
+            case CITIES_BY_DEPARTMENT -> assertCounts(
+                    get("/location/departments/" + departmentRepository.findAll().get(0).getId() + "/cities"), 0, 0);
+            case LOCATION_SEARCH -> assertCounts(get("/location/search").param("q", "bog"), 0, 0);
+        }
+    }
+
+    private void assertCounts(MockHttpServletRequestBuilder request, long statements, long rows) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        assertEquals(statements, SqlStatementCounter.statements(), "SQL statements");
+        assertEquals(rows, SqlStatementCounter.rows(), "Rows fetched");
+    }
+
+    private String login() throws Exception {
+        String body = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest(EMAIL, PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    private PropertyRequest propertyRequest() {
+        return PropertyRequest.builder()
+                .registryNumber(nextRegistryNumber++)
+                .operationType(OperationType.SELL)
+                .address("Calle 123 #45-67")
+                .price(BigDecimal.valueOf(350_000_000))
+                .area(120.0)
+                .images(List.of("img1.jpg", "img2.jpg"))
+                .numberOfBathrooms(2)
+                .numberOfBedrooms(3)
+                .propertyType(PropertyType.HOUSE)
+                .cityId(cityRepository.findAll().get(0).getId())
+                .build();
+    }
+
+    private void ensureDataset(int size) throws Exception {
+        if (seededSize == size) {
+            return;
+        }
+        // Departments and cities are seeded in the background after startup
+        locationReeder.seeded().get(30, TimeUnit.SECONDS);
+        if (userRepository.findByEmail(EMAIL).isEmpty()) {
+            mockMvc.perform(post("/auth/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new RegisterRequest(DocumentType.CC, 1001234357L,
+                            "Pepito juan", "Perez rodriguez", EMAIL, PASSWORD, 3138785644L))))
+                    .andExpect(status().isCreated());
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            propertyRepository.deleteAllInBatch();
+            List<City> cities = cityRepository.findAll().subList(0, CITIES);
+            List<User> owners = new ArrayList<>();
+            for (int i = 0; i < OWNERS; i++) {
+                String email = "owner" + i + "@gmail.com";
+                owners.add(userRepository.findByEmail(email).orElseGet(() -> userRepository.save(User.builder()
+                        .documentType(DocumentType.CC)
+                        .documentNumber(2000000000L + owners.size())
+                        .firstName("Owner")
+                        .lastName("Test")
+                        .email(email)
+                        .phoneNumber(3000000000L + owners.size())
+                        .password(PASSWORD)
+                        .build())));
+            }
+            for (int i = 0; i < size; i++) {
+                entityManager.persist(Property.builder()
+                        .registryNumber(nextRegistryNumber++)
+                        .operationType(OperationType.values()[i % OperationType.values().length])
+                        .address("Calle " + i)
+                        .price(BigDecimal.valueOf(100_000_000L + i * 1_000L))
+                        .area(40.0 + i % 200)
+                        .images(List.of("img1.jpg"))
+                        .numberOfBathrooms(1 + i % 3)
+                        .numberOfBedrooms(1 + i % 4)
+                        .propertyType(PropertyType.values()[i % PropertyType.values().length])
+                        .city(cities.get(i % CITIES))
+                        .user(owners.get(i % OWNERS))
+                        .build());
+                if (i % 500 == 499) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        seededSize = size;
+    }
+}
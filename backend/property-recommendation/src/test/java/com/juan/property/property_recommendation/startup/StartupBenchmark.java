@@ -0,0 +1,252 @@
+package com.juan.property.property_recommendation.startup;
+
+import com.juan.property.property_recommendation.PropertyRecommendationApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplicationAotProcessor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Launches the application in fresh JVMs and reports the time from JVM launch to context refresh, to readiness and
+ * to the first GET /properties response, in four modes: plain, with an AppCDS archive from a training run, with
+ * Spring AOT initializers, and with both (the fast-start mode of fast-start.sh). Everything runs from jars, as CDS
+ * only archives classes loaded from jars, on the H2 test profile.
+ */
+@Tag("benchmark")
+public class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 3);
+    private static final Path WORK = Path.of("target", "startup-benchmark");
+    private static final String[] APPLICATION_ARGS = {
+            "--spring.profiles.active=test",
+            "--server.port=0",
+            "--logging.level.root=WARN",
+            "--spring.datasource.url=jdbc:h2:mem:startup_benchmark"
+    };
+
+    @Test
+    public void benchmarkStartup() throws Exception {
+        Files.createDirectories(WORK);
+        List<String> dependencies = new ArrayList<>();
+        Path classes = null;
+        Path testClasses = null;
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = Path.of(entry);
+            if (entry.endsWith(".jar")) {
+                dependencies.add(entry);
+            } else if (path.endsWith("test-classes")) {
+                testClasses = path;
+            } else if (path.endsWith("classes")) {
+                classes = path;
+            }
+        }
+        assertTrue(classes != null && testClasses != null, "target/classes and target/test-classes must be on the classpath");
+
+        // The probe goes in a jar of its own: the rest of the test classes would be picked up by component scanning
+        Path probePackage = testClasses.resolve(StartupProbe.class.getPackageName().replace('.', '/'));
+        Path probeJar = jar(WORK.resolve("probe.jar"), List.of(testClasses),
+                path -> path.startsWith(probePackage) && path.getFileName().toString().startsWith("StartupProbe"));
+        Path applicationJar = jar(WORK.resolve("application.jar"), List.of(classes), path -> true);
+        String classpath = String.join(File.pathSeparator, probeJar.toString(), applicationJar.toString(),
+                String.join(File.pathSeparator, dependencies));
+        String aotClasspath = processAot(applicationJar, dependencies) + File.pathSeparator + classpath;
+
+        // Warms the file cache so the first measured mode is not penalized
+        launch(classpath, List.of());
+
+        Measurement plain = measure("default", classpath, List.of());
+        Measurement cds = measure("AppCDS", classpath, train(classpath, List.of(), "default.jsa"));
+        List<String> aot = List.of("-Dspring.aot.enabled=true");
+        Measurement aotOnly = measure("AOT", aotClasspath, aot);
+        Measurement fastStart = measure("AOT + AppCDS", aotClasspath, train(aotClasspath, aot, "fast-start.jsa"));
+
+        System.out.printf("Startup, median of %d runs, ms since JVM launch%n", RUNS);
+        System.out.printf("%-14s %10s %10s %16s%n", "mode", "refresh", "ready", "first response");
+        for (Measurement measurement : List.of(plain, cds, aotOnly, fastStart)) {
+            System.out.printf("%-14s %10d %10d %16d%n", measurement.mode(), measurement.refresh(), measurement.ready(),
+                    measurement.firstResponse());
+        }
+        System.out.printf("Fast start answers the first request %.0f%% sooner%n",
+                100.0 * (plain.firstResponse() - fastStart.firstResponse()) / plain.firstResponse());
+        for (Measurement measurement : List.of(plain, fastStart)) {
+            System.out.println("Slowest startup steps, " + measurement.mode() + " (ms, nested steps included):");
+            measurement.steps().forEach(step -> System.out.println("  " + step));
+        }
+
+        assertTrue(fastStart.firstResponse() < plain.firstResponse(),
+                "Fast start took " + fastStart.firstResponse() + " ms against " + plain.firstResponse() + " ms");
+    }
+
+    private static Measurement measure(String mode, String classpath, List<String> jvmOptions) throws Exception {
+        List<long[]> results = new ArrayList<>();
+        List<String> steps = List.of();
+        for (int i = 0; i < RUNS; i++) {
+            Launch launch = launch(classpath, jvmOptions);
+            results.add(launch.result());
+            steps = launch.steps();
+        }
+        return new Measurement(mode, median(results, 0), median(results, 1), median(results, 2), steps);
+    }
+
+    // One full run that dumps every class it loaded, request handling included, into the archive
+    private static List<String> train(String classpath, List<String> jvmOptions, String archiveName) throws Exception {
+        Path archive = WORK.resolve(archiveName).toAbsolutePath();
+        Files.deleteIfExists(archive);
+        List<String> training = new ArrayList<>(jvmOptions);
+        training.add("-XX:ArchiveClassesAtExit=" + archive);
+        launch(classpath, training);
+        assertTrue(Files.exists(archive), "The training run did not write " + archive);
+        List<String> options = new ArrayList<>(jvmOptions);
+        options.add("-XX:SharedArchiveFile=" + archive);
+        return options;
+    }
+
+    /**
+     * Generates the AOT initializers the way the spring-boot-maven-plugin process-aot goal does, in a JVM that only
+     * sees the application classes, compiles them and returns the jar holding them.
+     */
+    private static Path processAot(Path applicationJar, List<String> dependencies) throws Exception {
+        Path aot = WORK.resolve("aot");
+        deleteRecursively(aot);
+        Path sources = aot.resolve("sources");
+        Path resources = aot.resolve("resources");
+        Path generatedClasses = aot.resolve("classes");
+        String classpath = applicationJar + File.pathSeparator + String.join(File.pathSeparator, dependencies);
+
+        List<String> arguments = new ArrayList<>(List.of(PropertyRecommendationApplication.class.getName(),
+                sources.toString(), resources.toString(), generatedClasses.toString(),
+                "com.juan.property", "property-recommendation"));
+        arguments.addAll(Arrays.asList(APPLICATION_ARGS));
+        Process process = new ProcessBuilder(command(classpath, List.of(), SpringApplicationAotProcessor.class.getName(), arguments))
+                .redirectErrorStream(true)
+                .redirectOutput(WORK.resolve("aot.log").toFile())
+                .start();
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES), "AOT processing timed out");
+        assertEquals(0, process.exitValue(), "AOT processing failed, see " + WORK.resolve("aot.log"));
+
+        List<String> javaFiles;
+        try (Stream<Path> files = Files.walk(sources)) {
+            javaFiles = files.filter(path -> path.toString().endsWith(".java")).map(Path::toString).toList();
+        }
+        List<String> options = new ArrayList<>(List.of("-cp", classpath, "-d", generatedClasses.toString(), "-parameters"));
+        options.addAll(javaFiles);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, options.toArray(new String[0])), "Generated AOT sources do not compile");
+        return jar(WORK.resolve("aot.jar"), List.of(generatedClasses, resources), path -> true).toAbsolutePath();
+    }
+
+    private static Launch launch(String classpath, List<String> jvmOptions) throws Exception {
+        Process process = new ProcessBuilder(command(classpath, jvmOptions, StartupProbe.class.getName(),
+                Arrays.asList(APPLICATION_ARGS)))
+                .redirectErrorStream(true)
+                .start();
+        List<String> output = new ArrayList<>();
+        long[] result = null;
+        List<String> steps = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.add(line);
+                if (line.startsWith(StartupProbe.PREFIX + "result ")) {
+                    result = Arrays.stream(line.substring((StartupProbe.PREFIX + "result ").length()).split(" "))
+                            .mapToLong(Long::parseLong).toArray();
+                } else if (line.startsWith(StartupProbe.PREFIX + "step ")) {
+                    steps.add(line.substring((StartupProbe.PREFIX + "step ").length()));
+                }
+            }
+        }
+        assertTrue(process.waitFor(2, TimeUnit.MINUTES), "The application did not stop");
+        if (process.exitValue() != 0 || result == null) {
+            throw new IllegalStateException("Startup probe failed:\n"
+                    + String.join("\n", output.subList(Math.max(0, output.size() - 40), output.size())));
+        }
+        return new Launch(result, steps);
+    }
+
+    private static List<String> command(String classpath, List<String> jvmOptions, String mainClass, List<String> arguments) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(mainClass);
+        command.addAll(arguments);
+        return command;
+    }
+
+    private static long median(List<long[]> results, int index) {
+        long[] values = results.stream().mapToLong(result -> result[index]).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    // Directory entries are written too, component scanning resolves packages through them
+    private static Path jar(Path jar, List<Path> roots, java.util.function.Predicate<Path> include) throws IOException {
+        Set<String> written = new HashSet<>();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Path root : roots) {
+                if (!Files.isDirectory(root)) {
+                    continue;
+                }
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(root)) {
+                    files = walk.filter(Files::isRegularFile).filter(include).sorted().toList();
+                }
+                for (Path file : files) {
+                    Path relative = root.relativize(file);
+                    for (int i = 1; i < relative.getNameCount(); i++) {
+                        String directory = relative.subpath(0, i).toString().replace(File.separatorChar, '/') + "/";
+                        if (written.add(directory)) {
+                            out.putNextEntry(new JarEntry(directory));
+                            out.closeEntry();
+                        }
+                    }
+                    String name = relative.toString().replace(File.separatorChar, '/');
+                    if (written.add(name)) {
+                        out.putNextEntry(new JarEntry(name));
+                        Files.copy(file, out);
+                        out.closeEntry();
+                    }
+                }
+            }
+        }
+        return jar.toAbsolutePath();
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : walk.sorted((a, b) -> b.getNameCount() - a.getNameCount()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private record Launch(long[] result, List<String> steps) {
+    }
+
+    private record Measurement(String mode, long refresh, long ready, long firstResponse, List<String> steps) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.juan.property.property_recommendation.startup;
+
+import com.juan.property.property_recommendation.PropertyRecommendationApplication;
+import com.juan.property.property_recommendation.location.LocationReeder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Run in a fresh JVM by {@link StartupBenchmark}: starts the application, waits until it is ready, serves one
+ * GET /properties and prints the times since the JVM was launched, followed by the slowest startup steps recorded by
+ * {@link BufferingApplicationStartup}.
+ */
+public final class StartupProbe {
+
+    static final String PREFIX = "STARTUP ";
+
+    private static final int TOP_STEPS = 12;
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long launchedAt = ManagementFactory.getRuntimeMXBean().getStartTime();
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(20_000);
+        SpringApplication application = new SpringApplication(PropertyRecommendationApplication.class);
+        // Also names the generated AOT initializer, which would otherwise be looked up for this class
+        application.setMainApplicationClass(PropertyRecommendationApplication.class);
+        application.setApplicationStartup(startup);
+        AtomicLong refreshedAt = new AtomicLong();
+        application.addListeners(event -> {
+            if (event instanceof ContextRefreshedEvent) {
+                refreshedAt.set(System.currentTimeMillis());
+            }
+        });
+
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            // Readiness is the readinessState published by run() plus the locationData indicator
+            context.getBean(LocationReeder.class).seeded().get(60, TimeUnit.SECONDS);
+            long readyAt = System.currentTimeMillis();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "/");
+            URI uri = URI.create("http://localhost:" + port + contextPath.replaceAll("/$", "") + "/properties");
+            HttpResponse<String> response = HttpClient.newHttpClient()
+                    .send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+            long respondedAt = System.currentTimeMillis();
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET /properties answered " + response.statusCode());
+            }
+
+            System.out.println(PREFIX + "result " + (refreshedAt.get() - launchedAt) + " " + (readyAt - launchedAt)
+                    + " " + (respondedAt - launchedAt));
+            printSlowestSteps(startup.getBufferedTimeline());
+        }
+    }
+
+    // Bean creation is reported per bean, every other step summed per name; nested steps are included in their parent
+    private static void printSlowestSteps(StartupTimeline timeline) {
+        Map<String, Long> steps = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            StartupStep step = event.getStartupStep();
+            String name = step.getName();
+            for (StartupStep.Tag tag : step.getTags()) {
+                if (name.equals("spring.beans.instantiate") && tag.getKey().equals("beanName")) {
+                    name = "bean " + tag.getValue();
+                }
+            }
+            steps.merge(name, event.getDuration().toMillis(), Long::sum);
+        }
+        steps.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP_STEPS)
+                .forEach(step -> System.out.println(PREFIX + "step " + step.getValue() + " " + step.getKey()));
+    }
+}
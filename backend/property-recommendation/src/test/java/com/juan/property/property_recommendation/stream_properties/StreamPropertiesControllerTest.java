@@ -0,0 +1,87 @@
+package com.juan.property.property_recommendation.stream_properties;
+
+import com.juan.property.property_recommendation.auth.service.AuthService;
+import com.juan.property.property_recommendation.property.PropertyCatalogVersion;
+import com.juan.property.property_recommendation.property.PropertyController;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.property.service.PropertyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PropertyController.class)
+@Import(PropertyCatalogVersion.class)
+public class StreamPropertiesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PropertyService propertyService;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            Consumer<PropertyResponse> consumer = invocation.getArgument(1);
+            consumer.accept(PropertyResponse.builder().registryNumber(1000000001L).build());
+            consumer.accept(PropertyResponse.builder().registryNumber(1000000002L).build());
+            return null;
+        }).when(propertyService).streamAll(any(PropertySpecification.class), any());
+    }
+
+    @Test
+    public void testStreamNdjson() throws Exception {
+        MvcResult result = this.mockMvc.perform(
+                MockMvcRequestBuilders.get("/properties")
+                        .param("cityId", "495")
+                        .accept(PropertyController.APPLICATION_NDJSON_VALUE)
+        ).andExpect(request().asyncStarted()).andReturn();
+
+        String body = this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PropertyController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"registryNumber\":1000000001"));
+        assertTrue(lines[1].contains("\"registryNumber\":1000000002"));
+        verify(propertyService, never()).findAll(any(PropertySpecification.class));
+    }
+
+    @Test
+    public void testStreamJsonArray() throws Exception {
+        MvcResult result = this.mockMvc.perform(
+                MockMvcRequestBuilders.get("/properties")
+                        .param("stream", "true")
+        ).andExpect(request().asyncStarted()).andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].registryNumber").value(1000000002L));
+        verify(propertyService, never()).findAll(any(PropertySpecification.class));
+    }
+}
@@ -0,0 +1,96 @@
+package com.juan.property.property_recommendation.stream_properties;
+
+import com.juan.property.property_recommendation.location.City;
+import com.juan.property.property_recommendation.location.Department;
+import com.juan.property.property_recommendation.property.Property;
+import com.juan.property.property_recommendation.property.PropertyRepository;
+import com.juan.property.property_recommendation.property.PropertySpecification;
+import com.juan.property.property_recommendation.property.dto.PropertyResponse;
+import com.juan.property.property_recommendation.user.DocumentType;
+import com.juan.property.property_recommendation.user.User;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.juan.property.property_recommendation.property.OperationType.LEASE;
+import static com.juan.property.property_recommendation.property.OperationType.SELL;
+import static com.juan.property.property_recommendation.property.PropertyType.HOUSE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+public class StreamPropertiesRepositoryTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @BeforeEach
+    public void setUp() {
+        User user = testEntityManager.persist(User.builder()
+                .documentType(DocumentType.CC)
+                .documentNumber(1001234357L)
+                .firstName("Pepito juan")
+                .lastName("Perez rodriguez")
+                .email("pepito666@gmail.com")
+                .phoneNumber(3138785644L)
+                .password("contraseña123")
+                .build());
+        Department department = testEntityManager.persist(Department.builder().name("Cundinamarca").build());
+        City city = testEntityManager.persist(City.builder().name("Bogota").department(department).build());
+
+        for (int i = 0; i < 25; i++) {
+            testEntityManager.persist(Property.builder()
+                    .registryNumber(1000000000L + i)
+                    .operationType(i % 2 == 0 ? SELL : LEASE)
+                    .address("Calle " + i)
+                    .price(BigDecimal.valueOf(100_000_000L + i))
+                    .area(50.0 + i)
+                    .images(List.of("img1.jpg"))
+                    .numberOfBathrooms(1)
+                    .numberOfBedrooms(2)
+                    .propertyType(HOUSE)
+                    .city(city)
+                    .user(user)
+                    .build());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    public void testStreamResponsesReturnsMatchingRowsInIdOrder() {
+        PropertySpecification spec = new PropertySpecification();
+        spec.setOperationType("sell");
+
+        List<Long> expected = propertyRepository.findAll(spec).stream()
+                .map(Property::getRegistryNumber).sorted().toList();
+        List<Long> actual;
+        try (Stream<PropertyResponse> properties = propertyRepository.streamResponses(spec, 5)) {
+            actual = properties.map(PropertyResponse::getRegistryNumber).toList();
+        }
+
+        assertEquals(13, actual.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testStreamResponsesDoesNotManageEntities() {
+        Session session = testEntityManager.getEntityManager().unwrap(Session.class);
+        try (Stream<PropertyResponse> properties = propertyRepository.streamResponses(new PropertySpecification(), 5)) {
+            properties.forEach(property -> {
+                assertEquals("Bogota", property.getCity().getName());
+                assertEquals("pepito666@gmail.com", property.getOwnerEmail());
+                assertEquals(0, session.getStatistics().getEntityCount());
+            });
+        }
+    }
+}
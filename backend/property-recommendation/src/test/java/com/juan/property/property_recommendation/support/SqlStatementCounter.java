@@ -0,0 +1,122 @@
+package com.juan.property.property_recommendation.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps the application {@link DataSource} in JDK proxies that count executed statements and fetched rows.
+ * Import it into a Spring Boot test and {@link #reset()} before the call being measured. Only the thread that called
+ * {@link #reset()} is counted, so the schedulers and background workers of the application do not add to a MockMvc
+ * call, which runs on the test thread. Tasks the test hands to threads of its own join the count through
+ * {@link #counted}.
+ */
+@TestConfiguration
+public class SqlStatementCounter {
+
+    private static final ThreadLocal<Counts> COUNTS = new ThreadLocal<>();
+
+    public static void reset() {
+        COUNTS.set(new Counts());
+    }
+
+    public static long statements() {
+        Counts counts = COUNTS.get();
+        return counts == null ? 0 : counts.statements.get();
+    }
+
+    public static long rows() {
+        Counts counts = COUNTS.get();
+        return counts == null ? 0 : counts.rows.get();
+    }
+
+    /**
+     * Wraps a task so the statements it runs on another thread add to the count of the calling thread.
+     */
+    public static <V> Callable<V> counted(Callable<V> task) {
+        Counts counts = COUNTS.get();
+        return () -> {
+            COUNTS.set(counts);
+            try {
+                return task.call();
+            } finally {
+                COUNTS.remove();
+            }
+        };
+    }
+
+    private static final class Counts {
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+    }
+
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource) : bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                new CountingHandler(target));
+    }
+
+    private static final Class<?>[] JDBC_TYPES = {
+            Connection.class, CallableStatement.class, PreparedStatement.class, Statement.class, ResultSet.class
+    };
+
+    private record CountingHandler(Object target) implements InvocationHandler {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("unwrap") && args[0] instanceof Class<?> type && type.isInstance(target)) {
+                return target;
+            }
+            if (method.getName().equals("isWrapperFor") && args[0] instanceof Class<?> type && type.isInstance(target)) {
+                return true;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+
+            Counts counts = COUNTS.get();
+            if (counts != null && target instanceof Statement && method.getName().startsWith("execute")) {
+                counts.statements.incrementAndGet();
+            }
+            if (counts != null && target instanceof ResultSet && method.getName().equals("next")
+                    && Boolean.TRUE.equals(result)) {
+                counts.rows.incrementAndGet();
+            }
+            // Keep counting on whatever JDBC object the call hands back, proxied as its most specific interface
+            for (Class<?> type : JDBC_TYPES) {
+                if (method.getReturnType().isAssignableFrom(type) && type.isInstance(result)) {
+                    return wrap((Class<Object>) type, result);
+                }
+            }
+            return result;
+        }
+    }
+}